@@ -0,0 +1,122 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.cache;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 通用批量加载器，用于跨服务按id查询时合并请求
+ * 1.调用方在循环前通过loadMany预取整页id，按批量查询一次取回，循环内的load直接命中；
+ * 2.已查过的id记入请求级缓存，请求结束即失效，调用方不应修改返回对象；
+ * 3.只合并当前请求自己的id，不与其他请求合并，避免以他人的登录凭证查询
+ *
+ * @author xuyuxiang
+ * @date 2024/8/30 9:00
+ **/
+public class CommonBatchLoader<V> {
+
+    /** 默认单批最大id数，id以查询参数传递，需控制URL长度 */
+    private static final int DEFAULT_MAX_BATCH_SIZE = 100;
+
+    private final String memoKey;
+
+    private final int maxBatchSize;
+
+    private final Function<List<String>, Map<String, V>> batchFunction;
+
+    public CommonBatchLoader(String name, Function<List<String>, Map<String, V>> batchFunction) {
+        this(name, DEFAULT_MAX_BATCH_SIZE, batchFunction);
+    }
+
+    public CommonBatchLoader(String name, int maxBatchSize, Function<List<String>, Map<String, V>> batchFunction) {
+        this.memoKey = CommonBatchLoader.class.getName() + StrUtil.COLON + name;
+        this.maxBatchSize = maxBatchSize;
+        this.batchFunction = batchFunction;
+    }
+
+    /**
+     * 根据id加载，不存在则返回null
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    public V load(String id) {
+        if (StrUtil.isBlank(id)) {
+            return null;
+        }
+        return this.loadMany(Collections.singletonList(id)).get(id);
+    }
+
+    /**
+     * 根据id集合加载，按id顺序返回存在的结果，请求级缓存未命中的id分批查询
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    public Map<String, V> loadMany(Collection<String> idCollection) {
+        Map<String, V> resultMap = new LinkedHashMap<>();
+        if (CollUtil.isEmpty(idCollection)) {
+            return resultMap;
+        }
+        Map<String, Optional<V>> memoMap = this.requestMemoMap();
+        Set<String> idSet = new LinkedHashSet<>();
+        List<String> missIdList = new ArrayList<>();
+        for (String id : idCollection) {
+            if (StrUtil.isBlank(id) || !idSet.add(id)) {
+                continue;
+            }
+            if (memoMap == null || !memoMap.containsKey(id)) {
+                missIdList.add(id);
+            }
+        }
+        Map<String, V> loadedMap = new HashMap<>();
+        for (List<String> partIdList : CollUtil.split(missIdList, maxBatchSize)) {
+            Map<String, V> valueMap = batchFunction.apply(partIdList);
+            for (String id : partIdList) {
+                V value = valueMap == null ? null : valueMap.get(id);
+                loadedMap.put(id, value);
+                if (memoMap != null) {
+                    memoMap.put(id, Optional.ofNullable(value));
+                }
+            }
+        }
+        for (String id : idSet) {
+            V value = loadedMap.containsKey(id) ? loadedMap.get(id) : memoMap.get(id).orElse(null);
+            if (value != null) {
+                resultMap.put(id, value);
+            }
+        }
+        return resultMap;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Optional<V>> requestMemoMap() {
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return null;
+        }
+        Object memoMap = requestAttributes.getAttribute(memoKey, RequestAttributes.SCOPE_REQUEST);
+        if (memoMap == null) {
+            memoMap = new ConcurrentHashMap<String, Optional<V>>();
+            requestAttributes.setAttribute(memoKey, memoMap, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<String, Optional<V>>) memoMap;
+    }
+}
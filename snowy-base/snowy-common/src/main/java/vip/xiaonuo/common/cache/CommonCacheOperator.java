@@ -17,6 +17,8 @@ import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.StrUtil;
 import jakarta.annotation.Resource;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -33,7 +35,16 @@ import java.util.stream.Collectors;
 public class CommonCacheOperator {
 
     /** 所有缓存Key的前缀 */
-    private static final String CACHE_KEY_PREFIX = "Cache:";
+    public static final String CACHE_KEY_PREFIX = "Cache:";
+
+    /** 值相同且未过期则返回剩余毫秒数，否则写入新值并返回0 */
+    private static final RedisScript<Long> PUT_IF_NOT_SAME_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "local ttl = redis.call('PTTL', KEYS[1]) " +
+            "if ttl > 0 then return ttl end " +
+            "end " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return 0", Long.class);
 
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
@@ -46,6 +57,17 @@ public class CommonCacheOperator {
         redisTemplate.boundValueOps(CACHE_KEY_PREFIX + key).set(value, timeoutSeconds, TimeUnit.SECONDS);
     }
 
+    /**
+     * 缓存中已有相同值时返回剩余毫秒数，否则写入并返回0，比较与写入为一次原子操作
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    public long putIfNotSame(String key, Object value, long timeoutMillis) {
+        Long ttl = redisTemplate.execute(PUT_IF_NOT_SAME_SCRIPT, Collections.singletonList(CACHE_KEY_PREFIX + key), value, timeoutMillis);
+        return ttl == null ? 0 : ttl;
+    }
+
     public Object get(String key) {
         return redisTemplate.boundValueOps(CACHE_KEY_PREFIX + key).get();
     }
@@ -39,4 +39,24 @@ public class CacheConstant {
      */
     public static final String AUTH_C_PERMISSION_LIST_CACHE_KEY = "auth-c-permission-list:";
 
+    /**
+     * B端用户权限版本，用户权限与角色重新填充时更新
+     */
+    public static final String AUTH_B_PERMISSION_VERSION_CACHE_KEY = "auth-b-permission-version:";
+
+    /**
+     * C端用户权限版本，用户权限与角色重新填充时更新
+     */
+    public static final String AUTH_C_PERMISSION_VERSION_CACHE_KEY = "auth-c-permission-version:";
+
+    /**
+     * 全局权限版本，角色及授权变更时更新
+     */
+    public static final String AUTH_PERMISSION_VERSION_CACHE_KEY = "auth-permission-version";
+
+    /**
+     * 组织版本，组织增删改提交后更新，各节点据此刷新内存中的组织层级索引
+     */
+    public static final String SYS_ORG_VERSION_CACHE_KEY = "sys-org-version";
+
 }
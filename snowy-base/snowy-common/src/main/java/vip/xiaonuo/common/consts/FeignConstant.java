@@ -26,4 +26,7 @@ public final class FeignConstant {
     /** BIZ_APP **/
     public static final String BIZ_APP = "snowy-biz-app";
 
+    /** 服务间调用的Accept，优先Smile二进制编码，提供方不支持时回退为JSON **/
+    public static final String ACCEPT = "application/x-jackson-smile, application/json;q=0.9";
+
 }
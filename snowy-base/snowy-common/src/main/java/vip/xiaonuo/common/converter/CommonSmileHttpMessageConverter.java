@@ -0,0 +1,83 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.converter;
+
+import cn.hutool.core.util.StrUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 服务间调用的Smile二进制消息转换器
+ * 仅当调用方在Accept中声明application/x-jackson-smile时使用，响应超过阈值且调用方接受gzip时压缩输出；
+ * 需追加在JSON转换器之后注册，避免Accept为通配时浏览器拿到二进制响应
+ *
+ * @author xuyuxiang
+ * @date 2024/8/30 9:00
+ **/
+public class CommonSmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    /** 超过该字节数才压缩，小响应压缩收益低于开销 */
+    private static final int GZIP_MIN_SIZE = 2048;
+
+    private static final String GZIP = "gzip";
+
+    public CommonSmileHttpMessageConverter() {
+        super(Jackson2ObjectMapperBuilder.smile().modulesToInstall(new CommonHutoolJsonModule()).build());
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        FastByteArrayOutputStream buffer = new FastByteArrayOutputStream();
+        super.writeInternal(object, type, new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return buffer;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return outputMessage.getHeaders();
+            }
+        });
+        if (buffer.size() >= GZIP_MIN_SIZE && acceptGzip()) {
+            outputMessage.getHeaders().set(HttpHeaders.CONTENT_ENCODING, GZIP);
+            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputMessage.getBody());
+            buffer.writeTo(gzipOutputStream);
+            gzipOutputStream.finish();
+        } else {
+            outputMessage.getHeaders().setContentLength(buffer.size());
+            buffer.writeTo(outputMessage.getBody());
+        }
+    }
+
+    private static boolean acceptGzip() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes servletRequestAttributes) {
+            HttpServletRequest request = servletRequestAttributes.getRequest();
+            return StrUtil.containsIgnoreCase(request.getHeader(HttpHeaders.ACCEPT_ENCODING), GZIP);
+        }
+        return false;
+    }
+}
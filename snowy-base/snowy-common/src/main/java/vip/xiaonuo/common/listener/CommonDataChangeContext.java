@@ -0,0 +1,79 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.listener;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Supplier;
+
+/**
+ * 通用数据变化事件上下文
+ * 发布事件时记录当前登录用户id，异步侦听器执行期间可通过getLoginId获取，登录用户id的获取方式由鉴权模块在启动时设置
+ *
+ * @author xuyuxiang
+ * @date 2024/8/22 10:15
+ **/
+@Slf4j
+public final class CommonDataChangeContext {
+
+    private static final ThreadLocal<String> LOGIN_ID_HOLDER = new ThreadLocal<>();
+
+    private static volatile Supplier<String> loginIdSupplier = () -> null;
+
+    private CommonDataChangeContext() {
+    }
+
+    /**
+     * 设置发布事件时获取当前登录用户id的方式
+     *
+     * @author xuyuxiang
+     * @date 2024/8/22 10:15
+     **/
+    public static void setLoginIdSupplier(Supplier<String> loginIdSupplier) {
+        CommonDataChangeContext.loginIdSupplier = loginIdSupplier == null ? () -> null : loginIdSupplier;
+    }
+
+    /**
+     * 获取发布事件时的登录用户id，仅在异步侦听器执行期间有值，未登录或非请求线程发布时为空
+     *
+     * @author xuyuxiang
+     * @date 2024/8/22 10:15
+     **/
+    public static String getLoginId() {
+        return LOGIN_ID_HOLDER.get();
+    }
+
+    /**
+     * 记录发布线程当前的登录用户id，获取失败时视为未登录
+     */
+    static String snapshotLoginId() {
+        try {
+            return loginIdSupplier.get();
+        } catch (Exception e) {
+            log.debug(">>> 数据变化事件获取登录用户失败：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 以发布时的登录用户id执行
+     */
+    static void runWith(String loginId, Runnable runnable) {
+        LOGIN_ID_HOLDER.set(loginId);
+        try {
+            runnable.run();
+        } finally {
+            LOGIN_ID_HOLDER.remove();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.listener;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 异步数据变化侦听器分发统计
+ *
+ * @author xuyuxiang
+ * @date 2024/8/22 10:15
+ **/
+@Getter
+@Setter
+public class CommonDataChangeDispatchStat {
+
+    /** 侦听器类名 */
+    private String listenerName;
+
+    /** 待执行事件数 */
+    private int pendingCount;
+
+    /** 已发布事件数 */
+    private long publishedCount;
+
+    /** 被合并的事件数 */
+    private long mergedCount;
+
+    /** 已执行事件数（合并后） */
+    private long executedCount;
+
+    /** 执行失败事件数 */
+    private long failedCount;
+
+    /** 发布线程因队列已满而等待的次数 */
+    private long blockedCount;
+
+    /** 发布线程累计等待时间（毫秒） */
+    private long blockedMillis;
+
+    /** 因事务回滚而丢弃的事件数 */
+    private long discardedCount;
+}
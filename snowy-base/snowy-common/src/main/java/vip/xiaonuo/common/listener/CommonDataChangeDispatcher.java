@@ -0,0 +1,350 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.listener;
+
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.json.JSONArray;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 通用数据变化事件异步分发器
+ * 发布时记录当前登录用户id，存在事务时暂存至事务提交后再分发，事务回滚则丢弃；
+ * 每个异步侦听器一个单线程执行器，保证同一侦听器按发布顺序执行；
+ * 队列尾部尚未执行的同类型批量事件会被合并，待执行事件达到上限时发布线程等待（背压）
+ *
+ * @author xuyuxiang
+ * @date 2024/8/22 10:15
+ **/
+@Slf4j
+final class CommonDataChangeDispatcher {
+
+    /** 单个侦听器最多待执行的事件数 */
+    private static final int MAX_PENDING_EVENT_COUNT = 1024;
+
+    /** 合并后单个事件最多包含的数据条数 */
+    private static final int MAX_MERGE_DATA_COUNT = 1000;
+
+    /** 队列已满时发布线程单次等待时间（毫秒），超时后记录告警并继续等待 */
+    private static final long FULL_WAIT_MILLIS = 5000;
+
+    private static final Map<CommonDataChangeListener, ListenerWorker> WORKER_MAP = new ConcurrentHashMap<>();
+
+    /** 事务内暂存事件的资源key */
+    private static final Object TRANSACTION_RESOURCE_KEY = new Object();
+
+    private CommonDataChangeDispatcher() {
+    }
+
+    /**
+     * 分发批量事件，可合并
+     */
+    static void dispatch(CommonDataChangeListener listener, ChangeType changeType, String dataType,
+                         List<String> dataIdList, JSONArray dataList) {
+        submit(listener, new PendingEvent(changeType, dataType, new ArrayList<>(dataIdList),
+                dataList == null ? null : new JSONArray(dataList), null, CommonDataChangeContext.snapshotLoginId()));
+    }
+
+    /**
+     * 分发单条事件，不合并
+     */
+    static void dispatch(CommonDataChangeListener listener, ChangeType changeType, String dataType,
+                         Consumer<CommonDataChangeListener> action) {
+        submit(listener, new PendingEvent(changeType, dataType, null, null, action, CommonDataChangeContext.snapshotLoginId()));
+    }
+
+    /**
+     * 移除侦听器的执行器，已提交的事件执行完后线程退出
+     */
+    static void remove(CommonDataChangeListener listener) {
+        ListenerWorker worker = WORKER_MAP.remove(listener);
+        if (worker != null) {
+            worker.executorService.shutdown();
+        }
+    }
+
+    /**
+     * 获取各异步侦听器的分发统计
+     */
+    static List<CommonDataChangeDispatchStat> getDispatchStatList() {
+        List<CommonDataChangeDispatchStat> dispatchStatList = new ArrayList<>();
+        WORKER_MAP.forEach((listener, worker) -> dispatchStatList.add(worker.stat()));
+        return dispatchStatList;
+    }
+
+    private static ListenerWorker worker(CommonDataChangeListener listener) {
+        return WORKER_MAP.computeIfAbsent(listener, ListenerWorker::new);
+    }
+
+    /**
+     * 存在事务时暂存到事务提交后分发，避免侦听器读到未提交的数据
+     */
+    private static void submit(CommonDataChangeListener listener, PendingEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            worker(listener).offer(event);
+            return;
+        }
+        TransactionEventBuffer eventBuffer = (TransactionEventBuffer) TransactionSynchronizationManager.getResource(TRANSACTION_RESOURCE_KEY);
+        if (eventBuffer == null) {
+            eventBuffer = new TransactionEventBuffer();
+            TransactionSynchronizationManager.bindResource(TRANSACTION_RESOURCE_KEY, eventBuffer);
+            TransactionSynchronizationManager.registerSynchronization(eventBuffer);
+        }
+        eventBuffer.add(listener, event);
+    }
+
+    /**
+     * 变化类型
+     */
+    enum ChangeType {
+        ADD, UPDATE, DELETE
+    }
+
+    /**
+     * 待执行事件
+     */
+    private static final class PendingEvent {
+
+        private final ChangeType changeType;
+
+        private final String dataType;
+
+        private final List<String> dataIdList;
+
+        private final JSONArray dataList;
+
+        private final Consumer<CommonDataChangeListener> action;
+
+        private final String loginId;
+
+        private PendingEvent(ChangeType changeType, String dataType, List<String> dataIdList, JSONArray dataList,
+                             Consumer<CommonDataChangeListener> action, String loginId) {
+            this.changeType = changeType;
+            this.dataType = dataType;
+            this.dataIdList = dataIdList;
+            this.dataList = dataList;
+            this.action = action;
+            this.loginId = loginId;
+        }
+
+        /**
+         * 尝试将后发布的事件合并到当前事件
+         */
+        private boolean merge(PendingEvent event) {
+            if (action != null || event.action != null || changeType != event.changeType || !dataType.equals(event.dataType)
+                    || !Objects.equals(loginId, event.loginId) || dataIdList.size() + event.dataIdList.size() > MAX_MERGE_DATA_COUNT) {
+                return false;
+            }
+            dataIdList.addAll(event.dataIdList);
+            if (dataList != null) {
+                dataList.addAll(event.dataList);
+            }
+            return true;
+        }
+
+        private void invoke(CommonDataChangeListener listener) {
+            CommonDataChangeContext.runWith(loginId, () -> this.doInvoke(listener));
+        }
+
+        private void doInvoke(CommonDataChangeListener listener) {
+            if (action != null) {
+                action.accept(listener);
+                return;
+            }
+            switch (changeType) {
+                case ADD -> {
+                    listener.doAddWithDataIdList(dataType, dataIdList);
+                    listener.doAddWithDataList(dataType, dataList);
+                }
+                case UPDATE -> {
+                    listener.doUpdateWithDataIdList(dataType, dataIdList);
+                    listener.doUpdateWithDataList(dataType, dataList);
+                }
+                case DELETE -> listener.doDeleteWithDataIdList(dataType, dataIdList);
+            }
+        }
+    }
+
+    /**
+     * 单个侦听器的执行器
+     */
+    private static final class ListenerWorker {
+
+        private final CommonDataChangeListener listener;
+
+        private final ExecutorService executorService;
+
+        private final ArrayDeque<PendingEvent> pendingEventQueue = new ArrayDeque<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition notFull = lock.newCondition();
+
+        private boolean draining;
+
+        private final AtomicLong publishedCount = new AtomicLong();
+
+        private final AtomicLong mergedCount = new AtomicLong();
+
+        private final AtomicLong executedCount = new AtomicLong();
+
+        private final AtomicLong failedCount = new AtomicLong();
+
+        private final AtomicLong blockedCount = new AtomicLong();
+
+        private final AtomicLong blockedMillis = new AtomicLong();
+
+        private final AtomicLong discardedCount = new AtomicLong();
+
+        private ListenerWorker(CommonDataChangeListener listener) {
+            this.listener = listener;
+            this.executorService = Executors.newSingleThreadExecutor(ThreadUtil.newNamedThreadFactory(
+                    "data-change-" + listener.getClass().getSimpleName() + "-", true));
+        }
+
+        private void offer(PendingEvent event) {
+            publishedCount.incrementAndGet();
+            lock.lock();
+            try {
+                PendingEvent lastEvent = pendingEventQueue.peekLast();
+                if (lastEvent != null && lastEvent.merge(event)) {
+                    mergedCount.incrementAndGet();
+                    return;
+                }
+                if (pendingEventQueue.size() >= MAX_PENDING_EVENT_COUNT) {
+                    long beginMillis = System.currentTimeMillis();
+                    blockedCount.incrementAndGet();
+                    while (pendingEventQueue.size() >= MAX_PENDING_EVENT_COUNT) {
+                        if (!notFull.await(FULL_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                            log.warn(">>> 数据变化侦听器{}待执行事件已满，发布线程等待中", listener.getClass().getName());
+                        }
+                    }
+                    blockedMillis.addAndGet(System.currentTimeMillis() - beginMillis);
+                }
+                pendingEventQueue.offerLast(event);
+                if (!draining) {
+                    draining = true;
+                    executorService.execute(this::drain);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error(">>> 数据变化事件分发被中断，侦听器：{}", listener.getClass().getName());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                PendingEvent event;
+                lock.lock();
+                try {
+                    event = pendingEventQueue.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                    notFull.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    event.invoke(listener);
+                    executedCount.incrementAndGet();
+                } catch (Exception e) {
+                    failedCount.incrementAndGet();
+                    log.error(">>> 数据变化侦听器{}执行异常，类型：{}，数据类型：{}", listener.getClass().getName(),
+                            event.changeType, event.dataType, e);
+                }
+            }
+        }
+
+        private CommonDataChangeDispatchStat stat() {
+            CommonDataChangeDispatchStat dispatchStat = new CommonDataChangeDispatchStat();
+            dispatchStat.setListenerName(listener.getClass().getName());
+            lock.lock();
+            try {
+                dispatchStat.setPendingCount(pendingEventQueue.size());
+            } finally {
+                lock.unlock();
+            }
+            dispatchStat.setPublishedCount(publishedCount.get());
+            dispatchStat.setMergedCount(mergedCount.get());
+            dispatchStat.setExecutedCount(executedCount.get());
+            dispatchStat.setFailedCount(failedCount.get());
+            dispatchStat.setBlockedCount(blockedCount.get());
+            dispatchStat.setBlockedMillis(blockedMillis.get());
+            dispatchStat.setDiscardedCount(discardedCount.get());
+            return dispatchStat;
+        }
+    }
+
+    /**
+     * 事务内暂存的事件，提交后按发布顺序分发，回滚时丢弃
+     */
+    private static final class TransactionEventBuffer implements TransactionSynchronization {
+
+        private final List<CommonDataChangeListener> listenerList = new ArrayList<>();
+
+        private final List<PendingEvent> eventList = new ArrayList<>();
+
+        private void add(CommonDataChangeListener listener, PendingEvent event) {
+            listenerList.add(listener);
+            eventList.add(event);
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(TRANSACTION_RESOURCE_KEY);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TRANSACTION_RESOURCE_KEY, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            for (int i = 0; i < eventList.size(); i++) {
+                // 事务期间已移除的侦听器不再分发
+                if (CommonDataChangeEventCenter.hasListener(listenerList.get(i))) {
+                    worker(listenerList.get(i)).offer(eventList.get(i));
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_RESOURCE_KEY);
+            if (status != STATUS_COMMITTED) {
+                listenerList.stream().filter(CommonDataChangeEventCenter::hasListener)
+                        .forEach(listener -> worker(listener).discardedCount.incrementAndGet());
+            }
+        }
+    }
+}
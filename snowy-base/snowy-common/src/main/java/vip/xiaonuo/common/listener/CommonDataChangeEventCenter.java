@@ -18,12 +18,15 @@ import cn.hutool.json.JSONUtil;
 import lombok.Getter;
 import vip.xiaonuo.common.exception.CommonException;
 
-import java.util.ArrayList;
+import vip.xiaonuo.common.listener.CommonDataChangeDispatcher.ChangeType;
+
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 /**
  * 通用数据变化事件中心 事件发布器
+ * 侦听器集合为写时复制，发布时可安全注册或移除；同步侦听器在发布线程中执行，异步侦听器交由分发器在事务提交后执行
  *
  * @author xuyuxiang
  * @date 2023/3/3 10:14
@@ -36,7 +39,7 @@ public class CommonDataChangeEventCenter {
      * 获取已注册的所有侦听器
      */
     @Getter
-    private static List<CommonDataChangeListener> listenerList = new ArrayList<>();
+    private static List<CommonDataChangeListener> listenerList = new CopyOnWriteArrayList<>();
 
     /**
      * 重置侦听器集合
@@ -46,7 +49,8 @@ public class CommonDataChangeEventCenter {
         if(listenerList == null) {
             throw new CommonException("重置的侦听器集合不可以为空");
         }
-        CommonDataChangeEventCenter.listenerList = listenerList;
+        CommonDataChangeEventCenter.listenerList.forEach(CommonDataChangeDispatcher::remove);
+        CommonDataChangeEventCenter.listenerList = new CopyOnWriteArrayList<>(listenerList);
     }
 
     /**
@@ -82,6 +86,7 @@ public class CommonDataChangeEventCenter {
      */
     public static void removeListener(CommonDataChangeListener listener) {
         listenerList.remove(listener);
+        CommonDataChangeDispatcher.remove(listener);
     }
 
     /**
@@ -89,10 +94,9 @@ public class CommonDataChangeEventCenter {
      * @param cls / 
      */
     public static void removeListener(Class<? extends CommonDataChangeListener> cls) {
-        ArrayList<CommonDataChangeListener> listenerListCopy = new ArrayList<>(listenerList);
-        for (CommonDataChangeListener listener : listenerListCopy) {
+        for (CommonDataChangeListener listener : listenerList) {
             if(cls.isAssignableFrom(listener.getClass())) {
-                listenerList.remove(listener);
+                removeListener(listener);
             }
         }
     }
@@ -101,7 +105,9 @@ public class CommonDataChangeEventCenter {
      * 清空所有已注册的侦听器 
      */
     public static void clearListener() {
-        listenerList.clear();
+        for (CommonDataChangeListener listener : listenerList) {
+            removeListener(listener);
+        }
     }
 
     /**
@@ -127,6 +133,16 @@ public class CommonDataChangeEventCenter {
         return false;
     }
 
+    /**
+     * 获取异步侦听器的分发统计（待执行、合并、失败、发布线程等待等）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/22 10:15
+     **/
+    public static List<CommonDataChangeDispatchStat> getDispatchStatList() {
+        return CommonDataChangeDispatcher.getDispatchStatList();
+    }
+
     // --------- 事件发布-添加 --------- //
 
     /**
@@ -136,9 +152,14 @@ public class CommonDataChangeEventCenter {
      * @date 2023/3/3 10:22
      **/
     public static void doAddWithData(String dataType, JSONArray jsonArray) {
+        List<String> dataIdList = getDataIdList(jsonArray);
         for (CommonDataChangeListener listener : listenerList) {
-            listener.doAddWithDataIdList(dataType, jsonArray.stream().map(o -> JSONUtil.parseObj(o).getStr("id")).collect(Collectors.toList()));
-            listener.doAddWithDataList(dataType, jsonArray);
+            if(listener.isAsync()) {
+                CommonDataChangeDispatcher.dispatch(listener, ChangeType.ADD, dataType, dataIdList, jsonArray);
+            } else {
+                listener.doAddWithDataIdList(dataType, dataIdList);
+                listener.doAddWithDataList(dataType, jsonArray);
+            }
         }
     }
 
@@ -149,9 +170,17 @@ public class CommonDataChangeEventCenter {
      * @date 2023/3/3 10:22
      **/
     public static void doAddWithData(String dataType, JSONObject jsonObject) {
+        String dataId = jsonObject.getStr("id");
         for (CommonDataChangeListener listener : listenerList) {
-            listener.doAddWithDataId(dataType, JSONUtil.parseObj(jsonObject).getStr("id"));
-            listener.doAddWithData(dataType, jsonObject);
+            if(listener.isAsync()) {
+                CommonDataChangeDispatcher.dispatch(listener, ChangeType.ADD, dataType, asyncListener -> {
+                    asyncListener.doAddWithDataId(dataType, dataId);
+                    asyncListener.doAddWithData(dataType, jsonObject);
+                });
+            } else {
+                listener.doAddWithDataId(dataType, dataId);
+                listener.doAddWithData(dataType, jsonObject);
+            }
         }
     }
 
@@ -164,9 +193,14 @@ public class CommonDataChangeEventCenter {
      * @date 2023/3/3 10:22
      **/
     public static void doUpdateWithData(String dataType, JSONArray jsonArray) {
+        List<String> dataIdList = getDataIdList(jsonArray);
         for (CommonDataChangeListener listener : listenerList) {
-            listener.doUpdateWithDataIdList(dataType, jsonArray.stream().map(o -> JSONUtil.parseObj(o).getStr("id")).collect(Collectors.toList()));
-            listener.doUpdateWithDataList(dataType, jsonArray);
+            if(listener.isAsync()) {
+                CommonDataChangeDispatcher.dispatch(listener, ChangeType.UPDATE, dataType, dataIdList, jsonArray);
+            } else {
+                listener.doUpdateWithDataIdList(dataType, dataIdList);
+                listener.doUpdateWithDataList(dataType, jsonArray);
+            }
         }
     }
 
@@ -177,9 +211,17 @@ public class CommonDataChangeEventCenter {
      * @date 2023/3/3 10:22
      **/
     public static void doUpdateWithData(String dataType, JSONObject jsonObject) {
+        String dataId = jsonObject.getStr("id");
         for (CommonDataChangeListener listener : listenerList) {
-            listener.doUpdateWithDataId(dataType, JSONUtil.parseObj(jsonObject).getStr("id"));
-            listener.doUpdateWithData(dataType, jsonObject);
+            if(listener.isAsync()) {
+                CommonDataChangeDispatcher.dispatch(listener, ChangeType.UPDATE, dataType, asyncListener -> {
+                    asyncListener.doUpdateWithDataId(dataType, dataId);
+                    asyncListener.doUpdateWithData(dataType, jsonObject);
+                });
+            } else {
+                listener.doUpdateWithDataId(dataType, dataId);
+                listener.doUpdateWithData(dataType, jsonObject);
+            }
         }
     }
 
@@ -193,7 +235,11 @@ public class CommonDataChangeEventCenter {
      **/
     public static void doDeleteWithDataIdList(String dataType, List<String> dataIdList) {
         for (CommonDataChangeListener listener : listenerList) {
-            listener.doDeleteWithDataIdList(dataType, dataIdList);
+            if(listener.isAsync()) {
+                CommonDataChangeDispatcher.dispatch(listener, ChangeType.DELETE, dataType, dataIdList, null);
+            } else {
+                listener.doDeleteWithDataIdList(dataType, dataIdList);
+            }
         }
     }
 
@@ -205,7 +251,20 @@ public class CommonDataChangeEventCenter {
      **/
     public static void doDeleteWithDataId(String dataType, String dataId) {
         for (CommonDataChangeListener listener : listenerList) {
-            listener.doDeleteWithDataId(dataType, dataId);
+            if(listener.isAsync()) {
+                CommonDataChangeDispatcher.dispatch(listener, ChangeType.DELETE, dataType,
+                        asyncListener -> asyncListener.doDeleteWithDataId(dataType, dataId));
+            } else {
+                listener.doDeleteWithDataId(dataType, dataId);
+            }
         }
     }
+
+    /**
+     * 获取数据集合的ID集合，每次发布只解析一次
+     */
+    private static List<String> getDataIdList(JSONArray jsonArray) {
+        return jsonArray.stream().map(o -> o instanceof JSONObject jsonObject ? jsonObject.getStr("id") :
+                JSONUtil.parseObj(o).getStr("id")).collect(Collectors.toList());
+    }
 }
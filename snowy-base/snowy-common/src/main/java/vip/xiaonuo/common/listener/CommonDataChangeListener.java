@@ -124,4 +124,16 @@ public interface CommonDataChangeListener {
      * @date 2023/3/3 10:24
      **/
     void doDeleteWithDataIdList(String dataType, List<String> dataIdList);
+
+    /**
+     * 是否异步执行，默认同步在发布线程中执行
+     * 异步执行时侦听器在事务提交后于独立线程中按发布顺序执行（事务回滚则不执行），连续的同类型批量事件会被合并；
+     * 此时无法获取当前请求及登录会话，发布时的登录用户id可通过CommonDataChangeContext.getLoginId获取
+     *
+     * @author xuyuxiang
+     * @date 2024/8/22 10:15
+     **/
+    default boolean isAsync() {
+        return false;
+    }
 }
@@ -14,8 +14,11 @@ package vip.xiaonuo.common.pojo;
 
 import cn.hutool.json.JSONObject;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
- * 通用包装接口
+ * 通用包装接口，实现类会被缓存为单例，需无状态
  *
  * @author xuyuxiang
  * @date 2022/9/15 21:17
@@ -29,4 +32,14 @@ public interface CommonWrapperInterface<T> {
      * @date 2022/9/15 21:17
      */
     JSONObject doWrap(T wrapperObject);
+
+    /**
+     * 批量执行包装，返回结果与入参按下标一一对应，需要批量查询关联数据的包装类可重写此方法
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     */
+    default List<JSONObject> doWrapBatch(List<T> wrapperObjectList) {
+        return wrapperObjectList.stream().map(this::doWrap).collect(Collectors.toList());
+    }
 }
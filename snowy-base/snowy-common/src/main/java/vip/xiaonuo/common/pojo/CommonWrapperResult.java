@@ -0,0 +1,54 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.pojo;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+import java.util.Map;
+
+/**
+ * 通用包装结果
+ * 序列化时原始对象按其自身的Jackson序列化器逐字段平铺输出，随后输出包装增加的字段，
+ * 无需先将原始对象复制为JSONObject
+ *
+ * @author xuyuxiang
+ * @date 2024/8/30 9:00
+ */
+public class CommonWrapperResult {
+
+    private final Object originModel;
+
+    private final Map<String, Object> incrementFieldsMap;
+
+    public CommonWrapperResult(Object originModel, Map<String, Object> incrementFieldsMap) {
+        this.originModel = originModel;
+        this.incrementFieldsMap = incrementFieldsMap;
+    }
+
+    /**
+     * 获取原始对象
+     */
+    @JsonUnwrapped
+    public Object getOriginModel() {
+        return originModel;
+    }
+
+    /**
+     * 获取包装增加的字段
+     */
+    @JsonAnyGetter
+    public Map<String, Object> getIncrementFieldsMap() {
+        return incrementFieldsMap;
+    }
+}
@@ -12,10 +12,11 @@
  */
 package vip.xiaonuo.common.util;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.util.SystemPropsUtil;
 import com.antherd.smcrypto.sm2.Sm2;
 import com.antherd.smcrypto.sm3.Sm3;
-import com.antherd.smcrypto.sm4.Sm4;
-import com.antherd.smcrypto.sm4.Sm4Options;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -38,6 +39,16 @@ public class CommonCryptogramUtil {
     /** SM4的对称秘钥（生产环境需要改成自己使用的） 16 进制字符串，要求为 128 比特 */
     private static final String KEY = "0123456789abcdeffedcba9876543210";
 
+    /** SM4加解密引擎，轮密钥只在此处计算一次 */
+    private static final CommonSm4Engine SM4_ENGINE = new CommonSm4Engine(KEY);
+
+    /** SM4解密结果缓存容量，通过启动参数 -Dsnowy.sm4.decrypt-cache-size 开启，默认为0不缓存 */
+    private static final int SM4_DECRYPT_CACHE_SIZE = SystemPropsUtil.getInt("snowy.sm4.decrypt-cache-size", 0);
+
+    /** SM4解密结果缓存（密文 -> 明文），用于热点数据的重复解密 */
+    private static final LRUCache<String, String> SM4_DECRYPT_CACHE = SM4_DECRYPT_CACHE_SIZE > 0 ?
+            CacheUtil.newLRUCache(SM4_DECRYPT_CACHE_SIZE) : null;
+
     /**
      * 加密方法（Sm2 的专门针对前后端分离，非对称秘钥对的方式，暴露出去的公钥，对传输过程中的密码加个密）
      *
@@ -73,11 +84,11 @@ public class CommonCryptogramUtil {
      * @return 加密后的密文
      */
     public static String doSm4CbcEncrypt(String str) {
-        // SM4 加密  cbc模式
-        Sm4Options sm4Options4 = new Sm4Options();
-        sm4Options4.setMode("cbc");
-        sm4Options4.setIv("fedcba98765432100123456789abcdef");
-        return Sm4.encrypt(str, KEY, sm4Options4);
+        // SM4 加密，空白字符不加密
+        if (str == null || str.isBlank()) {
+            return "";
+        }
+        return SM4_ENGINE.encryptHex(str);
     }
 
     /**
@@ -90,17 +101,22 @@ public class CommonCryptogramUtil {
      * @return 解密后的明文
      */
     public static String doSm4CbcDecrypt(String str) {
-        // 解密，cbc 模式，输出 utf8 字符串
-        Sm4Options sm4Options8 = new Sm4Options();
-        sm4Options8.setMode("cbc");
-        sm4Options8.setIv("fedcba98765432100123456789abcdef");
-        String docString =  Sm4.decrypt(str, KEY, sm4Options8);
-        if ("".equals(docString)) {
+        if (SM4_DECRYPT_CACHE != null && str != null) {
+            String cacheValue = SM4_DECRYPT_CACHE.get(str, false);
+            if (cacheValue != null) {
+                return cacheValue;
+            }
+        }
+        // 解密，输出 utf8 字符串
+        String docString = SM4_ENGINE.decryptHex(str);
+        if (docString == null || "".equals(docString)) {
             log.warn(">>> 字段解密失败，返回原文值：{}", str);
             return str;
-        } else {
-            return docString;
         }
+        if (SM4_DECRYPT_CACHE != null) {
+            SM4_DECRYPT_CACHE.put(str, docString);
+        }
+        return docString;
     }
 
     /**
@@ -12,17 +12,26 @@
  */
 package vip.xiaonuo.common.util;
 
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.StrUtil;
 import cn.hutool.core.util.URLUtil;
+import cn.hutool.http.Header;
+import cn.hutool.http.HttpRequest;
+import cn.hutool.http.HttpResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 
-import jakarta.servlet.http.HttpServletResponse;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
 
 /**
  * 文件下载工具类，使用本类前，对参数校验的异常使用CommonResponseUtil.renderError()方法进行渲染
+ * 文件与远程对象均以流的方式写出，不整体读入内存，并支持断点续传（Range）与协商缓存（ETag、Last-Modified）
  *
  * @author xuyuxiang
  * @date 2020/8/5 21:45
@@ -30,6 +39,21 @@ import java.io.IOException;
 @Slf4j
 public class CommonDownloadUtil {
 
+    /** 流式传输缓冲区大小 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** 使用容器sendfile的最小文件大小，与Tomcat默认值一致 */
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    /** 请求的范围无法满足 */
+    private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+    /** 代理远程对象时透传给远程的请求头 */
+    private static final String[] PROXY_REQUEST_HEADERS = {"Range", "If-Range", "If-None-Match", "If-Modified-Since"};
+
+    /** 代理远程对象时透传给客户端的响应头 */
+    private static final String[] PROXY_RESPONSE_HEADERS = {"Content-Length", "Content-Range", "Accept-Ranges", "ETag", "Last-Modified"};
+
     /**
      * 下载文件
      *
@@ -39,7 +63,103 @@ public class CommonDownloadUtil {
      * @date 2020/8/5 21:46
      */
     public static void download(File file, HttpServletResponse response) {
-        download(file.getName(), FileUtil.readBytes(file), response);
+        download(file.getName(), file, null, response);
+    }
+
+    /**
+     * 流式下载本地文件，request不为空时支持Range、If-Range、If-None-Match与If-Modified-Since
+     * Tomcat支持sendfile且请求响应未被包装时交给容器零拷贝发送，否则通过FileChannel.transferTo写出
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 9:40
+     */
+    public static void download(String fileName, File file, HttpServletRequest request, HttpServletResponse response) {
+        try {
+            long length = file.length();
+            long lastModified = file.lastModified() / 1000 * 1000;
+            String eTag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+            setDownloadHeader(fileName, response);
+            response.setHeader("Accept-Ranges", "bytes");
+            response.setHeader("ETag", eTag);
+            response.setDateHeader("Last-Modified", lastModified);
+            if (request != null && isNotModified(request, eTag, lastModified)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            long[] range = request == null ? null : parseRange(request, eTag, lastModified, length);
+            if (range == UNSATISFIABLE_RANGE) {
+                response.setHeader("Content-Range", "bytes */" + length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            long start = 0;
+            long end = length;
+            if (range != null) {
+                start = range[0];
+                end = range[1] + 1;
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader("Content-Range", "bytes " + start + "-" + range[1] + "/" + length);
+            }
+            response.setContentLengthLong(end - start);
+            if (isSendfileSupported(request, response, end - start)) {
+                request.setAttribute("org.apache.tomcat.sendfile.filename", file.getCanonicalPath());
+                request.setAttribute("org.apache.tomcat.sendfile.start", start);
+                request.setAttribute("org.apache.tomcat.sendfile.end", end);
+                return;
+            }
+            try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                WritableByteChannel outChannel = Channels.newChannel(response.getOutputStream());
+                long position = start;
+                while (position < end) {
+                    position += fileChannel.transferTo(position, end - position, outChannel);
+                }
+            }
+            response.flushBuffer();
+        } catch (IOException e) {
+            log.error(">>> 文件下载异常：", e);
+        }
+    }
+
+    /**
+     * 流式代理下载远程对象（如对象存储的文件地址），按块转发，Range与协商缓存请求头透传给远程
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 9:40
+     */
+    public static void downloadFromUrl(String fileName, String url, HttpServletRequest request, HttpServletResponse response) {
+        HttpRequest httpRequest = HttpRequest.get(url).setFollowRedirects(true).setConnectionTimeout(10000)
+                .setReadTimeout(60000).header(Header.ACCEPT_ENCODING, "identity");
+        if (request != null) {
+            for (String headerName : PROXY_REQUEST_HEADERS) {
+                String headerValue = request.getHeader(headerName);
+                if (StrUtil.isNotEmpty(headerValue)) {
+                    httpRequest.header(headerName, headerValue);
+                }
+            }
+        }
+        try (HttpResponse httpResponse = httpRequest.executeAsync()) {
+            int status = httpResponse.getStatus();
+            if (status != HttpServletResponse.SC_OK && status != HttpServletResponse.SC_PARTIAL_CONTENT
+                    && status != HttpServletResponse.SC_NOT_MODIFIED && status != HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE) {
+                log.error(">>> 文件下载异常，远程地址：{}，状态码：{}", url, status);
+                CommonResponseUtil.renderError(response, "文件下载失败，远程状态码：" + status);
+                return;
+            }
+            response.setStatus(status);
+            setDownloadHeader(fileName, response);
+            for (String headerName : PROXY_RESPONSE_HEADERS) {
+                String headerValue = httpResponse.header(headerName);
+                if (StrUtil.isNotEmpty(headerValue)) {
+                    response.setHeader(headerName, headerValue);
+                }
+            }
+            if (status == HttpServletResponse.SC_OK || status == HttpServletResponse.SC_PARTIAL_CONTENT) {
+                IoUtil.copy(httpResponse.bodyStream(), response.getOutputStream(), BUFFER_SIZE);
+                response.flushBuffer();
+            }
+        } catch (Exception e) {
+            log.error(">>> 文件下载异常：", e);
+        }
     }
 
     /**
@@ -50,14 +170,107 @@ public class CommonDownloadUtil {
      */
     public static void download(String fileName, byte[] fileBytes, HttpServletResponse response) {
         try {
-            response.setHeader("Content-Disposition", "attachment;filename=" + URLUtil.encode(fileName));
+            setDownloadHeader(fileName, response);
             response.addHeader("Content-Length", "" + fileBytes.length);
-            response.setHeader("Access-Control-Allow-Origin", "*");
-            response.setHeader("Access-Control-Expose-Headers", "Content-Disposition");
-            response.setContentType("application/octet-stream;charset=UTF-8");
             IoUtil.write(response.getOutputStream(), true, fileBytes);
         } catch (IOException e) {
             log.error(">>> 文件下载异常：", e);
         }
     }
+
+    private static void setDownloadHeader(String fileName, HttpServletResponse response) {
+        response.setHeader("Content-Disposition", "attachment;filename=" + URLUtil.encode(fileName));
+        response.setHeader("Access-Control-Allow-Origin", "*");
+        response.setHeader("Access-Control-Expose-Headers", "Content-Disposition,Content-Range,Accept-Ranges,ETag");
+        response.setContentType("application/octet-stream;charset=UTF-8");
+    }
+
+    /**
+     * 根据If-None-Match与If-Modified-Since判断客户端缓存是否仍有效
+     */
+    private static boolean isNotModified(HttpServletRequest request, String eTag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            if ("*".equals(ifNoneMatch.trim())) {
+                return true;
+            }
+            for (String tag : StrUtil.splitTrim(ifNoneMatch, ',')) {
+                // 弱比较
+                if (StrUtil.removePrefix(tag, "W/").equals(eTag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = getDateHeader(request, "If-Modified-Since");
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * 解析单个Range，不支持多段范围（按整个文件返回）；If-Range不匹配时也返回整个文件
+     *
+     * @return 闭区间[start, end]，为空表示返回整个文件
+     */
+    private static long[] parseRange(HttpServletRequest request, String eTag, long lastModified, long length) {
+        String rangeHeader = request.getHeader("Range");
+        if (StrUtil.isBlank(rangeHeader) || !rangeHeader.startsWith("bytes=") || rangeHeader.contains(",")) {
+            return null;
+        }
+        String ifRange = request.getHeader("If-Range");
+        if (StrUtil.isNotBlank(ifRange)) {
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                if (!ifRange.equals(eTag)) {
+                    return null;
+                }
+            } else if (getDateHeader(request, "If-Range") != lastModified) {
+                return null;
+            }
+        }
+        String rangeSpec = rangeHeader.substring("bytes=".length()).trim();
+        int dashIndex = rangeSpec.indexOf('-');
+        if (dashIndex < 0) {
+            return null;
+        }
+        try {
+            long start;
+            long end;
+            if (dashIndex == 0) {
+                // 后缀范围：最后N个字节
+                long suffixLength = Long.parseLong(rangeSpec.substring(1));
+                if (suffixLength <= 0 || length == 0) {
+                    return UNSATISFIABLE_RANGE;
+                }
+                start = Math.max(0, length - suffixLength);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(rangeSpec.substring(0, dashIndex));
+                String endSpec = rangeSpec.substring(dashIndex + 1);
+                end = endSpec.isEmpty() ? length - 1 : Math.min(Long.parseLong(endSpec), length - 1);
+                if (start >= length || start > end) {
+                    return UNSATISFIABLE_RANGE;
+                }
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static long getDateHeader(HttpServletRequest request, String headerName) {
+        try {
+            return request.getDateHeader(headerName);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Tomcat连接器支持sendfile且请求响应未被过滤器包装时才交给容器发送，与Tomcat DefaultServlet的判断一致
+     */
+    private static boolean isSendfileSupported(HttpServletRequest request, HttpServletResponse response, long contentLength) {
+        return request != null && contentLength >= SENDFILE_MIN_SIZE
+                && Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))
+                && "org.apache.catalina.connector.RequestFacade".equals(request.getClass().getName())
+                && "org.apache.catalina.connector.ResponseFacade".equals(response.getClass().getName());
+    }
 }
@@ -12,8 +12,11 @@
  */
 package vip.xiaonuo.common.util;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.net.Ipv4Util;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.extra.servlet.JakartaServletUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +26,14 @@ import vip.xiaonuo.common.exception.CommonException;
 
 import java.io.File;
 import java.io.InputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 /**
  * 根据ip地址定位工具类，离线方式
@@ -38,7 +49,30 @@ public class CommonIpAddressUtil {
 
     private static final String IP2REGION_DB_PATH = "/ip2region.xdb";
 
-    private static final Searcher searcher = initSearcher();
+    private static final String UNKNOWN_CITY = "未知";
+
+    /** xdb 头信息长度 */
+    private static final int HEADER_INFO_LENGTH = Searcher.HeaderInfoLength;
+
+    /** xdb 向量索引列数及单个索引长度 */
+    private static final int VECTOR_INDEX_COLS = Searcher.VectorIndexCols;
+
+    private static final int VECTOR_INDEX_SIZE = Searcher.VectorIndexSize;
+
+    /** xdb 单个段索引长度 */
+    private static final int SEGMENT_INDEX_SIZE = Searcher.SegmentIndexSize;
+
+    /** 查询结果缓存容量 */
+    private static final int CITY_INFO_CACHE_SIZE = 4096;
+
+    /**
+     * 以只读方式内存映射的 xdb 文件，同一主机上的多个进程共享操作系统页缓存，不再各自加载到堆内
+     * 只使用绝对位置读取，不修改 position，因此可被多线程并发访问
+     */
+    private static final ByteBuffer XDB_BUFFER = initXdbBuffer();
+
+    /** IP -> 城市信息 的查询结果缓存 */
+    private static final LRUCache<String, String> CITY_INFO_CACHE = CacheUtil.newLRUCache(CITY_INFO_CACHE_SIZE);
 
     /**
      * 私有构造函数防止实例化
@@ -47,22 +81,33 @@ public class CommonIpAddressUtil {
     }
 
     /**
-     * 初始化Searcher实例
+     * 初始化 xdb 内存映射
      *
-     * @return Searcher
+     * @return ByteBuffer
      */
-    private static Searcher initSearcher() {
+    private static ByteBuffer initXdbBuffer() {
         try {
             final File dbFile = FileUtil.file(FileUtil.getTmpDir() + FileUtil.FILE_SEPARATOR + IP2REGION_DB_PATH);
-            if (!FileUtil.exist(dbFile)) {
-                try (InputStream inputStream = CommonIpAddressUtil.class.getResourceAsStream(IP2REGION_DB_PATH)) {
-                    FileUtil.writeFromStream(inputStream, dbFile);
+            URL resource = CommonIpAddressUtil.class.getResource(IP2REGION_DB_PATH);
+            if (resource == null) {
+                throw new CommonException("未找到{}", IP2REGION_DB_PATH);
+            }
+            long resourceLength = resource.openConnection().getContentLengthLong();
+            // 文件不存在或不完整时重新复制，先写临时文件再原子替换，避免多个进程同时启动时读到写了一半的文件
+            if (!FileUtil.exist(dbFile) || (resourceLength > 0 && dbFile.length() != resourceLength)) {
+                File tmpFile = FileUtil.file(dbFile.getPath() + "." + IdUtil.fastSimpleUUID() + ".tmp");
+                try (InputStream inputStream = resource.openStream()) {
+                    FileUtil.writeFromStream(inputStream, tmpFile);
                 }
+                try {
+                    Files.move(tmpFile.toPath(), dbFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    FileUtil.del(tmpFile);
+                }
+            }
+            try (FileChannel fileChannel = FileChannel.open(dbFile.toPath(), StandardOpenOption.READ)) {
+                return fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()).order(ByteOrder.LITTLE_ENDIAN);
             }
-            // 1、从 dbPath 加载整个 xdb 到内存。
-            final byte[] cBuff = Searcher.loadContentFromFile(dbFile.getPath());
-            // 2、使用上述的 cBuff 创建一个完全基于内存的查询对象。
-            return Searcher.newWithBuffer(cBuff);
         } catch (Exception e) {
             log.error(">>> CommonIpAddressUtil初始化异常：", e);
             throw new CommonException("CommonIpAddressUtil初始化异常");
@@ -95,12 +140,54 @@ public class CommonIpAddressUtil {
      * @date 2022/4/27 23:14
      */
     public static String getCityInfo(String ip) {
-        try {
-            // 3、执行查询
-            String region = searcher.search(ip.trim());
-            return region.replace("0|", "").replace("|0", "");
-        } catch (Exception e) {
-            return "未知";
+        if (ip == null) {
+            return UNKNOWN_CITY;
+        }
+        String cityInfo = CITY_INFO_CACHE.get(ip, false);
+        if (cityInfo == null) {
+            try {
+                String region = search(Searcher.checkIP(ip.trim()));
+                cityInfo = region == null ? UNKNOWN_CITY : region.replace("0|", "").replace("|0", "");
+            } catch (Exception e) {
+                cityInfo = UNKNOWN_CITY;
+            }
+            CITY_INFO_CACHE.put(ip, cityInfo);
+        }
+        return cityInfo;
+    }
+
+    /**
+     * 在内存映射的 xdb 中查询，先通过向量索引定位段索引范围，再二分查找
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 9:40
+     */
+    private static String search(long ip) {
+        int vectorIndexPtr = HEADER_INFO_LENGTH + (int) ((ip >> 24) & 0xFF) * VECTOR_INDEX_COLS * VECTOR_INDEX_SIZE
+                + (int) ((ip >> 16) & 0xFF) * VECTOR_INDEX_SIZE;
+        int startPtr = XDB_BUFFER.getInt(vectorIndexPtr);
+        int endPtr = XDB_BUFFER.getInt(vectorIndexPtr + 4);
+        int low = 0;
+        int high = (endPtr - startPtr) / SEGMENT_INDEX_SIZE;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int segmentPtr = startPtr + middle * SEGMENT_INDEX_SIZE;
+            long startIp = Integer.toUnsignedLong(XDB_BUFFER.getInt(segmentPtr));
+            if (ip < startIp) {
+                high = middle - 1;
+                continue;
+            }
+            long endIp = Integer.toUnsignedLong(XDB_BUFFER.getInt(segmentPtr + 4));
+            if (ip > endIp) {
+                low = middle + 1;
+                continue;
+            }
+            int dataLength = Short.toUnsignedInt(XDB_BUFFER.getShort(segmentPtr + 8));
+            int dataPtr = XDB_BUFFER.getInt(segmentPtr + 10);
+            byte[] data = new byte[dataLength];
+            XDB_BUFFER.get(dataPtr, data);
+            return new String(data, StandardCharsets.UTF_8);
         }
+        return null;
     }
 }
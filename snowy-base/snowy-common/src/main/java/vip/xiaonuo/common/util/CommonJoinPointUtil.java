@@ -13,8 +13,10 @@
 package vip.xiaonuo.common.util;
 
 import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.HashUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONConfig;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -68,6 +70,17 @@ public class CommonJoinPointUtil {
         return JSONUtil.toJsonStr(map);
     }
 
+    /**
+     * 获取切面参数的64位哈希，参数JSON按键排序后计算，相同参数在各节点得到相同结果
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     */
+    public static long getArgsHash(JoinPoint joinPoint) {
+        String canonicalArgsJsonString = JSONUtil.parse(getArgsJsonString(joinPoint), JSONConfig.create().setNatureKeyComparator()).toString();
+        return HashUtil.metroHash64(StrUtil.utf8Bytes(canonicalArgsJsonString));
+    }
+
     /**
      * 判断是否需要拼接的参数，过滤掉HttpServletRequest,MultipartFile,HttpServletResponse等类型参数
      *
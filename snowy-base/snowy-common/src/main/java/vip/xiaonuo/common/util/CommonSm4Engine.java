@@ -0,0 +1,266 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * SM4 加解密引擎（PKCS#5 填充，16进制密文）
+ * 构造时预先计算加解密轮密钥，实例不可变，可在多线程间共享，单次加解密不再重复解析秘钥
+ * 注意：sm-crypto 0.3.2 的 Java 封装调用脚本时多传了一个参数，传入的 Sm4Options 并未生效，
+ * 实际按 ECB 模式加解密，此处保持同样的分组方式，以兼容库中已有的密文
+ *
+ * @author xuyuxiang
+ * @date 2024/8/20 10:12
+ */
+public final class CommonSm4Engine {
+
+    private static final int BLOCK_SIZE = 16;
+
+    private static final int ROUNDS = 32;
+
+    private static final char[] HEX_CHARS = "0123456789abcdef".toCharArray();
+
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    private static final int[] FK = {0xa3b1bac6, 0x56aa3350, 0x677d9197, 0xb27022dc};
+
+    private static final int[] CK = {
+            0x00070e15, 0x1c232a31, 0x383f464d, 0x545b6269, 0x70777e85, 0x8c939aa1, 0xa8afb6bd, 0xc4cbd2d9,
+            0xe0e7eef5, 0xfc030a11, 0x181f262d, 0x343b4249, 0x50575e65, 0x6c737a81, 0x888f969d, 0xa4abb2b9,
+            0xc0c7ced5, 0xdce3eaf1, 0xf8ff060d, 0x141b2229, 0x30373e45, 0x4c535a61, 0x686f767d, 0x848b9299,
+            0xa0a7aeb5, 0xbcc3cad1, 0xd8dfe6ed, 0xf4fb0209, 0x10171e25, 0x2c333a41, 0x484f565d, 0x646b7279};
+
+    private static final byte[] SBOX = {
+            (byte) 0xd6, (byte) 0x90, (byte) 0xe9, (byte) 0xfe, (byte) 0xcc, (byte) 0xe1, (byte) 0x3d, (byte) 0xb7,
+            (byte) 0x16, (byte) 0xb6, (byte) 0x14, (byte) 0xc2, (byte) 0x28, (byte) 0xfb, (byte) 0x2c, (byte) 0x05,
+            (byte) 0x2b, (byte) 0x67, (byte) 0x9a, (byte) 0x76, (byte) 0x2a, (byte) 0xbe, (byte) 0x04, (byte) 0xc3,
+            (byte) 0xaa, (byte) 0x44, (byte) 0x13, (byte) 0x26, (byte) 0x49, (byte) 0x86, (byte) 0x06, (byte) 0x99,
+            (byte) 0x9c, (byte) 0x42, (byte) 0x50, (byte) 0xf4, (byte) 0x91, (byte) 0xef, (byte) 0x98, (byte) 0x7a,
+            (byte) 0x33, (byte) 0x54, (byte) 0x0b, (byte) 0x43, (byte) 0xed, (byte) 0xcf, (byte) 0xac, (byte) 0x62,
+            (byte) 0xe4, (byte) 0xb3, (byte) 0x1c, (byte) 0xa9, (byte) 0xc9, (byte) 0x08, (byte) 0xe8, (byte) 0x95,
+            (byte) 0x80, (byte) 0xdf, (byte) 0x94, (byte) 0xfa, (byte) 0x75, (byte) 0x8f, (byte) 0x3f, (byte) 0xa6,
+            (byte) 0x47, (byte) 0x07, (byte) 0xa7, (byte) 0xfc, (byte) 0xf3, (byte) 0x73, (byte) 0x17, (byte) 0xba,
+            (byte) 0x83, (byte) 0x59, (byte) 0x3c, (byte) 0x19, (byte) 0xe6, (byte) 0x85, (byte) 0x4f, (byte) 0xa8,
+            (byte) 0x68, (byte) 0x6b, (byte) 0x81, (byte) 0xb2, (byte) 0x71, (byte) 0x64, (byte) 0xda, (byte) 0x8b,
+            (byte) 0xf8, (byte) 0xeb, (byte) 0x0f, (byte) 0x4b, (byte) 0x70, (byte) 0x56, (byte) 0x9d, (byte) 0x35,
+            (byte) 0x1e, (byte) 0x24, (byte) 0x0e, (byte) 0x5e, (byte) 0x63, (byte) 0x58, (byte) 0xd1, (byte) 0xa2,
+            (byte) 0x25, (byte) 0x22, (byte) 0x7c, (byte) 0x3b, (byte) 0x01, (byte) 0x21, (byte) 0x78, (byte) 0x87,
+            (byte) 0xd4, (byte) 0x00, (byte) 0x46, (byte) 0x57, (byte) 0x9f, (byte) 0xd3, (byte) 0x27, (byte) 0x52,
+            (byte) 0x4c, (byte) 0x36, (byte) 0x02, (byte) 0xe7, (byte) 0xa0, (byte) 0xc4, (byte) 0xc8, (byte) 0x9e,
+            (byte) 0xea, (byte) 0xbf, (byte) 0x8a, (byte) 0xd2, (byte) 0x40, (byte) 0xc7, (byte) 0x38, (byte) 0xb5,
+            (byte) 0xa3, (byte) 0xf7, (byte) 0xf2, (byte) 0xce, (byte) 0xf9, (byte) 0x61, (byte) 0x15, (byte) 0xa1,
+            (byte) 0xe0, (byte) 0xae, (byte) 0x5d, (byte) 0xa4, (byte) 0x9b, (byte) 0x34, (byte) 0x1a, (byte) 0x55,
+            (byte) 0xad, (byte) 0x93, (byte) 0x32, (byte) 0x30, (byte) 0xf5, (byte) 0x8c, (byte) 0xb1, (byte) 0xe3,
+            (byte) 0x1d, (byte) 0xf6, (byte) 0xe2, (byte) 0x2e, (byte) 0x82, (byte) 0x66, (byte) 0xca, (byte) 0x60,
+            (byte) 0xc0, (byte) 0x29, (byte) 0x23, (byte) 0xab, (byte) 0x0d, (byte) 0x53, (byte) 0x4e, (byte) 0x6f,
+            (byte) 0xd5, (byte) 0xdb, (byte) 0x37, (byte) 0x45, (byte) 0xde, (byte) 0xfd, (byte) 0x8e, (byte) 0x2f,
+            (byte) 0x03, (byte) 0xff, (byte) 0x6a, (byte) 0x72, (byte) 0x6d, (byte) 0x6c, (byte) 0x5b, (byte) 0x51,
+            (byte) 0x8d, (byte) 0x1b, (byte) 0xaf, (byte) 0x92, (byte) 0xbb, (byte) 0xdd, (byte) 0xbc, (byte) 0x7f,
+            (byte) 0x11, (byte) 0xd9, (byte) 0x5c, (byte) 0x41, (byte) 0x1f, (byte) 0x10, (byte) 0x5a, (byte) 0xd8,
+            (byte) 0x0a, (byte) 0xc1, (byte) 0x31, (byte) 0x88, (byte) 0xa5, (byte) 0xcd, (byte) 0x7b, (byte) 0xbd,
+            (byte) 0x2d, (byte) 0x74, (byte) 0xd0, (byte) 0x12, (byte) 0xb8, (byte) 0xe5, (byte) 0xb4, (byte) 0xb0,
+            (byte) 0x89, (byte) 0x69, (byte) 0x97, (byte) 0x4a, (byte) 0x0c, (byte) 0x96, (byte) 0x77, (byte) 0x7e,
+            (byte) 0x65, (byte) 0xb9, (byte) 0xf1, (byte) 0x09, (byte) 0xc5, (byte) 0x6e, (byte) 0xc6, (byte) 0x84,
+            (byte) 0x18, (byte) 0xf0, (byte) 0x7d, (byte) 0xec, (byte) 0x3a, (byte) 0xdc, (byte) 0x4d, (byte) 0x20,
+            (byte) 0x79, (byte) 0xee, (byte) 0x5f, (byte) 0x3e, (byte) 0xd7, (byte) 0xcb, (byte) 0x39, (byte) 0x48};
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < HEX_CHARS.length; i++) {
+            HEX_VALUES[HEX_CHARS[i]] = (byte) i;
+            HEX_VALUES[Character.toUpperCase(HEX_CHARS[i])] = (byte) i;
+        }
+    }
+
+    /** 加密轮密钥 */
+    private final int[] encryptRoundKeys;
+
+    /** 解密轮密钥（加密轮密钥的逆序） */
+    private final int[] decryptRoundKeys;
+
+    /**
+     * 根据16进制的秘钥构造引擎
+     *
+     * @author xuyuxiang
+     * @date 2024/8/20 10:12
+     */
+    public CommonSm4Engine(String hexKey) {
+        byte[] key = decodeHex(hexKey);
+        if (key == null || key.length != BLOCK_SIZE) {
+            throw new IllegalArgumentException("SM4秘钥必须为128比特的16进制字符串");
+        }
+        this.encryptRoundKeys = expandKey(key);
+        this.decryptRoundKeys = new int[ROUNDS];
+        for (int i = 0; i < ROUNDS; i++) {
+            this.decryptRoundKeys[i] = this.encryptRoundKeys[ROUNDS - 1 - i];
+        }
+    }
+
+    /**
+     * 加密字符串，返回16进制密文
+     *
+     * @author xuyuxiang
+     * @date 2024/8/20 10:12
+     */
+    public String encryptHex(String plainText) {
+        byte[] plain = plainText.getBytes(StandardCharsets.UTF_8);
+        int padding = BLOCK_SIZE - plain.length % BLOCK_SIZE;
+        byte[] data = new byte[plain.length + padding];
+        System.arraycopy(plain, 0, data, 0, plain.length);
+        for (int i = plain.length; i < data.length; i++) {
+            data[i] = (byte) padding;
+        }
+        this.encryptBlocks(data);
+        return encodeHex(data);
+    }
+
+    /**
+     * 解密16进制密文，密文格式不正确或填充校验失败时返回null
+     *
+     * @author xuyuxiang
+     * @date 2024/8/20 10:12
+     */
+    public String decryptHex(String cipherHex) {
+        if (cipherHex == null || cipherHex.length() == 0 || cipherHex.length() % (BLOCK_SIZE * 2) != 0) {
+            return null;
+        }
+        byte[] data = decodeHex(cipherHex);
+        if (data == null) {
+            return null;
+        }
+        this.decryptBlocks(data);
+        int padding = data[data.length - 1] & 0xff;
+        if (padding < 1 || padding > BLOCK_SIZE) {
+            return null;
+        }
+        for (int i = data.length - padding; i < data.length; i++) {
+            if ((data[i] & 0xff) != padding) {
+                return null;
+            }
+        }
+        return new String(data, 0, data.length - padding, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按分组原地加密，长度须为16字节的整数倍，不做填充
+     */
+    void encryptBlocks(byte[] data) {
+        for (int offset = 0; offset < data.length; offset += BLOCK_SIZE) {
+            processBlock(encryptRoundKeys, data, offset);
+        }
+    }
+
+    /**
+     * 按分组原地解密，长度须为16字节的整数倍，不做填充校验
+     */
+    void decryptBlocks(byte[] data) {
+        for (int offset = 0; offset < data.length; offset += BLOCK_SIZE) {
+            processBlock(decryptRoundKeys, data, offset);
+        }
+    }
+
+    /**
+     * 对 offset 开始的一个分组原地加密或解密
+     */
+    private static void processBlock(int[] roundKeys, byte[] data, int offset) {
+        int x0 = readInt(data, offset);
+        int x1 = readInt(data, offset + 4);
+        int x2 = readInt(data, offset + 8);
+        int x3 = readInt(data, offset + 12);
+        for (int i = 0; i < ROUNDS; i += 4) {
+            x0 ^= roundTransform(tau(x1 ^ x2 ^ x3 ^ roundKeys[i]));
+            x1 ^= roundTransform(tau(x2 ^ x3 ^ x0 ^ roundKeys[i + 1]));
+            x2 ^= roundTransform(tau(x3 ^ x0 ^ x1 ^ roundKeys[i + 2]));
+            x3 ^= roundTransform(tau(x0 ^ x1 ^ x2 ^ roundKeys[i + 3]));
+        }
+        writeInt(x3, data, offset);
+        writeInt(x2, data, offset + 4);
+        writeInt(x1, data, offset + 8);
+        writeInt(x0, data, offset + 12);
+    }
+
+    /**
+     * 秘钥扩展，计算32个加密轮密钥
+     */
+    private static int[] expandKey(byte[] key) {
+        int[] roundKeys = new int[ROUNDS];
+        int k0 = readInt(key, 0) ^ FK[0];
+        int k1 = readInt(key, 4) ^ FK[1];
+        int k2 = readInt(key, 8) ^ FK[2];
+        int k3 = readInt(key, 12) ^ FK[3];
+        for (int i = 0; i < ROUNDS; i += 4) {
+            roundKeys[i] = k0 ^= keyTransform(tau(k1 ^ k2 ^ k3 ^ CK[i]));
+            roundKeys[i + 1] = k1 ^= keyTransform(tau(k2 ^ k3 ^ k0 ^ CK[i + 1]));
+            roundKeys[i + 2] = k2 ^= keyTransform(tau(k3 ^ k0 ^ k1 ^ CK[i + 2]));
+            roundKeys[i + 3] = k3 ^= keyTransform(tau(k0 ^ k1 ^ k2 ^ CK[i + 3]));
+        }
+        return roundKeys;
+    }
+
+    private static int tau(int a) {
+        return (SBOX[a >>> 24] & 0xff) << 24 | (SBOX[(a >>> 16) & 0xff] & 0xff) << 16
+                | (SBOX[(a >>> 8) & 0xff] & 0xff) << 8 | (SBOX[a & 0xff] & 0xff);
+    }
+
+    private static int roundTransform(int b) {
+        return b ^ Integer.rotateLeft(b, 2) ^ Integer.rotateLeft(b, 10) ^ Integer.rotateLeft(b, 18) ^ Integer.rotateLeft(b, 24);
+    }
+
+    private static int keyTransform(int b) {
+        return b ^ Integer.rotateLeft(b, 13) ^ Integer.rotateLeft(b, 23);
+    }
+
+    private static int readInt(byte[] data, int offset) {
+        return (data[offset] & 0xff) << 24 | (data[offset + 1] & 0xff) << 16 | (data[offset + 2] & 0xff) << 8 | (data[offset + 3] & 0xff);
+    }
+
+    private static void writeInt(int value, byte[] data, int offset) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    /**
+     * 字节数组转小写16进制字符串
+     */
+    private static String encodeHex(byte[] data) {
+        char[] chars = new char[data.length * 2];
+        for (int i = 0; i < data.length; i++) {
+            chars[i * 2] = HEX_CHARS[(data[i] >>> 4) & 0x0f];
+            chars[i * 2 + 1] = HEX_CHARS[data[i] & 0x0f];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * 16进制字符串转字节数组，包含非法字符时返回null
+     */
+    private static byte[] decodeHex(String hex) {
+        if (hex == null || hex.length() % 2 != 0) {
+            return null;
+        }
+        byte[] data = new byte[hex.length() / 2];
+        for (int i = 0; i < data.length; i++) {
+            char high = hex.charAt(i * 2);
+            char low = hex.charAt(i * 2 + 1);
+            if (high >= 128 || low >= 128 || HEX_VALUES[high] < 0 || HEX_VALUES[low] < 0) {
+                return null;
+            }
+            data[i] = (byte) (HEX_VALUES[high] << 4 | HEX_VALUES[low]);
+        }
+        return data;
+    }
+}
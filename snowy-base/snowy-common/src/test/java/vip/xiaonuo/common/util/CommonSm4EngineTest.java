@@ -0,0 +1,98 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.common.util;
+
+import com.antherd.smcrypto.sm4.Sm4;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SM4 加解密引擎测试，分组结果以 GB/T 32907-2016 附录A的示例为准，字符串结果与 sm-crypto 对照
+ *
+ * @author xuyuxiang
+ * @date 2024/8/20 10:12
+ */
+public class CommonSm4EngineTest {
+
+    private static final String KEY = "0123456789abcdeffedcba9876543210";
+
+    private static final List<String> PLAIN_TEXT_LIST = List.of("a", "123456", "0123456789abcde", "0123456789abcdef",
+            "0123456789abcdef0", "18888888888", "snowy@xiaonuo.vip", "小诺", "江苏省南京市建邺区江东中路", "😀 emoji");
+
+    private final CommonSm4Engine sm4Engine = new CommonSm4Engine(KEY);
+
+    @Test
+    public void testStandardBlock() {
+        byte[] data = HexFormat.of().parseHex("0123456789abcdeffedcba9876543210");
+        sm4Engine.encryptBlocks(data);
+        assertEquals("681edf34d206965e86b3e94f536e4246", HexFormat.of().formatHex(data));
+        sm4Engine.decryptBlocks(data);
+        assertEquals("0123456789abcdeffedcba9876543210", HexFormat.of().formatHex(data));
+    }
+
+    @Test
+    public void testStandardMillionRounds() {
+        byte[] data = HexFormat.of().parseHex("0123456789abcdeffedcba9876543210");
+        for (int i = 0; i < 1000000; i++) {
+            sm4Engine.encryptBlocks(data);
+        }
+        assertEquals("595298c7c6fd271f0402f804c33d3f66", HexFormat.of().formatHex(data));
+    }
+
+    @Test
+    public void testPaddedRoundTrip() {
+        for (String plainText : PLAIN_TEXT_LIST) {
+            String cipherHex = sm4Engine.encryptHex(plainText);
+            assertEquals(0, cipherHex.length() % 32);
+            assertTrue(cipherHex.length() / 2 > plainText.getBytes(StandardCharsets.UTF_8).length);
+            assertEquals(plainText, sm4Engine.decryptHex(cipherHex));
+        }
+        // 明文恰好为整分组时追加一个完整的填充分组
+        assertEquals(64, sm4Engine.encryptHex("0123456789abcdef").length());
+    }
+
+    @Test
+    public void testCompatibleWithSmCrypto() {
+        for (String plainText : PLAIN_TEXT_LIST) {
+            String cipherHex = Sm4.encrypt(plainText, KEY);
+            assertEquals(cipherHex, sm4Engine.encryptHex(plainText));
+            assertEquals(plainText, sm4Engine.decryptHex(cipherHex));
+        }
+    }
+
+    @Test
+    public void testInvalidCipherText() {
+        assertNull(sm4Engine.decryptHex(null));
+        assertNull(sm4Engine.decryptHex(""));
+        assertNull(sm4Engine.decryptHex("681edf34d206965e"));
+        assertNull(sm4Engine.decryptHex("zz1edf34d206965e86b3e94f536e4246"));
+        // 解密后填充校验失败
+        assertNull(sm4Engine.decryptHex("681edf34d206965e86b3e94f536e4246"));
+        assertThrows(IllegalArgumentException.class, () -> new CommonSm4Engine("0123"));
+    }
+
+    @Test
+    public void testCryptogramUtil() {
+        for (String plainText : PLAIN_TEXT_LIST) {
+            assertEquals(plainText, CommonCryptogramUtil.doSm4CbcDecrypt(CommonCryptogramUtil.doSm4CbcEncrypt(plainText)));
+        }
+        assertEquals("", CommonCryptogramUtil.doSm4CbcEncrypt(" "));
+        // 解密失败时返回原文值
+        assertEquals("not-cipher", CommonCryptogramUtil.doSm4CbcDecrypt("not-cipher"));
+    }
+}
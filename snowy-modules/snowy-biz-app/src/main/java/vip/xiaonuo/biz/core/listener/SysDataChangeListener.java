@@ -13,12 +13,17 @@
 package vip.xiaonuo.biz.core.listener;
 
 import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.json.JSONArray;
 import cn.hutool.json.JSONObject;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
 import vip.xiaonuo.common.enums.SysDataTypeEnum;
 import vip.xiaonuo.common.listener.CommonDataChangeListener;
 
@@ -37,6 +42,9 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     public static final String USER_CACHE_ALL_KEY = "sys-user:all";
 
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
     @Override
     public void doAddWithDataId(String dataType, String dataId) {
         // 此处可做额外处理
@@ -48,10 +56,13 @@ public class SysDataChangeListener implements CommonDataChangeListener {
         if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
 
             SaBaseLoginUser saBaseLoginUser = StpLoginUserUtil.getLoginUser();
-            saBaseLoginUser.getDataScopeList().forEach(dataScope -> dataScope.getDataScope().addAll(dataIdList));
+            saBaseLoginUser.getDataScopeList().stream().filter(dataScope -> !Boolean.TRUE.equals(dataScope.getScopeAll()))
+                    .forEach(dataScope -> dataScope.getDataScope().addAll(dataIdList));
             saBaseLoginUser.setDataScopeList(saBaseLoginUser.getDataScopeList());
             // 重新缓存当前登录用户信息
             StpUtil.getTokenSession().set("loginUser", saBaseLoginUser);
+            // 通知系统模块刷新组织层级索引
+            this.updateOrgVersion();
         }
     }
 
@@ -72,7 +83,10 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doUpdateWithDataIdList(String dataType, List<String> dataIdList) {
-        // 此处可做额外处理
+        // 如果检测到机构更新，则通知系统模块刷新组织层级索引
+        if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            this.updateOrgVersion();
+        }
     }
 
     @Override
@@ -92,6 +106,28 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doDeleteWithDataIdList(String dataType, List<String> dataIdList) {
-        // 此处可做额外处理
+        // 如果检测到机构删除，则通知系统模块刷新组织层级索引
+        if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            this.updateOrgVersion();
+        }
+    }
+
+    /**
+     * 更新组织版本号，存在事务时在提交后更新，避免其他节点读到未提交的数据
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    private void updateOrgVersion() {
+        if(TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    commonCacheOperator.put(CacheConstant.SYS_ORG_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
+                }
+            });
+        } else {
+            commonCacheOperator.put(CacheConstant.SYS_ORG_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
+        }
     }
 }
@@ -19,10 +19,10 @@ import cn.dev33.satoken.filter.SaServletFilter;
 import cn.dev33.satoken.router.SaHttpMethod;
 import cn.dev33.satoken.router.SaRouter;
 import cn.dev33.satoken.stp.StpUtil;
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateTime;
-import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.*;
 import cn.hutool.extra.spring.SpringUtil;
 import cn.hutool.http.ContentType;
@@ -33,10 +33,11 @@ import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import feign.codec.Decoder;
+import feign.optionals.OptionalDecoder;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import org.apache.ibatis.reflection.MetaObject;
-import org.apache.ibatis.reflection.ReflectionException;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -45,9 +46,14 @@ import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
@@ -55,8 +61,11 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
@@ -64,14 +73,18 @@ import vip.xiaonuo.auth.core.util.StpClientUtil;
 import vip.xiaonuo.common.annotation.CommonNoRepeat;
 import vip.xiaonuo.common.annotation.CommonWrapper;
 import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.converter.CommonHutoolJsonModule;
+import vip.xiaonuo.common.converter.CommonSmileHttpMessageConverter;
 import vip.xiaonuo.common.enums.CommonDeleteFlagEnum;
 import vip.xiaonuo.common.enums.SysBuildInEnum;
 import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.interceptor.CommonTraceInterceptor;
+import vip.xiaonuo.common.listener.CommonDataChangeContext;
 import vip.xiaonuo.common.listener.CommonDataChangeEventCenter;
 import vip.xiaonuo.common.listener.CommonDataChangeListener;
 import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.common.pojo.CommonWrapperInterface;
+import vip.xiaonuo.common.pojo.CommonWrapperResult;
 import vip.xiaonuo.common.util.CommonIpAddressUtil;
 import vip.xiaonuo.common.util.CommonJoinPointUtil;
 import vip.xiaonuo.common.util.CommonServletUtil;
@@ -80,10 +93,8 @@ import vip.xiaonuo.web.core.handler.GlobalExceptionUtil;
 
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Snowy配置
@@ -154,6 +165,9 @@ public class GlobalConfigure implements WebMvcConfigurer {
             /* 文件下载 */
             "/dev/file/download",
 
+            /* 文件缩略图 */
+            "/dev/file/thumbnail",
+
             /* B端用户个人中心相关 */
             "/sys/userCenter/getPicCaptcha",
             "/sys/userCenter/findPasswordGetPhoneValidCode",
@@ -409,12 +423,12 @@ public class GlobalConfigure implements WebMvcConfigurer {
             MethodSignature methodSignature = (MethodSignature) joinPoint.getSignature();
             Method method = methodSignature.getMethod();
             CommonNoRepeat commonNoRepeat = method.getAnnotation(CommonNoRepeat.class);
+            if (commonNoRepeat.interval() <= 0) {
+                return;
+            }
             HttpServletRequest request = CommonServletUtil.getRequest();
             String url = request.getRequestURI();
             CommonCacheOperator commonCacheOperator = SpringUtil.getBean(CommonCacheOperator.class);
-            JSONObject jsonObject = JSONUtil.createObj();
-            jsonObject.set("repeatParam", CommonJoinPointUtil.getArgsJsonString(joinPoint));
-            jsonObject.set("repeatTime", DateUtil.current());
             // 获取该接口缓存的限流数据，跟当前ip以及登录用户有关
             String cacheKey = COMMON_REPEAT_SUBMIT_CACHE_KEY + CommonIpAddressUtil.getIp(request) + StrUtil.COLON;
             Object loginId = StpUtil.getLoginIdDefaultNull();
@@ -423,25 +437,13 @@ public class GlobalConfigure implements WebMvcConfigurer {
             } else {
                 cacheKey = cacheKey + url;
             }
-            Object cacheObj = commonCacheOperator.get(cacheKey);
-            if (ObjectUtil.isNotEmpty(cacheObj)) {
-                JSONObject cacheJsonObject = JSONUtil.parseObj(cacheObj);
-                if(cacheJsonObject.containsKey(url)) {
-                    JSONObject existRepeatJsonObject = cacheJsonObject.getJSONObject(url);
-                    // 如果与上次参数一致，且时间间隔小于要求的限流时长，则判定为重复提交
-                    if (jsonObject.getStr("repeatParam").equals(existRepeatJsonObject.getStr("repeatParam"))) {
-                        long interval = jsonObject.getLong("repeatTime") - existRepeatJsonObject.getLong("repeatTime");
-                        if(interval < commonNoRepeat.interval()) {
-                            long secondsParam = (commonNoRepeat.interval() - interval) / 1000;
-                            if(secondsParam > 0) {
-                                throw new CommonException("请求过于频繁，请" + CommonTimeFormatUtil.formatSeconds(secondsParam) + "后再试");
-                            }
-                        }
-                    }
-                }
+            // 只缓存参数哈希，缓存时效即限流时长，与上次参数一致且未过期则判定为重复提交；
+            // 比较与写入在Redis中原子执行，并发的重复提交只有一个能通过
+            long remainMillis = commonCacheOperator.putIfNotSame(cacheKey, CommonJoinPointUtil.getArgsHash(joinPoint), commonNoRepeat.interval());
+            if (remainMillis > 0) {
+                long secondsParam = (remainMillis + 999) / 1000;
+                throw new CommonException("请求过于频繁，请" + CommonTimeFormatUtil.formatSeconds(secondsParam) + "后再试");
             }
-            // 缓存最新的该接口的限流数据，跟当前ip以及登录用户有关，为防止缓存的数据过多，缓存时效为1小时
-            commonCacheOperator.put(cacheKey, JSONUtil.createObj().set(url, jsonObject), 60 * 60);
         }
     }
 
@@ -455,6 +457,9 @@ public class GlobalConfigure implements WebMvcConfigurer {
     @Aspect
     public static class CommonWrapperAop {
 
+        /** 包装类实例缓存 */
+        private final Map<Class<?>, CommonWrapperInterface<?>> commonWrapperInstanceMap = new ConcurrentHashMap<>();
+
         /**
          * 切入点
          *
@@ -486,7 +491,7 @@ public class GlobalConfigure implements WebMvcConfigurer {
          * @date 2022/9/15 21:27
          */
         @SuppressWarnings("ALL")
-        private Object processWrapping(ProceedingJoinPoint proceedingJoinPoint, Object originResult) throws IllegalAccessException, InstantiationException {
+        private Object processWrapping(ProceedingJoinPoint proceedingJoinPoint, Object originResult) {
             MethodSignature methodSignature = (MethodSignature) proceedingJoinPoint.getSignature();
             Method method = methodSignature.getMethod();
             CommonWrapper commonWrapper = method.getAnnotation(CommonWrapper.class);
@@ -504,51 +509,76 @@ public class GlobalConfigure implements WebMvcConfigurer {
             }
             if (beWrapped instanceof Page) {
                 Page page = (Page) beWrapped;
-                ArrayList<Map<String, Object>> maps = new ArrayList<>();
-                for (Object wrappedItem : page.getRecords()) {
-                    maps.add(this.wrapPureObject(wrappedItem, baseWrapperClasses));
-                }
-                page.setRecords(maps);
+                page.setRecords(this.wrapPureObjectList(page.getRecords(), baseWrapperClasses));
                 commonResult.setData(page);
             } else if (beWrapped instanceof Collection) {
                 Collection collection = (Collection) beWrapped;
-                List<Map<String, Object>> maps = new ArrayList<>();
-                for (Object wrappedItem : collection) {
-                    maps.add(this.wrapPureObject(wrappedItem, baseWrapperClasses));
-                }
-                commonResult.setData(maps);
+                commonResult.setData(this.wrapPureObjectList(new ArrayList<>(collection), baseWrapperClasses));
             } else if (ArrayUtil.isArray(beWrapped)) {
                 Object[] objects = this.objToArray(beWrapped);
-                ArrayList<Map<String, Object>> maps = new ArrayList<>();
-                for (Object wrappedItem : objects) {
-                    maps.add(this.wrapPureObject(wrappedItem, baseWrapperClasses));
-                }
-                commonResult.setData(maps);
+                commonResult.setData(this.wrapPureObjectList(Arrays.asList(objects), baseWrapperClasses));
             } else {
-                commonResult.setData(this.wrapPureObject(beWrapped, baseWrapperClasses));
+                commonResult.setData(this.wrapPureObjectList(Collections.singletonList(beWrapped), baseWrapperClasses).get(0));
             }
             return commonResult;
         }
 
         /**
-         * 原始对象包装JSONObject
+         * 原始对象列表批量包装，每个包装类只调用一次批量包装
          *
          * @author xuyuxiang
-         * @date 2022/9/15 21:36
+         * @date 2024/8/30 9:00
          */
         @SuppressWarnings("ALL")
-        private JSONObject wrapPureObject(Object originModel, Class<? extends CommonWrapperInterface<?>>[] baseWrapperClasses) {
-            JSONObject jsonObject = JSONUtil.parseObj(originModel);
+        private List<Object> wrapPureObjectList(List<Object> originModelList, Class<? extends CommonWrapperInterface<?>>[] baseWrapperClasses) {
+            List<Map<String, Object>> incrementFieldsMapList = new ArrayList<>(originModelList.size());
+            originModelList.forEach(originModel -> incrementFieldsMapList.add(new LinkedHashMap<>()));
             try {
                 for (Class<? extends CommonWrapperInterface<?>> commonWrapperClass : baseWrapperClasses) {
-                    CommonWrapperInterface commonWrapperInterface = commonWrapperClass.newInstance();
-                    Map<String, Object> incrementFieldsMap = commonWrapperInterface.doWrap(originModel);
-                    jsonObject.putAll(incrementFieldsMap);
+                    CommonWrapperInterface commonWrapperInterface = commonWrapperInstanceMap.computeIfAbsent(commonWrapperClass,
+                            clazz -> (CommonWrapperInterface<?>) this.getWrapperInstance(clazz));
+                    List<JSONObject> incrementFieldsList = commonWrapperInterface.doWrapBatch(originModelList);
+                    for (int i = 0; i < originModelList.size(); i++) {
+                        JSONObject incrementFields = incrementFieldsList.get(i);
+                        if (ObjectUtil.isNotEmpty(incrementFields)) {
+                            incrementFieldsMapList.get(i).putAll(incrementFields);
+                        }
+                    }
                 }
             } catch (Exception e) {
                 throw new CommonException("原始对象包装过程，字段转化异常：{}", e.getMessage());
             }
-            return jsonObject;
+            List<Object> resultList = new ArrayList<>(originModelList.size());
+            for (int i = 0; i < originModelList.size(); i++) {
+                resultList.add(this.wrapPureObject(originModelList.get(i), incrementFieldsMapList.get(i)));
+            }
+            return resultList;
+        }
+
+        /**
+         * 获取包装类实例，优先使用Spring容器中的Bean
+         *
+         * @author xuyuxiang
+         * @date 2024/8/30 9:00
+         */
+        private <T> T getWrapperInstance(Class<T> clazz) {
+            return SpringUtil.getApplicationContext().getBeanProvider(clazz).getIfAvailable(() -> ReflectUtil.newInstance(clazz));
+        }
+
+        /**
+         * 原始对象包装，Bean直接平铺输出，Map、非Bean或增加字段与原有属性同名时复制为JSONObject
+         *
+         * @author xuyuxiang
+         * @date 2022/9/15 21:36
+         */
+        private Object wrapPureObject(Object originModel, Map<String, Object> incrementFieldsMap) {
+            if (ObjectUtil.isNull(originModel) || originModel instanceof Map || !BeanUtil.isBean(originModel.getClass()) ||
+                    CollectionUtil.containsAny(BeanUtil.getBeanDesc(originModel.getClass()).getPropMap(false).keySet(), incrementFieldsMap.keySet())) {
+                JSONObject jsonObject = JSONUtil.parseObj(originModel);
+                jsonObject.putAll(incrementFieldsMap);
+                return jsonObject;
+            }
+            return new CommonWrapperResult(originModel, incrementFieldsMap);
         }
 
         /**
@@ -591,41 +621,108 @@ public class GlobalConfigure implements WebMvcConfigurer {
         /** 更新时间 */
         private static final String UPDATE_TIME = "updateTime";
 
+        /** 请求内缓存的填充人 */
+        private static final String FILL_USER_ID_ATTRIBUTE = CustomMetaObjectHandler.class.getName() + ".fillUserId";
+
+        /** 请求内缓存的填充时间 */
+        private static final String FILL_TIME_ATTRIBUTE = CustomMetaObjectHandler.class.getName() + ".fillTime";
+
+        /** 实体类可填充字段缓存，避免逐行探测字段时抛出异常 */
+        private final Map<Class<?>, Set<String>> fillFieldNameSetMap = new ConcurrentHashMap<>();
+
         @Override
         public void insertFill(MetaObject metaObject) {
-            try {
-                //为空则设置deleteFlag
-                Object deleteFlag = metaObject.getValue(DELETE_FLAG);
-                if (ObjectUtil.isNull(deleteFlag)) {
-                    setFieldValByName(DELETE_FLAG, EnumUtil.toString(CommonDeleteFlagEnum.NOT_DELETE), metaObject);
-                }
-            } catch (ReflectionException ignored) { }
-            try {
-                //为空则设置createUser
-                Object createUser = metaObject.getValue(CREATE_USER);
-                if (ObjectUtil.isNull(createUser)) {
-                    setFieldValByName(CREATE_USER, this.getUserId(), metaObject);
-                }
-            } catch (ReflectionException ignored) { }
-            try {
-                //为空则设置createTime
-                Object createTime = metaObject.getValue(CREATE_TIME);
-                if (ObjectUtil.isNull(createTime)) {
-                    setFieldValByName(CREATE_TIME, DateTime.now(), metaObject);
-                }
-            } catch (ReflectionException ignored) { }
+            Set<String> fillFieldNameSet = this.getFillFieldNameSet(metaObject);
+            //为空则设置deleteFlag
+            if (fillFieldNameSet.contains(DELETE_FLAG) && ObjectUtil.isNull(metaObject.getValue(DELETE_FLAG))) {
+                setFieldValByName(DELETE_FLAG, EnumUtil.toString(CommonDeleteFlagEnum.NOT_DELETE), metaObject);
+            }
+            //为空则设置createUser
+            if (fillFieldNameSet.contains(CREATE_USER) && ObjectUtil.isNull(metaObject.getValue(CREATE_USER))) {
+                setFieldValByName(CREATE_USER, this.getFillUserId(), metaObject);
+            }
+            //为空则设置createTime
+            if (fillFieldNameSet.contains(CREATE_TIME) && ObjectUtil.isNull(metaObject.getValue(CREATE_TIME))) {
+                setFieldValByName(CREATE_TIME, this.getFillTime(), metaObject);
+            }
         }
 
         @Override
         public void updateFill(MetaObject metaObject) {
-            try {
-                //设置updateUser
-                setFieldValByName(UPDATE_USER, this.getUserId(), metaObject);
-            } catch (ReflectionException ignored) { }
-            try {
-                //设置updateTime
-                setFieldValByName(UPDATE_TIME, DateTime.now(), metaObject);
-            } catch (ReflectionException ignored) { }
+            Set<String> fillFieldNameSet = this.getFillFieldNameSet(metaObject);
+            //设置updateUser
+            if (fillFieldNameSet.contains(UPDATE_USER)) {
+                setFieldValByName(UPDATE_USER, this.getFillUserId(), metaObject);
+            }
+            //设置updateTime
+            if (fillFieldNameSet.contains(UPDATE_TIME)) {
+                setFieldValByName(UPDATE_TIME, this.getFillTime(), metaObject);
+            }
+        }
+
+        /**
+         * 获取实体可填充的字段，实体类按类缓存，Map每次探测
+         *
+         * @author xuyuxiang
+         * @date 2024/8/30 9:00
+         */
+        private Set<String> getFillFieldNameSet(MetaObject metaObject) {
+            Object originalObject = metaObject.getOriginalObject();
+            if (originalObject instanceof Map) {
+                return this.probeFillFieldNameSet(metaObject);
+            }
+            return fillFieldNameSetMap.computeIfAbsent(originalObject.getClass(), clazz -> this.probeFillFieldNameSet(metaObject));
+        }
+
+        private Set<String> probeFillFieldNameSet(MetaObject metaObject) {
+            Set<String> fillFieldNameSet = new HashSet<>();
+            for (String fieldName : new String[]{DELETE_FLAG, CREATE_USER, CREATE_TIME, UPDATE_USER, UPDATE_TIME}) {
+                if (metaObject.hasGetter(fieldName) && metaObject.hasSetter(fieldName)) {
+                    fillFieldNameSet.add(fieldName);
+                }
+            }
+            return fillFieldNameSet;
+        }
+
+        /**
+         * 获取填充人，同一请求内只解析一次，未登录时不缓存，避免请求内登录后仍填充为-1
+         *
+         * @author xuyuxiang
+         * @date 2024/8/30 9:00
+         */
+        private String getFillUserId() {
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            if (ObjectUtil.isNull(requestAttributes)) {
+                return this.getUserId();
+            }
+            Object fillUserId = requestAttributes.getAttribute(FILL_USER_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (ObjectUtil.isNotNull(fillUserId)) {
+                return (String) fillUserId;
+            }
+            String userId = this.getUserId();
+            if (!"-1".equals(userId)) {
+                requestAttributes.setAttribute(FILL_USER_ID_ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+            }
+            return userId;
+        }
+
+        /**
+         * 获取填充时间，同一请求内取同一时刻，每行返回新的对象
+         *
+         * @author xuyuxiang
+         * @date 2024/8/30 9:00
+         */
+        private DateTime getFillTime() {
+            RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+            if (ObjectUtil.isNull(requestAttributes)) {
+                return DateTime.now();
+            }
+            Object fillTime = requestAttributes.getAttribute(FILL_TIME_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (ObjectUtil.isNull(fillTime)) {
+                fillTime = System.currentTimeMillis();
+                requestAttributes.setAttribute(FILL_TIME_ATTRIBUTE, fillTime, RequestAttributes.SCOPE_REQUEST);
+            }
+            return new DateTime((long) fillTime);
         }
 
         /**
@@ -633,25 +730,15 @@ public class GlobalConfigure implements WebMvcConfigurer {
          */
         private String getUserId() {
             try {
-                try {
-                    String loginId = StpUtil.getLoginIdAsString();
-                    if (ObjectUtil.isNotEmpty(loginId)) {
-                        return loginId;
-                    } else {
-                        return "-1";
-                    }
-                } catch (Exception e) {
-                    String clientLoginId = StpClientUtil.getLoginIdAsString();
-                    if (ObjectUtil.isNotEmpty(clientLoginId)) {
-                        return clientLoginId;
-                    } else {
-                        return "-1";
-                    }
+                // 未登录时返回null而不是抛出异常，B端未登录再取C端
+                Object loginId = StpUtil.getLoginIdDefaultNull();
+                if (ObjectUtil.isEmpty(loginId)) {
+                    loginId = StpClientUtil.getLoginIdDefaultNull();
                 }
+                return ObjectUtil.isNotEmpty(loginId) ? Convert.toStr(loginId) : "-1";
             } catch (Exception e) {
                 return "-1";
             }
-
         }
     }
 
@@ -666,7 +753,7 @@ public class GlobalConfigure implements WebMvcConfigurer {
     }
 
     /**
-     * 注册数据变化事件中心 事件发布器
+     * 注册数据变化事件中心 事件发布器，并设置发布时获取登录用户id的方式，供异步侦听器使用
      *
      * @author xuyuxiang
      * @date 2023/3/3 14:27
@@ -674,6 +761,7 @@ public class GlobalConfigure implements WebMvcConfigurer {
     @Resource
     public void registerListenerList(List<CommonDataChangeListener> dataChangeListenerList) {
         CommonDataChangeEventCenter.registerListenerList(dataChangeListenerList);
+        CommonDataChangeContext.setLoginIdSupplier(() -> StpUtil.isLogin() ? StpUtil.getLoginIdAsString() : null);
     }
 
     @Bean
@@ -684,6 +772,43 @@ public class GlobalConfigure implements WebMvcConfigurer {
     }
 
 
+    /**
+     * 注册Hutool JSON类型的Jackson模块，JSON与Smile编码共用
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    @Bean
+    public CommonHutoolJsonModule commonHutoolJsonModule() {
+        return new CommonHutoolJsonModule();
+    }
+
+    /**
+     * 追加服务间调用的Smile转换器，排在JSON转换器之后，仅在调用方声明接受Smile时使用
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new CommonSmileHttpMessageConverter());
+    }
+
+    /**
+     * Feign解码器，在默认转换器之后追加Smile转换器，按响应的Content-Type解码
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    @Bean
+    public Decoder feignDecoder(HttpMessageConverters httpMessageConverters,
+                                ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        List<HttpMessageConverter<?>> converterList = new ArrayList<>(httpMessageConverters.getConverters());
+        converterList.add(new CommonSmileHttpMessageConverter());
+        HttpMessageConverters feignMessageConverters = new HttpMessageConverters(false, converterList);
+        return new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(() -> feignMessageConverters, customizers)));
+    }
+
     /**
      * 添加应用拦截器
      * @param registry
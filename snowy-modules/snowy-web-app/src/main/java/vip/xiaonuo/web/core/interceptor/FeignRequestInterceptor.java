@@ -17,11 +17,13 @@ import feign.RequestInterceptor;
 import feign.RequestTemplate;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import jakarta.servlet.http.HttpServletRequest;
 import vip.xiaonuo.common.consts.AppConstant;
+import vip.xiaonuo.common.consts.FeignConstant;
 import vip.xiaonuo.common.util.CommonTraceIdUtil;
 
 import java.util.Enumeration;
@@ -48,8 +50,8 @@ public class FeignRequestInterceptor implements RequestInterceptor {
                     String name = headers.nextElement();
                     String value = request.getHeader(name);
 
-                    // 跳过 content-length
-                    if (name.equals("content-length")){
+                    // 跳过 content-length，accept 和 accept-encoding 由服务间调用自行协商
+                    if (StrUtil.equalsAnyIgnoreCase(name, "content-length", HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)){
                         continue;
                     }
 
@@ -59,6 +61,12 @@ public class FeignRequestInterceptor implements RequestInterceptor {
             });
         }
 
+        // 优先使用Smile二进制编码，并接受gzip压缩的响应
+        if (!requestTemplate.headers().containsKey(HttpHeaders.ACCEPT)) {
+            requestTemplate.header(HttpHeaders.ACCEPT, FeignConstant.ACCEPT);
+        }
+        requestTemplate.header(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
         // add traceId
         String traceId = CommonTraceIdUtil.getTraceId();
         if(StrUtil.isNotBlank(traceId)){
@@ -600,6 +600,7 @@ CREATE TABLE `DEV_FILE`  (
   `OBJ_NAME` text CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '文件的对象名（唯一名称）',
   `STORAGE_PATH` text CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '文件存储路径',
   `DOWNLOAD_PATH` text CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '文件下载路径',
+  `CONTENT_HASH` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '文件内容哈希',
   `IS_DOWNLOAD_AUTH` tinyint(1) NULL DEFAULT NULL COMMENT '文件下载是否需要授权',
   `THUMBNAIL` longtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '图片缩略图',
   `EXT_JSON` longtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '扩展信息',
@@ -608,7 +609,8 @@ CREATE TABLE `DEV_FILE`  (
   `CREATE_USER` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '创建用户',
   `UPDATE_TIME` datetime NULL DEFAULT NULL COMMENT '修改时间',
   `UPDATE_USER` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '修改用户',
-  PRIMARY KEY (`ID`) USING BTREE
+  PRIMARY KEY (`ID`) USING BTREE,
+  INDEX `IDX_DEV_FILE_CONTENT_HASH`(`CONTENT_HASH`) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '文件' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -627,6 +629,7 @@ CREATE TABLE `DEV_JOB`  (
   `ACTION_CLASS` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '任务类名',
   `CRON_EXPRESSION` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT 'cron表达式',
   `JOB_STATUS` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '任务状态',
+  `MISFIRE_POLICY` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '错过触发策略',
   `SORT_CODE` int(11) NULL DEFAULT NULL COMMENT '排序码',
   `EXT_JSON` longtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '扩展信息',
   `DELETE_FLAG` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '删除标志',
@@ -640,7 +643,30 @@ CREATE TABLE `DEV_JOB`  (
 -- ----------------------------
 -- Records of DEV_JOB
 -- ----------------------------
-INSERT INTO `DEV_JOB` VALUES ('1555471535453827073', '定时任务', 'qi06nah38m', 'FRM', 'vip.xiaonuo.dev.modular.job.task.DevJobTimerTaskRunner', '0 0 0 1 * ?', 'STOPPED', 1, NULL, 'NOT_DELETE', NULL, NULL, NULL, NULL);
+INSERT INTO `DEV_JOB` VALUES ('1555471535453827073', '定时任务', 'qi06nah38m', 'FRM', 'vip.xiaonuo.dev.modular.job.task.DevJobTimerTaskRunner', '0 0 0 1 * ?', 'STOPPED', 'IGNORE', 1, NULL, 'NOT_DELETE', NULL, NULL, NULL, NULL);
+INSERT INTO `DEV_JOB` VALUES ('1823981420637892609', '日志统计回填', 'l7s2kq0x4d', 'FRM', 'vip.xiaonuo.dev.core.timer.DevLogStatTimerTaskRunner', '0 30 0 * * ?', 'RUNNING', 'FIRE_ONCE', 2, NULL, 'NOT_DELETE', NULL, NULL, NULL, NULL);
+INSERT INTO `DEV_JOB` VALUES ('1825371068414697474', '日志归档', 'r3m8v1c5tz', 'FRM', 'vip.xiaonuo.dev.core.timer.DevLogArchiveTimerTaskRunner', '0 0 1 * * ?', 'RUNNING', 'FIRE_ONCE', 3, NULL, 'NOT_DELETE', NULL, NULL, NULL, NULL);
+
+-- ----------------------------
+-- Table structure for DEV_JOB_LOG
+-- ----------------------------
+DROP TABLE IF EXISTS `DEV_JOB_LOG`;
+CREATE TABLE `DEV_JOB_LOG`  (
+  `ID` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '主键',
+  `JOB_ID` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '定时任务id',
+  `JOB_NAME` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '定时任务名称',
+  `ACTION_CLASS` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '任务类名',
+  `TRIGGER_TYPE` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '触发类型',
+  `TRIGGER_TIME` datetime NULL DEFAULT NULL COMMENT '计划触发时间',
+  `START_TIME` datetime NULL DEFAULT NULL COMMENT '开始时间',
+  `END_TIME` datetime NULL DEFAULT NULL COMMENT '结束时间',
+  `DURATION` bigint(20) NULL DEFAULT NULL COMMENT '执行耗时（毫秒）',
+  `EXE_STATUS` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '执行状态',
+  `EXE_MESSAGE` longtext CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '具体消息',
+  `NODE_ID` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '执行节点',
+  PRIMARY KEY (`ID`) USING BTREE,
+  INDEX `IDX_DEV_JOB_LOG_JOB_ID`(`JOB_ID`, `TRIGGER_TIME`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '定时任务执行记录' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
 -- Table structure for DEV_LOG
@@ -669,13 +695,38 @@ CREATE TABLE `DEV_LOG`  (
   `CREATE_USER` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '创建用户',
   `UPDATE_TIME` datetime NULL DEFAULT NULL COMMENT '修改时间',
   `UPDATE_USER` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '修改用户',
-  PRIMARY KEY (`ID`) USING BTREE
+  PRIMARY KEY (`ID`) USING BTREE,
+  INDEX `IDX_DEV_LOG_OP_TIME`(`OP_TIME`, `CATEGORY`) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '日志' ROW_FORMAT = Dynamic;
 
+-- ----------------------------
+-- DEV_LOG按月分区（可选）：将OP_TIME改为NOT NULL、主键改为(ID, OP_TIME)，并按如下方式分区，
+-- 日志归档定时任务会自动从pmax中拆出后续月份的分区，并在归档后直接删除过期分区
+-- ALTER TABLE `DEV_LOG` MODIFY `OP_TIME` datetime NOT NULL COMMENT '操作时间', DROP PRIMARY KEY, ADD PRIMARY KEY (`ID`, `OP_TIME`);
+-- ALTER TABLE `DEV_LOG` PARTITION BY RANGE COLUMNS(`OP_TIME`) (PARTITION pmax VALUES LESS THAN (MAXVALUE));
+-- ----------------------------
+
 -- ----------------------------
 -- Records of DEV_LOG
 -- ----------------------------
 
+-- ----------------------------
+-- Table structure for DEV_LOG_STAT
+-- ----------------------------
+DROP TABLE IF EXISTS `DEV_LOG_STAT`;
+CREATE TABLE `DEV_LOG_STAT`  (
+  `ID` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '主键',
+  `STAT_DATE` varchar(10) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '统计日期',
+  `CATEGORY` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '日志分类',
+  `LOG_COUNT` bigint(20) NOT NULL DEFAULT 0 COMMENT '日志数量',
+  PRIMARY KEY (`ID`) USING BTREE,
+  UNIQUE INDEX `UK_DEV_LOG_STAT_DATE_CATEGORY`(`STAT_DATE`, `CATEGORY`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '日志统计' ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Records of DEV_LOG_STAT
+-- ----------------------------
+
 -- ----------------------------
 -- Table structure for DEV_MESSAGE
 -- ----------------------------
@@ -979,6 +1030,41 @@ INSERT INTO `SYS_ORG` VALUES ('1543842934270394376', '1543842934270394368', '154
 INSERT INTO `SYS_ORG` VALUES ('1543842934270394377', '1543842934270394368', '1543837863788879912', '计划营销部', 'w742mipwer', 'DEPT', 10, NULL, 'NOT_DELETE', NULL, NULL, NULL, NULL);
 INSERT INTO `SYS_ORG` VALUES ('1543842934270394378', '1543842934270394368', '1543837863788879917', '后勤保卫部', 'b71pvf46do', 'DEPT', 11, NULL, 'NOT_DELETE', NULL, NULL, NULL, NULL);
 
+-- ----------------------------
+-- Table structure for SYS_ORG_CLOSURE
+-- ----------------------------
+DROP TABLE IF EXISTS `SYS_ORG_CLOSURE`;
+CREATE TABLE `SYS_ORG_CLOSURE`  (
+  `ANCESTOR_ID` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '祖先组织id',
+  `DESCENDANT_ID` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '子孙组织id',
+  `DEPTH` int NOT NULL COMMENT '层级距离',
+  PRIMARY KEY (`ANCESTOR_ID`, `DESCENDANT_ID`) USING BTREE,
+  INDEX `IDX_DESCENDANT_ID`(`DESCENDANT_ID`) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '组织闭包' ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Records of SYS_ORG_CLOSURE
+-- ----------------------------
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394368', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394370', '1543842934270394370', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394370', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394371', '1543842934270394371', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394371', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394372', '1543842934270394372', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394372', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394373', '1543842934270394373', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394373', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394374', '1543842934270394374', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394374', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394375', '1543842934270394375', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394375', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394376', '1543842934270394376', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394376', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394377', '1543842934270394377', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394377', 1);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394378', '1543842934270394378', 0);
+INSERT INTO `SYS_ORG_CLOSURE` VALUES ('1543842934270394368', '1543842934270394378', 1);
+
 -- ----------------------------
 -- Table structure for SYS_ORG_EXT
 -- ----------------------------
@@ -0,0 +1,138 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.web.core.config;
+
+import cn.hutool.core.util.ZipUtil;
+import cn.hutool.json.JSONObject;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import feign.Request;
+import feign.Response;
+import feign.codec.Decoder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import vip.xiaonuo.common.converter.CommonSmileHttpMessageConverter;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * 服务间Smile+gzip响应经feignDecoder解码的往返测试
+ *
+ * @author xuyuxiang
+ * @date 2024/8/30 9:00
+ **/
+public class FeignSmileDecoderTest {
+
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private final Decoder feignDecoder = new GlobalConfigure().feignDecoder(
+            new HttpMessageConverters(false, List.of(new MappingJackson2HttpMessageConverter())),
+            new StaticListableBeanFactory().getBeanProvider(HttpMessageConverterCustomizer.class));
+
+    @Before
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @After
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testUserListRoundTrip() throws Exception {
+        List<JSONObject> userList = userList(200);
+        Type type = new ParameterizedTypeReference<List<JSONObject>>() {}.getType();
+        List<JSONObject> result = roundTrip(userList, type);
+        assertEquals(userList.size(), result.size());
+        for (int i = 0; i < userList.size(); i++) {
+            assertEquals(userList.get(i), result.get(i));
+        }
+    }
+
+    @Test
+    public void testUserPageRoundTrip() throws Exception {
+        Page<JSONObject> page = new Page<>(2, 200, 1000);
+        page.setRecords(userList(200));
+        Type type = new ParameterizedTypeReference<Page<JSONObject>>() {}.getType();
+        Page<JSONObject> result = roundTrip(page, type);
+        assertEquals(page.getCurrent(), result.getCurrent());
+        assertEquals(page.getSize(), result.getSize());
+        assertEquals(page.getTotal(), result.getTotal());
+        assertEquals(page.getRecords(), result.getRecords());
+        assertTrue(result.getRecords().get(0) instanceof JSONObject);
+    }
+
+    @Test
+    public void testSmallResponseNotCompressed() throws Exception {
+        List<JSONObject> userList = userList(1);
+        MockHttpOutputMessage outputMessage = write(userList, new ParameterizedTypeReference<List<JSONObject>>() {}.getType());
+        assertNull(outputMessage.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    /**
+     * 提供方以Smile写出（超过阈值时gzip），调用方按Feign默认客户端的方式解压后交给feignDecoder
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T roundTrip(Object value, Type type) throws Exception {
+        MockHttpOutputMessage outputMessage = write(value, type);
+        assertEquals("gzip", outputMessage.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        byte[] body = ZipUtil.unGzip(outputMessage.getBodyAsBytes());
+        Response response = Response.builder()
+                .status(200)
+                .reason("OK")
+                .headers(Map.of(HttpHeaders.CONTENT_TYPE, List.of(SMILE)))
+                .request(Request.create(Request.HttpMethod.GET, "http://snowy-web-app/feign/sys/user",
+                        Collections.emptyMap(), null, StandardCharsets.UTF_8, null))
+                .body(body)
+                .build();
+        return (T) feignDecoder.decode(response, type);
+    }
+
+    private static MockHttpOutputMessage write(Object value, Type type) throws Exception {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        new CommonSmileHttpMessageConverter().write(value, type, MediaType.parseMediaType(SMILE), outputMessage);
+        return outputMessage;
+    }
+
+    private static List<JSONObject> userList(int size) {
+        List<JSONObject> userList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            JSONObject user = new JSONObject();
+            user.set("id", String.valueOf(1800000000000000000L + i));
+            user.set("account", "user" + i);
+            user.set("name", "用户" + i);
+            user.set("orgId", "1543842934270394369");
+            user.set("sortCode", i);
+            userList.add(user);
+        }
+        return userList;
+    }
+}
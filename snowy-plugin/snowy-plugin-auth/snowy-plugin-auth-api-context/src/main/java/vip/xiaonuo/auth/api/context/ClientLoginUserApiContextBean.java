@@ -1,8 +1,6 @@
 package vip.xiaonuo.auth.api.context;
 
-import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -126,12 +124,7 @@ public class ClientLoginUserApiContextBean implements SaBaseLoginUserApi {
      */
     @Override
     public List<JSONObject> listUserByUserIdList(List<String> userIdList) {
-        String feignResp = this.clientLoginUserFeign.listUserByUserIdList(userIdList);
-        List<JSONObject> resp = null;
-        if(StrUtil.isNotBlank(feignResp)){
-            resp = (List<JSONObject>) JSONUtil.toBean(feignResp,List.class);
-        }
-        return resp;
+        return this.clientLoginUserFeign.listUserByUserIdList(userIdList);
     }
 
     /**
@@ -143,12 +136,7 @@ public class ClientLoginUserApiContextBean implements SaBaseLoginUserApi {
      */
     @Override
     public List<JSONObject> getRoleListByUserId(String userId) {
-        String feignResp = this.clientLoginUserFeign.getRoleListByUserId(userId);
-        List<JSONObject> resp = null;
-        if(StrUtil.isNotBlank(feignResp)){
-            resp = (List<JSONObject>) JSONUtil.toBean(feignResp,List.class);
-        }
-        return resp;
+        return this.clientLoginUserFeign.getRoleListByUserId(userId);
     }
 
     /**
@@ -185,12 +173,20 @@ public class ClientLoginUserApiContextBean implements SaBaseLoginUserApi {
      */
     @Override
     public List<JSONObject> getPermissionListByUserIdAndRoleIdList(List<String> userAndRoleIdList, String orgId) {
-        String feignResp = this.clientLoginUserFeign.getPermissionListByUserIdAndRoleIdList(userAndRoleIdList, orgId);
-        List<JSONObject> resp = null;
-        if(StrUtil.isNotBlank(feignResp)){
-            resp = (List<JSONObject>) JSONUtil.toBean(feignResp,List.class);
-        }
-        return resp;
+        return this.clientLoginUserFeign.getPermissionListByUserIdAndRoleIdList(userAndRoleIdList, orgId);
+    }
+
+    /**
+     * 根据用户id一次获取授权信息
+     *
+     * @param userId
+     * @param orgId
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     */
+    @Override
+    public JSONObject getAuthProfile(String userId, String orgId) {
+        return this.clientLoginUserFeign.getAuthProfile(userId, orgId);
     }
 
     /**
@@ -0,0 +1,41 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.auth.api;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 数据范围API，用于将登录用户的数据范围展开为组织id集合，由其他模块实现
+ *
+ * @author xuyuxiang
+ * @date 2024/8/24 10:30
+ */
+public interface SaBaseDataScopeApi {
+
+    /**
+     * 获取所有组织id集合（只读）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/24 10:30
+     **/
+    Set<String> getAllOrgIdSet();
+
+    /**
+     * 获取指定组织及其所有子组织的id集合（只读）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/24 10:30
+     **/
+    Set<String> getOrgIdSetWithChild(Collection<String> orgIdList);
+}
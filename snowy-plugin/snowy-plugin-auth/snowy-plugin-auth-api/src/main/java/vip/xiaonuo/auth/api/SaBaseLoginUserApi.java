@@ -130,6 +130,15 @@ public interface SaBaseLoginUserApi {
      */
     List<JSONObject> getPermissionListByUserIdAndRoleIdList(List<String> userAndRoleIdList, String orgId);
 
+    /**
+     * 根据用户id一次获取授权信息，包含角色集合roleList、按钮码集合buttonCodeList、
+     * 移动端按钮码集合mobileButtonCodeList、权限集合permissionList
+     *
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     */
+    JSONObject getAuthProfile(String userId, String orgId);
+
     /**
      * 更新用户的登录时间和登录ip等信息
      *
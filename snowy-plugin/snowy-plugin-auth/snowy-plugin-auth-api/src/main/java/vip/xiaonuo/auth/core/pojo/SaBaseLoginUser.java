@@ -13,12 +13,16 @@
 package vip.xiaonuo.auth.core.pojo;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 基础的B端登录用户对象，可继承此类扩展更多属性
@@ -238,9 +242,9 @@ public abstract class SaBaseLoginUser {
     @Schema(description = "角色码集合", hidden = true)
     private List<String> roleCodeList;
 
-    /** 数据范围集合 */
-    @Schema(description = "数据范围集合", hidden = true)
-    private List<DataScope> dataScopeList;
+    /** 数据范围，API接口 -> 数据范围，登录时由数据范围集合生成并随会话缓存，按接口获取时无需遍历 */
+    @Schema(description = "数据范围", hidden = true)
+    private Map<String, DataScope> dataScopeMap;
 
     /** 用户密码hash值 */
     @JsonIgnore
@@ -251,7 +255,46 @@ public abstract class SaBaseLoginUser {
     public abstract Boolean getEnabled();
 
     /**
-     * 数据范围类
+     * 获取数据范围集合，不单独缓存到会话中
+     *
+     * @author xuyuxiang
+     * @date 2024/8/24 10:30
+     **/
+    @JsonIgnore
+    public List<DataScope> getDataScopeList() {
+        return dataScopeMap == null ? new ArrayList<>() : new ArrayList<>(dataScopeMap.values());
+    }
+
+    /**
+     * 设置数据范围集合，同时生成按API接口索引的数据范围，同一接口以先出现的为准
+     * 保留反序列化入口，兼容会话中仅有数据范围集合的旧数据
+     *
+     * @author xuyuxiang
+     * @date 2024/8/24 10:30
+     **/
+    @JsonProperty
+    public void setDataScopeList(List<DataScope> dataScopeList) {
+        Map<String, DataScope> newDataScopeMap = new LinkedHashMap<>();
+        if (dataScopeList != null) {
+            for (DataScope dataScope : dataScopeList) {
+                newDataScopeMap.putIfAbsent(dataScope.getApiUrl(), dataScope);
+            }
+        }
+        this.dataScopeMap = newDataScopeMap;
+    }
+
+    /**
+     * 根据API接口获取数据范围，没有则返回null
+     *
+     * @author xuyuxiang
+     * @date 2024/8/24 10:30
+     **/
+    public DataScope getDataScopeByApiUrl(String apiUrl) {
+        return dataScopeMap == null ? null : dataScopeMap.get(apiUrl);
+    }
+
+    /**
+     * 数据范围类，以符号形式保存（全部、组织及以下、指定组织），使用时再展开为组织id集合
      *
      * @author xuyuxiang
      * @date 2022/8/15 13:57
@@ -264,8 +307,16 @@ public abstract class SaBaseLoginUser {
         @Schema(description = "API接口")
         private String apiUrl;
 
-        /** 数据范围 */
-        @Schema(description = "数据范围")
+        /** 是否全部数据 */
+        @Schema(description = "是否全部数据")
+        private Boolean scopeAll;
+
+        /** 组织及以下，值为子树的根组织id集合 */
+        @Schema(description = "组织及以下的根组织id集合")
+        private List<String> scopeOrgChildIdList;
+
+        /** 指定组织id集合 */
+        @Schema(description = "指定组织id集合")
         private List<String> dataScope;
     }
 }
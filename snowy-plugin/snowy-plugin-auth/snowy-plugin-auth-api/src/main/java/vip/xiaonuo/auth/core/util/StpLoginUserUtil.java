@@ -14,10 +14,16 @@ package vip.xiaonuo.auth.core.util;
 
 import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import vip.xiaonuo.auth.api.SaBaseDataScopeApi;
 import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
 import vip.xiaonuo.common.util.CommonServletUtil;
 
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * B端登录用户工具类
@@ -38,18 +44,49 @@ public class StpLoginUserUtil {
     }
 
     /**
-     * 获取当前B端登录用户的当前请求接口的数据范围
+     * 获取当前B端登录用户的当前请求接口的数据范围（符号形式），没有则返回null
+     *
+     * @author xuyuxiang
+     * @date 2024/8/24 10:30
+     **/
+    public static SaBaseLoginUser.DataScope getLoginUserDataScopeInfo() {
+        return getLoginUser().getDataScopeByApiUrl(CommonServletUtil.getRequest().getServletPath());
+    }
+
+    /**
+     * 获取当前B端登录用户的当前请求接口的数据范围（暂无数据范围则返回空集合）
      *
      * @author xuyuxiang
      * @date 2022/7/8 10:41
      **/
     public static List<String> getLoginUserDataScope() {
-        List<String> resultList = CollectionUtil.newArrayList();
-        getLoginUser().getDataScopeList().forEach(dataScope -> {
-            if(dataScope.getApiUrl().equals(CommonServletUtil.getRequest().getServletPath())) {
-                resultList.addAll(dataScope.getDataScope());
-            }
-        });
-        return resultList;
+        return CollectionUtil.newArrayList(getLoginUserDataScopeSet());
+    }
+
+    /**
+     * 获取当前B端登录用户的当前请求接口的数据范围（只读，暂无数据范围则返回空集合），用于判断是否包含某组织
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    public static Set<String> getLoginUserDataScopeSet() {
+        SaBaseLoginUser.DataScope dataScope = getLoginUserDataScopeInfo();
+        if(ObjectUtil.isEmpty(dataScope)) {
+            return Collections.emptySet();
+        }
+        SaBaseDataScopeApi saBaseDataScopeApi = SpringUtil.getBean(SaBaseDataScopeApi.class);
+        if(Boolean.TRUE.equals(dataScope.getScopeAll())) {
+            return saBaseDataScopeApi.getAllOrgIdSet();
+        }
+        if(ObjectUtil.isEmpty(dataScope.getScopeOrgChildIdList())) {
+            return ObjectUtil.isEmpty(dataScope.getDataScope()) ? Collections.emptySet() : new LinkedHashSet<>(dataScope.getDataScope());
+        }
+        Set<String> childSet = saBaseDataScopeApi.getOrgIdSetWithChild(dataScope.getScopeOrgChildIdList());
+        if(ObjectUtil.isEmpty(dataScope.getDataScope())) {
+            return childSet;
+        }
+        Set<String> resultSet = new LinkedHashSet<>(dataScope.getDataScope());
+        resultSet.addAll(childSet);
+        return resultSet;
     }
 }
@@ -1,8 +1,6 @@
 package vip.xiaonuo.auth.feign.provider;
 
-import cn.hutool.core.collection.CollUtil;
 import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.RestController;
@@ -192,16 +190,8 @@ public class SysLoginUserFeignProvider implements SysLoginUserFeign {
      * @date 2022/4/27 22:53
      */
     @Override
-    public String listUserByUserIdList(List<String> userIdList) {
-        String resp = null;
-
-        List<JSONObject> jsonObjectList = this.loginUserApi.listUserByUserIdList(userIdList);
-
-        if(CollUtil.isNotEmpty(jsonObjectList)){
-            resp = JSONUtil.toJsonStr(jsonObjectList);
-        }
-
-        return resp;
+    public List<JSONObject> listUserByUserIdList(List<String> userIdList) {
+        return this.loginUserApi.listUserByUserIdList(userIdList);
     }
 
     /**
@@ -212,16 +202,8 @@ public class SysLoginUserFeignProvider implements SysLoginUserFeign {
      * @date 2022/4/27 22:53
      */
     @Override
-    public String getRoleListByUserId(String userId) {
-        String resp = null;
-
-        List<JSONObject> jsonObjectList = this.loginUserApi.getRoleListByUserId(userId);
-
-        if(CollUtil.isNotEmpty(jsonObjectList)){
-            resp = JSONUtil.toJsonStr(jsonObjectList);
-        }
-
-        return resp;
+    public List<JSONObject> getRoleListByUserId(String userId) {
+        return this.loginUserApi.getRoleListByUserId(userId);
     }
 
     /**
@@ -257,16 +239,21 @@ public class SysLoginUserFeignProvider implements SysLoginUserFeign {
      * @date 2022/4/27 22:54
      */
     @Override
-    public String getPermissionListByUserIdAndRoleIdList(List<String> userAndRoleIdList, String orgId) {
-        String resp = null;
-
-        List<JSONObject> jsonObjectList = this.loginUserApi.getPermissionListByUserIdAndRoleIdList(userAndRoleIdList, orgId);
-
-        if(CollUtil.isNotEmpty(jsonObjectList)){
-            resp = JSONUtil.toJsonStr(jsonObjectList);
-        }
+    public List<JSONObject> getPermissionListByUserIdAndRoleIdList(List<String> userAndRoleIdList, String orgId) {
+        return this.loginUserApi.getPermissionListByUserIdAndRoleIdList(userAndRoleIdList, orgId);
+    }
 
-        return resp;
+    /**
+     * 根据用户id一次获取授权信息
+     *
+     * @param userId
+     * @param orgId
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     */
+    @Override
+    public JSONObject getAuthProfile(String userId, String orgId) {
+        return this.loginUserApi.getAuthProfile(userId, orgId);
     }
 
     /**
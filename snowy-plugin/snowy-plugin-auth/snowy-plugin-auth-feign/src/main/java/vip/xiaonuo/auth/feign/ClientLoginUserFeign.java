@@ -12,6 +12,7 @@
  */
 package vip.xiaonuo.auth.feign;
 
+import cn.hutool.json.JSONObject;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -109,7 +110,7 @@ public interface ClientLoginUserFeign {
      * @date 2022/4/27 22:53
      */
     @PostMapping("/feign/client/login/user/listUserByUserIdList")
-    String listUserByUserIdList(@RequestParam("userIdList") List<String> userIdList);
+    List<JSONObject> listUserByUserIdList(@RequestParam("userIdList") List<String> userIdList);
 
     /**
      * 根据用户id获取角色集合
@@ -118,7 +119,7 @@ public interface ClientLoginUserFeign {
      * @date 2022/4/27 22:53
      */
     @PostMapping("/feign/client/login/user/getRoleListByUserId")
-    String getRoleListByUserId(@RequestParam("userId") String userId);
+    List<JSONObject> getRoleListByUserId(@RequestParam("userId") String userId);
 
     /**
      * 根据角色id和用户id集合获取按钮码集合
@@ -145,9 +146,19 @@ public interface ClientLoginUserFeign {
      * @date 2022/4/27 22:54
      */
     @PostMapping("/feign/client/login/user/getPermissionListByUserIdAndRoleIdList")
-    String getPermissionListByUserIdAndRoleIdList(@RequestParam("userAndRoleIdList") List<String> userAndRoleIdList,
+    List<JSONObject> getPermissionListByUserIdAndRoleIdList(@RequestParam("userAndRoleIdList") List<String> userAndRoleIdList,
                                                   @RequestParam("orgId") String orgId);
 
+    /**
+     * 根据用户id一次获取授权信息
+     *
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     */
+    @PostMapping("/feign/client/login/user/getAuthProfile")
+    JSONObject getAuthProfile(@RequestParam("userId") String userId,
+                          @RequestParam(value = "orgId", required = false) String orgId);
+
     /**
      * 更新用户的登录时间和登录ip等信息
      *
@@ -18,6 +18,7 @@ import cn.hutool.captcha.CaptchaUtil;
 import cn.hutool.captcha.CircleCaptcha;
 import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.PhoneUtil;
 import cn.hutool.core.util.RandomUtil;
@@ -692,21 +693,17 @@ public class AuthServiceImpl implements AuthService {
      * @date 2024/7/22 22:00
      */
     private void fillSaBaseLoginUserAndUpdateCache(SaBaseLoginUser saBaseLoginUser) {
-        // 角色集合
-        List<JSONObject> roleList = loginUserApi.getRoleListByUserId(saBaseLoginUser.getId());
-        // 角色id集合
-        List<String> roleIdList = roleList.stream().map(jsonObject -> jsonObject.getStr("id")).collect(Collectors.toList());
+        // 一次获取角色、按钮码、移动端按钮码与数据范围
+        JSONObject authProfile = loginUserApi.getAuthProfile(saBaseLoginUser.getId(), saBaseLoginUser.getOrgId());
         // 角色码集合
-        List<String> roleCodeList = roleList.stream().map(jsonObject -> jsonObject.getStr("code")).collect(Collectors.toList());
-        // 角色id和用户id集合
-        List<String> userAndRoleIdList = CollectionUtil.unionAll(roleIdList, CollectionUtil.newArrayList(saBaseLoginUser.getId()));
+        List<String> roleCodeList = authProfile.getBeanList("roleList", JSONObject.class).stream()
+                .map(jsonObject -> jsonObject.getStr("code")).collect(Collectors.toList());
         // 获取按钮码
-        saBaseLoginUser.setButtonCodeList(loginUserApi.getButtonCodeListListByUserAndRoleIdList(userAndRoleIdList));
+        saBaseLoginUser.setButtonCodeList(authProfile.getBeanList("buttonCodeList", String.class));
         // 获取移动端按钮码
-        saBaseLoginUser.setMobileButtonCodeList(loginUserApi.getMobileButtonCodeListListByUserIdAndRoleIdList(userAndRoleIdList));
+        saBaseLoginUser.setMobileButtonCodeList(authProfile.getBeanList("mobileButtonCodeList", String.class));
         // 获取数据范围
-        saBaseLoginUser.setDataScopeList(Convert.toList(SaBaseLoginUser.DataScope.class,
-                loginUserApi.getPermissionListByUserIdAndRoleIdList(userAndRoleIdList, saBaseLoginUser.getOrgId())));
+        saBaseLoginUser.setDataScopeList(Convert.toList(SaBaseLoginUser.DataScope.class, authProfile.getJSONArray("permissionList")));
         // 获取权限码
         List<String> permissionCodeList = saBaseLoginUser.getDataScopeList().stream()
                 .map(SaBaseLoginUser.DataScope::getApiUrl).collect(Collectors.toList());
@@ -718,6 +715,23 @@ public class AuthServiceImpl implements AuthService {
         saBaseLoginUser.setRoleCodeList(roleCodeList);
         // 缓存用户信息，此处使用TokenSession为了指定时间内无操作则自动下线
         StpUtil.getTokenSession().set("loginUser", saBaseLoginUser);
+        // 会话写入后再更新权限版本，使网关的权限快照失效，避免网关以新版本缓存旧会话中的权限
+        this.updatePermissionVersion(CacheConstant.AUTH_B_PERMISSION_VERSION_CACHE_KEY + saBaseLoginUser.getId(),
+                StpUtil.getStpLogic().getConfigOrGlobal().getTimeout());
+    }
+
+    /**
+     * 更新用户权限版本，随登录超时时间过期，过期后网关视为版本变化重新读取登录用户
+     *
+     * @author xuyuxiang
+     * @date 2024/8/20 9:30
+     */
+    private void updatePermissionVersion(String versionKey, long timeout) {
+        if (timeout > 0) {
+            commonCacheOperator.put(versionKey, IdUtil.fastSimpleUUID(), timeout);
+        } else {
+            commonCacheOperator.put(versionKey, IdUtil.fastSimpleUUID());
+        }
     }
 
     /**
@@ -746,21 +760,17 @@ public class AuthServiceImpl implements AuthService {
      * @date 2024/7/22 22:00
      */
     private void fillSaBaseClientLoginUserAndUpdateCache(SaBaseClientLoginUser saBaseClientLoginUser) {
-        // 角色集合
-        List<JSONObject> roleList = clientLoginUserApi.getRoleListByUserId(saBaseClientLoginUser.getId());
-        // 角色id集合
-        List<String> roleIdList = roleList.stream().map(jsonObject -> jsonObject.getStr("id")).collect(Collectors.toList());
+        // 一次获取角色、按钮码、移动端按钮码与数据范围
+        JSONObject authProfile = clientLoginUserApi.getAuthProfile(saBaseClientLoginUser.getId(), null);
         // 角色码集合
-        List<String> roleCodeList = roleList.stream().map(jsonObject -> jsonObject.getStr("code")).collect(Collectors.toList());
-        // 角色id和用户id集合
-        List<String> userAndRoleIdList = CollectionUtil.unionAll(roleIdList, CollectionUtil.newArrayList(saBaseClientLoginUser.getId()));
+        List<String> roleCodeList = authProfile.getBeanList("roleList", JSONObject.class).stream()
+                .map(jsonObject -> jsonObject.getStr("code")).collect(Collectors.toList());
         // 获取按钮码
-        saBaseClientLoginUser.setButtonCodeList(clientLoginUserApi.getButtonCodeListListByUserAndRoleIdList(userAndRoleIdList));
+        saBaseClientLoginUser.setButtonCodeList(authProfile.getBeanList("buttonCodeList", String.class));
         // 获取移动端按钮码
-        saBaseClientLoginUser.setMobileButtonCodeList(clientLoginUserApi.getMobileButtonCodeListListByUserIdAndRoleIdList(userAndRoleIdList));
+        saBaseClientLoginUser.setMobileButtonCodeList(authProfile.getBeanList("mobileButtonCodeList", String.class));
         // 获取数据范围
-        saBaseClientLoginUser.setDataScopeList(Convert.toList(SaBaseClientLoginUser.DataScope.class,
-                clientLoginUserApi.getPermissionListByUserIdAndRoleIdList(userAndRoleIdList, null)));
+        saBaseClientLoginUser.setDataScopeList(Convert.toList(SaBaseClientLoginUser.DataScope.class, authProfile.getJSONArray("permissionList")));
         // 获取权限码
         List<String> permissionCodeList = saBaseClientLoginUser.getDataScopeList().stream()
                 .map(SaBaseClientLoginUser.DataScope::getApiUrl).collect(Collectors.toList());
@@ -772,6 +782,9 @@ public class AuthServiceImpl implements AuthService {
         saBaseClientLoginUser.setRoleCodeList(roleCodeList);
         // 缓存用户信息，此处使用TokenSession为了指定时间内无操作则自动下线
         StpClientUtil.getTokenSession().set("loginUser", saBaseClientLoginUser);
+        // 会话写入后再更新权限版本，使网关的权限快照失效，避免网关以新版本缓存旧会话中的权限
+        this.updatePermissionVersion(CacheConstant.AUTH_C_PERMISSION_VERSION_CACHE_KEY + saBaseClientLoginUser.getId(),
+                StpClientUtil.getStpLogic().getConfigOrGlobal().getTimeout());
     }
 
     /**
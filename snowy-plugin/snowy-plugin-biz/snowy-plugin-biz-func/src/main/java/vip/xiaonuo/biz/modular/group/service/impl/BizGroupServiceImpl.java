@@ -33,6 +33,7 @@ import vip.xiaonuo.biz.modular.group.mapper.BizGroupMapper;
 import vip.xiaonuo.biz.modular.group.param.*;
 import vip.xiaonuo.biz.modular.group.service.BizGroupService;
 import vip.xiaonuo.biz.modular.org.entity.BizOrg;
+import vip.xiaonuo.biz.modular.org.service.BizOrgClosureService;
 import vip.xiaonuo.biz.modular.org.service.BizOrgService;
 import vip.xiaonuo.biz.modular.user.entity.BizUser;
 import vip.xiaonuo.biz.modular.user.enums.BizUserStatusEnum;
@@ -64,6 +65,9 @@ public class BizGroupServiceImpl extends ServiceImpl<BizGroupMapper, BizGroup> i
     @Resource
     private BizOrgService bizOrgService;
 
+    @Resource
+    private BizOrgClosureService bizOrgClosureService;
+
     @Override
     public Page<BizGroup> page(BizGroupPageParam bizGroupPageParam) {
         QueryWrapper<BizGroup> queryWrapper = new QueryWrapper<BizGroup>().checkSqlInjection();
@@ -128,9 +132,9 @@ public class BizGroupServiceImpl extends ServiceImpl<BizGroupMapper, BizGroup> i
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
+            bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, loginUserDataScope, true));
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -147,10 +151,7 @@ public class BizGroupServiceImpl extends ServiceImpl<BizGroupMapper, BizGroup> i
         // 只查询状态为正常的
         queryWrapper.lambda().eq(BizUser::getUserStatus, BizUserStatusEnum.ENABLE.getValue());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizUser::getOrgId)) {
             return new Page<>();
         }
         // 只查询部分字段
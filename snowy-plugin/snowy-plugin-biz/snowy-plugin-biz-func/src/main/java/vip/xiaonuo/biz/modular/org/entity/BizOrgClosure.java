@@ -0,0 +1,42 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.biz.modular.org.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 机构闭包实体，保存每个机构与其所有祖先（含自身）的关系
+ *
+ * @author xuyuxiang
+ * @date 2024/8/25 9:20
+ **/
+@Getter
+@Setter
+@TableName("SYS_ORG_CLOSURE")
+public class BizOrgClosure {
+
+    /** 祖先机构id */
+    @Schema(description = "祖先机构id")
+    private String ancestorId;
+
+    /** 子孙机构id */
+    @Schema(description = "子孙机构id")
+    private String descendantId;
+
+    /** 层级距离，自身为0 */
+    @Schema(description = "层级距离")
+    private Integer depth;
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.biz.modular.org.provider;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Service;
+import vip.xiaonuo.auth.api.SaBaseDataScopeApi;
+import vip.xiaonuo.biz.modular.org.entity.BizOrg;
+import vip.xiaonuo.biz.modular.org.service.BizOrgService;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 数据范围API接口提供者
+ * 组织层级缓存在本地，组织版本号变化时重新加载，展开数据范围时不再查询数据库；
+ * 展开结果按根组织集合缓存在当前快照中，同一数据范围的多次请求共用同一个只读集合
+ *
+ * @author xuyuxiang
+ * @date 2024/8/24 10:30
+ **/
+@Service
+public class BizDataScopeApiProvider implements SaBaseDataScopeApi {
+
+    /** 单个快照最多缓存的展开结果数，超出后清空重新缓存 */
+    private static final int MAX_CACHED_SCOPE_COUNT = 1024;
+
+    @Resource
+    private BizOrgService bizOrgService;
+
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
+    private volatile OrgHierarchy orgHierarchy;
+
+    @Override
+    public Set<String> getAllOrgIdSet() {
+        return this.getOrgHierarchy().allOrgIdSet;
+    }
+
+    @Override
+    public Set<String> getOrgIdSetWithChild(Collection<String> orgIdList) {
+        OrgHierarchy currentOrgHierarchy = this.getOrgHierarchy();
+        String cacheKey = String.join(",", new TreeSet<>(orgIdList));
+        Set<String> resultSet = currentOrgHierarchy.scopeCacheMap.get(cacheKey);
+        if (resultSet == null) {
+            resultSet = Collections.unmodifiableSet(currentOrgHierarchy.expand(orgIdList));
+            if (currentOrgHierarchy.scopeCacheMap.size() >= MAX_CACHED_SCOPE_COUNT) {
+                currentOrgHierarchy.scopeCacheMap.clear();
+            }
+            currentOrgHierarchy.scopeCacheMap.put(cacheKey, resultSet);
+        }
+        return resultSet;
+    }
+
+    private OrgHierarchy getOrgHierarchy() {
+        Object version = commonCacheOperator.get(CacheConstant.SYS_ORG_VERSION_CACHE_KEY);
+        String currentVersion = version == null ? null : version.toString();
+        OrgHierarchy currentOrgHierarchy = orgHierarchy;
+        if (currentOrgHierarchy == null || !Objects.equals(currentOrgHierarchy.version, currentVersion)) {
+            synchronized (this) {
+                currentOrgHierarchy = orgHierarchy;
+                if (currentOrgHierarchy == null || !Objects.equals(currentOrgHierarchy.version, currentVersion)) {
+                    currentOrgHierarchy = new OrgHierarchy(currentVersion, bizOrgService.list(new LambdaQueryWrapper<BizOrg>()
+                            .select(BizOrg::getId, BizOrg::getParentId).orderByAsc(BizOrg::getSortCode)));
+                    orgHierarchy = currentOrgHierarchy;
+                }
+            }
+        }
+        return currentOrgHierarchy;
+    }
+
+    /**
+     * 组织层级快照
+     */
+    private static final class OrgHierarchy {
+
+        private final String version;
+
+        private final Set<String> allOrgIdSet;
+
+        private final Map<String, List<String>> childIdMap;
+
+        /** 排序后的根组织id -> 展开后的组织id集合 */
+        private final Map<String, Set<String>> scopeCacheMap = new ConcurrentHashMap<>();
+
+        private OrgHierarchy(String version, List<BizOrg> bizOrgList) {
+            this.version = version;
+            Set<String> orgIdSet = new LinkedHashSet<>(bizOrgList.size() * 2);
+            this.childIdMap = new HashMap<>();
+            for (BizOrg bizOrg : bizOrgList) {
+                orgIdSet.add(bizOrg.getId());
+                childIdMap.computeIfAbsent(bizOrg.getParentId(), key -> new ArrayList<>()).add(bizOrg.getId());
+            }
+            this.allOrgIdSet = Collections.unmodifiableSet(orgIdSet);
+        }
+
+        /**
+         * 广度优先展开根组织及其所有子组织
+         */
+        private Set<String> expand(Collection<String> orgIdList) {
+            Set<String> resultSet = new LinkedHashSet<>();
+            ArrayDeque<String> queue = new ArrayDeque<>();
+            for (String orgId : orgIdList) {
+                if (resultSet.add(orgId)) {
+                    queue.add(orgId);
+                }
+            }
+            while (!queue.isEmpty()) {
+                for (String childId : childIdMap.getOrDefault(queue.poll(), Collections.emptyList())) {
+                    if (resultSet.add(childId)) {
+                        queue.add(childId);
+                    }
+                }
+            }
+            return resultSet;
+        }
+    }
+}
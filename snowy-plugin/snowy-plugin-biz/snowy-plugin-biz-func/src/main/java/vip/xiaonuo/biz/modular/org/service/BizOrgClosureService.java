@@ -0,0 +1,79 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.biz.modular.org.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.service.IService;
+import vip.xiaonuo.biz.modular.org.entity.BizOrgClosure;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 机构闭包Service接口
+ *
+ * @author xuyuxiang
+ * @date 2024/8/25 9:20
+ **/
+public interface BizOrgClosureService extends IService<BizOrgClosure> {
+
+    /**
+     * 新增机构时维护闭包关系
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void addOrg(String orgId, String parentId);
+
+    /**
+     * 机构变更上级时维护闭包关系，整棵子树随之移动
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void moveOrg(String orgId, String parentId);
+
+    /**
+     * 删除机构时删除闭包关系
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void deleteOrg(List<String> orgIdList);
+
+    /**
+     * 获取指定机构及其所有子机构的id集合
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    List<String> getOrgIdListWithChild(Collection<String> orgIdList);
+
+    /**
+     * 判断 orgId 是否为 ancestorId 的子机构（不含自身）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    boolean isDescendant(String ancestorId, String orgId);
+
+    /**
+     * 将当前登录用户的数据范围作为机构id列的过滤条件追加到查询条件中，子机构范围以闭包表子查询表示，不再展开id；
+     * 数据范围为全部时不追加条件并返回true，暂无数据范围时不追加条件并返回false
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    <T> boolean applyLoginUserDataScope(LambdaQueryWrapper<T> lambdaQueryWrapper, SFunction<T, ?> orgIdColumn);
+}
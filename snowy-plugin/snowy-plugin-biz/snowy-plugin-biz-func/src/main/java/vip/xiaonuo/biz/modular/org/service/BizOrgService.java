@@ -19,6 +19,7 @@ import vip.xiaonuo.biz.modular.org.entity.BizOrg;
 import vip.xiaonuo.biz.modular.org.param.*;
 import vip.xiaonuo.biz.modular.user.entity.BizUser;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -125,6 +126,14 @@ public interface BizOrgService extends IService<BizOrg> {
      **/
     List<BizOrg> getParentListById(List<BizOrg> originDataList, String id, boolean includeSelf);
 
+    /**
+     * 根据id集合获取所有的父数据列表（去重），共同的上级只查找一次
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    List<BizOrg> getParentListById(List<BizOrg> originDataList, Collection<String> idCollection, boolean includeSelf);
+
     /**
      * 根据id获取数据
      *
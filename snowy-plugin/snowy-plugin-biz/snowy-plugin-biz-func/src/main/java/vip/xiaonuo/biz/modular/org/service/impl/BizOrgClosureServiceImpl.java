@@ -0,0 +1,167 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.biz.modular.org.service.impl;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.ObjectUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.LambdaUtils;
+import com.baomidou.mybatisplus.core.toolkit.support.ColumnCache;
+import com.baomidou.mybatisplus.core.toolkit.support.LambdaMeta;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import org.apache.ibatis.reflection.property.PropertyNamer;
+import org.springframework.stereotype.Service;
+import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
+import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.biz.modular.org.entity.BizOrgClosure;
+import vip.xiaonuo.biz.modular.org.mapper.BizOrgClosureMapper;
+import vip.xiaonuo.biz.modular.org.service.BizOrgClosureService;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 机构闭包Service接口实现类
+ * 闭包表保存每个机构与其所有祖先（含自身）的关系，子树查询可走(ANCESTOR_ID, DESCENDANT_ID)主键索引，不再展开大量id
+ *
+ * @author xuyuxiang
+ * @date 2024/8/25 9:20
+ **/
+@Service
+public class BizOrgClosureServiceImpl extends ServiceImpl<BizOrgClosureMapper, BizOrgClosure> implements BizOrgClosureService {
+
+    /** 批量操作每批数量 */
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void addOrg(String orgId, String parentId) {
+        this.getBaseMapper().insertWithAncestor(orgId, parentId);
+        this.save(this.newClosure(orgId, orgId, 0));
+    }
+
+    @Override
+    public void moveOrg(String orgId, String parentId) {
+        // 子树内的关系保持不变，只替换子树与原祖先之间的关系
+        List<BizOrgClosure> subtreeList = this.list(new LambdaQueryWrapper<BizOrgClosure>().eq(BizOrgClosure::getAncestorId, orgId));
+        List<String> subtreeIdList = subtreeList.stream().map(BizOrgClosure::getDescendantId).collect(Collectors.toList());
+        List<String> originAncestorIdList = this.list(new LambdaQueryWrapper<BizOrgClosure>().eq(BizOrgClosure::getDescendantId, orgId)
+                .gt(BizOrgClosure::getDepth, 0)).stream().map(BizOrgClosure::getAncestorId).collect(Collectors.toList());
+        if (!originAncestorIdList.isEmpty()) {
+            for (List<String> partSubtreeIdList : CollectionUtil.split(subtreeIdList, BATCH_SIZE)) {
+                this.remove(new LambdaQueryWrapper<BizOrgClosure>().in(BizOrgClosure::getAncestorId, originAncestorIdList)
+                        .in(BizOrgClosure::getDescendantId, partSubtreeIdList));
+            }
+        }
+        List<BizOrgClosure> parentAncestorList = this.list(new LambdaQueryWrapper<BizOrgClosure>().eq(BizOrgClosure::getDescendantId, parentId));
+        List<BizOrgClosure> closureList = new ArrayList<>(parentAncestorList.size() * subtreeList.size());
+        for (BizOrgClosure parentAncestor : parentAncestorList) {
+            for (BizOrgClosure subtree : subtreeList) {
+                closureList.add(this.newClosure(parentAncestor.getAncestorId(), subtree.getDescendantId(),
+                        parentAncestor.getDepth() + subtree.getDepth() + 1));
+            }
+        }
+        this.saveBatch(closureList, BATCH_SIZE);
+    }
+
+    @Override
+    public void deleteOrg(List<String> orgIdList) {
+        for (List<String> partOrgIdList : CollectionUtil.split(orgIdList, BATCH_SIZE)) {
+            this.remove(new LambdaQueryWrapper<BizOrgClosure>().in(BizOrgClosure::getDescendantId, partOrgIdList));
+            this.remove(new LambdaQueryWrapper<BizOrgClosure>().in(BizOrgClosure::getAncestorId, partOrgIdList));
+        }
+    }
+
+    @Override
+    public List<String> getOrgIdListWithChild(Collection<String> orgIdList) {
+        Set<String> resultSet = new LinkedHashSet<>();
+        for (List<String> partOrgIdList : CollectionUtil.split(new ArrayList<>(orgIdList), BATCH_SIZE)) {
+            this.list(new LambdaQueryWrapper<BizOrgClosure>().select(BizOrgClosure::getDescendantId)
+                    .in(BizOrgClosure::getAncestorId, partOrgIdList)).forEach(closure -> resultSet.add(closure.getDescendantId()));
+        }
+        return new ArrayList<>(resultSet);
+    }
+
+    @Override
+    public boolean isDescendant(String ancestorId, String orgId) {
+        return this.count(new LambdaQueryWrapper<BizOrgClosure>().eq(BizOrgClosure::getAncestorId, ancestorId)
+                .eq(BizOrgClosure::getDescendantId, orgId).gt(BizOrgClosure::getDepth, 0)) > 0;
+    }
+
+    @Override
+    public <T> boolean applyLoginUserDataScope(LambdaQueryWrapper<T> lambdaQueryWrapper, SFunction<T, ?> orgIdColumn) {
+        SaBaseLoginUser.DataScope dataScope = StpLoginUserUtil.getLoginUserDataScopeInfo();
+        if(ObjectUtil.isEmpty(dataScope)) {
+            return false;
+        }
+        if(Boolean.TRUE.equals(dataScope.getScopeAll())) {
+            return true;
+        }
+        List<String> orgIdList = ObjectUtil.isEmpty(dataScope.getDataScope()) ? CollectionUtil.newArrayList() : dataScope.getDataScope();
+        List<String> scopeOrgChildIdList = ObjectUtil.isEmpty(dataScope.getScopeOrgChildIdList()) ? CollectionUtil.newArrayList() :
+                dataScope.getScopeOrgChildIdList();
+        if(orgIdList.isEmpty() && scopeOrgChildIdList.isEmpty()) {
+            return false;
+        }
+        String column = this.getColumn(orgIdColumn);
+        List<Object> paramList = new ArrayList<>(orgIdList.size() + scopeOrgChildIdList.size());
+        List<String> conditionList = new ArrayList<>();
+        if(!orgIdList.isEmpty()) {
+            conditionList.add(column + " IN (" + this.placeholders(paramList, orgIdList) + ")");
+        }
+        if(!scopeOrgChildIdList.isEmpty()) {
+            conditionList.add(column + " IN (SELECT DESCENDANT_ID FROM SYS_ORG_CLOSURE WHERE ANCESTOR_ID IN ("
+                    + this.placeholders(paramList, scopeOrgChildIdList) + "))");
+        }
+        lambdaQueryWrapper.apply("(" + String.join(" OR ", conditionList) + ")", paramList.toArray());
+        return true;
+    }
+
+    /**
+     * 生成参数占位符并追加参数
+     */
+    private String placeholders(List<Object> paramList, List<String> valueList) {
+        List<String> placeholderList = new ArrayList<>(valueList.size());
+        for (String value : valueList) {
+            placeholderList.add("{" + paramList.size() + "}");
+            paramList.add(value);
+        }
+        return String.join(",", placeholderList);
+    }
+
+    /**
+     * 根据实体属性获取数据库列名
+     */
+    private <T> String getColumn(SFunction<T, ?> orgIdColumn) {
+        LambdaMeta lambdaMeta = LambdaUtils.extract(orgIdColumn);
+        String fieldName = PropertyNamer.methodToProperty(lambdaMeta.getImplMethodName());
+        ColumnCache columnCache = LambdaUtils.getColumnMap(lambdaMeta.getInstantiatedClass()).get(LambdaUtils.formatKey(fieldName));
+        if(ObjectUtil.isEmpty(columnCache)) {
+            throw new CommonException("实体{}不存在属性{}对应的列", lambdaMeta.getInstantiatedClass().getSimpleName(), fieldName);
+        }
+        return columnCache.getColumn();
+    }
+
+    private BizOrgClosure newClosure(String ancestorId, String descendantId, int depth) {
+        BizOrgClosure closure = new BizOrgClosure();
+        closure.setAncestorId(ancestorId);
+        closure.setDescendantId(descendantId);
+        closure.setDepth(depth);
+        return closure;
+    }
+}
@@ -36,6 +36,7 @@ import vip.xiaonuo.biz.modular.org.entity.BizOrg;
 import vip.xiaonuo.biz.modular.org.enums.BizOrgCategoryEnum;
 import vip.xiaonuo.biz.modular.org.mapper.BizOrgMapper;
 import vip.xiaonuo.biz.modular.org.param.*;
+import vip.xiaonuo.biz.modular.org.service.BizOrgClosureService;
 import vip.xiaonuo.biz.modular.org.service.BizOrgExtService;
 import vip.xiaonuo.biz.modular.org.service.BizOrgService;
 import vip.xiaonuo.biz.modular.position.entity.BizPosition;
@@ -72,6 +73,9 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     @Resource
     private BizUserService bizUserService;
 
+    @Resource
+    private BizOrgClosureService bizOrgClosureService;
+
     @Override
     public Page<BizOrg> page(BizOrgPageParam bizOrgPageParam) {
         QueryWrapper<BizOrg> queryWrapper = new QueryWrapper<BizOrg>().checkSqlInjection();
@@ -92,10 +96,7 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
             queryWrapper.lambda().orderByAsc(BizOrg::getSortCode);
         }
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizOrg::getId)) {
             return new Page<>();
         }
         return this.page(CommonPageRequest.defaultPage(), queryWrapper);
@@ -108,9 +109,9 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(this.getParentListById(allOrgList, orgId, true)));
+            bizOrgSet.addAll(this.getParentListById(allOrgList, loginUserDataScope, true));
         } else {
             return CollectionUtil.newArrayList();
         }
@@ -134,7 +135,7 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public void add(BizOrgAddParam bizOrgAddParam, String sourceFromType) {
         BizOrgCategoryEnum.validate(bizOrgAddParam.getCategory());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizOrgAddParam.getParentId())) {
                 throw new CommonException("您没有权限在该机构下增加机构，机构id：{}", bizOrgAddParam.getParentId());
@@ -155,6 +156,8 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         this.save(bizOrg);
         // 插入扩展信息
         bizOrgExtService.createExtInfo(bizOrg.getId(), sourceFromType);
+        // 维护闭包关系
+        bizOrgClosureService.addOrg(bizOrg.getId(), bizOrg.getParentId());
         // 发布增加事件
         CommonDataChangeEventCenter.doAddWithData(BizDataTypeEnum.ORG.getValue(), JSONUtil.createArray().put(bizOrg));
     }
@@ -165,7 +168,7 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         BizOrgCategoryEnum.validate(bizOrgEditParam.getCategory());
         BizOrg bizOrg = this.queryEntity(bizOrgEditParam.getId());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizOrg.getId())) {
                 throw new CommonException("您没有权限编辑该机构，机构id：{}", bizOrg.getId());
@@ -176,20 +179,23 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         } else {
             throw new CommonException("您没有权限编辑该机构，机构id：{}", bizOrg.getId());
         }
+        String originParentId = bizOrg.getParentId();
         BeanUtil.copyProperties(bizOrgEditParam, bizOrg);
         boolean repeatName = this.count(new LambdaQueryWrapper<BizOrg>().eq(BizOrg::getParentId, bizOrg.getParentId())
                 .eq(BizOrg::getName, bizOrg.getName()).ne(BizOrg::getId, bizOrg.getId())) > 0;
         if(repeatName) {
             throw new CommonException("存在重复的同级机构，名称为：{}", bizOrg.getName());
         }
-        List<BizOrg> originDataList = this.list();
-        boolean errorLevel = this.getChildListById(originDataList, bizOrg.getId(), true).stream()
-                .map(BizOrg::getId).collect(Collectors.toList()).contains(bizOrg.getParentId());
+        boolean errorLevel = bizOrg.getParentId().equals(bizOrg.getId()) || bizOrgClosureService.isDescendant(bizOrg.getId(), bizOrg.getParentId());
         if(errorLevel) {
-            throw new CommonException("不可选择上级机构：{}", this.getById(originDataList, bizOrg.getParentId()).getName());
+            throw new CommonException("不可选择上级机构：{}", this.queryEntity(bizOrg.getParentId()).getName());
         }
         // 更新机构
         this.updateById(bizOrg);
+        // 上级变更时维护闭包关系
+        if(!bizOrg.getParentId().equals(originParentId)) {
+            bizOrgClosureService.moveOrg(bizOrg.getId(), bizOrg.getParentId());
+        }
         // 发布更新事件
         CommonDataChangeEventCenter.doUpdateWithData(BizDataTypeEnum.ORG.getValue(), JSONUtil.createArray().put(bizOrg));
     }
@@ -200,19 +206,16 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         List<String> orgIdList = CollStreamUtil.toList(bizOrgIdParamList, BizOrgIdParam::getId);
         if(ObjectUtil.isNotEmpty(orgIdList)) {
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+            Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
             if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                if(!new HashSet<>(loginUserDataScope).containsAll(orgIdList)) {
+                if(!loginUserDataScope.containsAll(orgIdList)) {
                     throw new CommonException("您没有权限删除这些机构，机构id：{}", orgIdList);
                 }
             } else {
                 throw new CommonException("您没有权限删除这些机构，机构id：{}", orgIdList);
             }
-            List<BizOrg> allOrgList = this.list();
             // 获取所有子机构
-            List<String> toDeleteOrgIdList = CollectionUtil.newArrayList();
-            orgIdList.forEach(orgId -> toDeleteOrgIdList.addAll(this.getChildListById(allOrgList, orgId, true).stream()
-                    .map(BizOrg::getId).collect(Collectors.toList())));
+            List<String> toDeleteOrgIdList = bizOrgClosureService.getOrgIdListWithChild(orgIdList);
             // 机构下有人不能删除（直属机构）
             boolean hasOrgUser = bizUserService.count(new LambdaQueryWrapper<BizUser>().in(BizUser::getOrgId, toDeleteOrgIdList)) > 0;
             if(hasOrgUser) {
@@ -242,6 +245,8 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
             }
             // 执行删除
             this.removeByIds(toDeleteOrgIdList);
+            // 删除闭包关系
+            bizOrgClosureService.deleteOrg(toDeleteOrgIdList);
 
             // 发布删除事件
             CommonDataChangeEventCenter.doDeleteWithDataIdList(BizDataTypeEnum.ORG.getValue(), toDeleteOrgIdList);
@@ -311,6 +316,8 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
         bizOrg.setCategory("0".equals(parentId)?BizOrgCategoryEnum.COMPANY.getValue():BizOrgCategoryEnum.DEPT.getValue());
         bizOrg.setSortCode(99);
         this.save(bizOrg);
+        // 维护闭包关系
+        bizOrgClosureService.addOrg(bizOrg.getId(), bizOrg.getParentId());
         // 发布增加事件
         CommonDataChangeEventCenter.doAddWithData(BizDataTypeEnum.ORG.getValue(), JSONUtil.createArray().put(bizOrg));
         return bizOrg.getId();
@@ -322,13 +329,13 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public List<Tree<String>> orgTreeSelector() {
         LambdaQueryWrapper<BizOrg> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             // 获取所有机构
             List<BizOrg> allOrgList = this.list();
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(this.getParentListById(allOrgList, orgId, true)));
+            bizOrgSet.addAll(this.getParentListById(allOrgList, loginUserDataScope, true));
             List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
             lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
         } else {
@@ -346,10 +353,7 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public Page<BizOrg> orgListSelector(BizOrgSelectorOrgListParam bizOrgSelectorOrgListParam) {
         QueryWrapper<BizOrg> queryWrapper = new QueryWrapper<BizOrg>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizOrg::getId)) {
             return new Page<>();
         }
         // 查询部分字段
@@ -369,10 +373,7 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     public Page<BizUser> userSelector(BizOrgSelectorUserParam bizOrgSelectorUserParam) {
         QueryWrapper<BizUser> queryWrapper = new QueryWrapper<BizUser>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizUser::getOrgId)) {
             return new Page<>();
         }
         // 只查询部分字段
@@ -380,8 +381,7 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
                 BizUser::getName, BizUser::getSortCode, BizUser::getGender, BizUser::getEntryDate);
         if (ObjectUtil.isNotEmpty(bizOrgSelectorUserParam.getOrgId())) {
             // 如果机构id不为空，则查询该机构及其子机构下的所有人
-            List<String> childOrgIdList = CollStreamUtil.toList(this.getChildListById(this
-                    .getAllOrgList(), bizOrgSelectorUserParam.getOrgId(), true), BizOrg::getId);
+            List<String> childOrgIdList = bizOrgClosureService.getOrgIdListWithChild(CollectionUtil.newArrayList(bizOrgSelectorUserParam.getOrgId()));
             if (ObjectUtil.isNotEmpty(childOrgIdList)) {
                 queryWrapper.lambda().in(BizUser::getOrgId, childOrgIdList);
             } else {
@@ -432,6 +432,30 @@ public class BizOrgServiceImpl extends ServiceImpl<BizOrgMapper, BizOrg> impleme
     }
 
 
+    @Override
+    public List<BizOrg> getParentListById(List<BizOrg> originDataList, Collection<String> idCollection, boolean includeSelf) {
+        Map<String, BizOrg> orgMap = new HashMap<>(originDataList.size() * 2);
+        originDataList.forEach(bizOrg -> orgMap.putIfAbsent(bizOrg.getId(), bizOrg));
+        // 已访问的机构，各机构共同的上级只向上查找一次
+        Set<String> visitedIdSet = new HashSet<>();
+        List<BizOrg> resultList = CollectionUtil.newArrayList();
+        for (String id : idCollection) {
+            BizOrg self = orgMap.get(id);
+            if(ObjectUtil.isEmpty(self) || (!includeSelf && visitedIdSet.contains(id))) {
+                continue;
+            }
+            if(includeSelf && visitedIdSet.add(id)) {
+                resultList.add(self);
+            }
+            BizOrg parent = orgMap.get(self.getParentId());
+            while (ObjectUtil.isNotEmpty(parent) && visitedIdSet.add(parent.getId())) {
+                resultList.add(parent);
+                parent = orgMap.get(parent.getParentId());
+            }
+        }
+        return resultList;
+    }
+
     public void execRecursionFindChild(List<BizOrg> originDataList, String id, List<BizOrg> resultList) {
         originDataList.forEach(item -> {
             if(item.getParentId().equals(id)) {
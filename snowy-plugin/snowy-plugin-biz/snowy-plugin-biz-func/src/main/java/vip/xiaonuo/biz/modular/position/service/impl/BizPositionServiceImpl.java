@@ -34,6 +34,7 @@ import org.springframework.transaction.annotation.Transactional;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.biz.core.enums.BizDataTypeEnum;
 import vip.xiaonuo.biz.modular.org.entity.BizOrg;
+import vip.xiaonuo.biz.modular.org.service.BizOrgClosureService;
 import vip.xiaonuo.biz.modular.org.service.BizOrgService;
 import vip.xiaonuo.biz.modular.position.entity.BizPosition;
 import vip.xiaonuo.biz.modular.position.enums.BizPositionCategoryEnum;
@@ -47,7 +48,6 @@ import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.listener.CommonDataChangeEventCenter;
 import vip.xiaonuo.common.page.CommonPageRequest;
 
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -64,6 +64,9 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
     @Resource
     private BizOrgService bizOrgService;
 
+    @Resource
+    private BizOrgClosureService bizOrgClosureService;
+
     @Resource
     private BizUserService bizUserService;
 
@@ -90,10 +93,7 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
             queryWrapper.lambda().orderByAsc(BizPosition::getSortCode);
         }
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizPosition::getOrgId)) {
             return new Page<>();
         }
         return this.page(CommonPageRequest.defaultPage(), queryWrapper);
@@ -104,7 +104,7 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
     public void add(BizPositionAddParam bizPositionAddParam) {
         BizPositionCategoryEnum.validate(bizPositionAddParam.getCategory());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizPositionAddParam.getOrgId())) {
                 throw new CommonException("您没有权限在该机构下增加岗位，机构id：{}", bizPositionAddParam.getOrgId());
@@ -131,7 +131,7 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
         BizPositionCategoryEnum.validate(bizPositionEditParam.getCategory());
         BizPosition bizPosition = this.queryEntity(bizPositionEditParam.getId());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizPositionEditParam.getOrgId())) {
                 throw new CommonException("您没有权限编辑该机构下的岗位，机构id：{}", bizPositionEditParam.getOrgId());
@@ -161,9 +161,9 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
             // 获取这些岗位的的机构id集合
             Set<String> positionOrgIdList = this.listByIds(positionIdList).stream().map(BizPosition::getOrgId).collect(Collectors.toSet());
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+            Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
             if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                if(!new HashSet<>(loginUserDataScope).containsAll(positionOrgIdList)) {
+                if(!loginUserDataScope.containsAll(positionOrgIdList)) {
                     throw new CommonException("您没有权限删除这些机构下的岗位，机构id：{}", positionOrgIdList);
                 }
             } else {
@@ -219,13 +219,13 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
     public List<Tree<String>> orgTreeSelector() {
         LambdaQueryWrapper<BizOrg> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             // 获取所有机构
             List<BizOrg> allOrgList = bizOrgService.list();
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
+            bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, loginUserDataScope, true));
             List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
             lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
         } else {
@@ -243,10 +243,7 @@ public class BizPositionServiceImpl extends ServiceImpl<BizPositionMapper, BizPo
     public Page<BizPosition> positionSelector(BizPositionSelectorPositionParam bizPositionSelectorPositionParam) {
         QueryWrapper<BizPosition> queryWrapper = new QueryWrapper<BizPosition>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizPosition::getOrgId)) {
             return new Page<>();
         }
         // 查询部分字段
@@ -57,6 +57,7 @@ import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.biz.core.enums.BizBuildInEnum;
 import vip.xiaonuo.biz.core.enums.BizDataTypeEnum;
 import vip.xiaonuo.biz.modular.org.entity.BizOrg;
+import vip.xiaonuo.biz.modular.org.service.BizOrgClosureService;
 import vip.xiaonuo.biz.modular.org.service.BizOrgService;
 import vip.xiaonuo.biz.modular.position.entity.BizPosition;
 import vip.xiaonuo.biz.modular.position.service.BizPositionService;
@@ -114,6 +115,9 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     @Resource
     private BizOrgService bizOrgService;
 
+    @Resource
+    private BizOrgClosureService bizOrgClosureService;
+
     @Resource
     private BizPositionService bizPositionService;
 
@@ -140,10 +144,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
         // 排除超管
         queryWrapper.lambda().ne(BizUser::getAccount, BizBuildInEnum.BUILD_IN_USER_ACCOUNT.getValue());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizUser::getOrgId)) {
             queryWrapper.lambda().eq(BizUser::getId, StpUtil.getLoginIdAsString());
         }
         return this.page(CommonPageRequest.defaultPage(), queryWrapper);
@@ -172,7 +173,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
 
     private void checkParam(BizUserAddParam bizUserAddParam) {
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizUserAddParam.getOrgId())) {
                 throw new CommonException("您没有权限在该机构下增加人员，机构id：{}", bizUserAddParam.getOrgId());
@@ -223,7 +224,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
 
     private void checkParam(BizUserEditParam bizUserEditParam) {
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizUserEditParam.getOrgId())) {
                 throw new CommonException("您没有权限编辑该机构下的人员，机构id：{}", bizUserEditParam.getOrgId());
@@ -273,9 +274,9 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
             // 获取这些人员的的机构id集合
             Set<String> userOrgIdList = this.listByIds(bizUserIdList).stream().map(BizUser::getOrgId).collect(Collectors.toSet());
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+            Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
             if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                if(!new HashSet<>(loginUserDataScope).containsAll(userOrgIdList)) {
+                if(!loginUserDataScope.containsAll(userOrgIdList)) {
                     throw new CommonException("您没有权限删除这些机构下的人员，机构id：{}",
                             CollectionUtil.subtract(userOrgIdList, loginUserDataScope));
                 }
@@ -324,7 +325,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void disableUser(BizUserIdParam bizUserIdParam) {
         BizUser bizUser = this.detail(bizUserIdParam);
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限禁用该机构下的人员：{}，机构id：{}", bizUser.getName(), bizUser.getOrgId());
@@ -343,7 +344,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void enableUser(BizUserIdParam bizUserIdParam) {
         BizUser bizUser = this.detail(bizUserIdParam);
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限启用该机构下的人员：{}，机构id：{}", bizUser.getName(), bizUser.getOrgId());
@@ -362,7 +363,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void resetPassword(BizUserIdParam bizUserIdParam) {
         BizUser bizUser = this.detail(bizUserIdParam);
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限为该机构下的人员：{}重置密码，机构id：{}", bizUser.getName(), bizUser.getOrgId());
@@ -387,7 +388,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public void grantRole(BizUserGrantRoleParam bizUserGrantRoleParam) {
         BizUser bizUser = this.queryEntity(bizUserGrantRoleParam.getId());
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             if(!loginUserDataScope.contains(bizUser.getOrgId())) {
                 throw new CommonException("您没有权限为该机构下的人员：{}授权角色，机构id：{}", bizUser.getName(), bizUser.getOrgId());
@@ -408,10 +409,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
             // 排除超管
             queryWrapper.lambda().ne(BizUser::getAccount, BizBuildInEnum.BUILD_IN_USER_ACCOUNT.getValue());
             // 校验数据范围
-            List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-            if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-                queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
-            } else {
+            if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizUser::getOrgId)) {
                 queryWrapper.lambda().eq(BizUser::getId, StpUtil.getLoginIdAsString());
             }
             if(ObjectUtil.isNotEmpty(bizUserExportParam.getUserIds())) {
@@ -616,13 +614,13 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public List<Tree<String>> orgTreeSelector() {
         LambdaQueryWrapper<BizOrg> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
+        Set<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScopeSet();
         // 定义机构集合
         Set<BizOrg> bizOrgSet = CollectionUtil.newHashSet();
         if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
             // 获取所有机构
             List<BizOrg> allOrgList = bizOrgService.list();
-            loginUserDataScope.forEach(orgId -> bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, orgId, true)));
+            bizOrgSet.addAll(bizOrgService.getParentListById(allOrgList, loginUserDataScope, true));
             List<String> loginUserDataScopeFullList = bizOrgSet.stream().map(BizOrg::getId).collect(Collectors.toList());
             lambdaQueryWrapper.in(BizOrg::getId, loginUserDataScopeFullList);
         } else {
@@ -640,10 +638,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public Page<BizOrg> orgListSelector(BizUserSelectorOrgListParam bizUserSelectorOrgListParam) {
         QueryWrapper<BizOrg> queryWrapper = new QueryWrapper<BizOrg>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizOrg::getId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizOrg::getId)) {
             return new Page<>();
         }
         // 查询部分字段
@@ -663,10 +658,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public Page<BizPosition> positionSelector(BizUserSelectorPositionParam bizUserSelectorPositionParam) {
         QueryWrapper<BizPosition> queryWrapper = new QueryWrapper<BizPosition>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizPosition::getOrgId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizPosition::getOrgId)) {
             return new Page<>();
         }
         // 查询部分字段
@@ -714,10 +706,7 @@ public class BizUserServiceImpl extends ServiceImpl<BizUserMapper, BizUser> impl
     public Page<BizUser> userSelector(BizUserSelectorUserParam bizUserSelectorUserParam) {
         QueryWrapper<BizUser> queryWrapper = new QueryWrapper<BizUser>().checkSqlInjection();
         // 校验数据范围
-        List<String> loginUserDataScope = StpLoginUserUtil.getLoginUserDataScope();
-        if(ObjectUtil.isNotEmpty(loginUserDataScope)) {
-            queryWrapper.lambda().in(BizUser::getOrgId, loginUserDataScope);
-        } else {
+        if(!bizOrgClosureService.applyLoginUserDataScope(queryWrapper.lambda(), BizUser::getOrgId)) {
             return new Page<>();
         }
         // 只查询部分字段
@@ -175,6 +175,21 @@ public class ClientLoginUserApiProvider implements SaBaseLoginUserApi {
         return CollectionUtil.newArrayList();
     }
 
+    /**
+     * 根据用户id一次获取授权信息
+     *
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     */
+    @Override
+    public JSONObject getAuthProfile(String userId, String orgId) {
+        // TODO C端用户暂无角色、按钮码与权限码
+        return JSONUtil.createObj().set("roleList", CollectionUtil.newArrayList())
+                .set("buttonCodeList", CollectionUtil.newArrayList())
+                .set("mobileButtonCodeList", CollectionUtil.newArrayList())
+                .set("permissionList", CollectionUtil.newArrayList());
+    }
+
     /**
      * 更新用户的登录时间和登录ip等信息
      *
@@ -66,4 +66,14 @@ public interface DevSseApi {
      **/
     public void sendMessageToOneClient(String clientId, String msg);
 
+    /**
+     * 推送消息到某一用户的所有客户端
+     *
+     * @param loginId 用户id
+     * @param msg 推送消息
+     * @author xuyuxiang
+     * @date 2024/8/26 10:10
+     **/
+    public void sendMessageToUser(String loginId, String msg);
+
 }
@@ -12,7 +12,16 @@
  */
 package vip.xiaonuo.dev.core.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import vip.xiaonuo.dev.core.listener.DevConfigChangeListener;
+import vip.xiaonuo.dev.core.listener.DevSseMessageListener;
+import vip.xiaonuo.dev.modular.config.service.impl.DevConfigServiceImpl;
+import vip.xiaonuo.dev.modular.sse.service.impl.DevSseEmitterServiceImpl;
 
 /**
  * 开发工具相关配置
@@ -22,4 +31,46 @@ import org.springframework.context.annotation.Configuration;
  **/
 @Configuration
 public class DevConfigure {
+
+    /**
+     * Redis消息监听容器
+     *
+     * @author xuyuxiang
+     * @date 2024/8/12 10:20
+     **/
+    @Bean
+    @ConditionalOnMissingBean(RedisMessageListenerContainer.class)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer redisMessageListenerContainer = new RedisMessageListenerContainer();
+        redisMessageListenerContainer.setConnectionFactory(redisConnectionFactory);
+        return redisMessageListenerContainer;
+    }
+
+    /**
+     * 订阅配置变更通知
+     *
+     * @author xuyuxiang
+     * @date 2024/8/12 10:20
+     **/
+    @Bean
+    public ChannelTopic devConfigChangeTopic(RedisMessageListenerContainer redisMessageListenerContainer,
+                                             DevConfigChangeListener devConfigChangeListener) {
+        ChannelTopic channelTopic = new ChannelTopic(DevConfigServiceImpl.CONFIG_CHANGE_CHANNEL);
+        redisMessageListenerContainer.addMessageListener(devConfigChangeListener, channelTopic);
+        return channelTopic;
+    }
+
+    /**
+     * 订阅SSE推送消息通知
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 10:10
+     **/
+    @Bean
+    public ChannelTopic devSseMessageTopic(RedisMessageListenerContainer redisMessageListenerContainer,
+                                           DevSseMessageListener devSseMessageListener) {
+        ChannelTopic channelTopic = new ChannelTopic(DevSseEmitterServiceImpl.SSE_MESSAGE_CHANNEL);
+        redisMessageListenerContainer.addMessageListener(devSseMessageListener, channelTopic);
+        return channelTopic;
+    }
 }
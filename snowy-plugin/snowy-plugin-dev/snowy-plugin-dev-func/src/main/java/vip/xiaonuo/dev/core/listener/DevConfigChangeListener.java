@@ -0,0 +1,48 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.core.listener;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.util.ObjectUtil;
+import jakarta.annotation.Resource;
+import lombok.NonNull;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.dev.modular.config.service.DevConfigService;
+
+/**
+ * 配置变更监听器，收到配置变更通知时移除本节点的本地缓存
+ *
+ * @author xuyuxiang
+ * @date 2024/8/12 10:20
+ **/
+@Component
+public class DevConfigChangeListener implements MessageListener {
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private DevConfigService devConfigService;
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        // 消息体为发布时经RedisTemplate序列化的配置键
+        Object configKey = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if(ObjectUtil.isNotEmpty(configKey)) {
+            devConfigService.removeLocalCache(Convert.toStr(configKey));
+        }
+    }
+}
@@ -12,20 +12,14 @@
  */
 package vip.xiaonuo.dev.core.listener;
 
-import cn.hutool.cron.CronUtil;
 import cn.hutool.extra.spring.SpringUtil;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
-import vip.xiaonuo.common.exception.CommonException;
-import vip.xiaonuo.common.timer.CommonTimerTaskRunner;
-import vip.xiaonuo.dev.modular.job.entity.DevJob;
-import vip.xiaonuo.dev.modular.job.enums.DevJobStatusEnum;
-import vip.xiaonuo.dev.modular.job.service.DevJobService;
+import vip.xiaonuo.dev.modular.job.scheduler.DevJobScheduler;
 
 /**
  * 定时任务监听器，系统启动时将定时任务启动
@@ -39,20 +33,8 @@ public class DevJobListener implements ApplicationListener<ApplicationStartedEve
 
     @Override
     public void onApplicationEvent(@NonNull ApplicationStartedEvent applicationStartedEvent) {
-        SpringUtil.getBean(DevJobService.class).list(new LambdaQueryWrapper<DevJob>()
-                .eq(DevJob::getJobStatus, DevJobStatusEnum.RUNNING.getValue()).orderByAsc(DevJob::getSortCode))
-                .forEach(devJob -> CronUtil.schedule(devJob.getId(), devJob.getCronExpression(), () -> {
-                    try {
-                        // 运行定时任务
-                        ((CommonTimerTaskRunner) SpringUtil.getBean(Class.forName(devJob.getActionClass()))).action(devJob.getExtJson());
-                    } catch (ClassNotFoundException e) {
-                        throw new CommonException("定时任务找不到对应的类，名称为：{}", devJob.getActionClass());
-                    }
-                }));
-        // 设置秒级别的启用
-        CronUtil.setMatchSecond(true);
-        // 启动定时器执行器
-        CronUtil.start();
+        // 启动集群定时任务调度器，运行中的任务由调度器加载
+        SpringUtil.getBean(DevJobScheduler.class).start();
     }
 
     @Override
@@ -0,0 +1,93 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.core.prop;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.dev.modular.log.enums.DevLogOverflowPolicyEnum;
+
+/**
+ * 日志写入配置
+ *
+ * @author xuyuxiang
+ * @date 2024/8/14 9:32
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "snowy.config.dev-log")
+public class DevLogProperties {
+
+    /**
+     * 缓冲区容量，会向上取整为2的幂
+     */
+    private int bufferCapacity = 8192;
+
+    /**
+     * 每批写入的最大条数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 批量写入的最大间隔（毫秒）
+     */
+    private long flushInterval = 1000;
+
+    /**
+     * 签名并行度
+     */
+    private int signParallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    /**
+     * 缓冲区满时的溢出策略
+     */
+    private DevLogOverflowPolicyEnum overflowPolicy = DevLogOverflowPolicyEnum.SPILL;
+
+    /**
+     * 阻塞策略下的最长等待时间（毫秒）
+     */
+    private long blockTimeout = 1000;
+
+    /**
+     * 溢出文件路径
+     */
+    private String spillFile = System.getProperty("java.io.tmpdir") + "/snowy-dev-log-spill.log";
+
+    /**
+     * 停机时等待缓冲区排空的最长时间（毫秒）
+     */
+    private long shutdownTimeout = 10000;
+
+    /**
+     * 日志在线保留的月数（含当月），更早的月份归档为压缩文件后从日志表中移除，小于等于0时不归档
+     */
+    private int retentionMonths = 6;
+
+    /**
+     * 归档文件的存储引擎（LOCAL、ALIYUN、TENCENT、MINIO），为空时使用系统配置的默认文件引擎，
+     * 归档文件记录在文件表中，集群各节点均可查询
+     */
+    private String archiveEngine;
+
+    /**
+     * 日志表按月分区时，提前创建分区的月数
+     */
+    private int partitionAheadMonths = 2;
+
+    /**
+     * 归档导出与分批删除时每批的条数
+     */
+    private int archiveBatchSize = 1000;
+}
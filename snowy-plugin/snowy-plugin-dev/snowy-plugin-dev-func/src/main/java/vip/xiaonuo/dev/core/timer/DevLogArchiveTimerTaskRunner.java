@@ -0,0 +1,41 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.core.timer;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.timer.CommonTimerTaskRunner;
+import vip.xiaonuo.dev.modular.log.service.DevLogArchiveService;
+
+/**
+ * 日志归档定时类，维护日志表的月分区，并将超出保留期的日志归档为压缩文件，
+ * 保留月数等通过snowy.config.dev-log配置
+ *
+ * @author xuyuxiang
+ * @date 2024/8/19 10:12
+ **/
+@Slf4j
+@Component
+public class DevLogArchiveTimerTaskRunner implements CommonTimerTaskRunner {
+
+    @Resource
+    private DevLogArchiveService devLogArchiveService;
+
+    @Override
+    public void action(String extJson) {
+        long start = System.currentTimeMillis();
+        devLogArchiveService.archive();
+        log.info("日志归档执行完成，耗时：{}ms", System.currentTimeMillis() - start);
+    }
+}
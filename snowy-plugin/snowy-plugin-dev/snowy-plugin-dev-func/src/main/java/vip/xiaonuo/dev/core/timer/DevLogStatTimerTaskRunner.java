@@ -0,0 +1,73 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.core.timer;
+
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.timer.CommonTimerTaskRunner;
+import vip.xiaonuo.dev.modular.log.service.DevLogStatService;
+
+import java.util.Date;
+
+/**
+ * 日志统计回填定时类，根据日志表重新统计最近若干天（不含当天）的日志数量，
+ * 首次执行时从最早的日志开始全量回填，成功后记录标记，扩展信息可配置{"days": 7}
+ *
+ * @author xuyuxiang
+ * @date 2024/8/16 14:05
+ **/
+@Slf4j
+@Component
+public class DevLogStatTimerTaskRunner implements CommonTimerTaskRunner {
+
+    /** 默认重新统计的天数 */
+    private static final int DEFAULT_DAYS = 1;
+
+    /** 全量回填完成标记，统计表在部署后即会被日志写入累加，不能以是否为空判断 */
+    private static final String REBUILD_ALL_CACHE_KEY = "dev-log-stat-rebuild-all";
+
+    @Resource
+    private DevLogStatService devLogStatService;
+
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
+    @Override
+    public void action(String extJson) {
+        int days = DEFAULT_DAYS;
+        if (JSONUtil.isTypeJSONObject(extJson)) {
+            days = JSONUtil.parseObj(extJson).getInt("days", DEFAULT_DAYS);
+        }
+        DateTime today = DateUtil.beginOfDay(DateTime.now());
+        Date beginDate = DateUtil.offsetDay(today, -days);
+        boolean rebuildAll = ObjectUtil.isNull(commonCacheOperator.get(REBUILD_ALL_CACHE_KEY));
+        if (rebuildAll) {
+            Date earliestOpTime = devLogStatService.getEarliestOpTime();
+            if (ObjectUtil.isNotEmpty(earliestOpTime) && earliestOpTime.before(beginDate)) {
+                beginDate = earliestOpTime;
+            }
+        }
+        long start = System.currentTimeMillis();
+        devLogStatService.rebuild(beginDate, today);
+        if (rebuildAll) {
+            commonCacheOperator.put(REBUILD_ALL_CACHE_KEY, DateUtil.formatDateTime(DateTime.now()));
+        }
+        log.info("日志统计回填完成，起始日期：{}，耗时：{}ms", DateUtil.formatDate(beginDate), System.currentTimeMillis() - start);
+    }
+}
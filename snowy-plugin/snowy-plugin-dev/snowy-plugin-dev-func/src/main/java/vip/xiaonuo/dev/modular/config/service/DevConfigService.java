@@ -35,6 +35,14 @@ public interface DevConfigService extends IService<DevConfig> {
      **/
     String getValueByKey(String key);
 
+    /**
+     * 移除本节点中指定键的本地缓存
+     *
+     * @author xuyuxiang
+     * @date 2024/8/12 10:20
+     **/
+    void removeLocalCache(String key);
+
     /**
      * 获取配置分页
      *
@@ -12,6 +12,8 @@
  */
 package vip.xiaonuo.dev.modular.config.service.impl;
 
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.collection.CollectionUtil;
@@ -24,6 +26,7 @@ import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import jakarta.annotation.Resource;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import vip.xiaonuo.common.cache.CommonCacheOperator;
@@ -52,6 +55,18 @@ public class DevConfigServiceImpl extends ServiceImpl<DevConfigMapper, DevConfig
     /** 缓存前缀 */
     private static final String CONFIG_CACHE_KEY = "dev-config:";
 
+    /** 配置变更通知频道，各节点收到后移除本地缓存 */
+    public static final String CONFIG_CHANGE_CHANNEL = "dev-config-change";
+
+    /** 本地缓存容量 */
+    private static final int LOCAL_CACHE_CAPACITY = 1024;
+
+    /** 本地缓存过期时间（毫秒），用于兜底漏收的变更通知 */
+    private static final long LOCAL_CACHE_TIMEOUT = 5 * 60 * 1000L;
+
+    /** 本地缓存，位于Redis缓存之前 */
+    private final LRUCache<String, String> localConfigCache = CacheUtil.newLRUCache(LOCAL_CACHE_CAPACITY, LOCAL_CACHE_TIMEOUT);
+
     /** B端注册是否开启 */
     private static final String SNOWY_SYS_DEFAULT_ALLOW_REGISTER_FLAG_FOR_B_KEY = "SNOWY_SYS_DEFAULT_ALLOW_REGISTER_FLAG_FOR_B";
 
@@ -79,22 +94,52 @@ public class DevConfigServiceImpl extends ServiceImpl<DevConfigMapper, DevConfig
     @Resource
     private CommonCacheOperator commonCacheOperator;
 
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
     @Override
     public String getValueByKey(String key) {
+        // 从本地缓存中取
+        String localValue = localConfigCache.get(key, false);
+        if(ObjectUtil.isNotEmpty(localValue)) {
+            return localValue;
+        }
         // 从缓存中取
         Object cacheValue = commonCacheOperator.get(CONFIG_CACHE_KEY + key);
         if(ObjectUtil.isNotEmpty(cacheValue)) {
-            return Convert.toStr(cacheValue);
+            String configValue = Convert.toStr(cacheValue);
+            localConfigCache.put(key, configValue);
+            return configValue;
         }
         DevConfig devConfig = this.getOne(new LambdaQueryWrapper<DevConfig>().eq(DevConfig::getConfigKey, key));
         if(ObjectUtil.isNotEmpty(devConfig)) {
             // 更新到缓存
             commonCacheOperator.put(CONFIG_CACHE_KEY + key, devConfig.getConfigValue());
+            if(ObjectUtil.isNotEmpty(devConfig.getConfigValue())) {
+                localConfigCache.put(key, devConfig.getConfigValue());
+            }
             return devConfig.getConfigValue();
         }
         return null;
     }
 
+    @Override
+    public void removeLocalCache(String key) {
+        localConfigCache.remove(key);
+    }
+
+    /**
+     * 移除配置缓存，并通知所有节点移除本地缓存
+     *
+     * @author xuyuxiang
+     * @date 2024/8/12 10:20
+     */
+    private void removeConfigCache(String key) {
+        commonCacheOperator.remove(CONFIG_CACHE_KEY + key);
+        localConfigCache.remove(key);
+        redisTemplate.convertAndSend(CONFIG_CHANGE_CHANNEL, key);
+    }
+
     @Override
     public Page<DevConfig> page(DevConfigPageParam devConfigPageParam) {
         QueryWrapper<DevConfig> queryWrapper = new QueryWrapper<DevConfig>().checkSqlInjection();
@@ -167,11 +212,15 @@ public class DevConfigServiceImpl extends ServiceImpl<DevConfigMapper, DevConfig
     public void edit(DevConfigEditParam devConfigEditParam) {
         DevConfig devConfig = this.queryEntity(devConfigEditParam.getId());
         checkParam(devConfigEditParam);
+        String originConfigKey = devConfig.getConfigKey();
         BeanUtil.copyProperties(devConfigEditParam, devConfig);
         devConfig.setCategory(DevConfigCategoryEnum.BIZ_DEFINE.getValue());
         this.updateById(devConfig);
-        // 移除对应的缓存
-        commonCacheOperator.remove(CONFIG_CACHE_KEY + devConfig.getConfigKey());
+        // 移除对应的缓存，键被修改时同时移除原键的缓存
+        if(!originConfigKey.equals(devConfig.getConfigKey())) {
+            this.removeConfigCache(originConfigKey);
+        }
+        this.removeConfigCache(devConfig.getConfigKey());
     }
 
     private void checkParam(DevConfigEditParam devConfigEditParam) {
@@ -201,7 +250,7 @@ public class DevConfigServiceImpl extends ServiceImpl<DevConfigMapper, DevConfig
 
                 deleteDevConfigList.forEach(devConfig -> {
                     // 移除对应的缓存
-                    commonCacheOperator.remove(CONFIG_CACHE_KEY + devConfig.getConfigKey());
+                    this.removeConfigCache(devConfig.getConfigKey());
                 });
             }
         }
@@ -228,7 +277,7 @@ public class DevConfigServiceImpl extends ServiceImpl<DevConfigMapper, DevConfig
                     .eq(DevConfig::getConfigKey, devConfigBatchParam.getConfigKey())
                     .set(DevConfig::getConfigValue, devConfigBatchParam.getConfigValue()));
             // 移除对应的缓存
-            commonCacheOperator.remove(CONFIG_CACHE_KEY + devConfigBatchParam.getConfigKey());
+            this.removeConfigCache(devConfigBatchParam.getConfigKey());
         });
     }
 }
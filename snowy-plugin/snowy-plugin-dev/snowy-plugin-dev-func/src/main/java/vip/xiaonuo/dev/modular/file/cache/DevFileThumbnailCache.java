@@ -0,0 +1,116 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.file.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 文件缩略图缓存
+ * 按最近最少使用淘汰、以总字节数限制大小的内存缓存；同一缩略图同时只有一个线程加载，其他线程等待其结果
+ *
+ * @author xuyuxiang
+ * @date 2024/8/27 17:30
+ **/
+@Component
+public class DevFileThumbnailCache {
+
+    /** 缓存最大总字节数 */
+    private static final long MAX_CACHE_BYTES = 32L * 1024 * 1024;
+
+    /** 缓存key -> 缩略图字节，按访问顺序排列 */
+    private final LinkedHashMap<String, byte[]> cacheMap = new LinkedHashMap<>(256, 0.75f, true);
+
+    /** 当前缓存总字节数 */
+    private long cacheBytes;
+
+    /** 正在加载的缩略图 */
+    private final Map<String, CompletableFuture<byte[]>> loadingMap = new ConcurrentHashMap<>();
+
+    /**
+     * 获取缩略图，不存在时使用 loader 加载并放入缓存
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     **/
+    public byte[] get(String key, Supplier<byte[]> loader) {
+        byte[] bytes = this.getIfPresent(key);
+        if (bytes != null) {
+            return bytes;
+        }
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> loadingFuture = loadingMap.putIfAbsent(key, future);
+        if (loadingFuture != null) {
+            try {
+                return loadingFuture.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException runtimeException ? runtimeException : e;
+            }
+        }
+        try {
+            bytes = this.getIfPresent(key);
+            if (bytes == null) {
+                bytes = loader.get();
+                this.put(key, bytes);
+            }
+            future.complete(bytes);
+            return bytes;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadingMap.remove(key, future);
+        }
+    }
+
+    /**
+     * 移除以 keyPrefix 开头的缓存
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     **/
+    public synchronized void evictByPrefix(String keyPrefix) {
+        Iterator<Map.Entry<String, byte[]>> iterator = cacheMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, byte[]> entry = iterator.next();
+            if (entry.getKey().startsWith(keyPrefix)) {
+                cacheBytes -= entry.getValue().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    private synchronized byte[] getIfPresent(String key) {
+        return cacheMap.get(key);
+    }
+
+    private synchronized void put(String key, byte[] bytes) {
+        if (bytes.length > MAX_CACHE_BYTES) {
+            return;
+        }
+        byte[] previousBytes = cacheMap.put(key, bytes);
+        cacheBytes += bytes.length - (previousBytes == null ? 0 : previousBytes.length);
+        Iterator<byte[]> iterator = cacheMap.values().iterator();
+        while (cacheBytes > MAX_CACHE_BYTES && iterator.hasNext()) {
+            cacheBytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+}
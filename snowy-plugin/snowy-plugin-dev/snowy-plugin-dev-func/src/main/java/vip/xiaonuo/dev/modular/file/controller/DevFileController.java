@@ -32,6 +32,7 @@ import vip.xiaonuo.dev.modular.file.enums.DevFileEngineTypeEnum;
 import vip.xiaonuo.dev.modular.file.param.DevFileIdParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileListParam;
 import vip.xiaonuo.dev.modular.file.param.DevFilePageParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileThumbnailParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileUrlListParam;
 import vip.xiaonuo.dev.modular.file.service.DevFileService;
 
@@ -310,4 +311,17 @@ public class DevFileController {
     public CommonResult<List<DevFile>> getFileListByUrlList(@RequestBody @Valid DevFileUrlListParam devFileUrlListParam) {
         return CommonResult.data(devFileService.getFileListByUrlList(devFileUrlListParam));
     }
+
+    /**
+     * 获取图片缩略图
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     **/
+    @ApiOperationSupport(order = 19)
+    @Operation(summary = "获取图片缩略图")
+    @GetMapping("/dev/file/thumbnail")
+    public void thumbnail(@Valid DevFileThumbnailParam devFileThumbnailParam, HttpServletResponse response) throws IOException {
+        devFileService.thumbnail(devFileThumbnailParam, response);
+    }
 }
@@ -12,6 +12,7 @@
  */
 package vip.xiaonuo.dev.modular.file.mapper;
 
+import org.apache.ibatis.annotations.Param;
 import vip.xiaonuo.common.mapper.CommonDeleteAbsoluteMapper;
 import vip.xiaonuo.dev.modular.file.entity.DevFile;
 
@@ -22,4 +23,13 @@ import vip.xiaonuo.dev.modular.file.entity.DevFile;
  * @date 2022/2/23 18:40
  **/
 public interface DevFileMapper extends CommonDeleteAbsoluteMapper<DevFile> {
+
+    /**
+     * 统计除指定文件外引用同一存储对象的文件数量，包括已逻辑删除的文件
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 15:10
+     **/
+    long countByFileKey(@Param("engine") String engine, @Param("bucket") String bucket,
+                        @Param("fileKey") String fileKey, @Param("excludeId") String excludeId);
 }
@@ -20,8 +20,10 @@ import vip.xiaonuo.dev.modular.file.entity.DevFile;
 import vip.xiaonuo.dev.modular.file.param.DevFileIdParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileListParam;
 import vip.xiaonuo.dev.modular.file.param.DevFilePageParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileThumbnailParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileUrlListParam;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.List;
 
@@ -82,6 +84,14 @@ public interface DevFileService extends IService<DevFile> {
      **/
     void authDownload(DevFileIdParam devFileIdParam, HttpServletResponse response) throws IOException;
 
+    /**
+     * 获取图片文件的缩略图
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     **/
+    void thumbnail(DevFileThumbnailParam devFileThumbnailParam, HttpServletResponse response) throws IOException;
+
 
     /**
      * 删除文件
@@ -130,4 +140,20 @@ public interface DevFileService extends IService<DevFile> {
      * @date 2025/8/25 21:18
      */
     List<DevFile> getFileListByIds(List<String> ids);
+
+    /**
+     * 将服务端生成的文件按指定的key存入存储引擎（引擎为空时使用本地），记录为需授权下载的文件并返回
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     */
+    DevFile storageFile(String engine, String fileKey, File file, String extJson);
+
+    /**
+     * 从存储引擎读取文件字节，文件不存在时返回空
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     */
+    byte[] getFileBytes(DevFile devFile);
 }
@@ -12,6 +12,7 @@
  */
 package vip.xiaonuo.dev.modular.file.service.impl;
 
+import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateUtil;
@@ -19,10 +20,11 @@ import cn.hutool.core.img.ImgUtil;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.BooleanUtil;
+import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.NumberUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.http.HttpUtil;
+import cn.hutool.crypto.SecureUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
@@ -35,17 +37,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import vip.xiaonuo.auth.core.util.StpClientUtil;
 import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.page.CommonPageRequest;
 import vip.xiaonuo.common.prop.CommonProperties;
 import vip.xiaonuo.common.util.CommonDownloadUtil;
 import vip.xiaonuo.common.util.CommonResponseUtil;
+import vip.xiaonuo.common.util.CommonServletUtil;
+import vip.xiaonuo.dev.modular.file.cache.DevFileThumbnailCache;
 import vip.xiaonuo.dev.modular.file.entity.DevFile;
 import vip.xiaonuo.dev.modular.file.enums.DevFileEngineTypeEnum;
 import vip.xiaonuo.dev.modular.file.mapper.DevFileMapper;
 import vip.xiaonuo.dev.modular.file.param.DevFileIdParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileListParam;
 import vip.xiaonuo.dev.modular.file.param.DevFilePageParam;
+import vip.xiaonuo.dev.modular.file.param.DevFileThumbnailParam;
 import vip.xiaonuo.dev.modular.file.param.DevFileUrlListParam;
 import vip.xiaonuo.dev.modular.file.service.DevFileService;
 import vip.xiaonuo.dev.modular.file.util.DevFileAliyunUtil;
@@ -53,10 +59,14 @@ import vip.xiaonuo.dev.modular.file.util.DevFileLocalUtil;
 import vip.xiaonuo.dev.modular.file.util.DevFileMinIoUtil;
 import vip.xiaonuo.dev.modular.file.util.DevFileTencentUtil;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.List;
 
 /**
@@ -69,9 +79,18 @@ import java.util.List;
 @Service
 public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> implements DevFileService {
 
+    /** 默认缩略图尺寸 */
+    private static final int DEFAULT_THUMBNAIL_SIZE = 100;
+
+    /** 支持的缩略图尺寸 */
+    private static final List<Integer> THUMBNAIL_SIZE_LIST = List.of(64, DEFAULT_THUMBNAIL_SIZE, 200, 400);
+
     @Resource
     private CommonProperties commonProperties;
 
+    @Resource
+    private DevFileThumbnailCache devFileThumbnailCache;
+
     @Override
     public String uploadReturnId(String engine, MultipartFile file) {
         return this.storageFile(engine, file, true,  true);
@@ -133,6 +152,48 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
         unifiedDownload(devFileIdParam, response, true);
     }
 
+    @Override
+    public void thumbnail(DevFileThumbnailParam devFileThumbnailParam, HttpServletResponse response) throws IOException {
+        int size = ObjectUtil.defaultIfNull(devFileThumbnailParam.getSize(), DEFAULT_THUMBNAIL_SIZE);
+        if (!THUMBNAIL_SIZE_LIST.contains(size)) {
+            CommonResponseUtil.renderError(response, "不支持的缩略图尺寸：" + size);
+            return;
+        }
+        DevFile devFile;
+        try {
+            devFile = this.queryEntity(devFileThumbnailParam.getId());
+        } catch (Exception e) {
+            CommonResponseUtil.renderError(response, e.getMessage());
+            return;
+        }
+        // 需授权下载的文件，缩略图接口虽免登录，仍需登录后才能获取
+        boolean isDownloadAuth = BooleanUtil.isTrue(devFile.getIsDownloadAuth());
+        if (isDownloadAuth && !StpUtil.isLogin() && !StpClientUtil.isLogin()) {
+            CommonResponseUtil.renderError(response, "该文件需要授权下载，请登录后获取缩略图！");
+            return;
+        }
+        if (ObjectUtil.isEmpty(devFile.getSuffix()) || !isPic(devFile.getSuffix())) {
+            CommonResponseUtil.renderError(response, "该文件不是图片，无法生成缩略图，id值为：" + devFile.getId());
+            return;
+        }
+        String thumbnailType = getThumbnailType(devFile.getSuffix());
+        byte[] thumbnailBytes;
+        try {
+            // 同一存储对象的同一尺寸只缩放一次，之后从存储引擎中的缩略图或内存缓存读取
+            thumbnailBytes = devFileThumbnailCache.get(genThumbnailCacheKeyPrefix(devFile) + size,
+                    () -> this.loadThumbnail(devFile, size, thumbnailType));
+        } catch (Exception e) {
+            log.error(">>> 缩略图生成失败，文件id：{}", devFile.getId(), e);
+            CommonResponseUtil.renderError(response, "缩略图生成失败，id值为：" + devFile.getId());
+            return;
+        }
+        // 存储对象的内容不会变化，缩略图可长期缓存，需授权的文件只允许浏览器缓存，不允许共享缓存
+        response.setContentType(ImgUtil.IMAGE_TYPE_PNG.equals(thumbnailType) ? "image/png" : "image/jpeg");
+        response.setHeader("Cache-Control", isDownloadAuth ? "private, max-age=604800" : "public, max-age=604800");
+        response.setContentLength(thumbnailBytes.length);
+        IoUtil.write(response.getOutputStream(), false, thumbnailBytes);
+    }
+
     // 统一下载
     private void unifiedDownload(DevFileIdParam devFileIdParam, HttpServletResponse response,  boolean isDownloadAuth)  throws IOException{
         DevFile devFile;
@@ -152,10 +213,11 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
                 CommonResponseUtil.renderError(response, "找不到存储的文件，id值为：" + devFile.getId());
                 return;
             }
-            CommonDownloadUtil.download(devFile.getName(), IoUtil.readBytes(FileUtil.getInputStream(file)), response);
+            // 流式写出，支持断点续传
+            CommonDownloadUtil.download(devFile.getName(), file, CommonServletUtil.getRequest(), response);
         } else {
-            String storagePath = devFile.getStoragePath();
-            CommonDownloadUtil.download(devFile.getName(), HttpUtil.downloadBytes(storagePath), response);
+            // 按块代理对象存储的文件，Range等请求头透传
+            CommonDownloadUtil.downloadFromUrl(devFile.getName(), devFile.getStoragePath(), CommonServletUtil.getRequest(), response);
         }
     }
 
@@ -169,23 +231,11 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
     public void deleteAbsolute(DevFileIdParam devFileIdParam) {
         DevFile devFile = this.queryEntity(devFileIdParam.getId());
         try {
-            // 存储引擎
-            String engine = devFile.getEngine();
-            // 存储桶名称
-            String bucketName = devFile.getBucket();
-            // 文件key
-            String fileKey = devFile.getFileKey();
-            // 根据存储引擎删除文件
-            if (DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
-                DevFileLocalUtil.deleteFile(bucketName, fileKey);
-            } else if (DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
-                DevFileAliyunUtil.deleteFile(bucketName, fileKey);
-            } else if (DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
-                DevFileTencentUtil.deleteFile(bucketName, fileKey);
-            } else if (DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
-                DevFileMinIoUtil.deleteFile(bucketName, fileKey);
-            } else {
-                log.error("未知存储引擎：{}", engine);
+            // 内容相同的文件共用存储对象，没有其他文件（包括已逻辑删除的）引用时才删除
+            if (this.baseMapper.countByFileKey(devFile.getEngine(), devFile.getBucket(), devFile.getFileKey(),
+                    devFile.getId()) == 0) {
+                this.deleteStorageFile(devFile.getEngine(), devFile.getBucket(), devFile.getFileKey());
+                this.deleteThumbnail(devFile);
             }
         } catch (Exception e) {
             log.error("文件删除失败：{}，路径：{}", devFile.getName(), devFile.getStoragePath(), e);
@@ -218,29 +268,50 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
         // 定义存储的url，本地文件返回文件实际路径，其他引擎返回网络地址
         String storageUrl;
 
-        // 根据引擎类型执行不同方法
-        if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
+        // 文件内容哈希
+        String contentHash;
 
-            // 使用固定名称defaultBucketName
-            bucketName = "defaultBucketName";
-            storageUrl = DevFileLocalUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+        // 根据引擎类型执行不同方法，边写入边计算文件内容哈希，文件流只读取一遍
+        MessageDigest messageDigest = SecureUtil.sha256().getDigest();
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), messageDigest)) {
+            if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
 
-            // 使用阿里云默认配置的bucketName
-            bucketName = DevFileAliyunUtil.getDefaultBucketName();
-            storageUrl = DevFileAliyunUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+                // 使用固定名称defaultBucketName
+                bucketName = "defaultBucketName";
+                storageUrl = DevFileLocalUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream);
+            } else if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
 
-            // 使用腾讯云默认配置的bucketName
-            bucketName = DevFileTencentUtil.getDefaultBucketName();
-            storageUrl = DevFileTencentUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else if(engine.equals(DevFileEngineTypeEnum.MINIO.getValue())) {
+                // 使用阿里云默认配置的bucketName
+                bucketName = DevFileAliyunUtil.getDefaultBucketName();
+                storageUrl = DevFileAliyunUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream, file.getSize());
+            } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
 
-            // 使用MINIO默认配置的bucketName
-            bucketName = DevFileMinIoUtil.getDefaultBucketName();
-            storageUrl = DevFileMinIoUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
-        } else {
-            throw new CommonException("不支持的文件引擎：{}", engine);
+                // 使用腾讯云默认配置的bucketName
+                bucketName = DevFileTencentUtil.getDefaultBucketName();
+                storageUrl = DevFileTencentUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream, file.getSize());
+            } else if(engine.equals(DevFileEngineTypeEnum.MINIO.getValue())) {
+
+                // 使用MINIO默认配置的bucketName
+                bucketName = DevFileMinIoUtil.getDefaultBucketName();
+                storageUrl = DevFileMinIoUtil.storageFileWithReturnUrl(bucketName, fileKey, inputStream, file.getSize());
+            } else {
+                throw new CommonException("不支持的文件引擎：{}", engine);
+            }
+            contentHash = HexUtil.encodeHexStr(messageDigest.digest());
+        } catch (IOException e) {
+            throw new CommonException("获取文件流异常，名称是：{}", file.getOriginalFilename());
+        }
+
+        // 同一存储桶中已有内容相同的文件时，删除本次写入的对象，复用已存储的对象
+        DevFile sameContentDevFile = this.getSameContentDevFile(engine, bucketName, contentHash);
+        if(ObjectUtil.isNotEmpty(sameContentDevFile)) {
+            try {
+                this.deleteStorageFile(engine, bucketName, fileKey);
+                fileKey = sameContentDevFile.getFileKey();
+                storageUrl = sameContentDevFile.getStoragePath();
+            } catch (Exception e) {
+                log.error(">>> 删除重复文件失败，保留本次存储的文件：{}", fileKey, e);
+            }
         }
 
         // 将文件信息保存到数据库
@@ -261,16 +332,7 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
                 .setScale(0,  RoundingMode.HALF_UP )));
         devFile.setSizeInfo(FileUtil.readableFileSize(file.getSize()));
         devFile.setObjName(ObjectUtil.isNotEmpty(devFile.getSuffix())?fileId + StrUtil.DOT + devFile.getSuffix():null);
-        // 如果是图片，则压缩生成缩略图
-        if(ObjectUtil.isNotEmpty(suffix)) {
-            if(isPic(suffix)) {
-                try {
-                    devFile.setThumbnail(ImgUtil.toBase64DataUri(ImgUtil.scale(ImgUtil.toImage(file.getBytes()),
-                            100, 100, null), suffix));
-                } catch (Exception ignored) {
-                }
-            }
-        }
+        devFile.setContentHash(contentHash);
         // 存储路径
         devFile.setStoragePath(storageUrl);
 
@@ -287,6 +349,15 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
         }
         devFile.setDownloadPath(downloadUrl);
 
+        // 如果是图片，缩略图设置为缩略图接口地址，按需生成；需鉴权的文件与下载地址一致，由前端在末尾拼接token
+        if(ObjectUtil.isNotEmpty(suffix) && isPic(suffix)) {
+            if (BooleanUtil.isTrue(isDownloadAuth)){
+                devFile.setThumbnail(apiUrl + "/dev/file/thumbnail?id=" + fileId + "&token=");
+            }else {
+                devFile.setThumbnail(apiUrl + "/dev/file/thumbnail?id=" + fileId);
+            }
+        }
+
 //        // 下载路径，注意：本地文件下载地址设置为下载接口地址 + 文件id
 //        if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
 //            String apiUrl = commonProperties.getBackendUrl();
@@ -369,6 +440,207 @@ public class DevFileServiceImpl extends ServiceImpl<DevFileMapper, DevFile> impl
         return list(Wrappers.<DevFile>lambdaQuery().in(DevFile::getId,ids));
     }
 
+    @Override
+    public DevFile storageFile(String engine, String fileKey, File file, String extJson) {
+        if(ObjectUtil.isEmpty(engine)) {
+            engine = DevFileEngineTypeEnum.LOCAL.getValue();
+        }
+        String apiUrl = commonProperties.getFileUrl();
+        if(ObjectUtil.isEmpty(apiUrl)) {
+            throw new CommonException("后端域名地址未正确配置：snowy.config.common.backend-url为空");
+        }
+        String bucketName;
+        String storageUrl;
+        if(engine.equals(DevFileEngineTypeEnum.LOCAL.getValue())) {
+            bucketName = "defaultBucketName";
+            storageUrl = DevFileLocalUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
+        } else if(engine.equals(DevFileEngineTypeEnum.ALIYUN.getValue())) {
+            bucketName = DevFileAliyunUtil.getDefaultBucketName();
+            storageUrl = DevFileAliyunUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
+        } else if(engine.equals(DevFileEngineTypeEnum.TENCENT.getValue())) {
+            bucketName = DevFileTencentUtil.getDefaultBucketName();
+            storageUrl = DevFileTencentUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
+        } else if(engine.equals(DevFileEngineTypeEnum.MINIO.getValue())) {
+            bucketName = DevFileMinIoUtil.getDefaultBucketName();
+            storageUrl = DevFileMinIoUtil.storageFileWithReturnUrl(bucketName, fileKey, file);
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+        String fileId = IdWorker.getIdStr();
+        DevFile devFile = new DevFile();
+        devFile.setId(fileId);
+        devFile.setEngine(engine);
+        devFile.setBucket(bucketName);
+        devFile.setFileKey(fileKey);
+        devFile.setName(FileUtil.getName(fileKey));
+        devFile.setSuffix(StrUtil.subAfter(devFile.getName(), StrUtil.DOT, true));
+        devFile.setSizeKb(Convert.toStr(NumberUtil.div(new BigDecimal(file.length()), BigDecimal.valueOf(1024))
+                .setScale(0,  RoundingMode.HALF_UP )));
+        devFile.setSizeInfo(FileUtil.readableFileSize(file.length()));
+        devFile.setObjName(fileId + StrUtil.DOT + devFile.getSuffix());
+        devFile.setStoragePath(storageUrl);
+        devFile.setDownloadPath(apiUrl + "/dev/file/authDownload?id=" + fileId + "&token=");
+        devFile.setIsDownloadAuth(true);
+        devFile.setExtJson(extJson);
+        this.save(devFile);
+        return devFile;
+    }
+
+    @Override
+    public byte[] getFileBytes(DevFile devFile) {
+        return this.getStorageFileBytes(devFile.getEngine(), devFile.getBucket(), devFile.getFileKey());
+    }
+
+    /**
+     * 获取同一存储桶中内容相同的文件
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 15:10
+     */
+    private DevFile getSameContentDevFile(String engine, String bucketName, String contentHash) {
+        LambdaQueryWrapper<DevFile> lambdaQueryWrapper = new LambdaQueryWrapper<DevFile>()
+                .select(DevFile::getId, DevFile::getFileKey, DevFile::getStoragePath)
+                .eq(DevFile::getContentHash, contentHash).eq(DevFile::getEngine, engine).eq(DevFile::getBucket, bucketName);
+        List<DevFile> devFileList = this.page(new Page<>(1, 1, false), lambdaQueryWrapper).getRecords();
+        return devFileList.isEmpty() ? null : devFileList.get(0);
+    }
+
+    /**
+     * 根据存储引擎删除存储的文件
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 15:10
+     */
+    private void deleteStorageFile(String engine, String bucketName, String fileKey) {
+        if (DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            DevFileLocalUtil.deleteFile(bucketName, fileKey);
+        } else if (DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            DevFileAliyunUtil.deleteFile(bucketName, fileKey);
+        } else if (DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            DevFileTencentUtil.deleteFile(bucketName, fileKey);
+        } else if (DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            DevFileMinIoUtil.deleteFile(bucketName, fileKey);
+        } else {
+            log.error("未知存储引擎：{}", engine);
+        }
+    }
+
+    /**
+     * 根据存储引擎获取存储的文件字节，文件不存在时返回空
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     */
+    private byte[] getStorageFileBytes(String engine, String bucketName, String fileKey) {
+        if (DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            return DevFileLocalUtil.isExistingFile(bucketName, fileKey) ? DevFileLocalUtil.getFileBytes(bucketName, fileKey) : null;
+        } else if (DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            return DevFileAliyunUtil.isExistingFile(bucketName, fileKey) ? DevFileAliyunUtil.getFileBytes(bucketName, fileKey) : null;
+        } else if (DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            return DevFileTencentUtil.isExistingFile(bucketName, fileKey) ? DevFileTencentUtil.getFileBytes(bucketName, fileKey) : null;
+        } else if (DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            return DevFileMinIoUtil.isExistingFile(bucketName, fileKey) ? DevFileMinIoUtil.getFileBytes(bucketName, fileKey) : null;
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    /**
+     * 根据存储引擎存储文件字节
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     */
+    private void storageFileBytes(String engine, String bucketName, String fileKey, byte[] bytes) {
+        if (DevFileEngineTypeEnum.LOCAL.getValue().equals(engine)) {
+            DevFileLocalUtil.storageFile(bucketName, fileKey, bytes);
+        } else if (DevFileEngineTypeEnum.ALIYUN.getValue().equals(engine)) {
+            DevFileAliyunUtil.storageFile(bucketName, fileKey, bytes);
+        } else if (DevFileEngineTypeEnum.TENCENT.getValue().equals(engine)) {
+            DevFileTencentUtil.storageFile(bucketName, fileKey, bytes);
+        } else if (DevFileEngineTypeEnum.MINIO.getValue().equals(engine)) {
+            DevFileMinIoUtil.storageFile(bucketName, fileKey, bytes);
+        } else {
+            throw new CommonException("不支持的文件引擎：{}", engine);
+        }
+    }
+
+    /**
+     * 加载缩略图：优先读取存储引擎中已生成的缩略图，不存在时缩放原图生成并存入存储引擎
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     */
+    private byte[] loadThumbnail(DevFile devFile, int size, String thumbnailType) {
+        String thumbnailKey = genThumbnailKey(devFile.getFileKey(), size, thumbnailType);
+        byte[] thumbnailBytes = this.getStorageFileBytes(devFile.getEngine(), devFile.getBucket(), thumbnailKey);
+        if (thumbnailBytes != null) {
+            return thumbnailBytes;
+        }
+        byte[] fileBytes = this.getStorageFileBytes(devFile.getEngine(), devFile.getBucket(), devFile.getFileKey());
+        if (fileBytes == null) {
+            throw new CommonException("找不到存储的文件，id值为：{}", devFile.getId());
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImgUtil.write(ImgUtil.scale(ImgUtil.read(IoUtil.toStream(fileBytes)), size, size, null), thumbnailType, outputStream);
+        thumbnailBytes = outputStream.toByteArray();
+        try {
+            this.storageFileBytes(devFile.getEngine(), devFile.getBucket(), thumbnailKey, thumbnailBytes);
+        } catch (Exception e) {
+            log.warn(">>> 缩略图存储失败，文件id：{}", devFile.getId(), e);
+        }
+        return thumbnailBytes;
+    }
+
+    /**
+     * 删除存储对象的所有尺寸缩略图
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     */
+    private void deleteThumbnail(DevFile devFile) {
+        if (ObjectUtil.isEmpty(devFile.getSuffix()) || !isPic(devFile.getSuffix())) {
+            return;
+        }
+        String thumbnailType = getThumbnailType(devFile.getSuffix());
+        for (Integer size : THUMBNAIL_SIZE_LIST) {
+            try {
+                this.deleteStorageFile(devFile.getEngine(), devFile.getBucket(),
+                        genThumbnailKey(devFile.getFileKey(), size, thumbnailType));
+            } catch (Exception e) {
+                log.warn(">>> 缩略图删除失败，文件id：{}，尺寸：{}", devFile.getId(), size, e);
+            }
+        }
+        devFileThumbnailCache.evictByPrefix(genThumbnailCacheKeyPrefix(devFile));
+    }
+
+    /**
+     * 生成缩略图的key，格式如 thumbnail/100/2021/10/11/1377109572375810050.jpg
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     */
+    private static String genThumbnailKey(String fileKey, int size, String thumbnailType) {
+        String mainKey = StrUtil.contains(FileUtil.getName(fileKey), StrUtil.DOT) ? StrUtil.subBefore(fileKey, StrUtil.DOT, true) : fileKey;
+        return "thumbnail" + StrUtil.SLASH + size + StrUtil.SLASH + mainKey + StrUtil.DOT + thumbnailType;
+    }
+
+    private static String genThumbnailCacheKeyPrefix(DevFile devFile) {
+        return devFile.getEngine() + StrUtil.COLON + devFile.getBucket() + StrUtil.COLON + devFile.getFileKey() + StrUtil.COLON;
+    }
+
+    /**
+     * 缩略图格式，可能带透明通道的图片使用png，其他使用jpg
+     *
+     * @author xuyuxiang
+     * @date 2024/8/27 17:30
+     */
+    private static String getThumbnailType(String fileSuffix) {
+        fileSuffix = fileSuffix.toLowerCase();
+        return ImgUtil.IMAGE_TYPE_PNG.equals(fileSuffix) || ImgUtil.IMAGE_TYPE_GIF.equals(fileSuffix)
+                ? ImgUtil.IMAGE_TYPE_PNG : ImgUtil.IMAGE_TYPE_JPG;
+    }
+
     /**
      * 根据文件后缀判断是否图片
      *
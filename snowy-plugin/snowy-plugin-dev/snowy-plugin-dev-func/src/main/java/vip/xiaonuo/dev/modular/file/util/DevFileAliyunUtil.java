@@ -270,6 +270,30 @@ public class DevFileAliyunUtil {
         }
     }
 
+    /**
+     * 存储已知长度的文件流，不返回地址，SDK可直接按长度流式上传而无需将文件流缓冲到内存
+     *
+     * @param bucketName    桶名称
+     * @param key           唯一标示id，例如a.txt, doc/a.txt
+     * @param inputStream   文件流
+     * @param contentLength 文件流长度
+     * @author xuyuxiang
+     * @date 2024/8/27 15:10
+     */
+    public static void storageFile(String bucketName, String key, InputStream inputStream, long contentLength) {
+        try {
+            initClient();
+            ObjectMetadata objectMetadata = new ObjectMetadata();
+            objectMetadata.setContentType(getFileContentType(key));
+            objectMetadata.setContentLength(contentLength);
+            client.putObject(bucketName, key, inputStream, objectMetadata);
+        } catch (OSSException | ClientException e) {
+            throw new CommonException(e.getMessage());
+        } finally {
+            IoUtil.close(inputStream);
+        }
+    }
+
     /**
      * 存储文件，返回外网地址
      *
@@ -330,6 +354,22 @@ public class DevFileAliyunUtil {
         return getFileAuthUrl(bucketName, key);
     }
 
+    /**
+     * 存储已知长度的文件流，返回外网地址
+     *
+     * @param bucketName    桶名称
+     * @param key           唯一标示id，例如a.txt, doc/a.txt
+     * @param inputStream   文件流
+     * @param contentLength 文件流长度
+     * @author xuyuxiang
+     * @date 2024/8/27 15:10
+     */
+    public static String storageFileWithReturnUrl(String bucketName, String key, InputStream inputStream, long contentLength) {
+        storageFile(bucketName, key, inputStream, contentLength);
+        setFileAcl(bucketName, key, DevFileBucketAuthEnum.PUBLIC_READ);
+        return getFileAuthUrl(bucketName, key);
+    }
+
     /**
      * 获取某个bucket下的文件字节
      *
@@ -59,6 +59,10 @@ public class DevJob extends CommonEntity {
     @Schema(description = "任务状态")
     private String jobStatus;
 
+    /** 错过触发策略 */
+    @Schema(description = "错过触发策略")
+    private String misfirePolicy;
+
     /** 排序码 */
     @Schema(description = "排序码")
     private Integer sortCode;
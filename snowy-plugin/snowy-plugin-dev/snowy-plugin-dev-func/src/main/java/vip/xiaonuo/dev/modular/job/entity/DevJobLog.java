@@ -0,0 +1,80 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.job.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * 定时任务执行记录实体
+ *
+ * @author xuyuxiang
+ * @date 2024/8/28 9:30
+ **/
+@Getter
+@Setter
+@TableName("DEV_JOB_LOG")
+public class DevJobLog {
+
+    /** id */
+    @Schema(description = "主键")
+    private String id;
+
+    /** 定时任务id */
+    @Schema(description = "定时任务id")
+    private String jobId;
+
+    /** 定时任务名称 */
+    @Schema(description = "定时任务名称")
+    private String jobName;
+
+    /** 任务类名 */
+    @Schema(description = "任务类名")
+    private String actionClass;
+
+    /** 触发类型 */
+    @Schema(description = "触发类型")
+    private String triggerType;
+
+    /** 计划触发时间 */
+    @Schema(description = "计划触发时间")
+    private Date triggerTime;
+
+    /** 开始时间 */
+    @Schema(description = "开始时间")
+    private Date startTime;
+
+    /** 结束时间 */
+    @Schema(description = "结束时间")
+    private Date endTime;
+
+    /** 执行耗时（毫秒） */
+    @Schema(description = "执行耗时（毫秒）")
+    private Long duration;
+
+    /** 执行状态 */
+    @Schema(description = "执行状态")
+    private String exeStatus;
+
+    /** 具体消息 */
+    @Schema(description = "具体消息")
+    private String exeMessage;
+
+    /** 执行节点 */
+    @Schema(description = "执行节点")
+    private String nodeId;
+}
@@ -53,6 +53,10 @@ public class DevJobEditParam {
     @NotBlank(message = "cronExpression不能为空")
     private String cronExpression;
 
+    /** 错过触发策略 */
+    @Schema(description = "错过触发策略，默认IGNORE")
+    private String misfirePolicy;
+
     /** 排序码 */
     @Schema(description = "排序码")
     @NotNull(message = "sortCode不能为空")
@@ -0,0 +1,424 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.job.scheduler;
+
+import cn.hutool.core.convert.Convert;
+import cn.hutool.core.exceptions.ExceptionUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.cron.pattern.CronPattern;
+import cn.hutool.cron.pattern.CronPatternUtil;
+import cn.hutool.extra.spring.SpringUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.common.exception.CommonException;
+import vip.xiaonuo.common.timer.CommonTimerTaskRunner;
+import vip.xiaonuo.dev.modular.job.entity.DevJob;
+import vip.xiaonuo.dev.modular.job.entity.DevJobLog;
+import vip.xiaonuo.dev.modular.job.enums.DevJobMisfirePolicyEnum;
+import vip.xiaonuo.dev.modular.job.enums.DevJobStatusEnum;
+import vip.xiaonuo.dev.modular.job.enums.DevJobTriggerTypeEnum;
+import vip.xiaonuo.dev.modular.job.mapper.DevJobLogMapper;
+import vip.xiaonuo.dev.modular.job.mapper.DevJobMapper;
+import vip.xiaonuo.dev.modular.log.enums.DevLogExeStatusEnum;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 集群定时任务调度器
+ * 各节点按相同的cron计划推进，每个触发时间通过Redis租约（SET NX）保证集群内至多执行一次；
+ * 任务按id哈希分片到存活节点，分片节点到点即抢租约，其他节点延迟一段时间再抢，分片节点宕机时由其他节点接管；
+ * 调度延迟或集群停机导致错过触发时按任务的错过触发策略处理，每次执行的耗时与结果记录到执行记录表
+ *
+ * @author xuyuxiang
+ * @date 2024/8/28 9:30
+ **/
+@Slf4j
+@Component
+public class DevJobScheduler {
+
+    /** 当前节点id */
+    private static final String NODE_ID = IdUtil.fastSimpleUUID();
+
+    /** 存活节点，有序集合，分值为最近心跳时间 */
+    private static final String NODE_CACHE_KEY = "dev-job-node";
+
+    /** 定时任务版本，任务启停、编辑、删除提交后更新，各节点据此重新加载调度计划 */
+    private static final String VERSION_CACHE_KEY = "dev-job-version";
+
+    /** 触发租约，key为任务id与触发时间 */
+    private static final String LEASE_CACHE_KEY_PREFIX = "dev-job-lease:";
+
+    /** 任务最近一次触发时间 */
+    private static final String LAST_TRIGGER_CACHE_KEY_PREFIX = "dev-job-last-trigger:";
+
+    /** 调度线程检查间隔（毫秒） */
+    private static final long TICK_MILLIS = 1000;
+
+    /** 节点心跳间隔（毫秒） */
+    private static final long NODE_HEARTBEAT_MILLIS = 5000;
+
+    /** 节点心跳超时时间（毫秒），超时的节点不再参与分片 */
+    private static final long NODE_EXPIRE_MILLIS = 15000;
+
+    /** 非分片节点接管触发前的等待时间（毫秒） */
+    private static final long FAILOVER_DELAY_MILLIS = 3000;
+
+    /** 触发延迟超过此时间视为错过触发（毫秒） */
+    private static final long MISFIRE_THRESHOLD_MILLIS = 10000;
+
+    /** 租约有效期（秒），须远大于错过触发阈值，避免同一触发时间被重复执行 */
+    private static final long LEASE_SECONDS = 600;
+
+    /** 无版本变化时定期重新加载调度计划的间隔（毫秒） */
+    private static final long RELOAD_MILLIS = 60000;
+
+    /** 执行消息最大长度 */
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+
+    @Resource
+    private DevJobMapper devJobMapper;
+
+    @Resource
+    private DevJobLogMapper devJobLogMapper;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /** 任务类名 -> 任务实例，解析一次后缓存 */
+    private final Map<String, CommonTimerTaskRunner> runnerMap = new ConcurrentHashMap<>();
+
+    /** 任务id -> 调度计划，仅调度线程访问 */
+    private final Map<String, JobPlan> planMap = new HashMap<>();
+
+    /** 存活节点，有序 */
+    private List<String> activeNodeList = List.of(NODE_ID);
+
+    /** 当前调度计划对应的任务版本 */
+    private String version;
+
+    private long lastReloadMillis;
+
+    private long lastHeartbeatMillis;
+
+    private volatile boolean reloadRequested;
+
+    private ScheduledExecutorService tickExecutor;
+
+    private ThreadPoolExecutor workerExecutor;
+
+    /**
+     * 启动调度器
+     *
+     * @author xuyuxiang
+     * @date 2024/8/28 9:30
+     **/
+    public synchronized void start() {
+        if (tickExecutor != null) {
+            return;
+        }
+        workerExecutor = new ThreadPoolExecutor(4, 16, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(256),
+                ThreadUtil.newNamedThreadFactory("dev-job-worker-", true));
+        tickExecutor = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newNamedThreadFactory("dev-job-scheduler-", true));
+        reloadRequested = true;
+        tickExecutor.scheduleWithFixedDelay(this::tick, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        log.info(">>> 定时任务调度器已启动，节点：{}", NODE_ID);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (tickExecutor == null) {
+            return;
+        }
+        tickExecutor.shutdownNow();
+        workerExecutor.shutdown();
+        try {
+            redisTemplate.opsForZSet().remove(NODE_CACHE_KEY, NODE_ID);
+        } catch (Exception e) {
+            log.warn(">>> 定时任务节点注销失败：{}", NODE_ID, e);
+        }
+        tickExecutor = null;
+    }
+
+    /**
+     * 通知集群重新加载调度计划，存在事务时在事务提交后通知
+     *
+     * @author xuyuxiang
+     * @date 2024/8/28 9:30
+     **/
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    updateVersion();
+                }
+            });
+        } else {
+            this.updateVersion();
+        }
+    }
+
+    /**
+     * 在当前线程立即执行一次任务并记录，执行异常时抛出
+     *
+     * @author xuyuxiang
+     * @date 2024/8/28 9:30
+     **/
+    public void execute(DevJob devJob) {
+        Exception exception = this.doExecute(devJob, System.currentTimeMillis(), DevJobTriggerTypeEnum.MANUAL);
+        if (exception != null) {
+            throw exception instanceof CommonException commonException ? commonException
+                    : new CommonException("定时任务执行失败：{}", exception.getMessage());
+        }
+    }
+
+    /**
+     * 获取任务类对应的任务实例
+     *
+     * @author xuyuxiang
+     * @date 2024/8/28 9:30
+     **/
+    public CommonTimerTaskRunner getRunner(String actionClass) {
+        return runnerMap.computeIfAbsent(actionClass, key -> {
+            try {
+                return (CommonTimerTaskRunner) SpringUtil.getBean(Class.forName(key));
+            } catch (ClassNotFoundException e) {
+                throw new CommonException("定时任务找不到对应的类，名称为：{}", key);
+            }
+        });
+    }
+
+    private void updateVersion() {
+        try {
+            redisTemplate.opsForValue().set(VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
+        } catch (Exception e) {
+            log.error(">>> 定时任务版本更新失败", e);
+        }
+        reloadRequested = true;
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            if (now - lastHeartbeatMillis >= NODE_HEARTBEAT_MILLIS) {
+                this.heartbeat(now);
+            }
+            String currentVersion = Convert.toStr(redisTemplate.opsForValue().get(VERSION_CACHE_KEY));
+            if (reloadRequested || !Objects.equals(currentVersion, version) || now - lastReloadMillis >= RELOAD_MILLIS) {
+                this.reload(currentVersion, now);
+            }
+            for (JobPlan jobPlan : planMap.values()) {
+                this.trigger(jobPlan, now);
+            }
+        } catch (Exception e) {
+            log.error(">>> 定时任务调度异常", e);
+        }
+    }
+
+    /**
+     * 上报心跳并刷新存活节点
+     */
+    private void heartbeat(long now) {
+        redisTemplate.opsForZSet().add(NODE_CACHE_KEY, NODE_ID, now);
+        redisTemplate.opsForZSet().removeRangeByScore(NODE_CACHE_KEY, 0, now - NODE_EXPIRE_MILLIS);
+        Set<Object> nodeSet = redisTemplate.opsForZSet().range(NODE_CACHE_KEY, 0, -1);
+        if (ObjectUtil.isNotEmpty(nodeSet)) {
+            activeNodeList = nodeSet.stream().map(Convert::toStr).sorted().toList();
+        }
+        lastHeartbeatMillis = now;
+    }
+
+    /**
+     * 从数据库加载运行中的任务，cron表达式未变化的任务保留原有的下次触发时间
+     */
+    private void reload(String currentVersion, long now) {
+        reloadRequested = false;
+        List<DevJob> devJobList = devJobMapper.selectList(new LambdaQueryWrapper<DevJob>()
+                .eq(DevJob::getJobStatus, DevJobStatusEnum.RUNNING.getValue()).orderByAsc(DevJob::getSortCode));
+        Map<String, JobPlan> newPlanMap = new HashMap<>();
+        for (DevJob devJob : devJobList) {
+            JobPlan jobPlan = planMap.get(devJob.getId());
+            if (jobPlan != null && jobPlan.devJob.getCronExpression().equals(devJob.getCronExpression())) {
+                jobPlan.devJob = devJob;
+                newPlanMap.put(devJob.getId(), jobPlan);
+                continue;
+            }
+            try {
+                CronPattern cronPattern = CronPattern.of(devJob.getCronExpression());
+                // 从集群最近一次触发时间开始推进，以便识别停机期间错过的触发
+                Long lastTriggerMillis = Convert.toLong(redisTemplate.opsForValue().get(LAST_TRIGGER_CACHE_KEY_PREFIX + devJob.getId()));
+                long baseMillis = lastTriggerMillis == null ? now : lastTriggerMillis;
+                newPlanMap.put(devJob.getId(), new JobPlan(devJob, cronPattern, nextFireMillis(cronPattern, baseMillis)));
+            } catch (Exception e) {
+                log.error(">>> 定时任务加载失败，名称：{}，cron表达式：{}", devJob.getName(), devJob.getCronExpression(), e);
+            }
+        }
+        planMap.clear();
+        planMap.putAll(newPlanMap);
+        version = currentVersion;
+        lastReloadMillis = now;
+    }
+
+    private void trigger(JobPlan jobPlan, long now) {
+        while (jobPlan.nextFireMillis <= now) {
+            long delayMillis = now - jobPlan.nextFireMillis;
+            if (delayMillis > MISFIRE_THRESHOLD_MILLIS) {
+                this.misfire(jobPlan, now);
+                return;
+            }
+            // 非分片节点等待分片节点先执行，超时仍未执行则接管
+            if (delayMillis < FAILOVER_DELAY_MILLIS && !this.isShardOwner(jobPlan.devJob.getId())) {
+                return;
+            }
+            this.fire(jobPlan.devJob, jobPlan.nextFireMillis, DevJobTriggerTypeEnum.CRON);
+            jobPlan.nextFireMillis = nextFireMillis(jobPlan.cronPattern, jobPlan.nextFireMillis);
+        }
+    }
+
+    /**
+     * 按错过触发策略处理，补偿执行时使用最近一次错过的触发时间抢租约
+     */
+    private void misfire(JobPlan jobPlan, long now) {
+        long lastMissedMillis = jobPlan.nextFireMillis;
+        long nextMillis = nextFireMillis(jobPlan.cronPattern, lastMissedMillis);
+        while (nextMillis <= now) {
+            lastMissedMillis = nextMillis;
+            nextMillis = nextFireMillis(jobPlan.cronPattern, nextMillis);
+        }
+        if (DevJobMisfirePolicyEnum.FIRE_ONCE.getValue().equals(jobPlan.devJob.getMisfirePolicy())) {
+            log.warn(">>> 定时任务错过触发，补偿执行一次，名称：{}，错过的触发时间：{}", jobPlan.devJob.getName(),
+                    new Date(lastMissedMillis));
+            this.fire(jobPlan.devJob, lastMissedMillis, DevJobTriggerTypeEnum.MISFIRE);
+        } else {
+            log.warn(">>> 定时任务错过触发，等待下次触发，名称：{}，错过的触发时间：{}", jobPlan.devJob.getName(),
+                    new Date(jobPlan.nextFireMillis));
+        }
+        jobPlan.nextFireMillis = nextMillis;
+    }
+
+    private boolean isShardOwner(String jobId) {
+        List<String> nodeList = activeNodeList;
+        if (!nodeList.contains(NODE_ID)) {
+            return true;
+        }
+        return NODE_ID.equals(nodeList.get(Math.floorMod(jobId.hashCode(), nodeList.size())));
+    }
+
+    /**
+     * 抢占触发租约，成功后交给执行线程池执行
+     */
+    private void fire(DevJob devJob, long triggerMillis, DevJobTriggerTypeEnum triggerType) {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(LEASE_CACHE_KEY_PREFIX + devJob.getId() +
+                StrUtil.COLON + triggerMillis, NODE_ID, Duration.ofSeconds(LEASE_SECONDS));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+        redisTemplate.opsForValue().set(LAST_TRIGGER_CACHE_KEY_PREFIX + devJob.getId(), triggerMillis);
+        try {
+            workerExecutor.execute(() -> this.doExecute(devJob, triggerMillis, triggerType));
+        } catch (RejectedExecutionException e) {
+            log.error(">>> 定时任务执行线程池已满，本次不执行，名称：{}", devJob.getName());
+            this.record(devJob, triggerMillis, triggerType, System.currentTimeMillis(), new CommonException("执行线程池已满"));
+        }
+    }
+
+    /**
+     * 执行任务并记录耗时与结果，返回执行异常
+     */
+    private Exception doExecute(DevJob devJob, long triggerMillis, DevJobTriggerTypeEnum triggerType) {
+        long startMillis = System.currentTimeMillis();
+        Exception exception = null;
+        try {
+            this.getRunner(devJob.getActionClass()).action(devJob.getExtJson());
+        } catch (Exception e) {
+            exception = e;
+            log.error(">>> 定时任务执行失败，名称：{}", devJob.getName(), e);
+        }
+        this.record(devJob, triggerMillis, triggerType, startMillis, exception);
+        return exception;
+    }
+
+    private void record(DevJob devJob, long triggerMillis, DevJobTriggerTypeEnum triggerType, long startMillis,
+                        Exception exception) {
+        long endMillis = System.currentTimeMillis();
+        DevJobLog devJobLog = new DevJobLog();
+        devJobLog.setJobId(devJob.getId());
+        devJobLog.setJobName(devJob.getName());
+        devJobLog.setActionClass(devJob.getActionClass());
+        devJobLog.setTriggerType(triggerType.getValue());
+        devJobLog.setTriggerTime(new Date(triggerMillis));
+        devJobLog.setStartTime(new Date(startMillis));
+        devJobLog.setEndTime(new Date(endMillis));
+        devJobLog.setDuration(endMillis - startMillis);
+        devJobLog.setNodeId(NODE_ID);
+        if (exception == null) {
+            devJobLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
+        } else {
+            devJobLog.setExeStatus(DevLogExeStatusEnum.FAIL.getValue());
+            devJobLog.setExeMessage(StrUtil.maxLength(ExceptionUtil.stacktraceToString(exception), MAX_MESSAGE_LENGTH));
+        }
+        try {
+            devJobLogMapper.insert(devJobLog);
+        } catch (Exception e) {
+            log.error(">>> 定时任务执行记录保存失败，名称：{}", devJob.getName(), e);
+        }
+    }
+
+    /**
+     * 获取严格晚于 afterMillis 所在秒的下一次触发时间，没有下一次触发时返回Long.MAX_VALUE
+     */
+    private static long nextFireMillis(CronPattern cronPattern, long afterMillis) {
+        Date nextDate = CronPatternUtil.nextDateAfter(cronPattern, new Date(afterMillis / 1000 * 1000 + 1000), true);
+        return nextDate == null ? Long.MAX_VALUE : nextDate.getTime() / 1000 * 1000;
+    }
+
+    /**
+     * 单个任务的调度计划
+     */
+    private static final class JobPlan {
+
+        private DevJob devJob;
+
+        private final CronPattern cronPattern;
+
+        private long nextFireMillis;
+
+        private JobPlan(DevJob devJob, CronPattern cronPattern, long nextFireMillis) {
+            this.devJob = devJob;
+            this.cronPattern = cronPattern;
+            this.nextFireMillis = nextFireMillis;
+        }
+    }
+}
@@ -18,7 +18,6 @@ import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.cron.CronUtil;
 import cn.hutool.cron.pattern.CronPattern;
 import cn.hutool.extra.spring.SpringUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
@@ -26,6 +25,7 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Service;
@@ -36,9 +36,11 @@ import vip.xiaonuo.common.page.CommonPageRequest;
 import vip.xiaonuo.common.timer.CommonTimerTaskRunner;
 import vip.xiaonuo.dev.modular.job.entity.DevJob;
 import vip.xiaonuo.dev.modular.job.enums.DevJobCategoryEnum;
+import vip.xiaonuo.dev.modular.job.enums.DevJobMisfirePolicyEnum;
 import vip.xiaonuo.dev.modular.job.enums.DevJobStatusEnum;
 import vip.xiaonuo.dev.modular.job.mapper.DevJobMapper;
 import vip.xiaonuo.dev.modular.job.param.*;
+import vip.xiaonuo.dev.modular.job.scheduler.DevJobScheduler;
 import vip.xiaonuo.dev.modular.job.service.DevJobService;
 
 import java.util.Collection;
@@ -55,6 +57,9 @@ import java.util.stream.Collectors;
 @Service
 public class DevJobServiceImpl extends ServiceImpl<DevJobMapper, DevJob> implements DevJobService {
 
+    @Resource
+    private DevJobScheduler devJobScheduler;
+
     @Override
     public Page<DevJob> page(DevJobPageParam devJobPageParam) {
         QueryWrapper<DevJob> queryWrapper = new QueryWrapper<DevJob>().checkSqlInjection();
@@ -104,11 +109,17 @@ public class DevJobServiceImpl extends ServiceImpl<DevJobMapper, DevJob> impleme
         DevJob devJob = BeanUtil.toBean(devJobAddParam, DevJob.class);
         devJob.setCode(RandomUtil.randomString(10));
         devJob.setJobStatus(DevJobStatusEnum.STOPPED.getValue());
+        if(ObjectUtil.isEmpty(devJob.getMisfirePolicy())) {
+            devJob.setMisfirePolicy(DevJobMisfirePolicyEnum.IGNORE.getValue());
+        }
         this.save(devJob);
     }
 
     private void checkParam(DevJobAddParam devJobAddParam) {
         DevJobCategoryEnum.validate(devJobAddParam.getCategory());
+        if(ObjectUtil.isNotEmpty(devJobAddParam.getMisfirePolicy())) {
+            DevJobMisfirePolicyEnum.validate(devJobAddParam.getMisfirePolicy());
+        }
         try {
             CronPattern.of(devJobAddParam.getCronExpression());
         } catch (Exception e) {
@@ -139,11 +150,17 @@ public class DevJobServiceImpl extends ServiceImpl<DevJobMapper, DevJob> impleme
         }
         checkParam(devJobEditParam);
         BeanUtil.copyProperties(devJobEditParam, devJob);
+        if(ObjectUtil.isEmpty(devJob.getMisfirePolicy())) {
+            devJob.setMisfirePolicy(DevJobMisfirePolicyEnum.IGNORE.getValue());
+        }
         this.updateById(devJob);
     }
 
     private void checkParam(DevJobEditParam devJobEditParam) {
         DevJobCategoryEnum.validate(devJobEditParam.getCategory());
+        if(ObjectUtil.isNotEmpty(devJobEditParam.getMisfirePolicy())) {
+            DevJobMisfirePolicyEnum.validate(devJobEditParam.getMisfirePolicy());
+        }
         if(!CronExpression.isValidExpression(devJobEditParam.getCronExpression())) {
             throw new CommonException("cron表达式：{}格式不正确", devJobEditParam.getCronExpression());
         }
@@ -170,10 +187,10 @@ public class DevJobServiceImpl extends ServiceImpl<DevJobMapper, DevJob> impleme
     public void delete(List<DevJobIdParam> devJobIdParamList) {
         List<String> devJobIdList = CollStreamUtil.toList(devJobIdParamList, DevJobIdParam::getId);
         if(ObjectUtil.isNotEmpty(devJobIdList)) {
-            // 将运行中的停止
-            devJobIdList.forEach(CronUtil::remove);
             // 执行删除
             this.removeByIds(devJobIdList);
+            // 通知各节点将运行中的停止
+            devJobScheduler.refresh();
         }
     }
 
@@ -198,10 +215,10 @@ public class DevJobServiceImpl extends ServiceImpl<DevJobMapper, DevJob> impleme
         if(devJob.getJobStatus().equals(DevJobStatusEnum.STOPPED.getValue())) {
             throw new CommonException("定时任务已经处于停止状态，id值为：{}", devJob.getId());
         }
-        // 将运行中的定时任务停止
-        CronUtil.remove(devJob.getId());
         this.update(new LambdaUpdateWrapper<DevJob>().eq(DevJob::getId, devJobIdParam.getId())
                 .set(DevJob::getJobStatus, DevJobStatusEnum.STOPPED.getValue()));
+        // 通知各节点将运行中的定时任务停止
+        devJobScheduler.refresh();
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -211,16 +228,15 @@ public class DevJobServiceImpl extends ServiceImpl<DevJobMapper, DevJob> impleme
         if(devJob.getJobStatus().equals(DevJobStatusEnum.RUNNING.getValue())) {
             throw new CommonException("定时任务已经处于运行状态，id值为：{}", devJob.getId());
         }
-        CronUtil.schedule(devJob.getId(), devJob.getCronExpression(), () -> {
-            try {
-                // 运行定时任务
-                ((CommonTimerTaskRunner) SpringUtil.getBean(Class.forName(devJob.getActionClass()))).action(devJob.getExtJson());
-            } catch (ClassNotFoundException e) {
-                throw new CommonException("定时任务找不到对应的类，名称为：{}", devJob.getActionClass());
-            }
-        });
+        try {
+            CronPattern.of(devJob.getCronExpression());
+        } catch (Exception e) {
+            throw new CommonException("cron表达式：{}格式不正确", devJob.getCronExpression());
+        }
         this.update(new LambdaUpdateWrapper<DevJob>().eq(DevJob::getId, devJobIdParam.getId())
                 .set(DevJob::getJobStatus, DevJobStatusEnum.RUNNING.getValue()));
+        // 通知各节点开始调度
+        devJobScheduler.refresh();
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -231,12 +247,8 @@ public class DevJobServiceImpl extends ServiceImpl<DevJobMapper, DevJob> impleme
             // 如果是停止的，则先开启运行
             this.runJob(devJobIdParam);
         }
-        try {
-            // 直接运行一次
-            ((CommonTimerTaskRunner) SpringUtil.getBean(Class.forName(devJob.getActionClass()))).action(devJob.getExtJson());
-        } catch (ClassNotFoundException e) {
-            throw new CommonException("定时任务找不到对应的类，名称为：{}", devJob.getActionClass());
-        }
+        // 直接运行一次
+        devJobScheduler.execute(devJob);
     }
 
     @Override
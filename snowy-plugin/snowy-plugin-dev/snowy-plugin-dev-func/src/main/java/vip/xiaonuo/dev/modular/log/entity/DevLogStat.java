@@ -0,0 +1,46 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 日志统计实体，按日期和分类汇总日志数量
+ *
+ * @author xuyuxiang
+ * @date 2024/8/16 14:05
+ */
+@Getter
+@Setter
+@TableName("DEV_LOG_STAT")
+public class DevLogStat {
+
+    /** id */
+    @Schema(description = "主键")
+    private String id;
+
+    /** 统计日期，格式为yyyy-MM-dd */
+    @Schema(description = "统计日期")
+    private String statDate;
+
+    /** 日志分类 */
+    @Schema(description = "日志分类")
+    private String category;
+
+    /** 日志数量 */
+    @Schema(description = "日志数量")
+    private Long logCount;
+}
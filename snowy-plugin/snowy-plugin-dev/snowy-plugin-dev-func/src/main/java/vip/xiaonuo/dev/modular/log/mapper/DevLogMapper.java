@@ -13,8 +13,11 @@
 package vip.xiaonuo.dev.modular.log.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
 import vip.xiaonuo.dev.modular.log.entity.DevLog;
 
+import java.util.List;
+
 /**
  * 日志Mapper接口
  *
@@ -22,4 +25,28 @@ import vip.xiaonuo.dev.modular.log.entity.DevLog;
  * @date 2022/2/23 18:40
  **/
 public interface DevLogMapper extends BaseMapper<DevLog> {
+
+    /**
+     * 获取日志表的分区名称集合（MySQL）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     **/
+    List<String> selectPartitionNameList();
+
+    /**
+     * 从pmax分区中拆出新的月分区（MySQL）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     **/
+    void addPartition(@Param("partitionName") String partitionName, @Param("lessThan") String lessThan);
+
+    /**
+     * 删除分区（MySQL）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     **/
+    void dropPartition(@Param("partitionName") String partitionName);
 }
@@ -49,4 +49,12 @@ public class DevLogPageParam {
     /** 日志名称关键词 */
     @Schema(description = "日志名称关键词")
     private String searchKey;
+
+    /** 操作时间开始 */
+    @Schema(description = "操作时间开始")
+    private String startOpTime;
+
+    /** 操作时间结束 */
+    @Schema(description = "操作时间结束")
+    private String endOpTime;
 }
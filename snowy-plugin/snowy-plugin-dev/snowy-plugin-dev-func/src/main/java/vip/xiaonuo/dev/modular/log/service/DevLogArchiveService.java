@@ -0,0 +1,60 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.param.DevLogPageParam;
+
+import java.util.Date;
+
+/**
+ * 日志归档Service接口
+ *
+ * @author xuyuxiang
+ * @date 2024/8/19 10:12
+ */
+public interface DevLogArchiveService {
+
+    /**
+     * 执行归档：维护分区，并将超出保留期的月份导出为压缩文件后从日志表中移除
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     */
+    void archive();
+
+    /**
+     * 判断时间区间内是否存在已归档的月份，开始时间为空时表示不限
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     */
+    boolean hasArchive(Date beginDate, Date endDate);
+
+    /**
+     * 从归档文件中分页查询，按操作时间倒序，offset为跳过的条数
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     */
+    Page<DevLog> page(DevLogPageParam devLogPageParam, Date beginDate, Date endDate, long offset, long size);
+
+    /**
+     * 根据id从归档文件中获取日志，不存在时返回空
+     *
+     * @author xuyuxiang
+     * @date 2024/8/19 10:12
+     */
+    DevLog getById(String id);
+}
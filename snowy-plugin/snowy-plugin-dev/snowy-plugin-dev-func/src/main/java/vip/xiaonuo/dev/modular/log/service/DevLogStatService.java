@@ -0,0 +1,77 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.entity.DevLogStat;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 日志统计Service接口
+ *
+ * @author xuyuxiang
+ * @date 2024/8/16 14:05
+ */
+public interface DevLogStatService extends IService<DevLogStat> {
+
+    /**
+     * 按日期和分类累加已写入的日志数量
+     *
+     * @author xuyuxiang
+     * @date 2024/8/16 14:05
+     */
+    void accumulate(List<DevLog> devLogList);
+
+    /**
+     * 根据日志表重新统计指定日期区间（含开始，不含结束）内每天的日志数量
+     *
+     * @author xuyuxiang
+     * @date 2024/8/16 14:05
+     */
+    void rebuild(Date beginDate, Date endDate);
+
+    /**
+     * 获取日志表中最早的操作时间，无日志时返回空
+     *
+     * @author xuyuxiang
+     * @date 2024/8/16 14:05
+     */
+    Date getEarliestOpTime();
+
+    /**
+     * 获取指定分类在日期区间（含首尾）内的统计
+     *
+     * @author xuyuxiang
+     * @date 2024/8/16 14:05
+     */
+    List<DevLogStat> listByCategoryAndDate(List<String> categoryList, String beginDate, String endDate);
+
+    /**
+     * 获取指定分类的日志总数
+     *
+     * @author xuyuxiang
+     * @date 2024/8/16 14:05
+     */
+    long sumByCategory(String category);
+
+    /**
+     * 删除指定分类的统计
+     *
+     * @author xuyuxiang
+     * @date 2024/8/16 14:05
+     */
+    void removeByCategory(String category);
+}
@@ -0,0 +1,423 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.service.impl;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.io.IORuntimeException;
+import cn.hutool.core.map.MapUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import vip.xiaonuo.dev.api.DevConfigApi;
+import vip.xiaonuo.dev.core.prop.DevLogProperties;
+import vip.xiaonuo.dev.modular.file.entity.DevFile;
+import vip.xiaonuo.dev.modular.file.service.DevFileService;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.mapper.DevLogMapper;
+import vip.xiaonuo.dev.modular.log.param.DevLogPageParam;
+import vip.xiaonuo.dev.modular.log.service.DevLogArchiveService;
+import vip.xiaonuo.dev.modular.log.service.DevLogStatService;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 日志归档Service接口实现类
+ * <p>
+ * 超出保留期的月份按id倒序导出为 dev-log-yyyyMM*.jsonl.gz 文件，经文件存储引擎保存并记录在文件表中，
+ * 文件表的扩展信息中保存该文件的条数、分类条数、时间与id范围作为索引；导出完成后，若日志表为MySQL按月分区表
+ * 则直接删除对应分区，否则按id分批删除。查询时能由索引得出条数的文件不再读取，其余文件只顺序读取一遍
+ *
+ * @author xuyuxiang
+ * @date 2024/8/19 10:12
+ */
+@Slf4j
+@Service
+public class DevLogArchiveServiceImpl implements DevLogArchiveService {
+
+    /** 系统默认文件引擎配置的key */
+    private static final String SNOWY_SYS_DEFAULT_FILE_ENGINE_KEY = "SNOWY_SYS_DEFAULT_FILE_ENGINE";
+
+    /** 归档文件key前缀 */
+    private static final String ARCHIVE_FILE_KEY_PREFIX = "dev-log-archive/";
+
+    /** 归档文件前缀 */
+    private static final String ARCHIVE_FILE_PREFIX = "dev-log-";
+
+    /** 归档文件后缀 */
+    private static final String ARCHIVE_FILE_SUFFIX = ".jsonl.gz";
+
+    /** 分区名称前缀 */
+    private static final String PARTITION_PREFIX = "p";
+
+    /** 兜底分区名称 */
+    private static final String PARTITION_MAX = "pmax";
+
+    /** 雪花id的起始时间戳 */
+    private static final long SNOWFLAKE_EPOCH = 1288834974657L;
+
+    @Resource
+    private DevLogProperties devLogProperties;
+
+    @Resource
+    private DevLogMapper devLogMapper;
+
+    @Resource
+    private DevLogStatService devLogStatService;
+
+    @Resource
+    private DevFileService devFileService;
+
+    @Resource
+    private DevConfigApi devConfigApi;
+
+    @Resource
+    private DataSource dataSource;
+
+    @Override
+    public void archive() {
+        List<String> partitionNameList = this.getPartitionNameList();
+        this.addPartitions(partitionNameList);
+        if (devLogProperties.getRetentionMonths() <= 0) {
+            return;
+        }
+        Date earliestOpTime = devLogStatService.getEarliestOpTime();
+        if (ObjectUtil.isEmpty(earliestOpTime)) {
+            return;
+        }
+        DateTime retainBegin = DateUtil.offsetMonth(DateUtil.beginOfMonth(DateTime.now()), 1 - devLogProperties.getRetentionMonths());
+        DateTime monthBegin = DateUtil.beginOfMonth(earliestOpTime);
+        while (monthBegin.isBefore(retainBegin)) {
+            DateTime monthEnd = DateUtil.offsetMonth(monthBegin, 1);
+            long start = System.currentTimeMillis();
+            String maxId = this.export(monthBegin, monthEnd);
+            String partitionName = PARTITION_PREFIX + DateUtil.format(monthBegin, "yyyyMM");
+            if (partitionNameList.contains(partitionName)) {
+                devLogMapper.dropPartition(partitionName);
+            } else if (ObjectUtil.isNotEmpty(maxId)) {
+                this.removeExported(monthBegin, monthEnd, maxId);
+            }
+            log.info("日志归档完成，月份：{}，耗时：{}ms", DateUtil.format(monthBegin, "yyyy-MM"), System.currentTimeMillis() - start);
+            monthBegin = monthEnd;
+        }
+    }
+
+    @Override
+    public boolean hasArchive(Date beginDate, Date endDate) {
+        return !this.listArchiveFile(beginDate, endDate).isEmpty();
+    }
+
+    @Override
+    public Page<DevLog> page(DevLogPageParam devLogPageParam, Date beginDate, Date endDate, long offset, long size) {
+        Predicate<DevLog> predicate = devLog -> {
+            if (ObjectUtil.isNotEmpty(devLogPageParam.getCategory()) && !devLogPageParam.getCategory().equals(devLog.getCategory())) {
+                return false;
+            }
+            if (ObjectUtil.isNotEmpty(devLogPageParam.getSearchKey()) && !StrUtil.contains(devLog.getName(), devLogPageParam.getSearchKey())) {
+                return false;
+            }
+            Date opTime = devLog.getOpTime();
+            return ObjectUtil.isNotEmpty(opTime) && (ObjectUtil.isEmpty(beginDate) || !opTime.before(beginDate))
+                    && (ObjectUtil.isEmpty(endDate) || !opTime.after(endDate));
+        };
+        // 文件按月份倒序、文件内按id倒序，逐个文件累计命中数，当前页之外且索引可得出命中数的文件不读取
+        List<DevLog> devLogList = CollectionUtil.newArrayList();
+        long total = 0;
+        long skip = offset;
+        for (DevFile archiveFile : this.listArchiveFile(beginDate, endDate)) {
+            Long indexCount = this.getIndexCount(archiveFile, devLogPageParam, beginDate, endDate);
+            if (ObjectUtil.isNotEmpty(indexCount) && (devLogList.size() >= size || skip >= indexCount)) {
+                total += indexCount;
+                skip -= Math.min(skip, indexCount);
+                continue;
+            }
+            long from = skip;
+            long to = skip + size - devLogList.size();
+            long[] matchCount = {0};
+            this.readArchiveFile(archiveFile, devLog -> {
+                if (!predicate.test(devLog)) {
+                    return true;
+                }
+                if (matchCount[0] >= from && matchCount[0] < to) {
+                    devLog.setParamJson(null);
+                    devLog.setResultJson(null);
+                    devLog.setExeMessage(null);
+                    devLog.setSignData(null);
+                    devLogList.add(devLog);
+                }
+                matchCount[0]++;
+                // 命中数已由索引得出时，取满当前页即可停止读取
+                return ObjectUtil.isEmpty(indexCount) || matchCount[0] < to;
+            });
+            long count = ObjectUtil.isNotEmpty(indexCount) ? indexCount : matchCount[0];
+            total += count;
+            skip -= Math.min(skip, count);
+        }
+        Page<DevLog> page = new Page<>(1, size, total);
+        page.setRecords(devLogList);
+        return page;
+    }
+
+    @Override
+    public DevLog getById(String id) {
+        if (!NumberUtil.isLong(id)) {
+            return null;
+        }
+        long idValue = Long.parseLong(id);
+        Date idTime = new Date((idValue >> 22) + SNOWFLAKE_EPOCH);
+        DevLog[] result = {null};
+        for (DevFile archiveFile : this.listArchiveFile(DateUtil.beginOfMonth(idTime), DateUtil.endOfMonth(idTime))) {
+            ArchiveIndex archiveIndex = this.getArchiveIndex(archiveFile);
+            if (ObjectUtil.isNotEmpty(archiveIndex) && (idValue < archiveIndex.getMinId() || idValue > archiveIndex.getMaxId())) {
+                continue;
+            }
+            this.readArchiveFile(archiveFile, devLog -> {
+                if (id.equals(devLog.getId())) {
+                    result[0] = devLog;
+                    return false;
+                }
+                return true;
+            });
+            if (ObjectUtil.isNotEmpty(result[0])) {
+                break;
+            }
+        }
+        return result[0];
+    }
+
+    /**
+     * 将指定月份的日志按id倒序导出，存入存储引擎并记录索引，返回导出的最大id，没有日志时返回空
+     */
+    private String export(Date monthBegin, Date monthEnd) {
+        String month = DateUtil.format(monthBegin, "yyyyMM");
+        String fileKey = ARCHIVE_FILE_KEY_PREFIX + ARCHIVE_FILE_PREFIX + month + ARCHIVE_FILE_SUFFIX;
+        if (devFileService.count(new LambdaQueryWrapper<DevFile>().eq(DevFile::getFileKey, fileKey)) > 0) {
+            // 已归档过的月份又出现了日志（如补录），单独存放
+            fileKey = ARCHIVE_FILE_KEY_PREFIX + ARCHIVE_FILE_PREFIX + month + "-" + System.currentTimeMillis() + ARCHIVE_FILE_SUFFIX;
+        }
+        File tempFile = FileUtil.createTempFile(ARCHIVE_FILE_PREFIX + month, ARCHIVE_FILE_SUFFIX, null, true);
+        ArchiveIndex archiveIndex = new ArchiveIndex();
+        String lastId = null;
+        try {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                    FileUtil.getOutputStream(tempFile)), StandardCharsets.UTF_8))) {
+                while (true) {
+                    LambdaQueryWrapper<DevLog> queryWrapper = new LambdaQueryWrapper<DevLog>().ge(DevLog::getOpTime, monthBegin)
+                            .lt(DevLog::getOpTime, monthEnd).lt(ObjectUtil.isNotEmpty(lastId), DevLog::getId, lastId).orderByDesc(DevLog::getId);
+                    List<DevLog> devLogList = devLogMapper.selectPage(new Page<>(1, devLogProperties.getArchiveBatchSize(), false),
+                            queryWrapper).getRecords();
+                    if (devLogList.isEmpty()) {
+                        break;
+                    }
+                    for (DevLog devLog : devLogList) {
+                        writer.write(JSONUtil.toJsonStr(devLog));
+                        writer.newLine();
+                        archiveIndex.add(devLog);
+                    }
+                    lastId = devLogList.get(devLogList.size() - 1).getId();
+                }
+            } catch (IOException e) {
+                throw new IORuntimeException(e);
+            }
+            if (archiveIndex.getCount() == 0) {
+                return null;
+            }
+            String engine = ObjectUtil.isNotEmpty(devLogProperties.getArchiveEngine()) ? devLogProperties.getArchiveEngine()
+                    : devConfigApi.getValueByKey(SNOWY_SYS_DEFAULT_FILE_ENGINE_KEY);
+            devFileService.storageFile(engine, fileKey, tempFile, JSONUtil.toJsonStr(archiveIndex));
+        } finally {
+            FileUtil.del(tempFile);
+        }
+        return String.valueOf(archiveIndex.getMaxId());
+    }
+
+    /**
+     * 分批删除已导出的日志，id不超过导出的最大id，避免删除导出期间新写入的日志
+     */
+    private void removeExported(Date monthBegin, Date monthEnd, String maxId) {
+        while (true) {
+            List<String> idList = devLogMapper.selectPage(new Page<>(1, devLogProperties.getArchiveBatchSize(), false),
+                    new LambdaQueryWrapper<DevLog>().select(DevLog::getId).ge(DevLog::getOpTime, monthBegin)
+                            .lt(DevLog::getOpTime, monthEnd).le(DevLog::getId, maxId)).getRecords()
+                    .stream().map(DevLog::getId).collect(Collectors.toList());
+            if (idList.isEmpty()) {
+                break;
+            }
+            devLogMapper.deleteBatchIds(idList);
+        }
+    }
+
+    /**
+     * 获取日志表的分区名称集合，非MySQL或未分区时返回空集合
+     */
+    private List<String> getPartitionNameList() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+                return CollectionUtil.newArrayList();
+            }
+        } catch (SQLException e) {
+            log.error(">>> 获取数据库类型失败：", e);
+            return CollectionUtil.newArrayList();
+        }
+        return devLogMapper.selectPartitionNameList();
+    }
+
+    /**
+     * 从pmax分区中拆出当月及之后若干个月的分区，仅在已按月分区时执行
+     */
+    private void addPartitions(List<String> partitionNameList) {
+        if (!partitionNameList.contains(PARTITION_MAX)) {
+            return;
+        }
+        String maxPartitionName = partitionNameList.stream().filter(partitionName -> !PARTITION_MAX.equals(partitionName))
+                .max(Comparator.naturalOrder()).orElse(StrUtil.EMPTY);
+        DateTime monthBegin = DateUtil.beginOfMonth(DateTime.now());
+        for (int i = 0; i <= devLogProperties.getPartitionAheadMonths(); i++) {
+            DateTime nextMonthBegin = DateUtil.offsetMonth(monthBegin, 1);
+            String partitionName = PARTITION_PREFIX + DateUtil.format(monthBegin, "yyyyMM");
+            if (partitionName.compareTo(maxPartitionName) > 0) {
+                devLogMapper.addPartition(partitionName, DateUtil.formatDate(nextMonthBegin));
+                partitionNameList.add(partitionName);
+                maxPartitionName = partitionName;
+            }
+            monthBegin = nextMonthBegin;
+        }
+    }
+
+    /**
+     * 获取与时间区间有交集的归档文件，按月份倒序，开始时间为空时表示不限
+     */
+    private List<DevFile> listArchiveFile(Date beginDate, Date endDate) {
+        List<DevFile> devFileList = devFileService.list(new LambdaQueryWrapper<DevFile>()
+                .likeRight(DevFile::getFileKey, ARCHIVE_FILE_KEY_PREFIX));
+        String beginMonth = ObjectUtil.isEmpty(beginDate) ? StrUtil.EMPTY : DateUtil.format(beginDate, "yyyyMM");
+        String endMonth = ObjectUtil.isEmpty(endDate) ? null : DateUtil.format(endDate, "yyyyMM");
+        return devFileList.stream().filter(devFile -> {
+            String month = StrUtil.sub(devFile.getName(), ARCHIVE_FILE_PREFIX.length(), ARCHIVE_FILE_PREFIX.length() + 6);
+            return month.compareTo(beginMonth) >= 0 && (ObjectUtil.isEmpty(endMonth) || month.compareTo(endMonth) <= 0);
+        }).sorted(Comparator.comparing(DevFile::getName).reversed()).collect(Collectors.toList());
+    }
+
+    /**
+     * 获取归档文件的索引，没有索引时返回空
+     */
+    private ArchiveIndex getArchiveIndex(DevFile archiveFile) {
+        return JSONUtil.isTypeJSONObject(archiveFile.getExtJson()) ? JSONUtil.toBean(archiveFile.getExtJson(), ArchiveIndex.class) : null;
+    }
+
+    /**
+     * 由索引得出归档文件的命中数，有关键词或时间区间只覆盖文件的一部分时无法得出，返回空
+     */
+    private Long getIndexCount(DevFile archiveFile, DevLogPageParam devLogPageParam, Date beginDate, Date endDate) {
+        ArchiveIndex archiveIndex = this.getArchiveIndex(archiveFile);
+        if (ObjectUtil.isEmpty(archiveIndex) || ObjectUtil.isNotEmpty(devLogPageParam.getSearchKey())) {
+            return null;
+        }
+        if ((ObjectUtil.isNotEmpty(beginDate) && archiveIndex.getMinOpTime() < beginDate.getTime())
+                || (ObjectUtil.isNotEmpty(endDate) && archiveIndex.getMaxOpTime() > endDate.getTime())) {
+            return null;
+        }
+        if (ObjectUtil.isEmpty(devLogPageParam.getCategory())) {
+            return archiveIndex.getCount();
+        }
+        return archiveIndex.getCategoryCount().getOrDefault(devLogPageParam.getCategory(), 0L);
+    }
+
+    /**
+     * 从存储引擎读取归档文件并逐行解析，handler返回false时停止读取
+     */
+    private void readArchiveFile(DevFile archiveFile, Predicate<DevLog> handler) {
+        byte[] bytes = devFileService.getFileBytes(archiveFile);
+        if (ObjectUtil.isEmpty(bytes)) {
+            log.warn(">>> 日志归档文件不存在：{}", archiveFile.getFileKey());
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(
+                new ByteArrayInputStream(bytes)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (StrUtil.isNotBlank(line) && !handler.test(JSONUtil.toBean(line, DevLog.class))) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            throw new IORuntimeException(e);
+        }
+    }
+
+    /**
+     * 归档文件索引，保存在文件表的扩展信息中
+     */
+    @Getter
+    @Setter
+    public static class ArchiveIndex {
+
+        /** 条数 */
+        private long count;
+
+        /** 各分类的条数 */
+        private Map<String, Long> categoryCount = MapUtil.newHashMap();
+
+        /** 最早操作时间戳 */
+        private long minOpTime = Long.MAX_VALUE;
+
+        /** 最晚操作时间戳 */
+        private long maxOpTime = Long.MIN_VALUE;
+
+        /** 最小id */
+        private long minId = Long.MAX_VALUE;
+
+        /** 最大id */
+        private long maxId = Long.MIN_VALUE;
+
+        private void add(DevLog devLog) {
+            count++;
+            categoryCount.merge(StrUtil.nullToEmpty(devLog.getCategory()), 1L, Long::sum);
+            if (ObjectUtil.isNotEmpty(devLog.getOpTime())) {
+                minOpTime = Math.min(minOpTime, devLog.getOpTime().getTime());
+                maxOpTime = Math.max(maxOpTime, devLog.getOpTime().getTime());
+            }
+            long id = Long.parseLong(devLog.getId());
+            minId = Math.min(minId, id);
+            maxId = Math.max(maxId, id);
+        }
+    }
+}
@@ -13,23 +13,24 @@
 package vip.xiaonuo.dev.modular.log.service.impl;
 
 import cn.hutool.core.collection.CollectionUtil;
-import cn.hutool.core.convert.Convert;
 import cn.hutool.core.date.DateTime;
 import cn.hutool.core.date.DateUnit;
 import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
 import vip.xiaonuo.common.enums.CommonSortOrderEnum;
 import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.page.CommonPageRequest;
+import vip.xiaonuo.dev.core.prop.DevLogProperties;
 import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.entity.DevLogStat;
 import vip.xiaonuo.dev.modular.log.enums.DevLogCategoryEnum;
 import vip.xiaonuo.dev.modular.log.mapper.DevLogMapper;
 import vip.xiaonuo.dev.modular.log.param.DevLogDeleteParam;
@@ -39,8 +40,11 @@ import vip.xiaonuo.dev.modular.log.result.DevLogOpBarChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogOpPieChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogVisLineChartDataResult;
 import vip.xiaonuo.dev.modular.log.result.DevLogVisPieChartDataResult;
+import vip.xiaonuo.dev.modular.log.service.DevLogArchiveService;
 import vip.xiaonuo.dev.modular.log.service.DevLogService;
+import vip.xiaonuo.dev.modular.log.service.DevLogStatService;
 
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -54,6 +58,15 @@ import java.util.stream.Collectors;
 @Service
 public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> implements DevLogService {
 
+    @Resource
+    private DevLogStatService devLogStatService;
+
+    @Resource
+    private DevLogArchiveService devLogArchiveService;
+
+    @Resource
+    private DevLogProperties devLogProperties;
+
     @Override
     public Page<DevLog> page(DevLogPageParam devLogPageParam) {
         QueryWrapper<DevLog> queryWrapper = new QueryWrapper<DevLog>().checkSqlInjection();
@@ -70,54 +83,74 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
         if(ObjectUtil.isNotEmpty(devLogPageParam.getSearchKey())) {
             queryWrapper.lambda().like(DevLog::getName, devLogPageParam.getSearchKey());
         }
-        if(ObjectUtil.isAllNotEmpty(devLogPageParam.getSortField(), devLogPageParam.getSortOrder())) {
+        Date startOpTime = ObjectUtil.isNotEmpty(devLogPageParam.getStartOpTime()) ? DateUtil.parse(devLogPageParam.getStartOpTime()) : null;
+        Date endOpTime = ObjectUtil.isNotEmpty(devLogPageParam.getEndOpTime()) ? DateUtil.parse(devLogPageParam.getEndOpTime()) : null;
+        queryWrapper.lambda().ge(ObjectUtil.isNotEmpty(startOpTime), DevLog::getOpTime, startOpTime)
+                .le(ObjectUtil.isNotEmpty(endOpTime), DevLog::getOpTime, endOpTime);
+        boolean customSort = ObjectUtil.isAllNotEmpty(devLogPageParam.getSortField(), devLogPageParam.getSortOrder());
+        if(customSort) {
             CommonSortOrderEnum.validate(devLogPageParam.getSortOrder());
             queryWrapper.orderBy(true, devLogPageParam.getSortOrder().equals(CommonSortOrderEnum.ASC.getValue()),
                     StrUtil.toUnderlineCase(devLogPageParam.getSortField()));
         } else {
             queryWrapper.lambda().orderByDesc(DevLog::getCreateTime);
         }
-        return this.page(CommonPageRequest.defaultPage(), queryWrapper);
+        Page<DevLog> page = this.page(CommonPageRequest.defaultPage(), queryWrapper);
+        // 指定了开始时间且区间内存在归档时，在线日志之后接续归档日志（自定义排序时仅查询在线日志）
+        if(!customSort && ObjectUtil.isNotEmpty(startOpTime) && devLogArchiveService.hasArchive(startOpTime, endOpTime)) {
+            long offset = Math.max(0, (page.getCurrent() - 1) * page.getSize() - page.getTotal());
+            long size = page.getSize() - page.getRecords().size();
+            Page<DevLog> archivePage = devLogArchiveService.page(devLogPageParam, startOpTime, endOpTime, offset, size);
+            List<DevLog> devLogList = CollectionUtil.newArrayList(page.getRecords());
+            devLogList.addAll(archivePage.getRecords());
+            page.setRecords(devLogList);
+            page.setTotal(page.getTotal() + archivePage.getTotal());
+        }
+        return page;
     }
 
     @Override
     public DevLog detail(DevLogIdParam devLogIdParam) {
         DevLog devLog = this.getById(devLogIdParam.getId());
         if (ObjectUtil.isEmpty(devLog)) {
-            throw new CommonException("该日志不存在，id值为：{}", devLog.getId());
+            devLog = devLogArchiveService.getById(devLogIdParam.getId());
+        }
+        if (ObjectUtil.isEmpty(devLog)) {
+            throw new CommonException("该日志不存在，id值为：{}", devLogIdParam.getId());
         }
         return devLog;
     }
 
     @Override
     public void delete(DevLogDeleteParam devLogDeleteParam) {
-        this.remove(new LambdaQueryWrapper<DevLog>().eq(DevLog::getCategory, devLogDeleteParam.getCategory()));
+        // 分批删除，避免大表单条语句长时间锁表
+        while (true) {
+            List<String> idList = this.page(new Page<>(1, devLogProperties.getArchiveBatchSize(), false),
+                    new LambdaQueryWrapper<DevLog>().select(DevLog::getId).eq(DevLog::getCategory, devLogDeleteParam.getCategory()))
+                    .getRecords().stream().map(DevLog::getId).collect(Collectors.toList());
+            if (idList.isEmpty()) {
+                break;
+            }
+            this.removeByIds(idList);
+        }
+        devLogStatService.removeByCategory(devLogDeleteParam.getCategory());
     }
 
     @Override
     public List<DevLogVisLineChartDataResult> visLogLineChartData() {
         DateTime lastWeek = DateUtil.lastWeek();
         DateTime now = DateTime.now();
-        Map<String, List<JSONObject>> listMap = this.list(new LambdaQueryWrapper<DevLog>().in(DevLog::getCategory, DevLogCategoryEnum.LOGIN.getValue(),
-                DevLogCategoryEnum.LOGOUT.getValue()).between(DevLog::getOpTime, lastWeek, now).orderByAsc(DevLog::getOpTime))
-                .stream().map(devLog -> JSONUtil.parseObj(devLog).set("date", DateUtil.formatDate(devLog.getOpTime())))
-                .collect(Collectors.groupingBy(jsonObject -> jsonObject.getStr("date")));
+        Map<String, Map<String, Long>> statMap = this.getStatMap(CollectionUtil.newArrayList(DevLogCategoryEnum.LOGIN.getValue(),
+                DevLogCategoryEnum.LOGOUT.getValue()), lastWeek, now);
         long between = DateUtil.between(lastWeek, now, DateUnit.DAY);
         List<DevLogVisLineChartDataResult> resultList = CollectionUtil.newArrayList();
         for(int i = 1; i<= between; i++) {
             DevLogVisLineChartDataResult devLogVisLineChartDataResult = new DevLogVisLineChartDataResult();
             String date = DateUtil.formatDate(DateUtil.offsetDay(lastWeek, i));
             devLogVisLineChartDataResult.setDate(date);
-            List<JSONObject> jsonObjectList = listMap.get(date);
-            if(ObjectUtil.isNotEmpty(jsonObjectList)) {
-                devLogVisLineChartDataResult.setLoginCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.LOGIN.getValue())).count());
-                devLogVisLineChartDataResult.setLogoutCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.LOGOUT.getValue())).count());
-            } else {
-                devLogVisLineChartDataResult.setLoginCount(0L);
-                devLogVisLineChartDataResult.setLogoutCount(0L);
-            }
+            Map<String, Long> categoryCountMap = statMap.getOrDefault(date, MapUtil.empty());
+            devLogVisLineChartDataResult.setLoginCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.LOGIN.getValue(), 0L));
+            devLogVisLineChartDataResult.setLogoutCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.LOGOUT.getValue(), 0L));
             resultList.add(devLogVisLineChartDataResult);
         }
         return resultList;
@@ -128,14 +161,12 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
         List<DevLogVisPieChartDataResult> resultList = CollectionUtil.newArrayList();
         DevLogVisPieChartDataResult devLogLoginPieChartDataResult = new DevLogVisPieChartDataResult();
         devLogLoginPieChartDataResult.setType("登录");
-        devLogLoginPieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.LOGIN.getValue()))));
+        devLogLoginPieChartDataResult.setValue(devLogStatService.sumByCategory(DevLogCategoryEnum.LOGIN.getValue()));
         resultList.add(devLogLoginPieChartDataResult);
 
         DevLogVisPieChartDataResult devLogLogoutPieChartDataResult = new DevLogVisPieChartDataResult();
         devLogLogoutPieChartDataResult.setType("登出");
-        devLogLogoutPieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.LOGOUT.getValue()))));
+        devLogLogoutPieChartDataResult.setValue(devLogStatService.sumByCategory(DevLogCategoryEnum.LOGOUT.getValue()));
         resultList.add(devLogLogoutPieChartDataResult);
         return resultList;
     }
@@ -144,13 +175,8 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
     public List<DevLogOpBarChartDataResult> opLogBarChartData() {
         DateTime lastWeek = DateUtil.lastWeek();
         DateTime now = DateTime.now();
-        Map<String, List<JSONObject>> listMap = this.list(new LambdaQueryWrapper<DevLog>().select(DevLog::getId,
-                                DevLog::getName,DevLog::getOpIp, DevLog::getOpAddress, DevLog::getCategory, DevLog::getClassName,
-                                DevLog::getMethodName, DevLog::getOpTime, DevLog::getOpUser)
-                        .in(DevLog::getCategory, DevLogCategoryEnum.OPERATE.getValue(),
-                                DevLogCategoryEnum.EXCEPTION.getValue()).between(DevLog::getOpTime, lastWeek, now).orderByAsc(DevLog::getOpTime))
-                .stream().map(devLog -> JSONUtil.parseObj(devLog).set("date", DateUtil.formatDate(devLog.getOpTime())))
-                .collect(Collectors.groupingBy(jsonObject -> jsonObject.getStr("date")));
+        Map<String, Map<String, Long>> statMap = this.getStatMap(CollectionUtil.newArrayList(DevLogCategoryEnum.OPERATE.getValue(),
+                DevLogCategoryEnum.EXCEPTION.getValue()), lastWeek, now);
         long between = DateUtil.between(lastWeek, now, DateUnit.DAY);
         List<DevLogOpBarChartDataResult> resultList = CollectionUtil.newArrayList();
         for(int i = 1; i<= between; i++) {
@@ -161,16 +187,9 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
             DevLogOpBarChartDataResult devLogExceptionBarChartDataResult = new DevLogOpBarChartDataResult();
             devLogExceptionBarChartDataResult.setDate(date);
             devLogExceptionBarChartDataResult.setName("异常日志");
-            List<JSONObject> jsonObjectList = listMap.get(date);
-            if(ObjectUtil.isNotEmpty(jsonObjectList)) {
-                devLogOperateBarChartDataResult.setCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.OPERATE.getValue())).count());
-                devLogExceptionBarChartDataResult.setCount(jsonObjectList.stream().filter(jsonObject -> jsonObject.getStr("category")
-                        .equals(DevLogCategoryEnum.EXCEPTION.getValue())).count());
-            } else {
-                devLogOperateBarChartDataResult.setCount(0L);
-                devLogExceptionBarChartDataResult.setCount(0L);
-            }
+            Map<String, Long> categoryCountMap = statMap.getOrDefault(date, MapUtil.empty());
+            devLogOperateBarChartDataResult.setCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.OPERATE.getValue(), 0L));
+            devLogExceptionBarChartDataResult.setCount(categoryCountMap.getOrDefault(DevLogCategoryEnum.EXCEPTION.getValue(), 0L));
             resultList.add(devLogOperateBarChartDataResult);
             resultList.add(devLogExceptionBarChartDataResult);
         }
@@ -182,15 +201,25 @@ public class DevLogServiceImpl extends ServiceImpl<DevLogMapper, DevLog> impleme
         List<DevLogOpPieChartDataResult> resultList = CollectionUtil.newArrayList();
         DevLogOpPieChartDataResult devLogOperatePieChartDataResult = new DevLogOpPieChartDataResult();
         devLogOperatePieChartDataResult.setType("操作日志");
-        devLogOperatePieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.OPERATE.getValue()))));
+        devLogOperatePieChartDataResult.setValue(devLogStatService.sumByCategory(DevLogCategoryEnum.OPERATE.getValue()));
         resultList.add(devLogOperatePieChartDataResult);
 
         DevLogOpPieChartDataResult devLogExceptionPieChartDataResult = new DevLogOpPieChartDataResult();
         devLogExceptionPieChartDataResult.setType("异常日志");
-        devLogExceptionPieChartDataResult.setValue(Convert.toLong(this.count(new LambdaQueryWrapper<DevLog>()
-                .eq(DevLog::getCategory, DevLogCategoryEnum.EXCEPTION.getValue()))));
+        devLogExceptionPieChartDataResult.setValue(devLogStatService.sumByCategory(DevLogCategoryEnum.EXCEPTION.getValue()));
         resultList.add(devLogExceptionPieChartDataResult);
         return resultList;
     }
+
+    /**
+     * 获取日期区间内的日志统计，结构为日期-分类-数量
+     *
+     * @author xuyuxiang
+     * @date 2024/8/16 14:05
+     */
+    private Map<String, Map<String, Long>> getStatMap(List<String> categoryList, Date beginDate, Date endDate) {
+        return devLogStatService.listByCategoryAndDate(categoryList, DateUtil.formatDate(beginDate), DateUtil.formatDate(endDate))
+                .stream().collect(Collectors.groupingBy(DevLogStat::getStatDate,
+                        Collectors.toMap(DevLogStat::getCategory, DevLogStat::getLogCount, Long::sum)));
+    }
 }
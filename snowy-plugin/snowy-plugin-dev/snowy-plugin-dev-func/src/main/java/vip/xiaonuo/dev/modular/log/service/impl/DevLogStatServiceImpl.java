@@ -0,0 +1,130 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.service.impl;
+
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.util.ObjectUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.entity.DevLogStat;
+import vip.xiaonuo.dev.modular.log.enums.DevLogCategoryEnum;
+import vip.xiaonuo.dev.modular.log.mapper.DevLogMapper;
+import vip.xiaonuo.dev.modular.log.mapper.DevLogStatMapper;
+import vip.xiaonuo.dev.modular.log.service.DevLogStatService;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 日志统计Service接口实现类
+ *
+ * @author xuyuxiang
+ * @date 2024/8/16 14:05
+ */
+@Service
+public class DevLogStatServiceImpl extends ServiceImpl<DevLogStatMapper, DevLogStat> implements DevLogStatService {
+
+    @Resource
+    private DevLogMapper devLogMapper;
+
+    @Override
+    public void accumulate(List<DevLog> devLogList) {
+        Map<String, Map<String, Long>> countMap = devLogList.stream()
+                .filter(devLog -> ObjectUtil.isAllNotEmpty(devLog.getOpTime(), devLog.getCategory()))
+                .collect(Collectors.groupingBy(devLog -> DateUtil.formatDate(devLog.getOpTime()),
+                        Collectors.groupingBy(DevLog::getCategory, Collectors.counting())));
+        countMap.forEach((statDate, categoryCountMap) -> categoryCountMap.forEach((category, count) -> {
+            // 先累加，不存在时插入，并发插入冲突时再累加一次
+            if (!this.increase(statDate, category, count)) {
+                try {
+                    this.insert(statDate, category, count);
+                } catch (DuplicateKeyException e) {
+                    this.increase(statDate, category, count);
+                }
+            }
+        }));
+    }
+
+    @Override
+    public void rebuild(Date beginDate, Date endDate) {
+        DateTime dayBegin = DateUtil.beginOfDay(beginDate);
+        DateTime end = DateUtil.beginOfDay(endDate);
+        while (dayBegin.isBefore(end)) {
+            DateTime dayEnd = DateUtil.offsetDay(dayBegin, 1);
+            String statDate = DateUtil.formatDate(dayBegin);
+            for (DevLogCategoryEnum devLogCategoryEnum : DevLogCategoryEnum.values()) {
+                String category = devLogCategoryEnum.getValue();
+                long count = devLogMapper.selectCount(new LambdaQueryWrapper<DevLog>().eq(DevLog::getCategory, category)
+                        .ge(DevLog::getOpTime, dayBegin).lt(DevLog::getOpTime, dayEnd));
+                boolean updated = this.update(new LambdaUpdateWrapper<DevLogStat>().eq(DevLogStat::getStatDate, statDate)
+                        .eq(DevLogStat::getCategory, category).set(DevLogStat::getLogCount, count));
+                if (!updated && count > 0) {
+                    this.insert(statDate, category, count);
+                }
+            }
+            dayBegin = dayEnd;
+        }
+    }
+
+    @Override
+    public Date getEarliestOpTime() {
+        List<DevLog> devLogList = devLogMapper.selectPage(new Page<>(1, 1, false), new LambdaQueryWrapper<DevLog>()
+                .select(DevLog::getOpTime).isNotNull(DevLog::getOpTime).orderByAsc(DevLog::getOpTime)).getRecords();
+        return ObjectUtil.isEmpty(devLogList) ? null : devLogList.get(0).getOpTime();
+    }
+
+    @Override
+    public List<DevLogStat> listByCategoryAndDate(List<String> categoryList, String beginDate, String endDate) {
+        return this.list(new LambdaQueryWrapper<DevLogStat>().in(DevLogStat::getCategory, categoryList)
+                .between(DevLogStat::getStatDate, beginDate, endDate));
+    }
+
+    @Override
+    public long sumByCategory(String category) {
+        return this.list(new LambdaQueryWrapper<DevLogStat>().select(DevLogStat::getLogCount)
+                .eq(DevLogStat::getCategory, category)).stream().mapToLong(DevLogStat::getLogCount).sum();
+    }
+
+    @Override
+    public void removeByCategory(String category) {
+        this.remove(new LambdaQueryWrapper<DevLogStat>().eq(DevLogStat::getCategory, category));
+    }
+
+    /**
+     * 累加数量，返回是否存在对应的统计
+     */
+    private boolean increase(String statDate, String category, long count) {
+        return this.update(new LambdaUpdateWrapper<DevLogStat>().eq(DevLogStat::getStatDate, statDate)
+                .eq(DevLogStat::getCategory, category).setSql("LOG_COUNT = LOG_COUNT + " + count));
+    }
+
+    /**
+     * 插入统计
+     */
+    private void insert(String statDate, String category, long count) {
+        DevLogStat devLogStat = new DevLogStat();
+        devLogStat.setStatDate(statDate);
+        devLogStat.setCategory(category);
+        devLogStat.setLogCount(count);
+        this.save(devLogStat);
+    }
+}
@@ -14,7 +14,6 @@ package vip.xiaonuo.dev.modular.log.util;
 
 import cn.hutool.core.date.DateTime;
 import cn.hutool.core.exceptions.ExceptionUtil;
-import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.JoinPoint;
@@ -23,7 +22,6 @@ import vip.xiaonuo.common.util.*;
 import vip.xiaonuo.dev.modular.log.entity.DevLog;
 import vip.xiaonuo.dev.modular.log.enums.DevLogCategoryEnum;
 import vip.xiaonuo.dev.modular.log.enums.DevLogExeStatusEnum;
-import vip.xiaonuo.dev.modular.log.service.DevLogService;
 
 /**
  * 日志工具类
@@ -33,7 +31,7 @@ import vip.xiaonuo.dev.modular.log.service.DevLogService;
  */
 public class DevLogUtil {
 
-    private static final DevLogService devLogService = SpringUtil.getBean(DevLogService.class);
+    private static final DevLogWriter devLogWriter = SpringUtil.getBean(DevLogWriter.class);
 
     /**
      * 记录操作日志
@@ -46,20 +44,18 @@ public class DevLogUtil {
         String requestURI = request.getRequestURI();
         String method = request.getRequestURI();
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.OPERATE.getValue());
-            devLog.setName(commonLog.value());
-            devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
-            devLog.setClassName(joinPoint.getTarget().getClass().getName());
-            devLog.setMethodName(joinPoint.getSignature().getName());
-            devLog.setReqMethod(method);
-            devLog.setReqUrl(requestURI);
-            devLog.setParamJson(CommonJoinPointUtil.getArgsJsonString(joinPoint));
-            devLog.setResultJson(resultJson);
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
+        devLog.setOpTime(DateTime.now());
+        devLogWriter.write(devLog, log -> {
+            log.setCategory(DevLogCategoryEnum.OPERATE.getValue());
+            log.setName(commonLog.value());
+            log.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
+            log.setClassName(joinPoint.getTarget().getClass().getName());
+            log.setMethodName(joinPoint.getSignature().getName());
+            log.setReqMethod(method);
+            log.setReqUrl(requestURI);
+            log.setParamJson(CommonJoinPointUtil.getArgsJsonString(joinPoint));
+            log.setResultJson(resultJson);
+            log.setOpUser(userName);
         });
     }
 
@@ -74,20 +70,18 @@ public class DevLogUtil {
         String requestURI = request.getRequestURI();
         String method = request.getRequestURI();
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.EXCEPTION.getValue());
-            devLog.setName(commonLog.value());
-            devLog.setExeStatus(DevLogExeStatusEnum.FAIL.getValue());
-            devLog.setExeMessage(ExceptionUtil.stacktraceToString(exception, Integer.MAX_VALUE));
-            devLog.setClassName(joinPoint.getTarget().getClass().getName());
-            devLog.setMethodName(joinPoint.getSignature().getName());
-            devLog.setReqMethod(method);
-            devLog.setReqUrl(requestURI);
-            devLog.setParamJson(CommonJoinPointUtil.getArgsJsonString(joinPoint));
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
+        devLog.setOpTime(DateTime.now());
+        devLogWriter.write(devLog, log -> {
+            log.setCategory(DevLogCategoryEnum.EXCEPTION.getValue());
+            log.setName(commonLog.value());
+            log.setExeStatus(DevLogExeStatusEnum.FAIL.getValue());
+            log.setExeMessage(ExceptionUtil.stacktraceToString(exception, Integer.MAX_VALUE));
+            log.setClassName(joinPoint.getTarget().getClass().getName());
+            log.setMethodName(joinPoint.getSignature().getName());
+            log.setReqMethod(method);
+            log.setReqUrl(requestURI);
+            log.setParamJson(CommonJoinPointUtil.getArgsJsonString(joinPoint));
+            log.setOpUser(userName);
         });
     }
 
@@ -99,14 +93,12 @@ public class DevLogUtil {
      */
     public static void executeLoginLog(String userName) {
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.LOGIN.getValue());
-            devLog.setName("用户登录");
-            devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
+        devLog.setOpTime(DateTime.now());
+        devLogWriter.write(devLog, log -> {
+            log.setCategory(DevLogCategoryEnum.LOGIN.getValue());
+            log.setName("用户登录");
+            log.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
+            log.setOpUser(userName);
         });
     }
 
@@ -118,14 +110,12 @@ public class DevLogUtil {
      */
     public static void executeLogoutLog(String userName) {
         DevLog devLog = genBasOpLog();
-        ThreadUtil.execute(() -> {
-            devLog.setCategory(DevLogCategoryEnum.LOGOUT.getValue());
-            devLog.setName("用户登出");
-            devLog.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
-            devLog.setOpTime(DateTime.now());
-            devLog.setOpUser(userName);
-            creatLogSignValue(devLog);
-            devLogService.save(devLog);
+        devLog.setOpTime(DateTime.now());
+        devLogWriter.write(devLog, log -> {
+            log.setCategory(DevLogCategoryEnum.LOGOUT.getValue());
+            log.setName("用户登出");
+            log.setExeStatus(DevLogExeStatusEnum.SUCCESS.getValue());
+            log.setOpUser(userName);
         });
     }
 
@@ -139,7 +129,7 @@ public class DevLogUtil {
         HttpServletRequest request = CommonServletUtil.getRequest();
         String ip = CommonIpAddressUtil.getIp(request);
         DevLog devLog = new DevLog();
-        devLog.setOpIp(CommonIpAddressUtil.getIp(request));
+        devLog.setOpIp(ip);
         devLog.setOpAddress(CommonIpAddressUtil.getCityInfo(ip));
         devLog.setOpBrowser(CommonUaUtil.getBrowser(request));
         devLog.setOpOs(CommonUaUtil.getOs(request));
@@ -149,7 +139,7 @@ public class DevLogUtil {
     /**
      * 构建日志完整性保护签名数据
      */
-    private static void creatLogSignValue (DevLog devLog) {
+    static void creatLogSignValue (DevLog devLog) {
         String logStr = devLog.toString().replaceAll(" +","");
         devLog.setSignData(CommonCryptogramUtil.doSignature(logStr));
     }
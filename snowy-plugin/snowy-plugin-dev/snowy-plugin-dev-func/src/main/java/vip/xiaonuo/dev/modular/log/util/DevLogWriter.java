@@ -0,0 +1,425 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.log.util;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.dev.core.prop.DevLogProperties;
+import vip.xiaonuo.dev.modular.log.entity.DevLog;
+import vip.xiaonuo.dev.modular.log.enums.DevLogOverflowPolicyEnum;
+import vip.xiaonuo.dev.modular.log.service.DevLogService;
+import vip.xiaonuo.dev.modular.log.service.DevLogStatService;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 日志批量写入器
+ * <p>
+ * 请求线程只将日志放入有界无锁环形缓冲区，由单个写入线程批量取出，并行补全与签名后按批次入库，
+ * 缓冲区满时按配置的溢出策略处理，停机时排空缓冲区
+ *
+ * @author xuyuxiang
+ * @date 2024/8/14 9:32
+ */
+@Slf4j
+@Component
+public class DevLogWriter implements InitializingBean, DisposableBean {
+
+    @Resource
+    private DevLogService devLogService;
+
+    @Resource
+    private DevLogStatService devLogStatService;
+
+    @Resource
+    private DevLogProperties devLogProperties;
+
+    /** 环形缓冲区 */
+    private RingBuffer<Entry> ringBuffer;
+
+    /** 签名线程池 */
+    private ForkJoinPool signPool;
+
+    /** 写入线程 */
+    private Thread writerThread;
+
+    /** 是否运行中 */
+    private volatile boolean running;
+
+    /** 是否存在待回放的溢出文件 */
+    private volatile boolean spilled;
+
+    /** 溢出文件锁 */
+    private final Object spillLock = new Object();
+
+    /** 丢弃的日志数 */
+    private final LongAdder droppedCount = new LongAdder();
+
+    /** 溢出到文件的日志数 */
+    private final LongAdder spilledCount = new LongAdder();
+
+    /** 已入库的日志数 */
+    private final LongAdder writtenCount = new LongAdder();
+
+    @Override
+    public void afterPropertiesSet() {
+        ringBuffer = new RingBuffer<>(devLogProperties.getBufferCapacity());
+        signPool = new ForkJoinPool(Math.max(1, devLogProperties.getSignParallelism()));
+        spilled = FileUtil.exist(devLogProperties.getSpillFile());
+        running = true;
+        writerThread = new Thread(this::runWriter, "dev-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(devLogProperties.getShutdownTimeout());
+        if (writerThread.isAlive()) {
+            log.warn("日志写入器停机超时，缓冲区剩余日志数：{}", ringBuffer.size());
+        }
+        signPool.shutdown();
+    }
+
+    /**
+     * 提交一条日志，补全操作在写入线程中执行
+     *
+     * @param devLog 日志
+     * @param populator 日志补全操作，可为空
+     * @author xuyuxiang
+     * @date 2024/8/14 9:32
+     */
+    public void write(DevLog devLog, Consumer<DevLog> populator) {
+        Entry entry = new Entry(devLog, populator);
+        if (running && ringBuffer.offer(entry)) {
+            this.signalIfBatchReady();
+            return;
+        }
+        DevLogOverflowPolicyEnum overflowPolicy = running ? devLogProperties.getOverflowPolicy() : DevLogOverflowPolicyEnum.SPILL;
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(devLogProperties.getBlockTimeout());
+                while (running && System.nanoTime() < deadline) {
+                    LockSupport.unpark(writerThread);
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                    if (ringBuffer.offer(entry)) {
+                        return;
+                    }
+                }
+                droppedCount.increment();
+            }
+            case SPILL -> this.spill(List.of(entry));
+            default -> droppedCount.increment();
+        }
+    }
+
+    /**
+     * 获取丢弃的日志数
+     */
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 获取溢出到文件的日志数
+     */
+    public long getSpilledCount() {
+        return spilledCount.sum();
+    }
+
+    /**
+     * 获取已入库的日志数
+     */
+    public long getWrittenCount() {
+        return writtenCount.sum();
+    }
+
+    /**
+     * 获取缓冲区中待写入的日志数
+     */
+    public int getPendingCount() {
+        return ringBuffer.size();
+    }
+
+    /**
+     * 缓冲区积压达到一个批次时唤醒写入线程
+     */
+    private void signalIfBatchReady() {
+        if (ringBuffer.size() >= devLogProperties.getBatchSize()) {
+            LockSupport.unpark(writerThread);
+        }
+    }
+
+    /**
+     * 写入线程主循环，满一个批次或到达间隔时间即写入
+     */
+    private void runWriter() {
+        int batchSize = Math.max(1, devLogProperties.getBatchSize());
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(devLogProperties.getFlushInterval());
+        List<Entry> batch = new ArrayList<>(batchSize);
+        long deadline = System.nanoTime() + flushIntervalNanos;
+        while (true) {
+            Entry entry = ringBuffer.poll();
+            if (entry != null) {
+                batch.add(entry);
+                if (batch.size() >= batchSize) {
+                    this.flush(batch);
+                    deadline = System.nanoTime() + flushIntervalNanos;
+                }
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (!batch.isEmpty() && (remaining <= 0 || !running)) {
+                this.flush(batch);
+                deadline = System.nanoTime() + flushIntervalNanos;
+                continue;
+            }
+            if (batch.isEmpty()) {
+                if (!running) {
+                    break;
+                }
+                if (spilled) {
+                    this.replaySpill(batchSize);
+                }
+                deadline = System.nanoTime() + flushIntervalNanos;
+                remaining = flushIntervalNanos;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    /**
+     * 并行补全与签名，然后批量入库
+     */
+    private void flush(List<Entry> batch) {
+        List<DevLog> devLogList = new ArrayList<>(batch.size());
+        try {
+            signPool.submit(() -> batch.parallelStream().forEach(Entry::complete)).join();
+            batch.forEach(entry -> devLogList.add(entry.devLog));
+            this.save(devLogList);
+        } catch (Exception e) {
+            log.error("日志批量写入失败，条数：{}", batch.size(), e);
+            if (devLogProperties.getOverflowPolicy() == DevLogOverflowPolicyEnum.SPILL) {
+                this.spill(batch);
+            } else {
+                droppedCount.add(batch.size());
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * 批量入库并累加日志统计
+     */
+    private void save(List<DevLog> devLogList) {
+        devLogService.saveBatch(devLogList, devLogList.size());
+        writtenCount.add(devLogList.size());
+        try {
+            devLogStatService.accumulate(devLogList);
+        } catch (Exception e) {
+            // 统计失败不影响日志本身，由回填任务修正
+            log.error("日志统计累加失败，条数：{}", devLogList.size(), e);
+        }
+    }
+
+    /**
+     * 将日志追加写入溢出文件，每行一条JSON，单条日志处理失败时只丢弃该条
+     */
+    private void spill(List<Entry> entryList) {
+        List<String> lineList = new ArrayList<>(entryList.size());
+        for (Entry entry : entryList) {
+            try {
+                entry.complete();
+                lineList.add(JSONUtil.toJsonStr(entry.devLog));
+            } catch (Exception e) {
+                log.error("日志序列化失败，已丢弃，日志名称：{}", entry.devLog.getName(), e);
+                droppedCount.increment();
+            }
+        }
+        if (lineList.isEmpty()) {
+            return;
+        }
+        try {
+            synchronized (spillLock) {
+                FileUtil.appendLines(lineList, devLogProperties.getSpillFile(), StandardCharsets.UTF_8);
+                spilled = true;
+            }
+            spilledCount.add(lineList.size());
+        } catch (Exception e) {
+            log.error("日志写入溢出文件失败，条数：{}", lineList.size(), e);
+            droppedCount.add(lineList.size());
+        }
+    }
+
+    /**
+     * 回放溢出文件中的日志
+     */
+    private void replaySpill(int batchSize) {
+        File replayFile;
+        synchronized (spillLock) {
+            File spillFile = FileUtil.file(devLogProperties.getSpillFile());
+            spilled = false;
+            if (!FileUtil.exist(spillFile)) {
+                return;
+            }
+            replayFile = FileUtil.file(devLogProperties.getSpillFile() + ".replay");
+            if (FileUtil.exist(replayFile)) {
+                // 上次回放未完成，将新的溢出内容追加到回放文件后统一处理
+                FileUtil.appendLines(FileUtil.readLines(spillFile, StandardCharsets.UTF_8), replayFile, StandardCharsets.UTF_8);
+                FileUtil.del(spillFile);
+            } else {
+                FileUtil.rename(spillFile, replayFile.getName(), true);
+            }
+        }
+        try {
+            List<DevLog> devLogList = new ArrayList<>(batchSize);
+            for (String line : FileUtil.readLines(replayFile, StandardCharsets.UTF_8)) {
+                if (StrUtil.isBlank(line)) {
+                    continue;
+                }
+                devLogList.add(JSONUtil.toBean(line, DevLog.class));
+                if (devLogList.size() >= batchSize) {
+                    this.save(devLogList);
+                    devLogList.clear();
+                }
+            }
+            if (ObjectUtil.isNotEmpty(devLogList)) {
+                this.save(devLogList);
+            }
+            FileUtil.del(replayFile);
+        } catch (Exception e) {
+            // 保留回放文件，下次溢出或重启后再次尝试
+            log.error("日志溢出文件回放失败：{}", replayFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 缓冲区条目
+     */
+    private static final class Entry {
+
+        private final DevLog devLog;
+
+        private Consumer<DevLog> populator;
+
+        private Entry(DevLog devLog, Consumer<DevLog> populator) {
+            this.devLog = devLog;
+            this.populator = populator;
+        }
+
+        /**
+         * 补全日志并生成签名，仅执行一次；补全失败时记录错误，保留已有字段继续签名入库，不影响同批次的其他日志
+         */
+        private void complete() {
+            if (populator != null) {
+                Consumer<DevLog> currentPopulator = populator;
+                populator = null;
+                try {
+                    currentPopulator.accept(devLog);
+                } catch (Exception | StackOverflowError e) {
+                    // 参数对象循环引用时序列化可能栈溢出，同样只影响该条日志
+                    log.error("日志补全失败，按已有字段入库，日志名称：{}，请求地址：{}", devLog.getName(), devLog.getReqUrl(), e);
+                }
+            }
+            if (devLog.getSignData() == null) {
+                DevLogUtil.creatLogSignValue(devLog);
+            }
+        }
+    }
+
+    /**
+     * 有界无锁环形缓冲区，多生产者单消费者
+     */
+    private static final class RingBuffer<E> {
+
+        private final int mask;
+
+        private final AtomicReferenceArray<E> elements;
+
+        private final AtomicLongArray sequences;
+
+        private final AtomicLong producerIndex = new AtomicLong();
+
+        private final AtomicLong consumerIndex = new AtomicLong();
+
+        private RingBuffer(int capacity) {
+            int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+            this.mask = size - 1;
+            this.elements = new AtomicReferenceArray<>(size);
+            this.sequences = new AtomicLongArray(size);
+            for (int i = 0; i < size; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        private boolean offer(E element) {
+            long position = producerIndex.get();
+            int index;
+            while (true) {
+                index = (int) (position & mask);
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (producerIndex.compareAndSet(position, position + 1)) {
+                        break;
+                    }
+                    position = producerIndex.get();
+                } else if (difference < 0) {
+                    return false;
+                } else {
+                    position = producerIndex.get();
+                }
+            }
+            elements.set(index, element);
+            sequences.set(index, position + 1);
+            return true;
+        }
+
+        private E poll() {
+            long position = consumerIndex.get();
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                return null;
+            }
+            E element = elements.get(index);
+            elements.set(index, null);
+            sequences.set(index, position + mask + 1);
+            consumerIndex.set(position + 1);
+            return element;
+        }
+
+        private int size() {
+            return (int) Math.max(0, producerIndex.get() - consumerIndex.get());
+        }
+    }
+}
@@ -48,6 +48,7 @@ import vip.xiaonuo.sys.api.SysUserApi;
 
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -189,10 +190,18 @@ public class DevMessageServiceImpl extends ServiceImpl<DevMessageMapper, DevMess
                     .eq(DevRelation::getObjectId, devMessage.getId()).eq(DevRelation::getTargetId, StpUtil.getLoginIdAsString())
                     .eq(DevRelation::getCategory, DevRelationCategoryEnum.MSG_TO_USER.getValue()).set(DevRelation::getExtJson, myMessageExtJson));
         }
-        List<DevMessageResult.DevReceiveInfo> receiveInfoList = devRelationService.getRelationListByObjectIdAndCategory(devMessage.getId(),
-                DevRelationCategoryEnum.MSG_TO_USER.getValue()).stream().map(devRelation -> {
+        List<DevRelation> devRelationList = devRelationService.getRelationListByObjectIdAndCategory(devMessage.getId(),
+                DevRelationCategoryEnum.MSG_TO_USER.getValue());
+        // 接收人一次批量查询，避免逐条跨服务查询
+        List<String> userIdList = CollStreamUtil.toList(devRelationList, DevRelation::getTargetId);
+        Map<String, JSONObject> userMap = ObjectUtil.isEmpty(userIdList) ? Map.of() : CollStreamUtil.toIdentityMap(
+                sysUserApi.getUserListByIdListWithoutException(userIdList), userObj -> userObj.getStr("id"));
+        List<DevMessageResult.DevReceiveInfo> receiveInfoList = devRelationList.stream().map(devRelation -> {
             DevMessageResult.DevReceiveInfo devReceiveInfo = new DevMessageResult.DevReceiveInfo();
-            JSONObject userObj = sysUserApi.getUserByIdWithException(devRelation.getTargetId());
+            JSONObject userObj = userMap.get(devRelation.getTargetId());
+            if(ObjectUtil.isEmpty(userObj)) {
+                throw new CommonException("用户不存在，id值为：{}", devRelation.getTargetId());
+            }
             String userName = "未知用户";
             if(ObjectUtil.isNotEmpty(userObj)) {
                 userName = userObj.getStr("name");
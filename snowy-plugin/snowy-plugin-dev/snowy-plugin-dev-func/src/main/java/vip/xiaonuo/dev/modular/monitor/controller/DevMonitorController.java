@@ -17,13 +17,19 @@ import com.github.xiaoymin.knife4j.annotations.ApiSupport;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.annotation.Resource;
+import jakarta.validation.Valid;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
+import vip.xiaonuo.common.listener.CommonDataChangeDispatchStat;
 import vip.xiaonuo.common.pojo.CommonResult;
+import vip.xiaonuo.dev.modular.monitor.param.DevMonitorHistoryParam;
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorHistoryResult;
 import vip.xiaonuo.dev.modular.monitor.result.DevMonitorServerResult;
 import vip.xiaonuo.dev.modular.monitor.service.DevMonitorService;
 
+import java.util.List;
+
 /**
  * 监控控制器
  *
@@ -64,4 +70,30 @@ public class DevMonitorController {
     public CommonResult<DevMonitorServerResult> networkInfo() {
         return CommonResult.data(devMonitorService.networkInfo());
     }
+
+    /**
+     * 获取服务器监控历史
+     *
+     * @author xuyuxiang
+     * @date 2024/8/29 10:00
+     */
+    @ApiOperationSupport(order = 3)
+    @Operation(summary = "获取服务器监控历史")
+    @GetMapping("/dev/monitor/serverHistory")
+    public CommonResult<DevMonitorHistoryResult> serverHistory(@Valid DevMonitorHistoryParam devMonitorHistoryParam) {
+        return CommonResult.data(devMonitorService.serverHistory(devMonitorHistoryParam));
+    }
+
+    /**
+     * 获取数据变化事件分发统计
+     *
+     * @author xuyuxiang
+     * @date 2024/8/22 10:15
+     */
+    @ApiOperationSupport(order = 4)
+    @Operation(summary = "获取数据变化事件分发统计")
+    @GetMapping("/dev/monitor/dataChangeDispatchInfo")
+    public CommonResult<List<CommonDataChangeDispatchStat>> dataChangeDispatchInfo() {
+        return CommonResult.data(devMonitorService.dataChangeDispatchInfo());
+    }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.monitor.result;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 服务器监控历史结果，各数组下标一一对应同一次采样
+ *
+ * @author xuyuxiang
+ * @date 2024/8/29 10:00
+ */
+@Getter
+@Setter
+public class DevMonitorHistoryResult {
+
+    /** 采样间隔 */
+    @Schema(description = "采样间隔（毫秒）")
+    private Long sampleMillis;
+
+    /** 采样时间 */
+    @Schema(description = "采样时间（毫秒时间戳）")
+    private long[] timeArray;
+
+    /** CPU总使用率 */
+    @Schema(description = "CPU总使用率")
+    private double[] cpuUseRateArray;
+
+    /** 内存使用率 */
+    @Schema(description = "内存使用率")
+    private double[] memoryUseRateArray;
+
+    /** 存储使用率 */
+    @Schema(description = "存储使用率")
+    private double[] storageUseRateArray;
+
+    /** JVM内存使用率 */
+    @Schema(description = "JVM内存使用率")
+    private double[] jvmUseRateArray;
+
+    /** JVM已用内存 */
+    @Schema(description = "JVM已用内存（字节）")
+    private long[] jvmMemoryUsedArray;
+
+    /** GC次数 */
+    @Schema(description = "采样间隔内GC次数")
+    private long[] gcCountArray;
+
+    /** GC耗时 */
+    @Schema(description = "采样间隔内GC耗时（毫秒）")
+    private long[] gcTimeArray;
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.monitor.sampler;
+
+import cn.hutool.core.date.DateTime;
+import cn.hutool.core.date.DateUtil;
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.net.NetUtil;
+import cn.hutool.core.thread.ThreadUtil;
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.system.JvmInfo;
+import cn.hutool.system.OsInfo;
+import cn.hutool.system.SystemUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import oshi.SystemInfo;
+import oshi.hardware.CentralProcessor;
+import oshi.hardware.GlobalMemory;
+import oshi.software.os.OSFileStore;
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorHistoryResult;
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorServerResult;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 服务器监控采样器
+ * 后台线程按固定间隔采集CPU、内存、存储、JVM及GC指标，最新快照供接口直接返回，
+ * 历史数据写入定长的基本类型环形缓冲，请求线程不再等待CPU采样或遍历磁盘
+ *
+ * @author xuyuxiang
+ * @date 2024/8/29 10:00
+ **/
+@Slf4j
+@Component
+public class DevMonitorSampler {
+
+    /** 采样间隔（毫秒） */
+    public static final long SAMPLE_MILLIS = 5000;
+
+    /** 环形缓冲容量，保留最近一小时 */
+    public static final int CAPACITY = 720;
+
+    /** 存储信息每隔多少次采样统计一次，遍历磁盘开销较大 */
+    private static final int STORAGE_SAMPLE_INTERVAL = 12;
+
+    private ScheduledExecutorService sampleExecutor;
+
+    private CentralProcessor processor;
+
+    private GlobalMemory memory;
+
+    private SystemInfo systemInfo;
+
+    /** 上次采样的CPU时钟，首次采样为空时按开机以来累计值计算 */
+    private long[] prevTicks;
+
+    private long prevGcCount = -1;
+
+    private long prevGcTime;
+
+    private int sampleCount;
+
+    private long storageTotal;
+
+    private long storageUsed;
+
+    private long storageFree;
+
+    /** 不随采样变化的CPU、服务器、JVM信息 */
+    private DevMonitorServerResult.DevMonitorCpuInfo staticCpuInfo;
+
+    private DevMonitorServerResult.DevMonitorServerInfo serverInfo;
+
+    private JvmInfo jvmInfo;
+
+    private DateTime jvmStartTime;
+
+    /** 最新快照 */
+    private volatile DevMonitorServerResult latestServerResult;
+
+    /* ==============环形缓冲============ */
+
+    private final long[] timeArray = new long[CAPACITY];
+
+    private final double[] cpuUseRateArray = new double[CAPACITY];
+
+    private final double[] memoryUseRateArray = new double[CAPACITY];
+
+    private final double[] storageUseRateArray = new double[CAPACITY];
+
+    private final double[] jvmUseRateArray = new double[CAPACITY];
+
+    private final long[] jvmMemoryUsedArray = new long[CAPACITY];
+
+    private final long[] gcCountArray = new long[CAPACITY];
+
+    private final long[] gcTimeArray = new long[CAPACITY];
+
+    /** 下一个写入位置 */
+    private int head;
+
+    /** 已写入的数量 */
+    private int size;
+
+    @PostConstruct
+    public void start() {
+        sampleExecutor = Executors.newSingleThreadScheduledExecutor(ThreadUtil.newNamedThreadFactory("dev-monitor-sampler-", true));
+        sampleExecutor.scheduleWithFixedDelay(this::sampleQuietly, 0, SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sampleExecutor.shutdownNow();
+    }
+
+    /**
+     * 获取最新快照，尚未完成首次采样时在当前线程采样一次
+     *
+     * @author xuyuxiang
+     * @date 2024/8/29 10:00
+     **/
+    public DevMonitorServerResult getLatest() {
+        DevMonitorServerResult serverResult = latestServerResult;
+        if (serverResult == null) {
+            this.sample();
+            serverResult = latestServerResult;
+        }
+        return serverResult;
+    }
+
+    /**
+     * 获取最近若干分钟的历史数据，按时间升序
+     *
+     * @author xuyuxiang
+     * @date 2024/8/29 10:00
+     **/
+    public synchronized DevMonitorHistoryResult getHistory(int minutes) {
+        long fromMillis = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(minutes);
+        // 从最早的一条开始找到第一条不早于起始时间的位置
+        int start = size < CAPACITY ? 0 : head;
+        int skip = 0;
+        while (skip < size && timeArray[(start + skip) % CAPACITY] < fromMillis) {
+            skip++;
+        }
+        int count = size - skip;
+        DevMonitorHistoryResult historyResult = new DevMonitorHistoryResult();
+        historyResult.setSampleMillis(SAMPLE_MILLIS);
+        historyResult.setTimeArray(new long[count]);
+        historyResult.setCpuUseRateArray(new double[count]);
+        historyResult.setMemoryUseRateArray(new double[count]);
+        historyResult.setStorageUseRateArray(new double[count]);
+        historyResult.setJvmUseRateArray(new double[count]);
+        historyResult.setJvmMemoryUsedArray(new long[count]);
+        historyResult.setGcCountArray(new long[count]);
+        historyResult.setGcTimeArray(new long[count]);
+        for (int i = 0; i < count; i++) {
+            int index = (start + skip + i) % CAPACITY;
+            historyResult.getTimeArray()[i] = timeArray[index];
+            historyResult.getCpuUseRateArray()[i] = cpuUseRateArray[index];
+            historyResult.getMemoryUseRateArray()[i] = memoryUseRateArray[index];
+            historyResult.getStorageUseRateArray()[i] = storageUseRateArray[index];
+            historyResult.getJvmUseRateArray()[i] = jvmUseRateArray[index];
+            historyResult.getJvmMemoryUsedArray()[i] = jvmMemoryUsedArray[index];
+            historyResult.getGcCountArray()[i] = gcCountArray[index];
+            historyResult.getGcTimeArray()[i] = gcTimeArray[index];
+        }
+        return historyResult;
+    }
+
+    private void sampleQuietly() {
+        try {
+            this.sample();
+        } catch (Exception e) {
+            log.error(">>> 服务器监控采样异常", e);
+        }
+    }
+
+    /**
+     * 采样一次，更新最新快照并写入环形缓冲
+     */
+    private synchronized void sample() {
+        if (systemInfo == null) {
+            this.init();
+        }
+        long now = System.currentTimeMillis();
+        DevMonitorServerResult devMonitorServerResult = new DevMonitorServerResult();
+
+        // CPU信息
+        long[] ticks = processor.getSystemCpuLoadTicks();
+        long[] lastTicks = prevTicks == null ? new long[ticks.length] : prevTicks;
+        prevTicks = ticks;
+        long nice = tickDelta(ticks, lastTicks, CentralProcessor.TickType.NICE);
+        long irq = tickDelta(ticks, lastTicks, CentralProcessor.TickType.IRQ);
+        long softIrq = tickDelta(ticks, lastTicks, CentralProcessor.TickType.SOFTIRQ);
+        long steal = tickDelta(ticks, lastTicks, CentralProcessor.TickType.STEAL);
+        long sys = tickDelta(ticks, lastTicks, CentralProcessor.TickType.SYSTEM);
+        long user = tickDelta(ticks, lastTicks, CentralProcessor.TickType.USER);
+        long ioWait = tickDelta(ticks, lastTicks, CentralProcessor.TickType.IOWAIT);
+        long idle = tickDelta(ticks, lastTicks, CentralProcessor.TickType.IDLE);
+        // 两次采样间隔内没有时钟变化时按1计算，避免除零
+        long totalCpu = Math.max(user + nice + sys + idle + ioWait + irq + softIrq + steal, 1);
+        DevMonitorServerResult.DevMonitorCpuInfo devMonitorCpuInfo = new DevMonitorServerResult.DevMonitorCpuInfo();
+        devMonitorCpuInfo.setCpuName(staticCpuInfo.getCpuName());
+        devMonitorCpuInfo.setCpuNum(staticCpuInfo.getCpuNum());
+        devMonitorCpuInfo.setCpuPhysicalCoreNum(staticCpuInfo.getCpuPhysicalCoreNum());
+        devMonitorCpuInfo.setCpuLogicalCoreNum(staticCpuInfo.getCpuLogicalCoreNum());
+        devMonitorCpuInfo.setCpuSysUseRate(NumberUtil.div(NumberUtil.mul(sys, 100), totalCpu, 2) + "%");
+        devMonitorCpuInfo.setCpuUserUseRate(NumberUtil.div(NumberUtil.mul(user, 100), totalCpu, 2) + "%");
+        devMonitorCpuInfo.setCpuTotalUseRate(NumberUtil.div(NumberUtil.mul(NumberUtil.add(sys, user), 100), totalCpu, 2));
+        devMonitorCpuInfo.setCpuWaitRate(NumberUtil.div(NumberUtil.mul(ioWait, 100), totalCpu, 2) + "%");
+        devMonitorCpuInfo.setCpuFreeRate(NumberUtil.div(NumberUtil.mul(idle, 100), totalCpu, 2) + "%");
+        devMonitorServerResult.setDevMonitorCpuInfo(devMonitorCpuInfo);
+
+        // 内存信息
+        long memoryTotal = memory.getTotal();
+        long memoryAvailable = memory.getAvailable();
+        long memoryUsed = memoryTotal - memoryAvailable;
+        DevMonitorServerResult.DevMonitorMemoryInfo devMonitorMemoryInfo = new DevMonitorServerResult.DevMonitorMemoryInfo();
+        devMonitorMemoryInfo.setMemoryTotal(FileUtil.readableFileSize(memoryTotal));
+        devMonitorMemoryInfo.setMemoryUsed(FileUtil.readableFileSize(memoryUsed));
+        devMonitorMemoryInfo.setMemoryFree(FileUtil.readableFileSize(memoryAvailable));
+        devMonitorMemoryInfo.setMemoryUseRate(NumberUtil.mul(NumberUtil.div(memoryUsed, memoryTotal, 4), 100));
+        devMonitorServerResult.setDevMonitorMemoryInfo(devMonitorMemoryInfo);
+
+        // 存储信息
+        if (sampleCount % STORAGE_SAMPLE_INTERVAL == 0) {
+            this.sampleStorage();
+        }
+        DevMonitorServerResult.DevMonitorStorageInfo devMonitorStorageInfo = new DevMonitorServerResult.DevMonitorStorageInfo();
+        devMonitorStorageInfo.setStorageTotal(FileUtil.readableFileSize(storageTotal));
+        devMonitorStorageInfo.setStorageUsed(FileUtil.readableFileSize(storageUsed));
+        devMonitorStorageInfo.setStorageFree(FileUtil.readableFileSize(storageFree));
+        devMonitorStorageInfo.setStorageUseRate(storageTotal == 0 ? 0 :
+                NumberUtil.mul(NumberUtil.div((double) storageUsed, (double) storageTotal, 4), 100));
+        devMonitorServerResult.setDevMonitorStorageInfo(devMonitorStorageInfo);
+
+        // 服务器信息
+        devMonitorServerResult.setDevMonitorServerInfo(serverInfo);
+
+        // JVM信息
+        Runtime runtime = Runtime.getRuntime();
+        long jvmMemoryTotal = runtime.totalMemory();
+        long jvmMemoryFree = runtime.freeMemory();
+        long jvmMemoryUsed = jvmMemoryTotal - jvmMemoryFree;
+        DevMonitorServerResult.DevMonitorJvmInfo devMonitorJvmInfo = new DevMonitorServerResult.DevMonitorJvmInfo();
+        devMonitorJvmInfo.setJvmName(jvmInfo.getName());
+        devMonitorJvmInfo.setJvmVersion(jvmInfo.getVersion());
+        devMonitorJvmInfo.setJvmMemoryTotal(FileUtil.readableFileSize(jvmMemoryTotal));
+        devMonitorJvmInfo.setJvmMemoryFree(FileUtil.readableFileSize(jvmMemoryFree));
+        devMonitorJvmInfo.setJvmMemoryUsed(FileUtil.readableFileSize(jvmMemoryUsed));
+        devMonitorJvmInfo.setJvmUseRate(NumberUtil.mul(NumberUtil.div(jvmMemoryUsed, jvmMemoryTotal, 4), 100));
+        devMonitorJvmInfo.setJvmStartTime(DateUtil.formatDateTime(jvmStartTime));
+        devMonitorJvmInfo.setJvmRunTime(DateUtil.formatBetween(jvmStartTime, DateUtil.date(now)));
+        devMonitorJvmInfo.setJavaVersion(SystemUtil.get("java.version", false));
+        devMonitorJvmInfo.setJavaPath(SystemUtil.get("java.home", false));
+        devMonitorServerResult.setDevMonitorJvmInfo(devMonitorJvmInfo);
+
+        // GC信息，记录两次采样之间的增量
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean garbageCollectorMXBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(garbageCollectorMXBean.getCollectionCount(), 0);
+            gcTime += Math.max(garbageCollectorMXBean.getCollectionTime(), 0);
+        }
+        long gcCountDelta = prevGcCount < 0 ? 0 : gcCount - prevGcCount;
+        long gcTimeDelta = prevGcCount < 0 ? 0 : gcTime - prevGcTime;
+        prevGcCount = gcCount;
+        prevGcTime = gcTime;
+
+        timeArray[head] = now;
+        cpuUseRateArray[head] = devMonitorCpuInfo.getCpuTotalUseRate();
+        memoryUseRateArray[head] = devMonitorMemoryInfo.getMemoryUseRate();
+        storageUseRateArray[head] = devMonitorStorageInfo.getStorageUseRate();
+        jvmUseRateArray[head] = devMonitorJvmInfo.getJvmUseRate();
+        jvmMemoryUsedArray[head] = jvmMemoryUsed;
+        gcCountArray[head] = gcCountDelta;
+        gcTimeArray[head] = gcTimeDelta;
+        head = (head + 1) % CAPACITY;
+        size = Math.min(size + 1, CAPACITY);
+        sampleCount++;
+        latestServerResult = devMonitorServerResult;
+    }
+
+    /**
+     * 初始化OSHI及不随采样变化的信息
+     */
+    private void init() {
+        systemInfo = new SystemInfo();
+        processor = systemInfo.getHardware().getProcessor();
+        memory = systemInfo.getHardware().getMemory();
+        staticCpuInfo = new DevMonitorServerResult.DevMonitorCpuInfo();
+        staticCpuInfo.setCpuName(StrUtil.trim(processor.getProcessorIdentifier().getName()));
+        staticCpuInfo.setCpuNum(processor.getPhysicalPackageCount() + "颗物理CPU");
+        staticCpuInfo.setCpuPhysicalCoreNum(processor.getPhysicalProcessorCount() + "个物理核心");
+        staticCpuInfo.setCpuLogicalCoreNum(processor.getLogicalProcessorCount() + "个逻辑核心");
+        OsInfo osInfo = SystemUtil.getOsInfo();
+        serverInfo = new DevMonitorServerResult.DevMonitorServerInfo();
+        serverInfo.setServerName(NetUtil.getLocalHostName());
+        serverInfo.setServerOs(osInfo.getName());
+        serverInfo.setServerIp(NetUtil.getLocalhostStr());
+        serverInfo.setServerArchitecture(osInfo.getArch());
+        jvmInfo = SystemUtil.getJvmInfo();
+        jvmStartTime = DateUtil.date(ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    private void sampleStorage() {
+        long total = 0;
+        long used = 0;
+        long free = 0;
+        for (OSFileStore osFileStore : systemInfo.getOperatingSystem().getFileSystem().getFileStores()) {
+            long totalSpace = osFileStore.getTotalSpace();
+            total += totalSpace;
+            used += totalSpace - osFileStore.getUsableSpace();
+            free += osFileStore.getFreeSpace();
+        }
+        storageTotal = total;
+        storageUsed = used;
+        storageFree = free;
+    }
+
+    private static long tickDelta(long[] ticks, long[] lastTicks, CentralProcessor.TickType tickType) {
+        return ticks[tickType.getIndex()] - lastTicks[tickType.getIndex()];
+    }
+}
@@ -12,8 +12,13 @@
  */
 package vip.xiaonuo.dev.modular.monitor.service;
 
+import vip.xiaonuo.common.listener.CommonDataChangeDispatchStat;
+import vip.xiaonuo.dev.modular.monitor.param.DevMonitorHistoryParam;
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorHistoryResult;
 import vip.xiaonuo.dev.modular.monitor.result.DevMonitorServerResult;
 
+import java.util.List;
+
 /**
  * 监控Service接口
  *
@@ -30,6 +35,14 @@ public interface DevMonitorService {
      */
     DevMonitorServerResult serverInfo();
 
+    /**
+     * 获取服务器监控历史
+     *
+     * @author xuyuxiang
+     * @date 2024/8/29 10:00
+     */
+    DevMonitorHistoryResult serverHistory(DevMonitorHistoryParam devMonitorHistoryParam);
+
     /**
      * 获取服务器网络情况
      *
@@ -37,4 +50,12 @@ public interface DevMonitorService {
      * @date 2023/7/27
      */
     DevMonitorServerResult networkInfo();
+
+    /**
+     * 获取本节点异步数据变化侦听器的分发统计
+     *
+     * @author xuyuxiang
+     * @date 2024/8/22 10:15
+     */
+    List<CommonDataChangeDispatchStat> dataChangeDispatchInfo();
 }
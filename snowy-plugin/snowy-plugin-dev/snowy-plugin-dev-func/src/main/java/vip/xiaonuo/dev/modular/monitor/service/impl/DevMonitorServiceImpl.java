@@ -12,33 +12,20 @@
  */
 package vip.xiaonuo.dev.modular.monitor.service.impl;
 
-import cn.hutool.core.date.DateTime;
-import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.net.NetUtil;
-import cn.hutool.core.util.NumberUtil;
-import cn.hutool.core.util.StrUtil;
-import cn.hutool.system.JvmInfo;
-import cn.hutool.system.OsInfo;
-import cn.hutool.system.RuntimeInfo;
-import cn.hutool.system.SystemUtil;
+import cn.hutool.core.util.ObjectUtil;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Service;
-import oshi.SystemInfo;
-import oshi.hardware.CentralProcessor;
-import oshi.hardware.GlobalMemory;
-import oshi.hardware.HardwareAbstractionLayer;
-import oshi.software.os.FileSystem;
-import oshi.software.os.OperatingSystem;
-import oshi.util.Util;
+import vip.xiaonuo.common.listener.CommonDataChangeDispatchStat;
+import vip.xiaonuo.common.listener.CommonDataChangeEventCenter;
 import vip.xiaonuo.common.util.CommonNetWorkInfoUtil;
+import vip.xiaonuo.dev.modular.monitor.param.DevMonitorHistoryParam;
+import vip.xiaonuo.dev.modular.monitor.result.DevMonitorHistoryResult;
 import vip.xiaonuo.dev.modular.monitor.result.DevMonitorServerResult;
+import vip.xiaonuo.dev.modular.monitor.sampler.DevMonitorSampler;
 import vip.xiaonuo.dev.modular.monitor.service.DevMonitorService;
 
-import java.lang.management.ManagementFactory;
-import java.lang.management.RuntimeMXBean;
-import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 监控Service接口实现类
@@ -49,109 +36,22 @@ import java.util.concurrent.atomic.AtomicLong;
 @Service
 public class DevMonitorServiceImpl implements DevMonitorService {
 
-    @Override
-    public DevMonitorServerResult serverInfo() {
-        DevMonitorServerResult devMonitorServerResult = new DevMonitorServerResult();
-        SystemInfo si = new SystemInfo();
-        HardwareAbstractionLayer hal = si.getHardware();
-        CentralProcessor cpu = hal.getProcessor();
-
-        // CPU信息
-        DevMonitorServerResult.DevMonitorCpuInfo devMonitorCpuInfo = new DevMonitorServerResult.DevMonitorCpuInfo();
-        devMonitorCpuInfo.setCpuName(StrUtil.trim(cpu.getProcessorIdentifier().getName()));
-        devMonitorCpuInfo.setCpuNum(cpu.getPhysicalPackageCount() + "颗物理CPU");
-        devMonitorCpuInfo.setCpuPhysicalCoreNum(cpu.getPhysicalProcessorCount() + "个物理核心");
-        devMonitorCpuInfo.setCpuLogicalCoreNum(cpu.getLogicalProcessorCount() + "个逻辑核心");
-        long[] prevTicks = cpu.getSystemCpuLoadTicks();
-        Util.sleep(1000);
-        long[] ticks = cpu.getSystemCpuLoadTicks();
-        long nice = ticks[CentralProcessor.TickType.NICE.getIndex()]
-                - prevTicks[CentralProcessor.TickType.NICE.getIndex()];
-        long irq = ticks[CentralProcessor.TickType.IRQ.getIndex()]
-                - prevTicks[CentralProcessor.TickType.IRQ.getIndex()];
-        long softIrq = ticks[CentralProcessor.TickType.SOFTIRQ.getIndex()]
-                - prevTicks[CentralProcessor.TickType.SOFTIRQ.getIndex()];
-        long steal = ticks[CentralProcessor.TickType.STEAL.getIndex()]
-                - prevTicks[CentralProcessor.TickType.STEAL.getIndex()];
-        long sys = ticks[CentralProcessor.TickType.SYSTEM.getIndex()]
-                - prevTicks[CentralProcessor.TickType.SYSTEM.getIndex()];
-        long user = ticks[CentralProcessor.TickType.USER.getIndex()]
-                - prevTicks[CentralProcessor.TickType.USER.getIndex()];
-        long ioWait = ticks[CentralProcessor.TickType.IOWAIT.getIndex()]
-                - prevTicks[CentralProcessor.TickType.IOWAIT.getIndex()];
-        long idle = ticks[CentralProcessor.TickType.IDLE.getIndex()]
-                - prevTicks[CentralProcessor.TickType.IDLE.getIndex()];
-        long totalCpu = user + nice + sys + idle + ioWait + irq + softIrq + steal;
-        devMonitorCpuInfo.setCpuSysUseRate(NumberUtil.div(NumberUtil.mul(sys, 100), totalCpu, 2) + "%");
-        devMonitorCpuInfo.setCpuUserUseRate(NumberUtil.div(NumberUtil.mul(user, 100), totalCpu, 2) + "%");
-        devMonitorCpuInfo.setCpuTotalUseRate(NumberUtil.div(NumberUtil.mul(NumberUtil.add(sys, user), 100), totalCpu, 2));
-        devMonitorCpuInfo.setCpuWaitRate(NumberUtil.div(NumberUtil.mul(ioWait, 100), totalCpu, 2) + "%");
-        devMonitorCpuInfo.setCpuFreeRate(NumberUtil.div(NumberUtil.mul(idle, 100), totalCpu, 2) + "%");
-        devMonitorServerResult.setDevMonitorCpuInfo(devMonitorCpuInfo);
+    /** 默认查询最近分钟数 */
+    private static final int DEFAULT_HISTORY_MINUTES = 10;
 
-        // 内存信息
-        GlobalMemory memory = hal.getMemory();
-        DevMonitorServerResult.DevMonitorMemoryInfo devMonitorMemoryInfo = new DevMonitorServerResult.DevMonitorMemoryInfo();
-        long used = memory.getTotal() - memory.getAvailable();
-        devMonitorMemoryInfo.setMemoryTotal(FileUtil.readableFileSize(memory.getTotal()));
-        devMonitorMemoryInfo.setMemoryUsed(FileUtil.readableFileSize(used));
-        devMonitorMemoryInfo.setMemoryFree(FileUtil.readableFileSize(memory.getAvailable()));
-        devMonitorMemoryInfo.setMemoryUseRate(NumberUtil.mul(NumberUtil.div(used, memory.getTotal(), 4), 100));
-        devMonitorServerResult.setDevMonitorMemoryInfo(devMonitorMemoryInfo);
+    @Resource
+    private DevMonitorSampler devMonitorSampler;
 
-        // 存储信息
-        DevMonitorServerResult.DevMonitorStorageInfo devMonitorStorageInfo = new DevMonitorServerResult.DevMonitorStorageInfo();
-        OperatingSystem operatingSystem = si.getOperatingSystem();
-        FileSystem fileSystem = operatingSystem.getFileSystem();
-        AtomicLong storageTotal = new AtomicLong();
-        AtomicLong storageUsed = new AtomicLong();
-        AtomicLong storageFree = new AtomicLong();
-        fileSystem.getFileStores().forEach(osFileStore -> {
-            long totalSpace = osFileStore.getTotalSpace();
-            long usableSpace = osFileStore.getUsableSpace();
-            long freeSpace = osFileStore.getFreeSpace();
-            long usedSpace = totalSpace - usableSpace;
-            storageTotal.addAndGet(totalSpace);
-            storageUsed.addAndGet(usedSpace);
-            storageFree.addAndGet(freeSpace);
-        });
-        devMonitorStorageInfo.setStorageTotal(FileUtil.readableFileSize(storageTotal.get()));
-        devMonitorStorageInfo.setStorageUsed(FileUtil.readableFileSize(storageUsed.get()));
-        devMonitorStorageInfo.setStorageFree(FileUtil.readableFileSize(storageFree.get()));
-        devMonitorStorageInfo.setStorageUseRate(NumberUtil.mul(NumberUtil.div(storageUsed.doubleValue(), storageTotal.doubleValue(), 4), 100));
-        devMonitorServerResult.setDevMonitorStorageInfo(devMonitorStorageInfo);
-
-        // 服务器信息
-        OsInfo osInfo = SystemUtil.getOsInfo();
-        DevMonitorServerResult.DevMonitorServerInfo devMonitorServerInfo = new DevMonitorServerResult.DevMonitorServerInfo();
-        devMonitorServerInfo.setServerName(NetUtil.getLocalHostName());
-        devMonitorServerInfo.setServerOs(osInfo.getName());
-        devMonitorServerInfo.setServerIp(NetUtil.getLocalhostStr());
-        devMonitorServerInfo.setServerArchitecture(osInfo.getArch());
-        devMonitorServerResult.setDevMonitorServerInfo(devMonitorServerInfo);
+    @Override
+    public DevMonitorServerResult serverInfo() {
+        // 直接返回后台采样的最新快照，不在请求线程中采样
+        return devMonitorSampler.getLatest();
+    }
 
-        // JVM信息
-        DevMonitorServerResult.DevMonitorJvmInfo devMonitorJvmInfo = new DevMonitorServerResult.DevMonitorJvmInfo();
-        RuntimeInfo runtimeInfo = SystemUtil.getRuntimeInfo();
-        JvmInfo jvmInfo = SystemUtil.getJvmInfo();
-        devMonitorJvmInfo.setJvmName(jvmInfo.getName());
-        devMonitorJvmInfo.setJvmVersion(jvmInfo.getVersion());
-        long totalMemory = runtimeInfo.getTotalMemory();
-        devMonitorJvmInfo.setJvmMemoryTotal(FileUtil.readableFileSize(totalMemory));
-        devMonitorJvmInfo.setJvmMemoryFree(FileUtil.readableFileSize(runtimeInfo.getFreeMemory()));
-        long jvmMemoryUsed = NumberUtil.sub(new BigDecimal(runtimeInfo
-                .getTotalMemory()), new BigDecimal(runtimeInfo.getFreeMemory())).longValue();
-        devMonitorJvmInfo.setJvmMemoryUsed(FileUtil.readableFileSize(jvmMemoryUsed));
-        double jvmUseRate = NumberUtil.mul(NumberUtil.div(jvmMemoryUsed, totalMemory, 4), 100);
-        devMonitorJvmInfo.setJvmUseRate(jvmUseRate);
-        RuntimeMXBean runtimeMXBean = ManagementFactory.getRuntimeMXBean();
-        DateTime startTime = DateUtil.date(runtimeMXBean.getStartTime());
-        devMonitorJvmInfo.setJvmStartTime(DateUtil.formatDateTime(startTime));
-        devMonitorJvmInfo.setJvmRunTime(DateUtil.formatBetween(startTime, DateTime.now()));
-        devMonitorJvmInfo.setJavaVersion(SystemUtil.get("java.version", false));
-        devMonitorJvmInfo.setJavaPath(SystemUtil.get("java.home", false));
-        devMonitorServerResult.setDevMonitorJvmInfo(devMonitorJvmInfo);
-        return devMonitorServerResult;
+    @Override
+    public DevMonitorHistoryResult serverHistory(DevMonitorHistoryParam devMonitorHistoryParam) {
+        Integer minutes = devMonitorHistoryParam.getMinutes();
+        return devMonitorSampler.getHistory(ObjectUtil.isEmpty(minutes) ? DEFAULT_HISTORY_MINUTES : minutes);
     }
 
     /**
@@ -171,4 +71,9 @@ public class DevMonitorServiceImpl implements DevMonitorService {
         devMonitorServerResult.setDevMonitorNetworkInfo(devMonitorNetworkInfo);
         return devMonitorServerResult;
     }
+
+    @Override
+    public List<CommonDataChangeDispatchStat> dataChangeDispatchInfo() {
+        return CommonDataChangeEventCenter.getDispatchStatList();
+    }
 }
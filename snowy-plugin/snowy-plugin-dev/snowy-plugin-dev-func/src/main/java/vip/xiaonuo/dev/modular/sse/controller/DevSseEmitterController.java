@@ -20,7 +20,9 @@ import jakarta.annotation.Resource;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.common.sse.CommonSseParam;
+import vip.xiaonuo.dev.modular.sse.result.DevSseHeartbeatStatResult;
 import vip.xiaonuo.dev.modular.sse.service.DevSseEmitterService;
 
 import java.util.function.Consumer;
@@ -95,4 +97,17 @@ public class DevSseEmitterController {
         devSseEmitterService.sendMessageToOneClient(clientId,msg);
     }
 
+    /**
+     * 获取本节点的心跳统计
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 15:30
+     **/
+    @ApiOperationSupport(order = 5)
+    @Operation(summary = "获取本节点的心跳统计")
+    @GetMapping("/dev/sse/heartbeatStat")
+    public CommonResult<DevSseHeartbeatStatResult> heartbeatStat(){
+        return CommonResult.data(devSseEmitterService.heartbeatStat());
+    }
+
 }
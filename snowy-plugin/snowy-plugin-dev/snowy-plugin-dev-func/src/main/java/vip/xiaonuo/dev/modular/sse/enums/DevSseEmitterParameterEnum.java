@@ -36,7 +36,12 @@ public enum DevSseEmitterParameterEnum {
     /**
      * 用户ID
      */
-    LOGINID("LOGINID");
+    LOGINID("LOGINID"),
+
+    /**
+     * 发送器
+     */
+    SENDER("SENDER");
 
     private final String value;
 
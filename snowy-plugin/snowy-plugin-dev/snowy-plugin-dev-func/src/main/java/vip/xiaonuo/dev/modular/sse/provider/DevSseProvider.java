@@ -76,4 +76,15 @@ public class DevSseProvider implements DevSseApi {
     public void sendMessageToOneClient(String clientId, String msg) {
         devSseEmitterService.sendMessageToOneClient(clientId,msg);
     }
+
+    /**
+     * 推送消息到某一用户的所有客户端
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 10:10
+     **/
+    @Override
+    public void sendMessageToUser(String loginId, String msg) {
+        devSseEmitterService.sendMessageToUser(loginId, msg);
+    }
 }
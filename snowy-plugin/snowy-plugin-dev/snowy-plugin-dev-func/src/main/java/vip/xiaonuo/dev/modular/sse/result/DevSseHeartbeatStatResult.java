@@ -0,0 +1,72 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.sse.result;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * SSE心跳统计结果
+ *
+ * @author xuyuxiang
+ * @date 2024/8/26 15:30
+ */
+@Getter
+@Setter
+public class DevSseHeartbeatStatResult {
+
+    /** 本节点连接数 */
+    @Schema(description = "本节点连接数")
+    private int clientCount;
+
+    /** 已注册心跳的连接数 */
+    @Schema(description = "已注册心跳的连接数")
+    private int heartbeatClientCount;
+
+    /** 刻度时长（毫秒） */
+    @Schema(description = "刻度时长（毫秒）")
+    private long tickMillis;
+
+    /** 心跳周期（毫秒） */
+    @Schema(description = "心跳周期（毫秒）")
+    private long heartbeatPeriodMillis;
+
+    /** 已推进的刻度数 */
+    @Schema(description = "已推进的刻度数")
+    private long tickCount;
+
+    /** 已执行心跳数 */
+    @Schema(description = "已执行心跳数")
+    private long heartbeatCount;
+
+    /** 批量移除的已断开连接数 */
+    @Schema(description = "批量移除的已断开连接数")
+    private long deadCount;
+
+    /** 因上次未执行完或线程池已满而跳过的自定义心跳数 */
+    @Schema(description = "因上次未执行完或线程池已满而跳过的自定义心跳数")
+    private long skippedCount;
+
+    /** 最近一次刻度的延迟（毫秒） */
+    @Schema(description = "最近一次刻度的延迟（毫秒）")
+    private long lastTickLagMillis;
+
+    /** 刻度最大延迟（毫秒） */
+    @Schema(description = "刻度最大延迟（毫秒）")
+    private long maxTickLagMillis;
+
+    /** 最近一次刻度的执行耗时（毫秒） */
+    @Schema(description = "最近一次刻度的执行耗时（毫秒）")
+    private long lastTickCostMillis;
+}
@@ -14,6 +14,7 @@ package vip.xiaonuo.dev.modular.sse.service;
 
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import vip.xiaonuo.common.sse.CommonSseParam;
+import vip.xiaonuo.dev.modular.sse.result.DevSseHeartbeatStatResult;
 
 import java.util.function.Consumer;
 
@@ -56,4 +57,28 @@ public interface DevSseEmitterService {
      * @date 2023/7/3
      **/
     public void sendMessageToOneClient(String clientId, String msg);
+
+    /**
+     * 推送消息到某一用户的所有客户端
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 10:10
+     **/
+    public void sendMessageToUser(String loginId, String msg);
+
+    /**
+     * 获取本节点的心跳统计
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 15:30
+     **/
+    public DevSseHeartbeatStatResult heartbeatStat();
+
+    /**
+     * 处理其他节点发布的推送消息
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 10:10
+     **/
+    public void handleClusterMessage(String clusterMessage);
 }
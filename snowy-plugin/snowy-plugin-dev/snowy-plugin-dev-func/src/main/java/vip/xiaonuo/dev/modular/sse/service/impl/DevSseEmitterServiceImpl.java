@@ -14,22 +14,26 @@ package vip.xiaonuo.dev.modular.sse.service.impl;
 
 import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.common.sse.CommonSseParam;
+import vip.xiaonuo.dev.modular.sse.result.DevSseHeartbeatStatResult;
 import vip.xiaonuo.dev.modular.sse.service.DevSseEmitterService;
 import vip.xiaonuo.dev.modular.sse.util.DevSseCacheUtil;
+import vip.xiaonuo.dev.modular.sse.util.DevSseHeartbeatWheel;
 
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 /**
  * SSE通信Service接口实现类
+ * 连接只保存在建立连接的节点上，推送消息时先推送本节点的客户端，再通过Redis频道通知其他节点推送各自的客户端
  *
  * @author diantu
  * @date 2023/7/3
@@ -39,9 +43,18 @@ import java.util.function.Consumer;
 public class DevSseEmitterServiceImpl implements DevSseEmitterService {
 
     /**
-     * 心跳线程池
+     * 心跳时间轮，每秒推进一格，心跳周期10秒，建立连接2秒后首次心跳
      */
-    private static final ScheduledExecutorService heartbeatExecutors = Executors.newScheduledThreadPool(10);
+    private static final DevSseHeartbeatWheel heartbeatWheel = new DevSseHeartbeatWheel(1000, 10, 2, 10);
+
+    /** 推送消息通知频道 */
+    public static final String SSE_MESSAGE_CHANNEL = "dev-sse-message";
+
+    /** 当前节点标识，用于忽略本节点发布的通知 */
+    private static final String NODE_ID = IdUtil.fastSimpleUUID();
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
 
 
     /**
@@ -62,30 +75,21 @@ public class DevSseEmitterServiceImpl implements DevSseEmitterService {
             DevSseCacheUtil.removeConnection(clientId);
         }
         clientId = IdUtil.simpleUUID();
-        String finalClientId = clientId;
-        // 增加心跳
-        final ScheduledFuture<?> future;
-        // 是否自定义心跳任务
+        // 增加连接，心跳由时间轮在连接断开后自动移除
+        DevSseCacheUtil.addConnection(clientId, loginId, sseEmitter, null);
+        // 是否设置心跳任务
         if (setHeartBeat!=null&&setHeartBeat) {
             //是否使用默认心跳任务
             if(defaultHeartbeat!=null&&defaultHeartbeat){
                 //默认心跳任务
-                future = heartbeatExecutors.scheduleAtFixedRate(() ->
-                                DevSseCacheUtil.sendMessageToOneClient(finalClientId,finalClientId+"-"+loginId),
-                        2, 10, TimeUnit.SECONDS);
+                heartbeatWheel.addDefaultHeartbeat(clientId, clientId+"-"+loginId);
             }else{
                 //自定义心跳任务
                 CommonSseParam commonSseParam = new CommonSseParam();
                 commonSseParam.setClientId(clientId);
                 commonSseParam.setLoginId(loginId);
-                future = heartbeatExecutors.scheduleAtFixedRate(() -> consumer.accept(commonSseParam),
-                        2, 10, TimeUnit.SECONDS);
+                heartbeatWheel.addCustomHeartbeat(clientId, () -> consumer.accept(commonSseParam));
             }
-            // 增加连接
-            DevSseCacheUtil.addConnection(clientId, loginId, sseEmitter, future);
-        } else {
-            // 增加连接
-            DevSseCacheUtil.addConnection(clientId, loginId, sseEmitter, null);
         }
         // 长链接完成后回调(即关闭连接时调用)
         sseEmitter.onCompletion(DevSseCacheUtil.completionCallBack(clientId));
@@ -118,7 +122,12 @@ public class DevSseEmitterServiceImpl implements DevSseEmitterService {
      **/
     @Override
     public void sendMessageToAllClient(String msg) {
+        if (StrUtil.isEmpty(msg)) {
+            log.info("群发消息为空");
+            return;
+        }
         DevSseCacheUtil.sendMessageToAllClient(msg);
+        this.publishClusterMessage(null, null, msg);
     }
 
     /**
@@ -129,7 +138,59 @@ public class DevSseEmitterServiceImpl implements DevSseEmitterService {
      **/
     @Override
     public void sendMessageToOneClient(String clientId, String msg) {
-        DevSseCacheUtil.sendMessageToOneClient(clientId,msg);
+        if (StrUtil.hasEmpty(clientId, msg) || DevSseCacheUtil.getSseEmitterByClientId(clientId) != null) {
+            DevSseCacheUtil.sendMessageToOneClient(clientId, msg);
+        } else {
+            // 客户端不在本节点
+            this.publishClusterMessage(clientId, null, msg);
+        }
+    }
+
+    @Override
+    public void sendMessageToUser(String loginId, String msg) {
+        DevSseCacheUtil.sendMessageToUser(loginId, msg);
+        if (StrUtil.isAllNotEmpty(loginId, msg)) {
+            // 用户可能同时连接在其他节点
+            this.publishClusterMessage(null, loginId, msg);
+        }
+    }
+
+    @Override
+    public DevSseHeartbeatStatResult heartbeatStat() {
+        return heartbeatWheel.getStat();
+    }
+
+    @Override
+    public void handleClusterMessage(String clusterMessage) {
+        JSONObject jsonObject = JSONUtil.parseObj(clusterMessage);
+        if (NODE_ID.equals(jsonObject.getStr("nodeId"))) {
+            return;
+        }
+        String clientId = jsonObject.getStr("clientId");
+        String loginId = jsonObject.getStr("loginId");
+        String msg = jsonObject.getStr("msg");
+        if (StrUtil.isNotEmpty(clientId)) {
+            if (DevSseCacheUtil.getSseEmitterByClientId(clientId) != null) {
+                DevSseCacheUtil.sendMessageToOneClient(clientId, msg);
+            }
+        } else if (StrUtil.isNotEmpty(loginId)) {
+            DevSseCacheUtil.sendMessageToUser(loginId, msg);
+        } else {
+            DevSseCacheUtil.sendMessageToAllClient(msg);
+        }
+    }
+
+    /**
+     * 发布推送消息通知，clientId与loginId均为空时表示群发
+     */
+    private void publishClusterMessage(String clientId, String loginId, String msg) {
+        JSONObject jsonObject = JSONUtil.createObj().set("nodeId", NODE_ID).set("clientId", clientId)
+                .set("loginId", loginId).set("msg", msg);
+        try {
+            redisTemplate.convertAndSend(SSE_MESSAGE_CHANNEL, jsonObject.toString());
+        } catch (Exception e) {
+            log.error(">>> 发布SSE推送消息通知失败：", e);
+        }
     }
 
 }
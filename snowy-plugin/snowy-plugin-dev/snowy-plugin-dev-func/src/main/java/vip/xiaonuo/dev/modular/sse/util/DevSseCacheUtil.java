@@ -12,22 +12,38 @@
  */
 package vip.xiaonuo.dev.modular.sse.util;
 
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.thread.ThreadUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.pojo.CommonResult;
 import vip.xiaonuo.dev.modular.sse.enums.DevSseEmitterParameterEnum;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
 /**
  * SseEmitter工具类
+ * 消息编码一次后放入各客户端的发送队列，由有界发送线程池异步写出，同一客户端按顺序发送；
+ * 客户端积压消息过多（慢消费者）时断开其连接
  *
  * @author diantu
  * @date 2023/7/3
@@ -40,6 +56,32 @@ public class DevSseCacheUtil {
      */
     public static Map<String, Map<String, Object>> sseCache = new ConcurrentHashMap<>();
 
+    /**
+     * 用户id -> 客户端id集合
+     */
+    private static final Map<String, Set<String>> LOGIN_ID_CLIENT_ID_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 单个客户端最多积压的消息数，超出后断开连接
+     */
+    private static final int MAX_PENDING_MESSAGE_COUNT = 256;
+
+    /**
+     * 发送线程数
+     */
+    private static final int SEND_THREAD_COUNT = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * 发送线程池，每个有待发送消息的客户端占用一个任务，队列满时由调用线程发送
+     */
+    private static final ThreadPoolExecutor SEND_EXECUTOR = new ThreadPoolExecutor(SEND_THREAD_COUNT, SEND_THREAD_COUNT,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(4096), ThreadUtil.newNamedThreadFactory("sse-send-", true),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    static {
+        SEND_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
 
     /**
      * 根据客户端id获取连接对象
@@ -75,12 +117,12 @@ public class DevSseCacheUtil {
      * @author diantu
      * @date 2023/7/18
      **/
-    public static ScheduledFuture<?> getLoginIdByClientId(String clientId) {
+    public static String getLoginIdByClientId(String clientId) {
         Map<String, Object> map = sseCache.get(clientId);
         if (map == null || map.isEmpty()) {
             return null;
         }
-        return (ScheduledFuture<?>) map.get(DevSseEmitterParameterEnum.LOGINID.getValue());
+        return (String) map.get(DevSseEmitterParameterEnum.LOGINID.getValue());
     }
 
     /**
@@ -90,16 +132,19 @@ public class DevSseCacheUtil {
      * @date 2023/7/18
      **/
     public static String getClientIdByLoginId(String loginId) {
-        if (existSseCache()) {
-            for (Map.Entry<String, Map<String, Object>> entry : sseCache.entrySet()) {
-                Map<String, Object> map = sseCache.get(entry.getKey());
-                String lId = (String) map.get(DevSseEmitterParameterEnum.LOGINID.getValue());
-                if (loginId.equals(lId)) {
-                    return entry.getKey();
-                }
-            }
-        }
-        return null;
+        List<String> clientIdList = getClientIdListByLoginId(loginId);
+        return clientIdList.isEmpty() ? null : clientIdList.get(0);
+    }
+
+    /**
+     * 根据用户id获取本节点上该用户的所有客户端id
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 10:10
+     **/
+    public static List<String> getClientIdListByLoginId(String loginId) {
+        Set<String> clientIdSet = LOGIN_ID_CLIENT_ID_MAP.get(loginId);
+        return clientIdSet == null ? Collections.emptyList() : CollectionUtil.newArrayList(clientIdSet);
     }
 
     /**
@@ -142,7 +187,15 @@ public class DevSseCacheUtil {
             map.put(DevSseEmitterParameterEnum.FUTURE.getValue(), future);
         }
         map.put(DevSseEmitterParameterEnum.LOGINID.getValue(), loginId);
-        sseCache.put(clientId, map);
+        map.put(DevSseEmitterParameterEnum.SENDER.getValue(), new ClientSender(clientId, emitter));
+        if (sseCache.putIfAbsent(clientId, map) != null) {
+            throw new CommonException("连接已存在:{}", clientId);
+        }
+        LOGIN_ID_CLIENT_ID_MAP.compute(loginId, (key, clientIdSet) -> {
+            Set<String> resultSet = clientIdSet == null ? ConcurrentHashMap.newKeySet() : clientIdSet;
+            resultSet.add(clientId);
+            return resultSet;
+        });
     }
 
     /**
@@ -156,7 +209,17 @@ public class DevSseCacheUtil {
         if (emitter != null) {
             cancelScheduledFuture(clientId);
         }
-        sseCache.remove(clientId);
+        Map<String, Object> map = sseCache.remove(clientId);
+        if (map != null) {
+            ((ClientSender) map.get(DevSseEmitterParameterEnum.SENDER.getValue())).close();
+            String loginId = (String) map.get(DevSseEmitterParameterEnum.LOGINID.getValue());
+            if (loginId != null) {
+                LOGIN_ID_CLIENT_ID_MAP.computeIfPresent(loginId, (key, clientIdSet) -> {
+                    clientIdSet.remove(clientId);
+                    return clientIdSet.isEmpty() ? null : clientIdSet;
+                });
+            }
+        }
         log.info("移除连接:{}", clientId);
     }
 
@@ -231,9 +294,35 @@ public class DevSseCacheUtil {
             log.info("群发消息为空");
             return;
         }
-        CommonResult<String> message = new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg);
-        for (Map.Entry<String, Map<String, Object>> entry : sseCache.entrySet()) {
-            sendMessageToClientByClientId(entry.getKey(), message);
+        // 只编码一次，所有客户端共用
+        Set<ResponseBodyEmitter.DataWithMediaType> sendData = encode(new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg));
+        for (String clientId : sseCache.keySet()) {
+            sendToClient(clientId, sendData);
+        }
+    }
+
+    /**
+     * 推送消息到本节点上某一用户的所有客户端
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 10:10
+     **/
+    public static void sendMessageToUser(String loginId, String msg) {
+        if (StrUtil.isEmpty(loginId)) {
+            log.info("用户ID为空");
+            return;
+        }
+        if (StrUtil.isEmpty(msg)) {
+            log.info("向用户{}推送消息为空", loginId);
+            return;
+        }
+        List<String> clientIdList = getClientIdListByLoginId(loginId);
+        if (clientIdList.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> sendData = encode(new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg));
+        for (String clientId : clientIdList) {
+            sendToClient(clientId, sendData);
         }
     }
 
@@ -263,18 +352,121 @@ public class DevSseCacheUtil {
      * @date 2023/7/3
      **/
     public static void sendMessageToClientByClientId(String clientId, CommonResult<String> message) {
+        if (!sseCache.containsKey(clientId)) {
+            log.error("推送消息失败:客户端{}未创建长链接,失败消息:{}", clientId, message.toString());
+            return;
+        }
+        sendToClient(clientId, encode(message));
+    }
+
+    /**
+     * 将消息预先编码为SSE事件，用于重复推送同一消息（如心跳）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 15:30
+     **/
+    public static Set<ResponseBodyEmitter.DataWithMediaType> encodeMessage(String msg) {
+        return encode(new CommonResult<>(CommonResult.CODE_SUCCESS, "", msg));
+    }
+
+    /**
+     * 推送已编码的消息到客户端，客户端连接不存在时返回false
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 15:30
+     **/
+    public static boolean sendEncodedMessageToOneClient(String clientId, Set<ResponseBodyEmitter.DataWithMediaType> sendData) {
+        if (!sseCache.containsKey(clientId)) {
+            return false;
+        }
+        sendToClient(clientId, sendData);
+        return true;
+    }
+
+    /**
+     * 将消息编码为SSE事件
+     */
+    private static Set<ResponseBodyEmitter.DataWithMediaType> encode(CommonResult<String> message) {
+        return SseEmitter.event().data(JSONUtil.toJsonStr(message), new MediaType(MediaType.APPLICATION_JSON, StandardCharsets.UTF_8)).build();
+    }
+
+    /**
+     * 将已编码的消息放入客户端的发送队列，积压过多时断开连接
+     */
+    private static void sendToClient(String clientId, Set<ResponseBodyEmitter.DataWithMediaType> sendData) {
         Map<String, Object> map = sseCache.get(clientId);
         if (map == null || map.isEmpty()) {
-            log.error("推送消息失败:客户端{}未创建长链接,失败消息:{}", clientId, message.toString());
             return;
         }
-        SseEmitter.SseEventBuilder sendData = SseEmitter.event().data(message, MediaType.APPLICATION_JSON);
-        SseEmitter sseEmitter = getSseEmitterByClientId(clientId);
-        try {
-            Objects.requireNonNull(sseEmitter).send(sendData);
-        } catch (Exception e) {
-            log.error("推送消息失败,报错异常:", e);
+        ClientSender clientSender = (ClientSender) map.get(DevSseEmitterParameterEnum.SENDER.getValue());
+        if (!clientSender.offer(sendData)) {
+            log.warn("客户端{}待推送消息超过{}条，断开连接", clientId, MAX_PENDING_MESSAGE_COUNT);
             removeConnection(clientId);
+            clientSender.complete();
+        }
+    }
+
+    /**
+     * 单个客户端的发送器，保证同一客户端的消息按顺序发送
+     */
+    private static final class ClientSender {
+
+        private final String clientId;
+
+        private final SseEmitter sseEmitter;
+
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> messageQueue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private volatile boolean closed;
+
+        private ClientSender(String clientId, SseEmitter sseEmitter) {
+            this.clientId = clientId;
+            this.sseEmitter = sseEmitter;
+        }
+
+        /**
+         * 放入发送队列，已关闭时忽略，积压已满时返回false
+         */
+        private boolean offer(Set<ResponseBodyEmitter.DataWithMediaType> sendData) {
+            if (closed) {
+                return true;
+            }
+            if (pendingCount.get() >= MAX_PENDING_MESSAGE_COUNT) {
+                return false;
+            }
+            messageQueue.offer(sendData);
+            if (pendingCount.getAndIncrement() == 0) {
+                SEND_EXECUTOR.execute(this::drain);
+            }
+            return true;
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> sendData = messageQueue.poll();
+                if (!closed && sendData != null) {
+                    try {
+                        sseEmitter.send(sendData);
+                    } catch (Exception e) {
+                        log.error("推送消息失败,报错异常:", e);
+                        removeConnection(clientId);
+                    }
+                }
+            } while (pendingCount.decrementAndGet() > 0);
+        }
+
+        private void close() {
+            closed = true;
+        }
+
+        private void complete() {
+            try {
+                sseEmitter.complete();
+            } catch (Exception e) {
+                log.error("断开连接失败:{}", clientId, e);
+            }
         }
     }
 
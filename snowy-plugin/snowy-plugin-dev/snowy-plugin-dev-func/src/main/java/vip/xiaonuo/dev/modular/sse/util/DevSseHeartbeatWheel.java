@@ -0,0 +1,219 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.dev.modular.sse.util;
+
+import cn.hutool.core.thread.ThreadUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import vip.xiaonuo.dev.modular.sse.result.DevSseHeartbeatStatResult;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SSE心跳时间轮
+ * 一个驱动线程按刻度推进，每个刻度批量执行落在该槽位上的心跳，执行前检查连接是否仍存在，
+ * 已断开的连接在此时批量移除，不再为每个连接单独调度定时任务
+ *
+ * @author xuyuxiang
+ * @date 2024/8/26 15:30
+ **/
+@Slf4j
+public class DevSseHeartbeatWheel {
+
+    /** 刻度时长（毫秒） */
+    private final long tickMillis;
+
+    /** 槽位，心跳周期 = 槽位数 × 刻度时长 */
+    private final Set<HeartbeatTask>[] buckets;
+
+    /** 首次心跳延迟的刻度数 */
+    private final int initialDelayTicks;
+
+    /** 驱动线程 */
+    private final ScheduledExecutorService driverExecutor;
+
+    /** 自定义心跳执行线程池，自定义心跳可能访问数据库，不在驱动线程执行 */
+    private final ExecutorService customExecutor;
+
+    /** 驱动开始时间 */
+    private final long startNanos;
+
+    /** 已推进的刻度数，只在驱动线程修改 */
+    private volatile long tickCount;
+
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private final AtomicLong heartbeatCount = new AtomicLong();
+
+    private final AtomicLong deadCount = new AtomicLong();
+
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    private volatile long lastTickLagMillis;
+
+    private volatile long maxTickLagMillis;
+
+    private volatile long lastTickCostMillis;
+
+    @SuppressWarnings("unchecked")
+    public DevSseHeartbeatWheel(long tickMillis, int wheelSize, int initialDelayTicks, int customThreadCount) {
+        this.tickMillis = tickMillis;
+        this.initialDelayTicks = initialDelayTicks;
+        this.buckets = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.customExecutor = new ThreadPoolExecutor(customThreadCount, customThreadCount, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(4096), ThreadUtil.newNamedThreadFactory("sse-heartbeat-", true));
+        ((ThreadPoolExecutor) customExecutor).allowCoreThreadTimeOut(true);
+        this.driverExecutor = new ScheduledThreadPoolExecutor(1, ThreadUtil.newNamedThreadFactory("sse-heartbeat-wheel-", true));
+        this.startNanos = System.nanoTime();
+        this.driverExecutor.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 注册默认心跳，每个周期推送预先编码好的心跳消息
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 15:30
+     **/
+    public void addDefaultHeartbeat(String clientId, String heartbeatMessage) {
+        this.add(new HeartbeatTask(clientId, DevSseCacheUtil.encodeMessage(heartbeatMessage), null));
+    }
+
+    /**
+     * 注册自定义心跳，上一次执行未结束时跳过本周期
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 15:30
+     **/
+    public void addCustomHeartbeat(String clientId, Runnable heartbeat) {
+        this.add(new HeartbeatTask(clientId, null, heartbeat));
+    }
+
+    private void add(HeartbeatTask heartbeatTask) {
+        buckets[(int) ((tickCount + initialDelayTicks) % buckets.length)].add(heartbeatTask);
+        connectionCount.incrementAndGet();
+    }
+
+    /**
+     * 获取心跳统计
+     *
+     * @author xuyuxiang
+     * @date 2024/8/26 15:30
+     **/
+    public DevSseHeartbeatStatResult getStat() {
+        DevSseHeartbeatStatResult statResult = new DevSseHeartbeatStatResult();
+        statResult.setClientCount(DevSseCacheUtil.sseCache.size());
+        statResult.setHeartbeatClientCount(connectionCount.get());
+        statResult.setTickMillis(tickMillis);
+        statResult.setHeartbeatPeriodMillis(tickMillis * buckets.length);
+        statResult.setTickCount(tickCount);
+        statResult.setHeartbeatCount(heartbeatCount.get());
+        statResult.setDeadCount(deadCount.get());
+        statResult.setSkippedCount(skippedCount.get());
+        statResult.setLastTickLagMillis(lastTickLagMillis);
+        statResult.setMaxTickLagMillis(maxTickLagMillis);
+        statResult.setLastTickCostMillis(lastTickCostMillis);
+        return statResult;
+    }
+
+    /**
+     * 推进一个刻度，执行当前槽位上的心跳
+     */
+    private void tick() {
+        try {
+            long beginNanos = System.nanoTime();
+            long currentTick = tickCount + 1;
+            long lagMillis = Math.max(0, TimeUnit.NANOSECONDS.toMillis(beginNanos - startNanos) - currentTick * tickMillis);
+            lastTickLagMillis = lagMillis;
+            maxTickLagMillis = Math.max(maxTickLagMillis, lagMillis);
+            tickCount = currentTick;
+            Iterator<HeartbeatTask> iterator = buckets[(int) (currentTick % buckets.length)].iterator();
+            while (iterator.hasNext()) {
+                HeartbeatTask heartbeatTask = iterator.next();
+                if (!DevSseCacheUtil.sseCache.containsKey(heartbeatTask.clientId)) {
+                    iterator.remove();
+                    connectionCount.decrementAndGet();
+                    deadCount.incrementAndGet();
+                    continue;
+                }
+                this.execute(heartbeatTask);
+            }
+            lastTickCostMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - beginNanos);
+        } catch (Exception e) {
+            log.error(">>> SSE心跳时间轮执行异常：", e);
+        }
+    }
+
+    private void execute(HeartbeatTask heartbeatTask) {
+        if (heartbeatTask.heartbeat == null) {
+            DevSseCacheUtil.sendEncodedMessageToOneClient(heartbeatTask.clientId, heartbeatTask.sendData);
+            heartbeatCount.incrementAndGet();
+            return;
+        }
+        if (!heartbeatTask.running.compareAndSet(false, true)) {
+            skippedCount.incrementAndGet();
+            return;
+        }
+        try {
+            customExecutor.execute(() -> {
+                try {
+                    heartbeatTask.heartbeat.run();
+                } catch (Exception e) {
+                    log.error(">>> SSE自定义心跳执行异常，客户端：{}", heartbeatTask.clientId, e);
+                } finally {
+                    heartbeatTask.running.set(false);
+                }
+            });
+            heartbeatCount.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            heartbeatTask.running.set(false);
+            skippedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 单个连接的心跳任务
+     */
+    private static final class HeartbeatTask {
+
+        private final String clientId;
+
+        /** 预先编码的心跳消息，默认心跳使用 */
+        private final Set<ResponseBodyEmitter.DataWithMediaType> sendData;
+
+        /** 自定义心跳 */
+        private final Runnable heartbeat;
+
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        private HeartbeatTask(String clientId, Set<ResponseBodyEmitter.DataWithMediaType> sendData, Runnable heartbeat) {
+            this.clientId = clientId;
+            this.sendData = sendData;
+            this.heartbeat = heartbeat;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package vip.xiaonuo.sys.api.context;
 
+import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.tree.Tree;
 import cn.hutool.json.JSONObject;
@@ -8,11 +9,15 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.cache.CommonBatchLoader;
+import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.page.CommonPageRequest;
 import vip.xiaonuo.sys.api.SysOrgApi;
 import vip.xiaonuo.sys.feign.SysOrgFeign;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 系统模块OrgAPI上下文Bean
@@ -27,6 +32,9 @@ public class SysOrgApiContextBean implements SysOrgApi {
 
     final private SysOrgFeign sysOrgFeign;
 
+    /** 按id查询组织时合并为批量查询 */
+    final private CommonBatchLoader<JSONObject> sysOrgLoader = new CommonBatchLoader<>("sysOrg", this::getOrgMapByIdList);
+
     /**
      * 根据id获取名称
      *
@@ -36,7 +44,11 @@ public class SysOrgApiContextBean implements SysOrgApi {
      */
     @Override
     public String getNameById(String orgId) {
-        return this.sysOrgFeign.getNameById(orgId);
+        JSONObject sysOrg = this.sysOrgLoader.load(orgId);
+        if (sysOrg == null) {
+            throw new CommonException("组织不存在，id值为：{}", orgId);
+        }
+        return sysOrg.getStr("name");
     }
 
     /**
@@ -100,6 +112,16 @@ public class SysOrgApiContextBean implements SysOrgApi {
      */
     @Override
     public List<JSONObject> getOrgListByIdListWithoutException(List<String> orgIdList) {
-        return this.sysOrgFeign.getOrgListByIdListWithoutException(orgIdList);
+        return this.sysOrgLoader.loadMany(orgIdList).values().stream().map(JSONUtil::parseObj).collect(Collectors.toList());
+    }
+
+    /**
+     * 批量查询组织，供合并加载使用
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    private Map<String, JSONObject> getOrgMapByIdList(List<String> orgIdList) {
+        return CollStreamUtil.toIdentityMap(this.sysOrgFeign.getOrgListByIdListWithoutException(orgIdList), sysOrg -> sysOrg.getStr("id"));
     }
 }
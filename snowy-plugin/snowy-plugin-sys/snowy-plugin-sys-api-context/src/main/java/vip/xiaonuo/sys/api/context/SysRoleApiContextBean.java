@@ -14,7 +14,6 @@ package vip.xiaonuo.sys.api.context;
 
 import cn.hutool.core.convert.Convert;
 import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -64,9 +63,7 @@ public class SysRoleApiContextBean implements SysRoleApi {
     public Page<JSONObject> roleSelector(String orgId, String category, String searchKey, List<String> dataScopeList, boolean excludeSuperAdmin) {
         long current = CommonPageRequest.defaultPage().getCurrent();
         long size = CommonPageRequest.defaultPage().getSize();
-        String feignResp = sysRoleFeign.roleSelector(Convert.toInt(current), Convert.toInt(size), orgId, category, searchKey,dataScopeList,excludeSuperAdmin);
-        Page<JSONObject> resp = (Page<JSONObject>) JSONUtil.toBean(feignResp,Page.class);
-        return resp;
+        return sysRoleFeign.roleSelector(Convert.toInt(current), Convert.toInt(size), orgId, category, searchKey, dataScopeList, excludeSuperAdmin);
     }
 
     /**
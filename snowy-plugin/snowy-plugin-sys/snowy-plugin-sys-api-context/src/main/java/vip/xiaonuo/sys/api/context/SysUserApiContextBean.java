@@ -12,20 +12,23 @@
  */
 package vip.xiaonuo.sys.api.context;
 
-import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.collection.CollStreamUtil;
 import cn.hutool.core.convert.Convert;
-import cn.hutool.json.JSONArray;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import vip.xiaonuo.common.cache.CommonBatchLoader;
+import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.page.CommonPageRequest;
 import vip.xiaonuo.sys.api.SysUserApi;
 import vip.xiaonuo.sys.feign.SysUserFeign;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * 用户Api上下文Bean
@@ -40,6 +43,9 @@ public class SysUserApiContextBean implements SysUserApi {
 
     private final SysUserFeign sysUserFeign;
 
+    /** 按id查询用户时合并为批量查询 */
+    private final CommonBatchLoader<JSONObject> sysUserLoader = new CommonBatchLoader<>("sysUser", this::getUserMapByIdList);
+
     /**
      * 根据用户id获取用户对象，没有则返回null
      *
@@ -49,9 +55,7 @@ public class SysUserApiContextBean implements SysUserApi {
      */
     @Override
     public JSONObject getUserByIdWithoutException(String userId) {
-        String feignResp = sysUserFeign.getUserByIdWithoutException(userId);
-        JSONObject resp = JSONUtil.parseObj(feignResp);
-        return resp;
+        return JSONUtil.parseObj(sysUserLoader.load(userId));
     }
 
     /**
@@ -63,10 +67,7 @@ public class SysUserApiContextBean implements SysUserApi {
      */
     @Override
     public List<JSONObject> getUserListByIdListWithoutException(List<String> userIdList) {
-        String feignResp = sysUserFeign.getUserListByIdListWithoutException(userIdList);
-        JSONArray jsonArray = new JSONArray(feignResp);
-        List<JSONObject> resp = jsonArray.toList(JSONObject.class);
-        return resp;
+        return sysUserLoader.loadMany(userIdList).values().stream().map(JSONUtil::parseObj).collect(Collectors.toList());
     }
 
     /**
@@ -78,9 +79,11 @@ public class SysUserApiContextBean implements SysUserApi {
      */
     @Override
     public JSONObject getUserByIdWithException(String userId) {
-        String feignResp = sysUserFeign.getUserByIdWithoutException(userId);
-        JSONObject resp = JSONUtil.parseObj(feignResp);
-        return resp;
+        JSONObject sysUser = sysUserLoader.load(userId);
+        if (sysUser == null) {
+            throw new CommonException("用户不存在，id值为：{}", userId);
+        }
+        return JSONUtil.parseObj(sysUser);
     }
 
     /**
@@ -92,10 +95,7 @@ public class SysUserApiContextBean implements SysUserApi {
      */
     @Override
     public List<JSONObject> getUserListByIdWithException(List<String> userIdList) {
-        String feignResp = sysUserFeign.getUserListByIdWithException(userIdList);
-        JSONArray jsonArray = new JSONArray(feignResp);
-        List<JSONObject> resp = jsonArray.toList(JSONObject.class);
-        return resp;
+        return sysUserFeign.getUserListByIdWithException(userIdList);
     }
 
     /**
@@ -107,10 +107,7 @@ public class SysUserApiContextBean implements SysUserApi {
      */
     @Override
     public List<String> ownRole(String userId) {
-        String feignResp = sysUserFeign.ownRole(userId);
-        JSONArray jsonArray = new JSONArray(feignResp);
-        List<String> resp = jsonArray.toList(String.class);
-        return resp;
+        return sysUserFeign.ownRole(userId);
     }
 
     /**
@@ -135,10 +132,7 @@ public class SysUserApiContextBean implements SysUserApi {
      */
     @Override
     public List<String> getUserIdListByOrgIdList(List<String> orgIdList) {
-        String feignResp = sysUserFeign.getUserIdListByOrgIdList(orgIdList);
-        JSONArray jsonArray = new JSONArray(feignResp);
-        List<String> resp = jsonArray.toList(String.class);
-        return resp;
+        return sysUserFeign.getUserIdListByOrgIdList(orgIdList);
     }
 
     /**
@@ -150,10 +144,7 @@ public class SysUserApiContextBean implements SysUserApi {
      */
     @Override
     public List<String> getUserIdListByPositionIdList(List<String> positionIdList) {
-        String feignResp = sysUserFeign.getUserIdListByPositionIdList(positionIdList);
-        JSONArray jsonArray = new JSONArray(feignResp);
-        List<String> resp = jsonArray.toList(String.class);
-        return resp;
+        return sysUserFeign.getUserIdListByPositionIdList(positionIdList);
     }
 
     /**
@@ -199,9 +190,7 @@ public class SysUserApiContextBean implements SysUserApi {
     public Page<JSONObject> userSelector(String orgId, String searchKey) {
         long current = CommonPageRequest.defaultPage().getCurrent();
         long size = CommonPageRequest.defaultPage().getSize();
-        String feignResp = sysUserFeign.userSelector(Convert.toInt(current), Convert.toInt(size), orgId, searchKey);
-        Page<JSONObject> resp = (Page<JSONObject>) JSONUtil.toBean(feignResp,Page.class);
-        return resp;
+        return sysUserFeign.userSelector(Convert.toInt(current), Convert.toInt(size), orgId, searchKey);
     }
 
     /**
@@ -212,8 +201,7 @@ public class SysUserApiContextBean implements SysUserApi {
      **/
     @Override
     public List<JSONObject> listUserWithoutCurrent() {
-        String feignResp = sysUserFeign.listUserWithoutCurrent();
-        return (List<JSONObject>) BeanUtil.toBean(feignResp, List.class);
+        return sysUserFeign.listUserWithoutCurrent();
     }
 
     /**
@@ -224,8 +212,7 @@ public class SysUserApiContextBean implements SysUserApi {
      **/
     @Override
     public List<JSONObject> getPositionListByUserId(String userId) {
-        String feignResp = sysUserFeign.getPositionListByUserId(userId);
-        return (List<JSONObject>) BeanUtil.toBean(feignResp, List.class);
+        return sysUserFeign.getPositionListByUserId(userId);
     }
 
     @Override
@@ -234,4 +221,14 @@ public class SysUserApiContextBean implements SysUserApi {
         JSONObject resp = JSONUtil.parseObj(feignResp);
         return resp;
     }
+
+    /**
+     * 批量查询用户，供合并加载使用
+     *
+     * @author xuyuxiang
+     * @date 2024/8/30 9:00
+     **/
+    private Map<String, JSONObject> getUserMapByIdList(List<String> userIdList) {
+        return CollStreamUtil.toIdentityMap(sysUserFeign.getUserListByIdListWithoutException(userIdList), sysUser -> sysUser.getStr("id"));
+    }
 }
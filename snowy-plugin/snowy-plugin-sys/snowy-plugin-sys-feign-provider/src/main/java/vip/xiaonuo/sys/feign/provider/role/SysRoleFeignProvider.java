@@ -13,7 +13,7 @@
 package vip.xiaonuo.sys.feign.provider.role;
 
 import cn.hutool.json.JSONObject;
-import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -62,8 +62,8 @@ public class SysRoleFeignProvider implements SysRoleFeign {
      */
     @Override
     @RequestMapping("/feign/sys/role/roleSelector")
-    public String roleSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam(value = "orgId",required = false) String orgId, @RequestParam(value = "category",required = false) String category, @RequestParam(value = "searchKey",required = false) String searchKey, @RequestParam(value = "dataScopeList",required = false)  List<String> dataScopeList, @RequestParam(value = "excludeSuperAdmin",required = false) boolean excludeSuperAdmin) {
-        return JSONUtil.toJsonStr(sysRoleApi.roleSelector(orgId, category, searchKey, dataScopeList, excludeSuperAdmin));
+    public Page<JSONObject> roleSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam(value = "orgId",required = false) String orgId, @RequestParam(value = "category",required = false) String category, @RequestParam(value = "searchKey",required = false) String searchKey, @RequestParam(value = "dataScopeList",required = false)  List<String> dataScopeList, @RequestParam(value = "excludeSuperAdmin",required = false) boolean excludeSuperAdmin) {
+        return sysRoleApi.roleSelector(orgId, category, searchKey, dataScopeList, excludeSuperAdmin);
     }
 
     /**
@@ -12,7 +12,9 @@
  */
 package vip.xiaonuo.sys.feign.provider.user;
 
+import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -58,8 +60,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      */
     @Override
     @RequestMapping("/feign/sys/user/getUserListByIdListWithoutException")
-    public String getUserListByIdListWithoutException(@RequestParam(value = "userIdList",required = false) List<String> userIdList) {
-        return JSONUtil.toJsonStr(sysUserApi.getUserListByIdListWithoutException(userIdList));
+    public List<JSONObject> getUserListByIdListWithoutException(@RequestParam(value = "userIdList",required = false) List<String> userIdList) {
+        return sysUserApi.getUserListByIdListWithoutException(userIdList);
     }
 
     /**
@@ -84,8 +86,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      */
     @Override
     @RequestMapping("/feign/sys/user/getUserListByIdWithException")
-    public String getUserListByIdWithException(@RequestParam(value = "userIdList",required = false) List<String> userIdList) {
-        return JSONUtil.toJsonStr(sysUserApi.getUserListByIdWithException(userIdList));
+    public List<JSONObject> getUserListByIdWithException(@RequestParam(value = "userIdList",required = false) List<String> userIdList) {
+        return sysUserApi.getUserListByIdWithException(userIdList);
     }
 
     /**
@@ -97,8 +99,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      */
     @Override
     @RequestMapping("/feign/sys/user/ownRole")
-    public String ownRole(@RequestParam(value = "userId",required = false) String userId) {
-        return JSONUtil.toJsonStr(sysUserApi.ownRole(userId));
+    public List<String> ownRole(@RequestParam(value = "userId",required = false) String userId) {
+        return sysUserApi.ownRole(userId);
     }
 
     /**
@@ -124,8 +126,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      */
     @Override
     @RequestMapping("/feign/sys/user/getUserIdListByOrgIdList")
-    public String getUserIdListByOrgIdList(@RequestParam(value = "orgIdList",required = false) List<String> orgIdList) {
-        return JSONUtil.toJsonStr(sysUserApi.getUserIdListByOrgIdList(orgIdList));
+    public List<String> getUserIdListByOrgIdList(@RequestParam(value = "orgIdList",required = false) List<String> orgIdList) {
+        return sysUserApi.getUserIdListByOrgIdList(orgIdList);
     }
 
     /**
@@ -137,8 +139,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      */
     @Override
     @RequestMapping("/feign/sys/user/getUserIdListByPositionIdList")
-    public String getUserIdListByPositionIdList(@RequestParam(value = "positionIdList",required = false) List<String> positionIdList) {
-        return JSONUtil.toJsonStr(sysUserApi.getUserIdListByPositionIdList(positionIdList));
+    public List<String> getUserIdListByPositionIdList(@RequestParam(value = "positionIdList",required = false) List<String> positionIdList) {
+        return sysUserApi.getUserIdListByPositionIdList(positionIdList);
     }
 
     /**
@@ -180,8 +182,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      */
     @Override
     @RequestMapping("/feign/sys/user/userSelector")
-    public String userSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam(value = "orgId",required = false) String orgId, @RequestParam(value = "searchKey",required = false) String searchKey) {
-        return JSONUtil.toJsonStr(sysUserApi.userSelector(orgId, searchKey));
+    public Page<JSONObject> userSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam(value = "orgId",required = false) String orgId, @RequestParam(value = "searchKey",required = false) String searchKey) {
+        return sysUserApi.userSelector(orgId, searchKey);
     }
 
     /**
@@ -192,8 +194,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      **/
     @RequestMapping("/feign/sys/user/listUserWithoutCurrent")
     @Override
-    public String listUserWithoutCurrent() {
-        return JSONUtil.toJsonStr(sysUserApi.listUserWithoutCurrent());
+    public List<JSONObject> listUserWithoutCurrent() {
+        return sysUserApi.listUserWithoutCurrent();
     }
 
     /**
@@ -204,8 +206,8 @@ public class SysUserFeignProvider implements SysUserFeign {
      **/
     @RequestMapping("/feign/sys/user/getPositionListByUserId")
     @Override
-    public String getPositionListByUserId(@RequestParam(value = "userId") String userId) {
-        return JSONUtil.toJsonStr(sysUserApi.getPositionListByUserId(userId));
+    public List<JSONObject> getPositionListByUserId(@RequestParam(value = "userId") String userId) {
+        return sysUserApi.getPositionListByUserId(userId);
     }
 
     /**
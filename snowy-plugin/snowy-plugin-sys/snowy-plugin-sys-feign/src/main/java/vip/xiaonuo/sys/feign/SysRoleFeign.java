@@ -13,6 +13,7 @@
 package vip.xiaonuo.sys.feign;
 
 import cn.hutool.json.JSONObject;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -45,7 +46,7 @@ public interface SysRoleFeign {
      * @date 2022/7/22 14:49
      **/
     @RequestMapping("/feign/sys/role/roleSelector")
-    String roleSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam(value = "orgId",required = false) String orgId, @RequestParam(value = "category",required = false) String category, @RequestParam(value = "searchKey",required = false) String searchKey, @RequestParam(value = "dataScopeList",required = false) List<String> dataScopeList, @RequestParam(value = "excludeSuperAdmin",required = false) boolean excludeSuperAdmin);
+    Page<JSONObject> roleSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam(value = "orgId",required = false) String orgId, @RequestParam(value = "category",required = false) String category, @RequestParam(value = "searchKey",required = false) String searchKey, @RequestParam(value = "dataScopeList",required = false) List<String> dataScopeList, @RequestParam(value = "excludeSuperAdmin",required = false) boolean excludeSuperAdmin);
 
     /**
      * 代码生成菜单按钮授权
@@ -12,6 +12,8 @@
  */
 package vip.xiaonuo.sys.feign;
 
+import cn.hutool.json.JSONObject;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -44,7 +46,7 @@ public interface SysUserFeign {
      * @date 2022/6/20 18:19
      **/
     @RequestMapping("/feign/sys/user/getUserListByIdListWithoutException")
-    String getUserListByIdListWithoutException(@RequestParam(value = "userIdList",required = false) List<String> userIdList);
+    List<JSONObject> getUserListByIdListWithoutException(@RequestParam(value = "userIdList",required = false) List<String> userIdList);
 
     /**
      * 根据用户id获取用户对象，没有则抛出异常
@@ -62,7 +64,7 @@ public interface SysUserFeign {
      * @date 2022/6/20 18:19
      **/
     @RequestMapping("/feign/sys/user/getUserListByIdWithException")
-    String getUserListByIdWithException(@RequestParam(value = "userIdList",required = false) List<String> userIdList);
+    List<JSONObject> getUserListByIdWithException(@RequestParam(value = "userIdList",required = false) List<String> userIdList);
 
     /**
      * 获取用户拥有角色
@@ -71,7 +73,7 @@ public interface SysUserFeign {
      * @date 2022/5/13 21:00
      */
     @RequestMapping("/feign/sys/user/ownRole")
-    String ownRole(@RequestParam(value = "userId",required = false) String userId);
+    List<String> ownRole(@RequestParam(value = "userId",required = false) String userId);
 
     /**
      * 给用户授权角色
@@ -89,7 +91,7 @@ public interface SysUserFeign {
      * @date 2022/6/6 11:40
      **/
     @RequestMapping("/feign/sys/user/getUserIdListByOrgIdList")
-    String getUserIdListByOrgIdList(@RequestParam(value = "orgIdList",required = false) List<String> orgIdList);
+    List<String> getUserIdListByOrgIdList(@RequestParam(value = "orgIdList",required = false) List<String> orgIdList);
 
     /**
      * 根据职位id集合获取职位下用户id集合
@@ -98,7 +100,7 @@ public interface SysUserFeign {
      * @date 2022/6/6 11:44
      **/
     @RequestMapping("/feign/sys/user/getUserIdListByPositionIdList")
-    String getUserIdListByPositionIdList(@RequestParam(value = "positionIdList",required = false) List<String> positionIdList);
+    List<String> getUserIdListByPositionIdList(@RequestParam(value = "positionIdList",required = false) List<String> positionIdList);
 
     /**
      * 根据用户id和组织id和职位id和主管层级获取上级主管id
@@ -125,7 +127,7 @@ public interface SysUserFeign {
      * @date 2022/4/24 20:08
      */
     @RequestMapping("/feign/sys/user/userSelector")
-    String userSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam("orgId") String orgId, @RequestParam("searchKey") String searchKey);
+    Page<JSONObject> userSelector(@RequestParam(value = "current",required = false) Integer current, @RequestParam(value = "size",required = false) Integer size,@RequestParam("orgId") String orgId, @RequestParam("searchKey") String searchKey);
 
     /**
      * 获取用户列表（排除当前用户）
@@ -134,7 +136,7 @@ public interface SysUserFeign {
      * @date 2022/6/20 18:19
      **/
     @RequestMapping("/feign/sys/user/listUserWithoutCurrent")
-    String listUserWithoutCurrent();
+    List<JSONObject> listUserWithoutCurrent();
 
     /**
      * 获取用户的职位列表
@@ -143,7 +145,7 @@ public interface SysUserFeign {
      * @date 2022/6/20 18:19
      **/
     @RequestMapping("/feign/sys/user/getPositionListByUserId")
-    String getPositionListByUserId(@RequestParam(value = "userId") String userId);
+    List<JSONObject> getPositionListByUserId(@RequestParam(value = "userId") String userId);
 
     /**
      * 获取或创建用户扩展信息
@@ -14,10 +14,14 @@ package vip.xiaonuo.sys.core.listener;
 
 import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.json.JSONArray;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.json.JSONObject;
+import jakarta.annotation.Resource;
 import org.springframework.stereotype.Component;
 import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
 import vip.xiaonuo.common.listener.CommonDataChangeListener;
 import vip.xiaonuo.sys.core.enums.SysDataTypeEnum;
 
@@ -32,6 +36,9 @@ import java.util.List;
 @Component
 public class SysDataChangeListener implements CommonDataChangeListener {
 
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
     @Override
     public void doAddWithDataId(String dataType, String dataId) {
         // 此处可做额外处理
@@ -42,7 +49,8 @@ public class SysDataChangeListener implements CommonDataChangeListener {
         // 如果检测到机构增加，则将该机构加入到当前登录用户的数据范围缓存
         if(dataType.equals(SysDataTypeEnum.ORG.getValue())) {
             SaBaseLoginUser saBaseLoginUser = StpLoginUserUtil.getLoginUser();
-            saBaseLoginUser.getDataScopeList().forEach(dataScope -> dataScope.getDataScope().addAll(dataIdList));
+            saBaseLoginUser.getDataScopeList().stream().filter(dataScope -> !Boolean.TRUE.equals(dataScope.getScopeAll()))
+                    .forEach(dataScope -> dataScope.getDataScope().addAll(dataIdList));
             saBaseLoginUser.setDataScopeList(saBaseLoginUser.getDataScopeList());
             // 重新缓存当前登录用户信息
             StpUtil.getTokenSession().set("loginUser", saBaseLoginUser);
@@ -56,7 +64,7 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doAddWithDataList(String dataType, JSONArray jsonArray) {
-        // 此处可做额外处理
+        this.updatePermissionVersion(dataType);
     }
 
     @Override
@@ -76,7 +84,7 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doUpdateWithDataList(String dataType, JSONArray jsonArray) {
-        // 此处可做额外处理
+        this.updatePermissionVersion(dataType);
     }
 
     @Override
@@ -86,6 +94,18 @@ public class SysDataChangeListener implements CommonDataChangeListener {
 
     @Override
     public void doDeleteWithDataIdList(String dataType, List<String> dataIdList) {
-        // 此处可做额外处理
+        this.updatePermissionVersion(dataType);
+    }
+
+    /**
+     * 组织或资源变化时更新全局权限版本，使授权信息缓存失效（数据范围、按钮码依赖于此）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     **/
+    private void updatePermissionVersion(String dataType) {
+        if(dataType.equals(SysDataTypeEnum.ORG.getValue()) || dataType.equals(SysDataTypeEnum.RESOURCE.getValue())) {
+            commonCacheOperator.put(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
+        }
     }
 }
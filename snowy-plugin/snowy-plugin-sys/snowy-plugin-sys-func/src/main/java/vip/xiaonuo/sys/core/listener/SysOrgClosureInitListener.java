@@ -0,0 +1,42 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.core.listener;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.sys.modular.org.service.SysOrgClosureService;
+
+/**
+ * 组织闭包表初始化，启动时闭包关系与组织数量不一致则重建
+ *
+ * @author xuyuxiang
+ * @date 2024/8/25 9:20
+ **/
+@Slf4j
+@Component
+public class SysOrgClosureInitListener implements CommandLineRunner {
+
+    @Resource
+    private SysOrgClosureService sysOrgClosureService;
+
+    @Override
+    public void run(String... args) {
+        try {
+            sysOrgClosureService.rebuildIfNecessary();
+        } catch (Exception e) {
+            log.error(">>> 组织闭包表初始化失败，请确认已执行SYS_ORG_CLOSURE建表脚本：", e);
+        }
+    }
+}
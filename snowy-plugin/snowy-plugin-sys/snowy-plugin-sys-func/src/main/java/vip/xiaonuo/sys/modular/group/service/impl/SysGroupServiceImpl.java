@@ -147,8 +147,8 @@ public class SysGroupServiceImpl extends ServiceImpl<SysGroupMapper, SysGroup> i
         } else {
             if (ObjectUtil.isNotEmpty(sysGroupSelectorUserParam.getOrgId())) {
                 // 如果组织id不为空，则查询该组织及其子极其子下的所有人
-                List<String> childOrgIdList = CollStreamUtil.toList(sysOrgService.getChildListById(sysOrgService
-                        .getAllOrgList(), sysGroupSelectorUserParam.getOrgId(), true), SysOrg::getId);
+                List<String> childOrgIdList = CollStreamUtil.toList(sysOrgService.getChildListById(sysGroupSelectorUserParam
+                        .getOrgId(), true), SysOrg::getId);
                 if (ObjectUtil.isNotEmpty(childOrgIdList)) {
                     queryWrapper.lambda().in(SysUser::getOrgId, childOrgIdList);
                 } else {
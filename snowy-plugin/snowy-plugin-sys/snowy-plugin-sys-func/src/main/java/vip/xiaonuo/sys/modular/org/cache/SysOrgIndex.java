@@ -0,0 +1,228 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.cache;
+
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 组织层级索引（不可变快照）
+ * 按排序码排序后先序遍历组织树，每个组织的子孙在先序数组中是一段连续区间，
+ * 查询子孙、祖先的复杂度与结果数量相关，与组织总数无关
+ *
+ * @author xuyuxiang
+ * @date 2024/8/23 14:20
+ **/
+public class SysOrgIndex {
+
+    /** 按排序码排序的组织集合 */
+    private final List<SysOrg> orgList;
+
+    /** 父id -> 直接子组织集合（按排序码排序） */
+    private final Map<String, List<SysOrg>> childrenMap;
+
+    /** 组织id -> 先序位置 */
+    private final Map<String, Integer> positionMap;
+
+    /** 先序遍历的组织数组 */
+    private final SysOrg[] preorderArray;
+
+    /** 每个先序位置的子树结束位置（不包含） */
+    private final int[] subtreeEndArray;
+
+    /** 每个先序位置的父组织先序位置，没有父组织时为-1 */
+    private final int[] parentPositionArray;
+
+    private SysOrgIndex(List<SysOrg> orgList) {
+        this.orgList = Collections.unmodifiableList(orgList);
+        this.childrenMap = new HashMap<>();
+        Map<String, SysOrg> orgMap = new HashMap<>(orgList.size() * 2);
+        for (SysOrg sysOrg : orgList) {
+            orgMap.putIfAbsent(sysOrg.getId(), sysOrg);
+            childrenMap.computeIfAbsent(sysOrg.getParentId(), key -> new ArrayList<>()).add(sysOrg);
+        }
+        this.positionMap = new HashMap<>(orgList.size() * 2);
+        this.preorderArray = new SysOrg[orgMap.size()];
+        this.subtreeEndArray = new int[orgMap.size()];
+        this.parentPositionArray = new int[orgMap.size()];
+        int position = 0;
+        // 先遍历父组织不存在的根组织，再遍历剩余未访问的组织（父子关系成环的脏数据）
+        for (SysOrg sysOrg : orgList) {
+            if (!orgMap.containsKey(sysOrg.getParentId())) {
+                position = this.traverse(sysOrg, position);
+            }
+        }
+        for (SysOrg sysOrg : orgList) {
+            position = this.traverse(sysOrg, position);
+        }
+    }
+
+    /**
+     * 根据组织集合构建索引
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public static SysOrgIndex build(Collection<SysOrg> sysOrgCollection) {
+        List<SysOrg> orgList = new ArrayList<>(sysOrgCollection);
+        orgList.sort(Comparator.comparing(SysOrg::getSortCode, Comparator.nullsLast(Comparator.naturalOrder())));
+        return new SysOrgIndex(orgList);
+    }
+
+    /**
+     * 以 root 为根非递归先序遍历，返回下一个可用的先序位置
+     */
+    private int traverse(SysOrg root, int position) {
+        if (positionMap.containsKey(root.getId())) {
+            return position;
+        }
+        ArrayDeque<Integer> positionStack = new ArrayDeque<>();
+        ArrayDeque<Iterator<SysOrg>> iteratorStack = new ArrayDeque<>();
+        positionStack.push(position);
+        iteratorStack.push(this.getChildren(root.getId()).iterator());
+        position = this.enter(root, -1, position);
+        while (!iteratorStack.isEmpty()) {
+            Iterator<SysOrg> childIterator = iteratorStack.peek();
+            int currentPosition = positionStack.peek();
+            if (childIterator.hasNext()) {
+                SysOrg child = childIterator.next();
+                if (!positionMap.containsKey(child.getId())) {
+                    positionStack.push(position);
+                    iteratorStack.push(this.getChildren(child.getId()).iterator());
+                    position = this.enter(child, currentPosition, position);
+                }
+            } else {
+                subtreeEndArray[currentPosition] = position;
+                positionStack.pop();
+                iteratorStack.pop();
+            }
+        }
+        return position;
+    }
+
+    private int enter(SysOrg sysOrg, int parentPosition, int position) {
+        positionMap.put(sysOrg.getId(), position);
+        preorderArray[position] = sysOrg;
+        parentPositionArray[position] = parentPosition;
+        return position + 1;
+    }
+
+    /**
+     * 获取按排序码排序的所有组织（只读）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public List<SysOrg> getOrgList() {
+        return orgList;
+    }
+
+    /**
+     * 根据id获取组织
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public SysOrg getById(String id) {
+        Integer position = positionMap.get(id);
+        return position == null ? null : preorderArray[position];
+    }
+
+    /**
+     * 获取直接子组织（只读）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public List<SysOrg> getChildren(String parentId) {
+        List<SysOrg> childList = childrenMap.get(parentId);
+        return childList == null ? Collections.emptyList() : Collections.unmodifiableList(childList);
+    }
+
+    /**
+     * 获取所有子孙组织，先序排列，不包含自身；id不存在时返回以其为父id的组织及其子孙
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public List<SysOrg> getDescendantList(String id) {
+        List<SysOrg> resultList = new ArrayList<>();
+        Integer position = positionMap.get(id);
+        if (position != null) {
+            this.addSubtree(position + 1, subtreeEndArray[position], resultList);
+        } else {
+            for (SysOrg child : this.getChildren(id)) {
+                Integer childPosition = positionMap.get(child.getId());
+                if (childPosition != null && preorderArray[childPosition] == child) {
+                    this.addSubtree(childPosition, subtreeEndArray[childPosition], resultList);
+                }
+            }
+        }
+        return resultList;
+    }
+
+    private void addSubtree(int begin, int end, List<SysOrg> resultList) {
+        for (int i = begin; i < end; i++) {
+            resultList.add(preorderArray[i]);
+        }
+    }
+
+    /**
+     * 获取所有祖先组织，由近及远，不包含自身
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public List<SysOrg> getAncestorList(String id) {
+        List<SysOrg> resultList = new ArrayList<>();
+        Integer position = positionMap.get(id);
+        if (position != null) {
+            for (int i = parentPositionArray[position]; i != -1; i = parentPositionArray[i]) {
+                resultList.add(preorderArray[i]);
+            }
+        }
+        return resultList;
+    }
+
+    /**
+     * 判断 id 是否为 ancestorId 的子孙组织
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public boolean isDescendant(String ancestorId, String id) {
+        Integer ancestorPosition = positionMap.get(ancestorId);
+        Integer position = positionMap.get(id);
+        return ancestorPosition != null && position != null && ancestorPosition < position
+                && position < subtreeEndArray[ancestorPosition];
+    }
+
+    /**
+     * 组织数量
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public int size() {
+        return preorderArray.length;
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.cache;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
+import vip.xiaonuo.common.listener.CommonDataChangeListener;
+import vip.xiaonuo.sys.core.enums.SysDataTypeEnum;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+import vip.xiaonuo.sys.modular.org.mapper.SysOrgMapper;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 组织层级索引缓存
+ * 首次使用时从数据库加载全部组织，之后根据组织增删改事件在内存中增量更新，不再每次全表查询；
+ * 集群下通过缓存中的组织版本号感知其他节点的变更，版本号变化时重新加载
+ *
+ * @author xuyuxiang
+ * @date 2024/8/23 14:20
+ **/
+@Component
+public class SysOrgIndexCache implements CommonDataChangeListener {
+
+    @Resource
+    private SysOrgMapper sysOrgMapper;
+
+    @Resource
+    private CommonCacheOperator commonCacheOperator;
+
+    /** 组织id -> 组织，为空表示需要从数据库加载 */
+    private Map<String, SysOrg> orgMap;
+
+    /** 当前索引，为空表示需要根据 orgMap 重建 */
+    private volatile SysOrgIndex sysOrgIndex;
+
+    /** 当前索引对应的组织版本号 */
+    private volatile String version;
+
+    /**
+     * 获取组织层级索引
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    public SysOrgIndex getIndex() {
+        String currentVersion = this.getCurrentVersion();
+        SysOrgIndex currentIndex = sysOrgIndex;
+        if (currentIndex != null && Objects.equals(currentVersion, version)) {
+            return currentIndex;
+        }
+        synchronized (this) {
+            if (orgMap == null || !Objects.equals(currentVersion, version)) {
+                Map<String, SysOrg> loadOrgMap = new LinkedHashMap<>();
+                sysOrgMapper.selectList(new LambdaQueryWrapper<SysOrg>().orderByAsc(SysOrg::getSortCode))
+                        .forEach(sysOrg -> loadOrgMap.put(sysOrg.getId(), sysOrg));
+                orgMap = loadOrgMap;
+                version = currentVersion;
+                sysOrgIndex = null;
+            }
+            if (sysOrgIndex == null) {
+                sysOrgIndex = SysOrgIndex.build(orgMap.values());
+            }
+            return sysOrgIndex;
+        }
+    }
+
+    @Override
+    public void doAddWithDataId(String dataType, String dataId) {
+        // 此处可做额外处理
+    }
+
+    @Override
+    public void doAddWithDataIdList(String dataType, List<String> dataIdList) {
+        // 此处可做额外处理
+    }
+
+    @Override
+    public void doAddWithData(String dataType, JSONObject jsonObject) {
+        // 此处可做额外处理
+    }
+
+    @Override
+    public void doAddWithDataList(String dataType, JSONArray jsonArray) {
+        if (dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            this.applyChange(changeOrgMap -> this.putAll(changeOrgMap, jsonArray));
+        }
+    }
+
+    @Override
+    public void doUpdateWithDataId(String dataType, String dataId) {
+        // 此处可做额外处理
+    }
+
+    @Override
+    public void doUpdateWithDataIdList(String dataType, List<String> dataIdList) {
+        // 此处可做额外处理
+    }
+
+    @Override
+    public void doUpdateWithData(String dataType, JSONObject jsonObject) {
+        // 此处可做额外处理
+    }
+
+    @Override
+    public void doUpdateWithDataList(String dataType, JSONArray jsonArray) {
+        if (dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            this.applyChange(changeOrgMap -> this.putAll(changeOrgMap, jsonArray));
+        }
+    }
+
+    @Override
+    public void doDeleteWithDataId(String dataType, String dataId) {
+        // 此处可做额外处理
+    }
+
+    @Override
+    public void doDeleteWithDataIdList(String dataType, List<String> dataIdList) {
+        if (dataType.equals(SysDataTypeEnum.ORG.getValue())) {
+            this.applyChange(changeOrgMap -> dataIdList.forEach(changeOrgMap::remove));
+        }
+    }
+
+    private void putAll(Map<String, SysOrg> changeOrgMap, JSONArray jsonArray) {
+        for (Object object : jsonArray) {
+            SysOrg sysOrg = JSONUtil.toBean(JSONUtil.parseObj(object), SysOrg.class);
+            if (ObjectUtil.isEmpty(sysOrg.getId())) {
+                throw new IllegalStateException("组织数据缺少id");
+            }
+            changeOrgMap.put(sysOrg.getId(), sysOrg);
+        }
+    }
+
+    /**
+     * 将变更应用到本地索引，并在事务提交后更新组织版本号通知其他节点；事务回滚或变更失败时本地索引失效
+     */
+    private void applyChange(Consumer<Map<String, SysOrg>> change) {
+        synchronized (this) {
+            if (orgMap != null) {
+                try {
+                    change.accept(orgMap);
+                } catch (Exception e) {
+                    orgMap = null;
+                }
+                sysOrgIndex = null;
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        updateVersion();
+                    } else {
+                        invalidate();
+                    }
+                }
+            });
+        } else {
+            this.updateVersion();
+        }
+    }
+
+    /**
+     * 更新组织版本号，期间若其他节点也更新了版本号，则本地索引失效重新加载
+     */
+    private void updateVersion() {
+        String newVersion = IdUtil.fastSimpleUUID();
+        String previousVersion = this.getCurrentVersion();
+        commonCacheOperator.put(CacheConstant.SYS_ORG_VERSION_CACHE_KEY, newVersion);
+        synchronized (this) {
+            if (Objects.equals(previousVersion, version)) {
+                version = newVersion;
+            } else {
+                orgMap = null;
+                sysOrgIndex = null;
+            }
+        }
+    }
+
+    private synchronized void invalidate() {
+        orgMap = null;
+        sysOrgIndex = null;
+    }
+
+    private String getCurrentVersion() {
+        Object currentVersion = commonCacheOperator.get(CacheConstant.SYS_ORG_VERSION_CACHE_KEY);
+        return currentVersion == null ? null : currentVersion.toString();
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import vip.xiaonuo.sys.modular.org.entity.SysOrgClosure;
+
+import java.util.List;
+
+/**
+ * 组织闭包Service接口
+ *
+ * @author xuyuxiang
+ * @date 2024/8/25 9:20
+ **/
+public interface SysOrgClosureService extends IService<SysOrgClosure> {
+
+    /**
+     * 新增组织时维护闭包关系
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void addOrg(String orgId, String parentId);
+
+    /**
+     * 组织变更上级时维护闭包关系，整棵子树随之移动
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void moveOrg(String orgId, String parentId);
+
+    /**
+     * 删除组织时删除闭包关系
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void deleteOrg(List<String> orgIdList);
+
+    /**
+     * 根据组织表重建闭包关系
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void rebuild();
+
+    /**
+     * 闭包关系与组织表数量不一致时重建（如首次升级后闭包表为空）
+     *
+     * @author xuyuxiang
+     * @date 2024/8/25 9:20
+     **/
+    void rebuildIfNecessary();
+}
@@ -125,6 +125,22 @@ public interface SysOrgService extends IService<SysOrg> {
      **/
     List<SysOrg> getParentListById(List<SysOrg> originDataList, String id, boolean includeSelf);
 
+    /**
+     * 根据id获取所有的子数据列表，使用内存中的组织层级索引
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    List<SysOrg> getChildListById(String id, boolean includeSelf);
+
+    /**
+     * 根据id获取所有的父数据列表，使用内存中的组织层级索引
+     *
+     * @author xuyuxiang
+     * @date 2024/8/23 14:20
+     **/
+    List<SysOrg> getParentListById(String id, boolean includeSelf);
+
     /**
      * 根据id获取数据
      *
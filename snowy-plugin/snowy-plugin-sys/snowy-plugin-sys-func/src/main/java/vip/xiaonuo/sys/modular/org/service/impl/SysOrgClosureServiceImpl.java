@@ -0,0 +1,121 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.service.impl;
+
+import cn.hutool.core.collection.CollectionUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import vip.xiaonuo.sys.modular.org.cache.SysOrgIndex;
+import vip.xiaonuo.sys.modular.org.cache.SysOrgIndexCache;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+import vip.xiaonuo.sys.modular.org.entity.SysOrgClosure;
+import vip.xiaonuo.sys.modular.org.mapper.SysOrgClosureMapper;
+import vip.xiaonuo.sys.modular.org.service.SysOrgClosureService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 组织闭包Service接口实现类
+ * 闭包表保存每个组织与其所有祖先（含自身）的关系，子树查询可走(ANCESTOR_ID, DESCENDANT_ID)主键索引，不再展开大量id
+ *
+ * @author xuyuxiang
+ * @date 2024/8/25 9:20
+ **/
+@Slf4j
+@Service
+public class SysOrgClosureServiceImpl extends ServiceImpl<SysOrgClosureMapper, SysOrgClosure> implements SysOrgClosureService {
+
+    /** 批量操作每批数量 */
+    private static final int BATCH_SIZE = 500;
+
+    @Resource
+    private SysOrgIndexCache sysOrgIndexCache;
+
+    @Override
+    public void addOrg(String orgId, String parentId) {
+        this.getBaseMapper().insertWithAncestor(orgId, parentId);
+        this.save(this.newClosure(orgId, orgId, 0));
+    }
+
+    @Override
+    public void moveOrg(String orgId, String parentId) {
+        // 子树内的关系保持不变，只替换子树与原祖先之间的关系
+        List<SysOrgClosure> subtreeList = this.list(new LambdaQueryWrapper<SysOrgClosure>().eq(SysOrgClosure::getAncestorId, orgId));
+        List<String> subtreeIdList = subtreeList.stream().map(SysOrgClosure::getDescendantId).collect(Collectors.toList());
+        List<String> originAncestorIdList = this.list(new LambdaQueryWrapper<SysOrgClosure>().eq(SysOrgClosure::getDescendantId, orgId)
+                .gt(SysOrgClosure::getDepth, 0)).stream().map(SysOrgClosure::getAncestorId).collect(Collectors.toList());
+        if (!originAncestorIdList.isEmpty()) {
+            for (List<String> partSubtreeIdList : CollectionUtil.split(subtreeIdList, BATCH_SIZE)) {
+                this.remove(new LambdaQueryWrapper<SysOrgClosure>().in(SysOrgClosure::getAncestorId, originAncestorIdList)
+                        .in(SysOrgClosure::getDescendantId, partSubtreeIdList));
+            }
+        }
+        List<SysOrgClosure> parentAncestorList = this.list(new LambdaQueryWrapper<SysOrgClosure>().eq(SysOrgClosure::getDescendantId, parentId));
+        List<SysOrgClosure> closureList = new ArrayList<>(parentAncestorList.size() * subtreeList.size());
+        for (SysOrgClosure parentAncestor : parentAncestorList) {
+            for (SysOrgClosure subtree : subtreeList) {
+                closureList.add(this.newClosure(parentAncestor.getAncestorId(), subtree.getDescendantId(),
+                        parentAncestor.getDepth() + subtree.getDepth() + 1));
+            }
+        }
+        this.saveBatch(closureList, BATCH_SIZE);
+    }
+
+    @Override
+    public void deleteOrg(List<String> orgIdList) {
+        for (List<String> partOrgIdList : CollectionUtil.split(orgIdList, BATCH_SIZE)) {
+            this.remove(new LambdaQueryWrapper<SysOrgClosure>().in(SysOrgClosure::getDescendantId, partOrgIdList));
+            this.remove(new LambdaQueryWrapper<SysOrgClosure>().in(SysOrgClosure::getAncestorId, partOrgIdList));
+        }
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void rebuild() {
+        this.remove(new LambdaQueryWrapper<>());
+        SysOrgIndex sysOrgIndex = sysOrgIndexCache.getIndex();
+        List<SysOrgClosure> closureList = new ArrayList<>();
+        for (SysOrg sysOrg : sysOrgIndex.getOrgList()) {
+            closureList.add(this.newClosure(sysOrg.getId(), sysOrg.getId(), 0));
+            List<SysOrg> ancestorList = sysOrgIndex.getAncestorList(sysOrg.getId());
+            for (int i = 0; i < ancestorList.size(); i++) {
+                closureList.add(this.newClosure(ancestorList.get(i).getId(), sysOrg.getId(), i + 1));
+            }
+        }
+        this.saveBatch(closureList, BATCH_SIZE);
+        log.info(">>> 组织闭包表重建完成，组织数：{}，关系数：{}", sysOrgIndex.size(), closureList.size());
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void rebuildIfNecessary() {
+        long selfCount = this.count(new LambdaQueryWrapper<SysOrgClosure>().eq(SysOrgClosure::getDepth, 0));
+        if (selfCount != sysOrgIndexCache.getIndex().size()) {
+            this.rebuild();
+        }
+    }
+
+    private SysOrgClosure newClosure(String ancestorId, String descendantId, int depth) {
+        SysOrgClosure closure = new SysOrgClosure();
+        closure.setAncestorId(ancestorId);
+        closure.setDescendantId(descendantId);
+        closure.setDepth(depth);
+        return closure;
+    }
+}
@@ -35,11 +35,14 @@ import vip.xiaonuo.common.exception.CommonException;
 import vip.xiaonuo.common.listener.CommonDataChangeEventCenter;
 import vip.xiaonuo.common.page.CommonPageRequest;
 import vip.xiaonuo.sys.core.enums.SysDataTypeEnum;
+import vip.xiaonuo.sys.modular.org.cache.SysOrgIndex;
+import vip.xiaonuo.sys.modular.org.cache.SysOrgIndexCache;
 import vip.xiaonuo.sys.modular.org.entity.SysOrg;
 import vip.xiaonuo.sys.modular.org.enums.SysOrgCategoryEnum;
 import vip.xiaonuo.sys.modular.org.enums.SysOrgSourceFromTypeEnum;
 import vip.xiaonuo.sys.modular.org.mapper.SysOrgMapper;
 import vip.xiaonuo.sys.modular.org.param.*;
+import vip.xiaonuo.sys.modular.org.service.SysOrgClosureService;
 import vip.xiaonuo.sys.modular.org.service.SysOrgExtService;
 import vip.xiaonuo.sys.modular.org.service.SysOrgService;
 import vip.xiaonuo.sys.modular.position.entity.SysPosition;
@@ -50,8 +53,8 @@ import vip.xiaonuo.sys.modular.user.entity.SysUser;
 import vip.xiaonuo.sys.modular.user.enums.SysUserStatusEnum;
 import vip.xiaonuo.sys.modular.user.service.SysUserService;
 
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -67,6 +70,9 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
     @Resource
     private SysOrgExtService sysOrgExtService;
 
+    @Resource
+    private SysOrgClosureService sysOrgClosureService;
+
     @Resource
     private SysRoleService sysRoleService;
 
@@ -76,6 +82,9 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
     @Resource
     private SysUserService sysUserService;
 
+    @Resource
+    private SysOrgIndexCache sysOrgIndexCache;
+
     @Override
     public Page<SysOrg> page(SysOrgPageParam sysOrgPageParam) {
         QueryWrapper<SysOrg> queryWrapper = new QueryWrapper<SysOrg>().checkSqlInjection();
@@ -127,6 +136,8 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
         this.save(sysOrg);
         // 插入扩展信息
         sysOrgExtService.createExtInfo(sysOrg.getId(), sourceFromType);
+        // 维护闭包关系
+        sysOrgClosureService.addOrg(sysOrg.getId(), sysOrg.getParentId());
         // 发布增加事件
         CommonDataChangeEventCenter.doAddWithData(SysDataTypeEnum.ORG.getValue(), JSONUtil.createArray().put(sysOrg));
     }
@@ -136,20 +147,24 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
     public void edit(SysOrgEditParam sysOrgEditParam) {
         SysOrgCategoryEnum.validate(sysOrgEditParam.getCategory());
         SysOrg sysOrg = this.queryEntity(sysOrgEditParam.getId());
+        String originParentId = sysOrg.getParentId();
         BeanUtil.copyProperties(sysOrgEditParam, sysOrg);
         boolean repeatName = this.count(new LambdaQueryWrapper<SysOrg>().eq(SysOrg::getParentId, sysOrg.getParentId())
                 .eq(SysOrg::getName, sysOrg.getName()).ne(SysOrg::getId, sysOrg.getId())) > 0;
         if(repeatName) {
             throw new CommonException("存在重复的同级组织，名称为：{}", sysOrg.getName());
         }
-        List<SysOrg> originDataList = this.getAllOrgList();
-        boolean errorLevel = this.getChildListById(originDataList, sysOrg.getId(), true).stream()
-                .map(SysOrg::getId).collect(Collectors.toList()).contains(sysOrg.getParentId());
+        SysOrgIndex sysOrgIndex = sysOrgIndexCache.getIndex();
+        boolean errorLevel = sysOrg.getParentId().equals(sysOrg.getId()) || sysOrgIndex.isDescendant(sysOrg.getId(), sysOrg.getParentId());
         if(errorLevel) {
-            throw new CommonException("不可选择上级组织：{}", this.getById(originDataList, sysOrg.getParentId()).getName());
+            throw new CommonException("不可选择上级组织：{}", sysOrgIndex.getById(sysOrg.getParentId()).getName());
         }
         // 更新组织
         this.updateById(sysOrg);
+        // 上级变更时维护闭包关系
+        if(!sysOrg.getParentId().equals(originParentId)) {
+            sysOrgClosureService.moveOrg(sysOrg.getId(), sysOrg.getParentId());
+        }
         // 发布更新事件
         CommonDataChangeEventCenter.doUpdateWithData(SysDataTypeEnum.ORG.getValue(), JSONUtil.createArray().put(sysOrg));
     }
@@ -159,10 +174,9 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
     public void delete(List<SysOrgIdParam> sysOrgIdParamList) {
         List<String> orgIdList = CollStreamUtil.toList(sysOrgIdParamList, SysOrgIdParam::getId);
         if(ObjectUtil.isNotEmpty(orgIdList)) {
-            List<SysOrg> allOrgList = this.getAllOrgList();
             // 获取所有子组织
             List<String> toDeleteOrgIdList = CollectionUtil.newArrayList();
-            orgIdList.forEach(orgId -> toDeleteOrgIdList.addAll(this.getChildListById(allOrgList, orgId, true).stream()
+            orgIdList.forEach(orgId -> toDeleteOrgIdList.addAll(this.getChildListById(orgId, true).stream()
                     .map(SysOrg::getId).collect(Collectors.toList())));
 
             // 组织下有人不能删除（直属组织）
@@ -194,6 +208,8 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
             }
             // 执行删除
             this.removeByIds(toDeleteOrgIdList);
+            // 删除闭包关系
+            sysOrgClosureService.deleteOrg(toDeleteOrgIdList);
 
             // 发布删除事件
             CommonDataChangeEventCenter.doDeleteWithDataIdList(SysDataTypeEnum.ORG.getValue(), toDeleteOrgIdList);
@@ -216,36 +232,20 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
 
     @Override
     public List<SysOrg> getAllOrgList() {
-        return this.list(new LambdaQueryWrapper<SysOrg>().orderByAsc(SysOrg::getSortCode));
+        return new ArrayList<>(sysOrgIndexCache.getIndex().getOrgList());
     }
 
     @Override
     public String getOrgIdByOrgFullNameWithCreate(String orgFullName) {
-        List<SysOrg> allOrgList = this.getAllOrgList();
-        List<Tree<String>> treeList = TreeUtil.build(allOrgList.stream().map(sysOrg ->
-                new TreeNode<>(sysOrg.getId(), sysOrg.getParentId(), sysOrg.getName(), sysOrg.getSortCode()))
-                .collect(Collectors.toList()), "0");
-        return findOrgIdByOrgName("0", StrUtil.split(orgFullName, StrUtil.DASHED).iterator(), allOrgList, treeList);
-    }
-
-    public String findOrgIdByOrgName(String parentId, Iterator<String> iterator, List<SysOrg> allOrgList, List<Tree<String>> treeList) {
-        String orgName = iterator.next();
-        if(ObjectUtil.isNotEmpty(treeList)) {
-            List<Tree<String>> findList = treeList.stream().filter(tree -> tree.getName().equals(orgName)).collect(Collectors.toList());
-            if(ObjectUtil.isNotEmpty(findList)) {
-                if(iterator.hasNext()) {
-                    return findOrgIdByOrgName(findList.get(0).getId(), iterator, allOrgList, findList.get(0).getChildren());
-                } else {
-                    return findList.get(0).getId();
-                }
-            }
-        }
-        String orgId = this.doCreateOrg(parentId, orgName, allOrgList);
-        if(iterator.hasNext()) {
-            return findOrgIdByOrgName(orgId, iterator, allOrgList, CollectionUtil.newArrayList());
-        } else {
-            return orgId;
+        String orgId = "0";
+        for (String orgName : StrUtil.split(orgFullName, StrUtil.DASHED)) {
+            String parentId = orgId;
+            // 新创建的组织会立即更新到索引中，因此每一级都重新获取索引
+            orgId = sysOrgIndexCache.getIndex().getChildren(parentId).stream()
+                    .filter(sysOrg -> sysOrg.getName().equals(orgName)).findFirst()
+                    .map(SysOrg::getId).orElseGet(() -> this.doCreateOrg(parentId, orgName));
         }
+        return orgId;
     }
 
     /**
@@ -254,7 +254,7 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
      * @author xuyuxiang
      * @date 2023/3/8 9:38
      **/
-    public String doCreateOrg(String parentId, String orgName, List<SysOrg> allOrgList) {
+    public String doCreateOrg(String parentId, String orgName) {
         //创建该组织
         SysOrg sysOrg = new SysOrg();
         sysOrg.setName(orgName);
@@ -266,6 +266,8 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
         this.save(sysOrg);
         // 插入扩展信息
         sysOrgExtService.createExtInfo(sysOrg.getId(), SysOrgSourceFromTypeEnum.SYSTEM_ADD.getValue());
+        // 维护闭包关系
+        sysOrgClosureService.addOrg(sysOrg.getId(), sysOrg.getParentId());
         // 发布增加事件
         CommonDataChangeEventCenter.doAddWithData(SysDataTypeEnum.ORG.getValue(), JSONUtil.createArray().put(sysOrg));
         return sysOrg.getId();
@@ -312,8 +314,8 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
         } else {
             if(ObjectUtil.isNotEmpty(sysOrgSelectorUserParam.getOrgId())) {
                 // 如果组织id不为空，则查询该组织及其子组织下的所有人
-                List<String> childOrgIdList = CollStreamUtil.toList(this.getChildListById(this
-                        .getAllOrgList(), sysOrgSelectorUserParam.getOrgId(), true), SysOrg::getId);
+                List<String> childOrgIdList = CollStreamUtil.toList(this.getChildListById(sysOrgSelectorUserParam
+                        .getOrgId(), true), SysOrg::getId);
                 if (ObjectUtil.isNotEmpty(childOrgIdList)) {
                     queryWrapper.lambda().in(SysUser::getOrgId, childOrgIdList);
                 } else {
@@ -330,39 +332,50 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
 
     @Override
     public List<String> getParentIdListByOrgId(String orgId) {
-        List<SysOrg> sysOrgList = this.getAllOrgList();
+        SysOrgIndex sysOrgIndex = sysOrgIndexCache.getIndex();
         List<String> resultList = CollectionUtil.newArrayList();
-        if(ObjectUtil.isNotEmpty(sysOrgList)) {
-            execRecursionFindParentByList(orgId, sysOrgList, resultList);
+        SysOrg sysOrg = sysOrgIndex.getById(orgId);
+        while(ObjectUtil.isNotEmpty(sysOrg) && !resultList.contains(sysOrg.getParentId())) {
+            resultList.add(sysOrg.getParentId());
+            sysOrg = sysOrgIndex.getById(sysOrg.getParentId());
         }
         return resultList;
     }
 
-    private List<String> execRecursionFindParentByList(String id, List<SysOrg> list,List<String> resultList) {
-        SysOrg parentById = list.stream().filter(sysOrg -> sysOrg.getId().equals(id)).findFirst().orElse(null);
-        if(ObjectUtil.isNotEmpty(parentById)) {
-            resultList.add(parentById.getParentId());
-            execRecursionFindParentByList(parentById.getParentId(), list, resultList);
-        }
+    /* ====以下为各种层级查询方法==== */
+
+    @Override
+    public List<SysOrg> getParentAndChildListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
+        SysOrgIndex sysOrgIndex = SysOrgIndex.build(originDataList);
+        List<SysOrg> resultList = sysOrgIndex.getAncestorList(id);
+        resultList.addAll(this.getChildListById(sysOrgIndex, id, true));
         return resultList;
     }
 
-    /* ====以下为各种递归方法==== */
+    @Override
+    public List<SysOrg> getChildListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
+        return this.getChildListById(SysOrgIndex.build(originDataList), id, includeSelf);
+    }
+
+    @Override
+    public List<SysOrg> getParentListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
+        return this.getParentListById(SysOrgIndex.build(originDataList), id, includeSelf);
+    }
 
     @Override
-    public List<SysOrg> getParentAndChildListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
-        List<SysOrg> parentListById = this.getParentListById(originDataList, id, false);
-        List<SysOrg> childListById = this.getChildListById(originDataList, id, true);
-        parentListById.addAll(childListById);
-        return parentListById;
+    public List<SysOrg> getChildListById(String id, boolean includeSelf) {
+        return this.getChildListById(sysOrgIndexCache.getIndex(), id, includeSelf);
     }
 
     @Override
-    public List<SysOrg> getChildListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
-        List<SysOrg> resultList = CollectionUtil.newArrayList();
-        execRecursionFindChild(originDataList, id, resultList);
+    public List<SysOrg> getParentListById(String id, boolean includeSelf) {
+        return this.getParentListById(sysOrgIndexCache.getIndex(), id, includeSelf);
+    }
+
+    private List<SysOrg> getChildListById(SysOrgIndex sysOrgIndex, String id, boolean includeSelf) {
+        List<SysOrg> resultList = sysOrgIndex.getDescendantList(id);
         if(includeSelf) {
-            SysOrg self = this.getById(originDataList, id);
+            SysOrg self = sysOrgIndex.getById(id);
             if(ObjectUtil.isNotEmpty(self)) {
                 resultList.add(self);
             }
@@ -370,12 +383,10 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
         return resultList;
     }
 
-    @Override
-    public List<SysOrg> getParentListById(List<SysOrg> originDataList, String id, boolean includeSelf) {
-        List<SysOrg> resultList = CollectionUtil.newArrayList();
-        execRecursionFindParent(originDataList, id, resultList);
+    private List<SysOrg> getParentListById(SysOrgIndex sysOrgIndex, String id, boolean includeSelf) {
+        List<SysOrg> resultList = sysOrgIndex.getAncestorList(id);
         if(includeSelf) {
-            SysOrg self = this.getById(originDataList, id);
+            SysOrg self = sysOrgIndex.getById(id);
             if(ObjectUtil.isNotEmpty(self)) {
                 resultList.add(self);
             }
@@ -383,31 +394,9 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
         return resultList;
     }
 
-    public void execRecursionFindChild(List<SysOrg> originDataList, String id, List<SysOrg> resultList) {
-        originDataList.forEach(item -> {
-            if(item.getParentId().equals(id)) {
-                resultList.add(item);
-                execRecursionFindChild(originDataList, item.getId(), resultList);
-            }
-        });
-    }
-
-    public void execRecursionFindParent(List<SysOrg> originDataList, String id, List<SysOrg> resultList) {
-        originDataList.forEach(item -> {
-            if(item.getId().equals(id)) {
-                SysOrg parent = this.getById(originDataList, item.getParentId());
-                if(ObjectUtil.isNotEmpty(parent)) {
-                    resultList.add(parent);
-                }
-                execRecursionFindParent(originDataList, item.getParentId(), resultList);
-            }
-        });
-    }
-
     @Override
     public SysOrg getById(List<SysOrg> originDataList, String id) {
-        int index = CollStreamUtil.toList(originDataList, SysOrg::getId).indexOf(id);
-        return index == -1?null:originDataList.get(index);
+        return originDataList.stream().filter(sysOrg -> sysOrg.getId().equals(id)).findFirst().orElse(null);
     }
 
     @Override
@@ -418,7 +407,6 @@ public class SysOrgServiceImpl extends ServiceImpl<SysOrgMapper, SysOrg> impleme
 
     @Override
     public SysOrg getChildById(List<SysOrg> originDataList, String id) {
-        int index = CollStreamUtil.toList(originDataList, SysOrg::getParentId).indexOf(id);
-        return index == -1?null:originDataList.get(index);
+        return originDataList.stream().filter(sysOrg -> sysOrg.getParentId().equals(id)).findFirst().orElse(null);
     }
 }
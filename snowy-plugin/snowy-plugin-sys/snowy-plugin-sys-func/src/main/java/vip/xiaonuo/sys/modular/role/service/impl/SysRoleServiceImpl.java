@@ -19,6 +19,7 @@ import cn.hutool.core.convert.Convert;
 import cn.hutool.core.lang.tree.Tree;
 import cn.hutool.core.lang.tree.TreeNode;
 import cn.hutool.core.lang.tree.TreeUtil;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
@@ -172,6 +173,8 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
         }
         BeanUtil.copyProperties(sysRoleEditParam, sysRole);
         this.updateById(sysRole);
+        // 更新全局权限版本
+        commonCacheOperator.put(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
 
         // 发布更新事件
         CommonDataChangeEventCenter.doUpdateWithData(SysDataTypeEnum.ROLE.getValue(), JSONUtil.createArray().put(sysRole));
@@ -231,6 +234,8 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
                     .eq(SysRelation::getCategory, SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue()));
             // 执行删除
             this.removeByIds(sysRoleIdList);
+            // 更新全局权限版本
+            commonCacheOperator.put(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
 
             // 发布删除事件
             CommonDataChangeEventCenter.doDeleteWithDataIdList(SysDataTypeEnum.ROLE.getValue(), sysRoleIdList);
@@ -272,6 +277,8 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
                 .map(JSONUtil::toJsonStr).collect(Collectors.toList());
         sysRelationService.saveRelationBatchWithClear(id, menuIdList, SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue(),
                 extJsonList);
+        // 更新全局权限版本
+        commonCacheOperator.put(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
     }
 
     @Override
@@ -293,6 +300,8 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
                 .map(JSONUtil::toJsonStr).collect(Collectors.toList());
         sysRelationService.saveRelationBatchWithClear(id, menuIdList, SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue(),
                 extJsonList);
+        // 更新全局权限版本
+        commonCacheOperator.put(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
     }
 
     @Override
@@ -314,6 +323,8 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
                 .map(JSONUtil::toJsonStr).collect(Collectors.toList());
         sysRelationService.saveRelationBatchWithClear(id, apiUrlList, SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue(),
                 extJsonList);
+        // 更新全局权限版本
+        commonCacheOperator.put(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
     }
 
     @Override
@@ -337,6 +348,8 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
             sysRelation.setCategory(SysRelationCategoryEnum.SYS_USER_HAS_ROLE.getValue());
             return sysRelation;
         }).collect(Collectors.toList()));
+        // 更新全局权限版本
+        commonCacheOperator.put(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY, IdUtil.fastSimpleUUID());
     }
 
     @Override
@@ -508,8 +521,8 @@ public class SysRoleServiceImpl extends ServiceImpl<SysRoleMapper, SysRole> impl
         } else {
             if (ObjectUtil.isNotEmpty(sysRoleSelectorUserParam.getOrgId())) {
                 // 如果组织id不为空，则查询该组织及其子组织下的所有人
-                List<String> childOrgIdList = CollStreamUtil.toList(sysOrgService.getChildListById(sysOrgService
-                        .getAllOrgList(), sysRoleSelectorUserParam.getOrgId(), true), SysOrg::getId);
+                List<String> childOrgIdList = CollStreamUtil.toList(sysOrgService.getChildListById(sysRoleSelectorUserParam
+                        .getOrgId(), true), SysOrg::getId);
                 if (ObjectUtil.isNotEmpty(childOrgIdList)) {
                     queryWrapper.lambda().in(SysUser::getOrgId, childOrgIdList);
                 } else {
@@ -170,6 +170,17 @@ public class SysLoginUserApiProvider implements SaBaseLoginUserApi {
         return sysUserService.getPermissionList(userAndRoleIdList, orgId);
     }
 
+    /**
+     * 根据用户id一次获取授权信息
+     *
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     */
+    @Override
+    public JSONObject getAuthProfile(String userId, String orgId) {
+        return sysUserService.getAuthProfile(userId, orgId);
+    }
+
     /**
      * 更新用户的登录时间和登录ip等信息
      *
@@ -423,6 +423,14 @@ public interface SysUserService extends IService<SysUser> {
      **/
     List<JSONObject> getPermissionList(List<String> userAndRoleIdList, String orgId);
 
+    /**
+     * 获取授权信息，包含角色、按钮码、移动端按钮码与权限集合
+     *
+     * @author xuyuxiang
+     * @date 2024/8/21 10:20
+     **/
+    JSONObject getAuthProfile(String userId, String orgId);
+
     /**
      * 下载用户导入模板
      *
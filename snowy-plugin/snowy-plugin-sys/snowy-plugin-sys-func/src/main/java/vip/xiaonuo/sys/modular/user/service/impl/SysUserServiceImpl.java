@@ -33,10 +33,12 @@ import cn.hutool.core.lang.tree.TreeNode;
 import cn.hutool.core.lang.tree.TreeNodeConfig;
 import cn.hutool.core.lang.tree.TreeUtil;
 import cn.hutool.core.lang.tree.parser.DefaultNodeParser;
+import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.PhoneUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.SecureUtil;
 import cn.hutool.extra.qrcode.QrCodeUtil;
 import cn.hutool.extra.qrcode.QrConfig;
 import cn.hutool.json.JSONArray;
@@ -68,6 +70,7 @@ import org.springframework.web.multipart.MultipartFile;
 import vip.xiaonuo.auth.core.pojo.SysLoginUser;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
 import vip.xiaonuo.common.enums.CommonGenderEnum;
 import vip.xiaonuo.common.enums.CommonSortOrderEnum;
 import vip.xiaonuo.common.excel.CommonExcelCustomMergeStrategy;
@@ -206,6 +209,12 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     /** 验证码缓存前缀 */
     private static final String USER_VALID_CODE_CACHE_KEY = "user-validCode:";
 
+    /** 授权信息缓存前缀 */
+    private static final String AUTH_PROFILE_CACHE_KEY = "auth-b-profile:";
+
+    /** 授权信息缓存时间（秒），作为未纳入版本的变更（如移动端按钮）的兜底 */
+    private static final long AUTH_PROFILE_CACHE_TIMEOUT = 30 * 60;
+
     @Resource
     private CommonCacheOperator commonCacheOperator;
 
@@ -1336,6 +1345,8 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
     public void grantRole(SysUserGrantRoleParam sysUserGrantRoleParam) {
         sysRelationService.saveRelationBatchWithClear(sysUserGrantRoleParam.getId(), sysUserGrantRoleParam.getRoleIdList(),
                 SysRelationCategoryEnum.SYS_USER_HAS_ROLE.getValue());
+        // 更新该用户的权限版本
+        this.updatePermissionVersion(sysUserGrantRoleParam.getId());
     }
 
     @Override
@@ -1374,6 +1385,8 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         List<String> extJsonList = sysUserGrantResourceParam.getGrantInfoList().stream()
                 .map(JSONUtil::toJsonStr).collect(Collectors.toList());
         sysRelationService.saveRelationBatchWithClear(sysUserGrantResourceParam.getId(), menuIdList, SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(), extJsonList);
+        // 清除该用户的授权信息缓存
+        commonCacheOperator.remove(AUTH_PROFILE_CACHE_KEY + sysUserGrantResourceParam.getId());
     }
 
     @Override
@@ -1395,6 +1408,9 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
                 .map(JSONUtil::toJsonStr).collect(Collectors.toList());
         sysRelationService.saveRelationBatchWithClear(id, apiUrlList, SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
                 extJsonList);
+        // 清除该用户的授权信息缓存，并更新该用户的权限版本
+        commonCacheOperator.remove(AUTH_PROFILE_CACHE_KEY + id);
+        this.updatePermissionVersion(id);
     }
 
     @Override
@@ -1481,10 +1497,92 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
 
     @Override
     public List<String> getButtonCodeList(List<String> userAndRoleIdList) {
+        return this.getButtonCodeListByRelationList(sysRelationService.list(new LambdaQueryWrapper<SysRelation>()
+                .in(SysRelation::getObjectId, userAndRoleIdList).in(SysRelation::getCategory,
+                        SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(),
+                        SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue())));
+    }
+
+    @Override
+    public List<String> getMobileButtonCodeList(List<String> userAndRoleIdList) {
+        return this.getMobileButtonCodeListByRelationList(sysRelationService.getRelationListByObjectIdListAndCategory(userAndRoleIdList,
+                SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue()));
+    }
+
+    @Override
+    public List<JSONObject> getPermissionList(List<String> userAndRoleIdList, String orgId) {
+        Map<String, List<SysRelation>> map = sysRelationService.list(new LambdaQueryWrapper<SysRelation>()
+                .in(SysRelation::getObjectId, userAndRoleIdList).in(SysRelation::getCategory,
+                        SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
+                        SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue())).stream()
+                .collect(Collectors.groupingBy(SysRelation::getTargetId));
+        return getScopeListByMap(map, orgId);
+    }
+
+    @Override
+    public JSONObject getAuthProfile(String userId, String orgId) {
+        List<String> roleIdList = sysRelationService.getRelationTargetIdListByObjectIdAndCategory(userId,
+                SysRelationCategoryEnum.SYS_USER_HAS_ROLE.getValue());
+        // 缓存按用户及其角色集合、机构的摘要校验，角色、组织或资源变化时全局权限版本随之变化
+        String profileKey = SecureUtil.md5(CollectionUtil.join(CollectionUtil.sort(CollectionUtil.newArrayList(roleIdList),
+                Comparator.naturalOrder()), StrUtil.COMMA) + StrUtil.COLON + orgId);
+        Object permissionVersion = commonCacheOperator.get(CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY);
+        Object cacheValue = commonCacheOperator.get(AUTH_PROFILE_CACHE_KEY + userId);
+        if (ObjectUtil.isNotEmpty(cacheValue)) {
+            JSONObject cacheObject = JSONUtil.parseObj(cacheValue);
+            if (profileKey.equals(cacheObject.getStr("profileKey"))
+                    && ObjectUtil.equal(Convert.toStr(permissionVersion), cacheObject.getStr("permissionVersion"))) {
+                return cacheObject.getJSONObject("profile");
+            }
+        }
+        List<JSONObject> roleList = ObjectUtil.isEmpty(roleIdList) ? CollectionUtil.newArrayList() :
+                sysRoleService.listByIds(roleIdList).stream().map(JSONUtil::parseObj).collect(Collectors.toList());
+        // 一次查询用户及其角色的资源、移动端菜单与权限关系，再按分类拆分
+        List<String> userAndRoleIdList = CollectionUtil.unionAll(roleIdList, CollectionUtil.newArrayList(userId));
+        Map<String, List<SysRelation>> categoryRelationMap = sysRelationService.list(new LambdaQueryWrapper<SysRelation>()
+                .in(SysRelation::getObjectId, userAndRoleIdList).in(SysRelation::getCategory,
+                        SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(),
+                        SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue(),
+                        SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue(),
+                        SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
+                        SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue())).stream()
+                .collect(Collectors.groupingBy(SysRelation::getCategory));
+        List<SysRelation> resourceRelationList = CollectionUtil.unionAll(
+                categoryRelationMap.getOrDefault(SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(), CollectionUtil.newArrayList()),
+                categoryRelationMap.getOrDefault(SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue(), CollectionUtil.newArrayList()));
+        Map<String, List<SysRelation>> permissionRelationMap = CollectionUtil.unionAll(
+                categoryRelationMap.getOrDefault(SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(), CollectionUtil.newArrayList()),
+                categoryRelationMap.getOrDefault(SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue(), CollectionUtil.newArrayList()))
+                .stream().collect(Collectors.groupingBy(SysRelation::getTargetId));
+        JSONObject profile = JSONUtil.createObj()
+                .set("roleList", roleList)
+                .set("buttonCodeList", this.getButtonCodeListByRelationList(resourceRelationList))
+                .set("mobileButtonCodeList", this.getMobileButtonCodeListByRelationList(categoryRelationMap
+                        .getOrDefault(SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue(), CollectionUtil.newArrayList())))
+                .set("permissionList", getScopeListByMap(permissionRelationMap, orgId));
+        commonCacheOperator.put(AUTH_PROFILE_CACHE_KEY + userId, JSONUtil.createObj().set("profileKey", profileKey)
+                .set("permissionVersion", Convert.toStr(permissionVersion)).set("profile", profile).toString(), AUTH_PROFILE_CACHE_TIMEOUT);
+        return profile;
+    }
+
+    /**
+     * 更新该用户的权限版本，随登录超时时间过期，过期后网关视为版本变化重新读取登录用户
+     */
+    private void updatePermissionVersion(String userId) {
+        long timeout = StpUtil.getStpLogic().getConfigOrGlobal().getTimeout();
+        if (timeout > 0) {
+            commonCacheOperator.put(CacheConstant.AUTH_B_PERMISSION_VERSION_CACHE_KEY + userId, IdUtil.fastSimpleUUID(), timeout);
+        } else {
+            commonCacheOperator.put(CacheConstant.AUTH_B_PERMISSION_VERSION_CACHE_KEY + userId, IdUtil.fastSimpleUUID());
+        }
+    }
+
+    /**
+     * 根据资源关系获取按钮码集合
+     */
+    private List<String> getButtonCodeListByRelationList(List<SysRelation> sysRelationList) {
         List<String> buttonIdList = CollectionUtil.newArrayList();
-        sysRelationService.list(new LambdaQueryWrapper<SysRelation>().in(SysRelation::getObjectId, userAndRoleIdList)
-                .in(SysRelation::getCategory, SysRelationCategoryEnum.SYS_USER_HAS_RESOURCE.getValue(),
-                        SysRelationCategoryEnum.SYS_ROLE_HAS_RESOURCE.getValue())).forEach(sysRelation -> {
+        sysRelationList.forEach(sysRelation -> {
             if (ObjectUtil.isNotEmpty(sysRelation.getExtJson())) {
                 buttonIdList.addAll(JSONUtil.parseObj(sysRelation.getExtJson()).getBeanList("buttonInfo", String.class));
             }
@@ -1495,11 +1593,12 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         return CollectionUtil.newArrayList();
     }
 
-    @Override
-    public List<String> getMobileButtonCodeList(List<String> userAndRoleIdList) {
+    /**
+     * 根据移动端菜单关系获取移动端按钮码集合
+     */
+    private List<String> getMobileButtonCodeListByRelationList(List<SysRelation> sysRelationList) {
         List<String> buttonIdList = CollectionUtil.newArrayList();
-        sysRelationService.getRelationListByObjectIdListAndCategory(userAndRoleIdList,
-                SysRelationCategoryEnum.SYS_ROLE_HAS_MOBILE_MENU.getValue()).forEach(sysRelation -> {
+        sysRelationList.forEach(sysRelation -> {
             if (ObjectUtil.isNotEmpty(sysRelation.getExtJson())) {
                 buttonIdList.addAll(JSONUtil.parseObj(sysRelation.getExtJson()).getBeanList("buttonInfo", String.class));
             }
@@ -1510,42 +1609,36 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         return CollectionUtil.newArrayList();
     }
 
-    @Override
-    public List<JSONObject> getPermissionList(List<String> userAndRoleIdList, String orgId) {
-        Map<String, List<SysRelation>> map = sysRelationService.list(new LambdaQueryWrapper<SysRelation>()
-                .in(SysRelation::getObjectId, userAndRoleIdList).in(SysRelation::getCategory,
-                        SysRelationCategoryEnum.SYS_USER_HAS_PERMISSION.getValue(),
-                        SysRelationCategoryEnum.SYS_ROLE_HAS_PERMISSION.getValue())).stream()
-                .collect(Collectors.groupingBy(SysRelation::getTargetId));
-        return getScopeListByMap(map, orgId);
-    }
-
     public List<JSONObject> getScopeListByMap(Map<String, List<SysRelation>> groupMap, String orgId) {
         List<JSONObject> resultList = CollectionUtil.newArrayList();
-        List<SysOrg> sysOrgList = sysOrgService.getAllOrgList();
-        List<String> scopeAllList = sysOrgList.stream().map(SysOrg::getId).toList();
-        List<String> scopeOrgList = CollectionUtil.newArrayList(orgId);
-        List<String> scopeOrgChildList = sysOrgService.getChildListById(sysOrgList, orgId, true)
-                .stream().map(SysOrg::getId).toList();
         groupMap.forEach((key, value) -> {
-            JSONObject jsonObject = JSONUtil.createObj().set("apiUrl", key);
+            // 数据范围以符号形式保存，不展开组织id，使用时再根据组织层级展开
+            boolean scopeAll = false;
+            Set<String> scopeOrgChildSet = CollectionUtil.newHashSet();
             Set<String> scopeSet = CollectionUtil.newHashSet();
-            value.forEach(sysRelation -> {
+            for (SysRelation sysRelation : value) {
                 JSONObject extJsonObject = JSONUtil.parseObj(sysRelation.getExtJson());
                 String scopeCategory = extJsonObject.getStr("scopeCategory");
-                if (!scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_SELF.getValue())) {
-                    if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ALL.getValue())) {
-                        scopeSet.addAll(scopeAllList);
-                    } else if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ORG.getValue())) {
-                        scopeSet.addAll(scopeOrgList);
-                    } else if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ORG_CHILD.getValue())) {
-                        scopeSet.addAll(scopeOrgChildList);
-                    } else {
-                        scopeSet.addAll(extJsonObject.getBeanList("scopeDefineOrgIdList", String.class));
-                    }
+                if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ALL.getValue())) {
+                    scopeAll = true;
+                } else if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ORG.getValue())) {
+                    scopeSet.add(orgId);
+                } else if (scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_ORG_CHILD.getValue())) {
+                    scopeOrgChildSet.add(orgId);
+                } else if (!scopeCategory.equals(SysRoleDataScopeCategoryEnum.SCOPE_SELF.getValue())) {
+                    scopeSet.addAll(extJsonObject.getBeanList("scopeDefineOrgIdList", String.class));
                 }
-            });
-            resultList.add(jsonObject.set("dataScope", CollectionUtil.newArrayList(scopeSet)));
+            }
+            JSONObject jsonObject = JSONUtil.createObj().set("apiUrl", key);
+            if (scopeAll) {
+                jsonObject.set("scopeAll", true).set("scopeOrgChildIdList", CollectionUtil.newArrayList())
+                        .set("dataScope", CollectionUtil.newArrayList());
+            } else {
+                scopeSet.removeAll(scopeOrgChildSet);
+                jsonObject.set("scopeAll", false).set("scopeOrgChildIdList", CollectionUtil.newArrayList(scopeOrgChildSet))
+                        .set("dataScope", CollectionUtil.newArrayList(scopeSet));
+            }
+            resultList.add(jsonObject);
         });
         return resultList;
     }
@@ -2064,8 +2157,8 @@ public class SysUserServiceImpl extends ServiceImpl<SysUserMapper, SysUser> impl
         } else {
             if (ObjectUtil.isNotEmpty(sysUserSelectorUserParam.getOrgId())) {
                 // 如果组织id不为空，则查询该组织及其子组织下的所有人
-                List<String> childOrgIdList = CollStreamUtil.toList(sysOrgService.getChildListById(sysOrgService
-                .getAllOrgList(), sysUserSelectorUserParam.getOrgId(), true), SysOrg::getId);
+                List<String> childOrgIdList = CollStreamUtil.toList(sysOrgService.getChildListById(sysUserSelectorUserParam
+                        .getOrgId(), true), SysOrg::getId);
                 if (ObjectUtil.isNotEmpty(childOrgIdList)) {
                     queryWrapper.lambda().in(SysUser::getOrgId, childOrgIdList);
                 } else {
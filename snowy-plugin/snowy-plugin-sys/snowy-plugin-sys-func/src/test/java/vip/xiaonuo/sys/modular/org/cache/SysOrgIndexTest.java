@@ -0,0 +1,128 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.cache;
+
+import org.junit.jupiter.api.Test;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 组织层级索引测试
+ *
+ * @author xuyuxiang
+ * @date 2024/8/23 14:20
+ **/
+public class SysOrgIndexTest {
+
+    /**
+     * 组织树：
+     * company(0) -> deptB(2) -> teamB1 -> groupB11
+     *            -> deptA(1) -> teamA1
+     * branch(0)
+     */
+    private static List<SysOrg> orgList() {
+        return List.of(
+                org("groupB11", "teamB1", 1),
+                org("branch", "0", 2),
+                org("deptB", "company", 2),
+                org("teamA1", "deptA", 1),
+                org("company", "0", 1),
+                org("teamB1", "deptB", 1),
+                org("deptA", "company", 1));
+    }
+
+    @Test
+    public void testSubtreeRange() {
+        SysOrgIndex sysOrgIndex = SysOrgIndex.build(orgList());
+        assertEquals(7, sysOrgIndex.size());
+        assertEquals(List.of("deptA", "teamA1", "deptB", "teamB1", "groupB11"), ids(sysOrgIndex.getDescendantList("company")));
+        assertEquals(List.of("teamB1", "groupB11"), ids(sysOrgIndex.getDescendantList("deptB")));
+        assertEquals(List.of(), ids(sysOrgIndex.getDescendantList("groupB11")));
+        // id不存在时按父id取子树，"0"即全部组织
+        assertEquals(List.of("company", "deptA", "teamA1", "deptB", "teamB1", "groupB11", "branch"),
+                ids(sysOrgIndex.getDescendantList("0")));
+        assertTrue(sysOrgIndex.isDescendant("company", "groupB11"));
+        assertTrue(sysOrgIndex.isDescendant("deptB", "teamB1"));
+        assertFalse(sysOrgIndex.isDescendant("deptA", "teamB1"));
+        assertFalse(sysOrgIndex.isDescendant("deptB", "deptB"));
+        assertFalse(sysOrgIndex.isDescendant("teamB1", "deptB"));
+        assertFalse(sysOrgIndex.isDescendant("company", "branch"));
+    }
+
+    @Test
+    public void testChildrenSortedBySortCode() {
+        SysOrgIndex sysOrgIndex = SysOrgIndex.build(orgList());
+        assertEquals(List.of("deptA", "deptB"), ids(sysOrgIndex.getChildren("company")));
+        assertEquals(List.of("company", "branch"), ids(sysOrgIndex.getChildren("0")));
+        assertEquals(List.of(), ids(sysOrgIndex.getChildren("groupB11")));
+    }
+
+    @Test
+    public void testParentChain() {
+        SysOrgIndex sysOrgIndex = SysOrgIndex.build(orgList());
+        assertEquals(List.of("teamB1", "deptB", "company"), ids(sysOrgIndex.getAncestorList("groupB11")));
+        assertEquals(List.of("company"), ids(sysOrgIndex.getAncestorList("deptA")));
+        assertEquals(List.of(), ids(sysOrgIndex.getAncestorList("company")));
+        assertEquals(List.of(), ids(sysOrgIndex.getAncestorList("notExist")));
+    }
+
+    @Test
+    public void testOrphan() {
+        // 父组织已被删除的组织作为根组织，其子树照常索引
+        SysOrgIndex sysOrgIndex = SysOrgIndex.build(List.of(
+                org("company", "0", 1),
+                org("orphan", "deleted", 2),
+                org("orphanChild", "orphan", 1)));
+        assertEquals(3, sysOrgIndex.size());
+        assertEquals(List.of(), ids(sysOrgIndex.getAncestorList("orphan")));
+        assertEquals(List.of("orphan"), ids(sysOrgIndex.getAncestorList("orphanChild")));
+        assertEquals(List.of("orphanChild"), ids(sysOrgIndex.getDescendantList("orphan")));
+        assertEquals(List.of("orphan", "orphanChild"), ids(sysOrgIndex.getDescendantList("deleted")));
+        assertFalse(sysOrgIndex.isDescendant("company", "orphan"));
+        assertEquals("orphanChild", sysOrgIndex.getById("orphanChild").getId());
+    }
+
+    @Test
+    public void testCycle() {
+        // cycleA、cycleB互为父组织的脏数据，不应死循环，且每个组织只出现一次
+        SysOrgIndex sysOrgIndex = SysOrgIndex.build(List.of(
+                org("company", "0", 1),
+                org("cycleA", "cycleB", 2),
+                org("cycleB", "cycleA", 3),
+                org("cycleChild", "cycleA", 4)));
+        assertEquals(4, sysOrgIndex.size());
+        assertEquals(List.of("cycleB", "cycleChild"), ids(sysOrgIndex.getDescendantList("cycleA")));
+        assertEquals(List.of("cycleA"), ids(sysOrgIndex.getAncestorList("cycleB")));
+        assertEquals(List.of("cycleA"), ids(sysOrgIndex.getAncestorList("cycleChild")));
+        assertEquals(List.of(), ids(sysOrgIndex.getAncestorList("cycleA")));
+        assertFalse(sysOrgIndex.isDescendant("cycleB", "cycleA"));
+        assertEquals(List.of(), ids(sysOrgIndex.getDescendantList("company")));
+    }
+
+    private static SysOrg org(String id, String parentId, Integer sortCode) {
+        SysOrg sysOrg = new SysOrg();
+        sysOrg.setId(id);
+        sysOrg.setParentId(parentId);
+        sysOrg.setName(id);
+        sysOrg.setSortCode(sortCode);
+        return sysOrg;
+    }
+
+    private static List<String> ids(List<SysOrg> sysOrgList) {
+        return sysOrgList.stream().map(SysOrg::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.sys.modular.org.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import vip.xiaonuo.sys.modular.org.cache.SysOrgIndex;
+import vip.xiaonuo.sys.modular.org.cache.SysOrgIndexCache;
+import vip.xiaonuo.sys.modular.org.entity.SysOrg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 组织Service接口实现类测试
+ *
+ * @author xuyuxiang
+ * @date 2024/8/23 14:20
+ **/
+public class SysOrgServiceImplTest {
+
+    /** 模拟数据库中的组织 */
+    private final List<SysOrg> orgList = new ArrayList<>();
+
+    /** 新建组织时的父id与名称，按创建顺序 */
+    private final List<String> createdList = new ArrayList<>();
+
+    private SysOrgServiceImpl sysOrgService;
+
+    @BeforeEach
+    public void setUp() {
+        orgList.clear();
+        createdList.clear();
+        orgList.add(org("company", "0", "总公司"));
+        orgList.add(org("rd", "company", "研发部"));
+        orgList.add(org("branch", "0", "分公司"));
+        orgList.add(org("branchRd", "branch", "研发部"));
+        SysOrgIndexCache sysOrgIndexCache = mock(SysOrgIndexCache.class);
+        // 与缓存一致：新建的组织立即出现在下一次获取的索引中
+        when(sysOrgIndexCache.getIndex()).thenAnswer(invocation -> SysOrgIndex.build(orgList));
+        sysOrgService = spy(new SysOrgServiceImpl());
+        ReflectionTestUtils.setField(sysOrgService, "sysOrgIndexCache", sysOrgIndexCache);
+        doAnswer(invocation -> {
+            String parentId = invocation.getArgument(0);
+            String orgName = invocation.getArgument(1);
+            String id = "new" + createdList.size();
+            createdList.add(parentId + ":" + orgName);
+            orgList.add(org(id, parentId, orgName));
+            return id;
+        }).when(sysOrgService).doCreateOrg(anyString(), anyString());
+    }
+
+    @Test
+    public void testExistingNestedPath() {
+        assertEquals("rd", sysOrgService.getOrgIdByOrgFullNameWithCreate("总公司-研发部"));
+        assertEquals("branchRd", sysOrgService.getOrgIdByOrgFullNameWithCreate("分公司-研发部"));
+        assertEquals("company", sysOrgService.getOrgIdByOrgFullNameWithCreate("总公司"));
+        assertEquals(List.of(), createdList);
+    }
+
+    @Test
+    public void testCreateMissingLevels() {
+        String orgId = sysOrgService.getOrgIdByOrgFullNameWithCreate("总公司-研发部-前端组-移动端小组");
+        assertEquals(List.of("rd:前端组", "new0:移动端小组"), createdList);
+        assertEquals("new1", orgId);
+        SysOrgIndex sysOrgIndex = SysOrgIndex.build(orgList);
+        assertEquals(List.of("new0", "rd", "company"),
+                sysOrgIndex.getAncestorList(orgId).stream().map(SysOrg::getId).toList());
+        // 再次导入同一路径时复用已创建的组织
+        assertEquals(orgId, sysOrgService.getOrgIdByOrgFullNameWithCreate("总公司-研发部-前端组-移动端小组"));
+        assertEquals(2, createdList.size());
+    }
+
+    @Test
+    public void testCreateMissingRoot() {
+        String orgId = sysOrgService.getOrgIdByOrgFullNameWithCreate("新公司-研发部");
+        assertEquals(List.of("0:新公司", "new0:研发部"), createdList);
+        assertEquals("new1", orgId);
+        verify(sysOrgService, times(2)).doCreateOrg(anyString(), anyString());
+    }
+
+    private static SysOrg org(String id, String parentId, String name) {
+        SysOrg sysOrg = new SysOrg();
+        sysOrg.setId(id);
+        sysOrg.setParentId(parentId);
+        sysOrg.setName(name);
+        sysOrg.setSortCode(99);
+        return sysOrg;
+    }
+}
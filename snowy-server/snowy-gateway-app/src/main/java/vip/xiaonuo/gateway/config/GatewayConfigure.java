@@ -21,7 +21,6 @@ import cn.dev33.satoken.router.SaRouter;
 import cn.dev33.satoken.stp.StpInterface;
 import cn.dev33.satoken.stp.StpLogic;
 import cn.dev33.satoken.stp.StpUtil;
-import cn.hutool.core.collection.CollectionUtil;
 import cn.hutool.core.util.CharsetUtil;
 import cn.hutool.http.ContentType;
 import cn.hutool.http.Header;
@@ -47,10 +46,14 @@ import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.stereotype.Component;
 import vip.xiaonuo.auth.core.enums.SaClientTypeEnum;
+import vip.xiaonuo.auth.core.pojo.SaBaseClientLoginUser;
+import vip.xiaonuo.auth.core.pojo.SaBaseLoginUser;
 import vip.xiaonuo.auth.core.util.StpClientLoginUserUtil;
 import vip.xiaonuo.auth.core.util.StpClientUtil;
 import vip.xiaonuo.auth.core.util.StpLoginUserUtil;
 import vip.xiaonuo.common.enums.SysBuildInEnum;
+import vip.xiaonuo.gateway.core.cache.GatewayPermissionSnapshotCache;
+import vip.xiaonuo.gateway.core.router.GatewayAuthPathRouter;
 import vip.xiaonuo.gateway.core.util.GlobalExceptionUtil;
 
 import java.util.ArrayList;
@@ -70,6 +73,9 @@ public class GatewayConfigure {
     @Resource
     private SaTokenConfig saTokenConfig;
 
+    @Resource
+    private GatewayAuthPathRouter gatewayAuthPathRouter;
+
     /**
      * 无需登录的接口地址集合
      */
@@ -129,6 +135,9 @@ public class GatewayConfigure {
             /* 文件下载 */
             "/api/webapp/dev/file/download",
 
+            /* 文件缩略图 */
+            "/api/webapp/dev/file/thumbnail",
+
             /* B端用户个人中心相关 */
             "/api/webapp/sys/userCenter/getPicCaptcha",
             "/api/webapp/sys/userCenter/findPasswordGetPhoneValidCode",
@@ -182,7 +191,7 @@ public class GatewayConfigure {
     /**
      * 仅超管使用的接口地址集合
      */
-    private static final String[] SUPER_PERMISSION_PATH_ARR = {
+    public static final String[] SUPER_PERMISSION_PATH_ARR = {
             "/api/webapp/auth/session/**",
             "/api/webapp/auth/third/page",
             "/api/webapp/client/user/**",
@@ -230,7 +239,7 @@ public class GatewayConfigure {
     /**
      * B端要排除的，相当于C端要认证的
      */
-    private static final String[] CLIENT_USER_PERMISSION_PATH_ARR = {
+    public static final String[] CLIENT_USER_PERMISSION_PATH_ARR = {
             "/auth/c/**",
             "/client/c/**"
     };
@@ -338,16 +347,15 @@ public class GatewayConfigure {
     @Component
     public static class StpInterfaceImpl implements StpInterface {
 
+        @Resource
+        private GatewayPermissionSnapshotCache gatewayPermissionSnapshotCache;
+
         /**
          * 返回一个账号所拥有的权限码集合
          */
         @Override
         public List<String> getPermissionList(Object loginId, String loginType) {
-            if (SaClientTypeEnum.B.getValue().equals(loginType)) {
-                return StpLoginUserUtil.getLoginUser().getPermissionCodeList();
-            } else {
-                return StpClientLoginUserUtil.getClientLoginUser().getPermissionCodeList();
-            }
+            return getPermissionSnapshot(loginId, loginType).getPermissionCodeList();
         }
 
         /**
@@ -355,11 +363,24 @@ public class GatewayConfigure {
          */
         @Override
         public List<String> getRoleList(Object loginId, String loginType) {
-            if (SaClientTypeEnum.B.getValue().equals(loginType)) {
-                return StpLoginUserUtil.getLoginUser().getRoleCodeList();
-            } else {
-                return StpClientLoginUserUtil.getClientLoginUser().getRoleCodeList();
-            }
+            return getPermissionSnapshot(loginId, loginType).getRoleCodeList();
+        }
+
+        /**
+         * 获取权限快照，版本未变化时不再读取并反序列化登录用户
+         */
+        private GatewayPermissionSnapshotCache.PermissionSnapshot getPermissionSnapshot(Object loginId, String loginType) {
+            return gatewayPermissionSnapshotCache.get(loginId, loginType, () -> {
+                if (SaClientTypeEnum.B.getValue().equals(loginType)) {
+                    SaBaseLoginUser saBaseLoginUser = StpLoginUserUtil.getLoginUser();
+                    return new GatewayPermissionSnapshotCache.PermissionSnapshot(saBaseLoginUser.getPermissionCodeList(),
+                            saBaseLoginUser.getRoleCodeList());
+                } else {
+                    SaBaseClientLoginUser saBaseClientLoginUser = StpClientLoginUserUtil.getClientLoginUser();
+                    return new GatewayPermissionSnapshotCache.PermissionSnapshot(saBaseClientLoginUser.getPermissionCodeList(),
+                            saBaseClientLoginUser.getRoleCodeList());
+                }
+            });
         }
     }
 
@@ -375,38 +396,27 @@ public class GatewayConfigure {
                 // 指定拦截路由
                 .addInclude("/**")
 
-                // 设置鉴权的接口
+                // 设置鉴权的接口，路径类型由编译后的路由器一次匹配得出
                 .setAuth(r -> {
-                    // B端的接口校验B端登录
-                    SaRouter.match("/**")
-                            // 排除无需登录接口
-                            .notMatch(CollectionUtil.newArrayList(NO_LOGIN_PATH_ARR))
-                            // 排除C端认证接口
-                            .notMatch(CollectionUtil.newArrayList(CLIENT_USER_PERMISSION_PATH_ARR))
-                            // 校验B端登录
-                            .check(r1 -> {
-                                StpUtil.checkLogin();
-                                // 更新过期时间
-                                StpUtil.renewTimeout(saTokenConfig.getTimeout());
-                            });
-
-                    // C端的接口校验C端登录
-                    SaRouter.match("/**")
-                            // 排除无需登录接口
-                            .notMatch(CollectionUtil.newArrayList(NO_LOGIN_PATH_ARR))
-                            // 匹配C端认证接口
-                            .match(CollectionUtil.newArrayList(CLIENT_USER_PERMISSION_PATH_ARR))
-                            // 校验C端登录
-                            .check(r1 -> StpClientUtil.checkLogin());
-
-                    // B端的超管接口校验B端超管角色
-                    SaRouter.match("/**")
-                            // 排除无需登录接口
-                            .notMatch(CollectionUtil.newArrayList(NO_LOGIN_PATH_ARR))
-                            // 匹配超管接口
-                            .match(CollectionUtil.newArrayList(SUPER_PERMISSION_PATH_ARR))
-                            // 校验B端超管角色
-                            .check(r1 -> StpUtil.checkRole(SysBuildInEnum.BUILD_IN_ROLE_CODE.getValue()));
+                    switch (gatewayAuthPathRouter.route(SaHolder.getRequest().getRequestPath())) {
+                        // C端的接口校验C端登录
+                        case CLIENT -> StpClientUtil.checkLogin();
+                        // B端的接口校验B端登录
+                        case BUSINESS -> {
+                            StpUtil.checkLogin();
+                            // 更新过期时间
+                            StpUtil.renewTimeout(saTokenConfig.getTimeout());
+                        }
+                        // B端的超管接口校验B端登录及超管角色
+                        case SUPER -> {
+                            StpUtil.checkLogin();
+                            // 更新过期时间
+                            StpUtil.renewTimeout(saTokenConfig.getTimeout());
+                            StpUtil.checkRole(SysBuildInEnum.BUILD_IN_ROLE_CODE.getValue());
+                        }
+                        // 无需登录的接口不做处理
+                        default -> {}
+                    }
                 })
 
                 // 前置函数：在每次认证函数之前执行
@@ -0,0 +1,116 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.gateway.core.cache;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.Resource;
+import lombok.Getter;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+import vip.xiaonuo.auth.core.enums.SaClientTypeEnum;
+import vip.xiaonuo.common.cache.CommonCacheOperator;
+import vip.xiaonuo.common.consts.CacheConstant;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 网关权限快照缓存
+ * <p>
+ * 按登录类型和登录id缓存权限码与角色码，并记录生成时的权限版本（用户版本+全局版本），
+ * 版本校验间隔内直接使用快照，超过间隔后仅比对Redis中的版本号，版本变化时才重新读取登录用户
+ *
+ * @author xuyuxiang
+ * @date 2024/8/20 9:30
+ **/
+@Component
+public class GatewayPermissionSnapshotCache {
+
+    /** 快照最大数量 */
+    private static final int SNAPSHOT_CAPACITY = 10000;
+
+    /** 版本校验间隔（毫秒） */
+    private static final long VERSION_CHECK_INTERVAL = 3000;
+
+    private final LRUCache<String, PermissionSnapshot> snapshotCache = CacheUtil.newLRUCache(SNAPSHOT_CAPACITY);
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * 获取权限快照，快照不存在或版本变化时通过loader重新生成
+     *
+     * @author xuyuxiang
+     * @date 2024/8/20 9:30
+     **/
+    public PermissionSnapshot get(Object loginId, String loginType, Supplier<PermissionSnapshot> loader) {
+        String snapshotKey = loginType + StrUtil.COLON + loginId;
+        PermissionSnapshot permissionSnapshot = snapshotCache.get(snapshotKey, false);
+        long now = System.currentTimeMillis();
+        if (permissionSnapshot != null && now - permissionSnapshot.checkTime < VERSION_CHECK_INTERVAL) {
+            return permissionSnapshot;
+        }
+        String version = this.getVersion(loginId, loginType);
+        if (permissionSnapshot != null && permissionSnapshot.version.equals(version)) {
+            permissionSnapshot.checkTime = now;
+            return permissionSnapshot;
+        }
+        permissionSnapshot = loader.get();
+        permissionSnapshot.version = version;
+        permissionSnapshot.checkTime = now;
+        snapshotCache.put(snapshotKey, permissionSnapshot);
+        return permissionSnapshot;
+    }
+
+    /**
+     * 一次读取用户版本与全局版本
+     */
+    private String getVersion(Object loginId, String loginType) {
+        String userVersionKey = SaClientTypeEnum.B.getValue().equals(loginType) ?
+                CacheConstant.AUTH_B_PERMISSION_VERSION_CACHE_KEY : CacheConstant.AUTH_C_PERMISSION_VERSION_CACHE_KEY;
+        List<Object> versionList = redisTemplate.opsForValue().multiGet(CollectionUtil.newArrayList(
+                CommonCacheOperator.CACHE_KEY_PREFIX + userVersionKey + loginId,
+                CommonCacheOperator.CACHE_KEY_PREFIX + CacheConstant.AUTH_PERMISSION_VERSION_CACHE_KEY));
+        return CollectionUtil.join(versionList, StrUtil.COLON);
+    }
+
+    /**
+     * 权限快照
+     *
+     * @author xuyuxiang
+     * @date 2024/8/20 9:30
+     **/
+    @Getter
+    public static class PermissionSnapshot {
+
+        /** 权限码集合 */
+        private final List<String> permissionCodeList;
+
+        /** 角色码集合 */
+        private final List<String> roleCodeList;
+
+        /** 生成快照时的权限版本 */
+        private volatile String version;
+
+        /** 最近一次校验版本的时间 */
+        private volatile long checkTime;
+
+        public PermissionSnapshot(List<String> permissionCodeList, List<String> roleCodeList) {
+            this.permissionCodeList = permissionCodeList;
+            this.roleCodeList = roleCodeList;
+        }
+    }
+}
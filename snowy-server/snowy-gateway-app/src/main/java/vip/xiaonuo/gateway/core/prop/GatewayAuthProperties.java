@@ -0,0 +1,49 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.gateway.core.prop;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 网关鉴权路径配置，在内置路径之外追加，支持通过Nacos动态刷新
+ *
+ * @author xuyuxiang
+ * @date 2024/8/20 15:10
+ **/
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "snowy.config.gateway-auth")
+public class GatewayAuthProperties {
+
+    /**
+     * 额外的无需登录的接口地址
+     */
+    private List<String> noLoginPathList = new ArrayList<>();
+
+    /**
+     * 额外的仅超管使用的接口地址
+     */
+    private List<String> superPermissionPathList = new ArrayList<>();
+
+    /**
+     * 额外的C端认证的接口地址
+     */
+    private List<String> clientUserPermissionPathList = new ArrayList<>();
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright [2022] [https://www.xiaonuo.vip]
+ *
+ * Snowy采用APACHE LICENSE 2.0开源协议，您在使用过程中，需要注意以下几点：
+ *
+ * 1.请不要删除和修改根目录下的LICENSE文件。
+ * 2.请不要删除和修改Snowy源码头部的版权声明。
+ * 3.本项目代码可免费商业使用，商业使用请保留源码和相关描述文件的项目出处，作者声明等。
+ * 4.分发源码时候，请注明软件出处 https://www.xiaonuo.vip
+ * 5.不可二次分发开源参与同类竞品，如有想法可联系团队xiaonuobase@qq.com商议合作。
+ * 6.若您的项目无法满足以上几点，需要更多功能代码，获取Snowy商业授权许可，请在官网购买授权，地址为 https://www.xiaonuo.vip
+ */
+package vip.xiaonuo.gateway.core.router;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import vip.xiaonuo.gateway.config.GatewayConfigure;
+import vip.xiaonuo.gateway.core.enums.GatewayAuthPathTypeEnum;
+import vip.xiaonuo.gateway.core.prop.GatewayAuthProperties;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网关鉴权路径路由器
+ * <p>
+ * 启动时及配置刷新后，将无需登录、C端认证、超管三组路径编译为按路径段组织的前缀树，
+ * 一次遍历即可得到请求所属的类型；前缀树只处理纯文本路径段与末尾的/**，
+ * 其余含通配符的路径退化为AntPathMatcher逐个匹配，匹配规则与Sa-Token路由一致
+ *
+ * @author xuyuxiang
+ * @date 2024/8/20 15:10
+ **/
+@Slf4j
+@Component
+public class GatewayAuthPathRouter implements InitializingBean, ApplicationListener<RefreshScopeRefreshedEvent> {
+
+    /** 无需登录 */
+    private static final int NO_LOGIN = 1;
+
+    /** C端认证 */
+    private static final int CLIENT_USER = 1 << 1;
+
+    /** 超管 */
+    private static final int SUPER_PERMISSION = 1 << 2;
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private static final String MATCH_ALL = "**";
+
+    private static final AntPathMatcher ANT_PATH_MATCHER = new AntPathMatcher();
+
+    @Resource
+    private GatewayAuthProperties gatewayAuthProperties;
+
+    private volatile CompiledPath compiledPath;
+
+    @Override
+    public void afterPropertiesSet() {
+        this.compile();
+    }
+
+    @Override
+    public void onApplicationEvent(RefreshScopeRefreshedEvent event) {
+        this.compile();
+    }
+
+    /**
+     * 获取请求路径的鉴权类型
+     *
+     * @author xuyuxiang
+     * @date 2024/8/20 15:10
+     **/
+    public GatewayAuthPathTypeEnum route(String path) {
+        int mask = this.match(compiledPath, path);
+        if ((mask & NO_LOGIN) != 0) {
+            return GatewayAuthPathTypeEnum.PUBLIC;
+        }
+        if ((mask & CLIENT_USER) != 0) {
+            return GatewayAuthPathTypeEnum.CLIENT;
+        }
+        if ((mask & SUPER_PERMISSION) != 0) {
+            return GatewayAuthPathTypeEnum.SUPER;
+        }
+        return GatewayAuthPathTypeEnum.BUSINESS;
+    }
+
+    /**
+     * 编译内置路径与配置的额外路径
+     */
+    private void compile() {
+        CompiledPath newCompiledPath = new CompiledPath();
+        this.addPattern(newCompiledPath, CollectionUtil.unionAll(CollectionUtil.newArrayList(GatewayConfigure.NO_LOGIN_PATH_ARR),
+                gatewayAuthProperties.getNoLoginPathList()), NO_LOGIN);
+        this.addPattern(newCompiledPath, CollectionUtil.unionAll(CollectionUtil.newArrayList(GatewayConfigure.CLIENT_USER_PERMISSION_PATH_ARR),
+                gatewayAuthProperties.getClientUserPermissionPathList()), CLIENT_USER);
+        this.addPattern(newCompiledPath, CollectionUtil.unionAll(CollectionUtil.newArrayList(GatewayConfigure.SUPER_PERMISSION_PATH_ARR),
+                gatewayAuthProperties.getSuperPermissionPathList()), SUPER_PERMISSION);
+        compiledPath = newCompiledPath;
+        log.info(">>> 网关鉴权路径编译完成，通配路径数：{}", newCompiledPath.fallbackPatternMap.size());
+    }
+
+    private void addPattern(CompiledPath compiledPath, List<String> patternList, int flag) {
+        for (String pattern : patternList) {
+            if (StrUtil.isBlank(pattern)) {
+                continue;
+            }
+            List<String> segmentList = StrUtil.split(pattern, PATH_SEPARATOR, true, true);
+            boolean matchAll = !segmentList.isEmpty() && MATCH_ALL.equals(segmentList.get(segmentList.size() - 1));
+            List<String> literalSegmentList = matchAll ? segmentList.subList(0, segmentList.size() - 1) : segmentList;
+            boolean literal = pattern.startsWith(PATH_SEPARATOR) && literalSegmentList.stream().noneMatch(segment ->
+                    StrUtil.containsAny(segment, '*', '?', '{'));
+            if (!literal) {
+                compiledPath.fallbackPatternMap.merge(pattern, flag, (oldFlag, newFlag) -> oldFlag | newFlag);
+                continue;
+            }
+            PathNode pathNode = compiledPath.root;
+            for (String segment : literalSegmentList) {
+                pathNode = pathNode.childMap.computeIfAbsent(segment, key -> new PathNode());
+            }
+            if (matchAll) {
+                pathNode.matchAllMask |= flag;
+            } else if (pattern.endsWith(PATH_SEPARATOR)) {
+                pathNode.slashMask |= flag;
+            } else {
+                pathNode.exactMask |= flag;
+            }
+        }
+    }
+
+    private int match(CompiledPath compiledPath, String path) {
+        int mask = 0;
+        PathNode pathNode = compiledPath.root;
+        mask |= pathNode.matchAllMask;
+        int length = path.length();
+        int start = 0;
+        while (pathNode != null && start < length) {
+            int end = path.indexOf(PATH_SEPARATOR, start);
+            if (end < 0) {
+                end = length;
+            }
+            if (end > start) {
+                pathNode = pathNode.childMap.get(path.substring(start, end));
+                if (pathNode != null) {
+                    mask |= pathNode.matchAllMask;
+                }
+            }
+            start = end + 1;
+        }
+        if (pathNode != null) {
+            // 与AntPathMatcher一致，非/**结尾的路径需要末尾斜杠一致
+            mask |= path.endsWith(PATH_SEPARATOR) ? pathNode.slashMask : pathNode.exactMask;
+        }
+        for (Map.Entry<String, Integer> entry : compiledPath.fallbackPatternMap.entrySet()) {
+            if ((mask & entry.getValue()) != entry.getValue() && ANT_PATH_MATCHER.match(entry.getKey(), path)) {
+                mask |= entry.getValue();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 编译后的路径
+     */
+    private static class CompiledPath {
+
+        private final PathNode root = new PathNode();
+
+        private final Map<String, Integer> fallbackPatternMap = new HashMap<>();
+    }
+
+    /**
+     * 前缀树节点，各掩码表示在此节点结束的路径所属的分组
+     */
+    private static class PathNode {
+
+        private final Map<String, PathNode> childMap = new HashMap<>();
+
+        private int exactMask;
+
+        private int slashMask;
+
+        private int matchAllMask;
+    }
+}